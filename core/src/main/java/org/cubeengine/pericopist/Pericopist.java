@@ -270,7 +270,7 @@ public class Pericopist
         {
             try (FileOutputStream outputStream = new FileOutputStream(tempPath.toFile()))
             {
-                wroteFile = this.catalogFormat.write(this.catalogConfiguration, outputStream, messageStore);
+                wroteFile = this.catalogFormat.write(this.catalogConfiguration, outputStream.getChannel(), messageStore);
             }
         }
         catch (IOException e)
@@ -27,6 +27,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -51,8 +52,10 @@ import org.cubeengine.pericopist.exception.PericopistException;
 import org.cubeengine.pericopist.exception.UnknownCatalogFormatException;
 import org.cubeengine.pericopist.exception.UnknownSourceLanguageException;
 import org.cubeengine.pericopist.extractor.ExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaBytecodeExtractorConfiguration;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
 import org.cubeengine.pericopist.format.CatalogConfiguration;
+import org.cubeengine.pericopist.format.gettext.BinaryGettextCatalogConfiguration;
 import org.cubeengine.pericopist.format.gettext.GettextCatalogConfiguration;
 import org.cubeengine.pericopist.util.Misc;
 import org.cubeengine.pericopist.util.Pair;
@@ -203,6 +206,7 @@ public class PericopistFactory
      * The inner source tags are related to the language name. The language name is the name
      * specified with the method {@link #addExtractorConfiguration(String, Class)}.
      * A default language name is 'java' which links to the {@link JavaExtractorConfiguration}.
+     * The language name 'java-bytecode' links to the {@link JavaBytecodeExtractorConfiguration}.
      * Have a look at this class to get a deeper knowledge about the xml file.
      * </p>
      *
@@ -210,6 +214,7 @@ public class PericopistFactory
      * the inner catalog tags are related to the format name. The format name is the name
      * specified with the method {@link #addCatalogConfiguration(String, Class)}.
      * A default format name is 'gettext' which links to the {@link GettextCatalogConfiguration}.
+     * The format name 'gettext-mo' links to the {@link BinaryGettextCatalogConfiguration}.
      * Have a look at this class to get a deeper knowledge about the xml file.
      * </p>
      *
@@ -359,7 +364,7 @@ public class PericopistFactory
             ExtractorConfiguration extractorConfiguration = null;
             if (sourceNode != null)
             {
-                extractorConfiguration = extractorConfigurationClass.cast(unmarshaller.unmarshal(sourceNode));
+                extractorConfiguration = unmarshaller.unmarshal(sourceNode, extractorConfigurationClass).getValue();
 
                 if (parent != null && parent.extractorConfiguration != null)
                 {
@@ -379,7 +384,7 @@ public class PericopistFactory
             CatalogConfiguration catalogConfiguration = null;
             if (catalogNode != null)
             {
-                catalogConfiguration = catalogConfigurationClass.cast(unmarshaller.unmarshal(catalogNode));
+                catalogConfiguration = unmarshaller.unmarshal(catalogNode, catalogConfigurationClass).getValue();
 
                 if (parent != null && parent.catalogConfiguration != null)
                 {
@@ -494,7 +499,9 @@ public class PericopistFactory
     private void loadDefaultClasses()
     {
         this.addExtractorConfiguration("java", JavaExtractorConfiguration.class);
+        this.addExtractorConfiguration("java-bytecode", JavaBytecodeExtractorConfiguration.class);
         this.addCatalogConfiguration("gettext", GettextCatalogConfiguration.class);
+        this.addCatalogConfiguration("gettext-mo", BinaryGettextCatalogConfiguration.class);
     }
 
     /**
@@ -517,6 +524,12 @@ public class PericopistFactory
         {
             for (Field field : clazz.getDeclaredFields())
             {
+                if (Modifier.isTransient(field.getModifiers()))
+                {
+                    // transient fields are caches which mustn't be taken from the parent
+                    continue;
+                }
+
                 if (!field.isAccessible())
                 {
                     field.setAccessible(true);
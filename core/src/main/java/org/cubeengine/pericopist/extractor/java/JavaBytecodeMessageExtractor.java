@@ -0,0 +1,287 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.cubeengine.pericopist.exception.MessageExtractionException;
+import org.cubeengine.pericopist.exception.SourceDirectoryNotExistingException;
+import org.cubeengine.pericopist.extractor.ExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.bytecode.BytecodeScanner;
+import org.cubeengine.pericopist.extractor.java.bytecode.BytecodeScanner.ScannedInvocation;
+import org.cubeengine.pericopist.extractor.java.bytecode.BytecodeScanner.ScannedSourceFile;
+import org.cubeengine.pericopist.extractor.java.classloader.ClasspathClassLoader;
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaBytecodeExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
+import org.cubeengine.pericopist.extractor.java.prefilter.SourcePrefilter;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.util.Misc;
+
+/**
+ * <p>
+ * This {@link org.cubeengine.pericopist.extractor.MessageExtractor} implementation extracts the messages of a java
+ * project from its compiled classes. The invocations of translatable methods and constructors are found with a
+ * {@link BytecodeScanner}, which is much faster than building the spoon model of the source files.
+ * </p>
+ *
+ * <p>
+ * A source file is parsed by spoon like within the {@link JavaMessageExtractor} if one of its messages can't be
+ * resolved from the bytecode or if it might contain a translatable annotation. It's parsed as well if the class
+ * directory doesn't contain a class file of it or if it was changed after its oldest class file was written, because
+ * the bytecode would miss or outdate its messages. The whole source directory is parsed
+ * by spoon if the class directory doesn't exist or if the configuration contains other translatable expressions.
+ * </p>
+ */
+public class JavaBytecodeMessageExtractor extends JavaMessageExtractor
+{
+    @Override
+    public MessageStore extract(ExtractorConfiguration config, MessageStore messageStore) throws MessageExtractionException
+    {
+        JavaBytecodeExtractorConfiguration extractorConfig = (JavaBytecodeExtractorConfiguration) config;
+
+        if (!extractorConfig.getDirectory().exists())
+        {
+            throw new SourceDirectoryNotExistingException();
+        }
+
+        if (!extractorConfig.getClassesDirectory().isDirectory())
+        {
+            this.getLogger().warning("The class directory '" + extractorConfig.getClassesDirectory().getPath() + "' doesn't exist. The source files will be parsed.");
+            return super.extract(config, messageStore);
+        }
+        if (!BytecodeScanner.supports(extractorConfig.getJavaExpressions()))
+        {
+            this.getLogger().warning("The configuration contains translatable expressions which can't be found in the bytecode. The source files will be parsed.");
+            return super.extract(config, messageStore);
+        }
+
+        int messageAmount = messageStore.size();
+
+        Thread thread = Thread.currentThread();
+        ClassLoader previousClassLoader = thread.getContextClassLoader();
+        String[] classpath = this.loadClasspath(extractorConfig.getClasspathEntries());
+        try (ClasspathClassLoader classLoader = this.loadClassLoader(classpath))
+        {
+            thread.setContextClassLoader(classLoader);
+            TypeHierarchy typeHierarchy = this.loadTypeHierarchy(extractorConfig, classpath);
+
+            BytecodeScanner scanner = new BytecodeScanner(extractorConfig.getJavaExpressions(), typeHierarchy);
+            List<File> classFiles = this.getFiles(extractorConfig.getClassesDirectory(), ".class");
+            for (File classFile : classFiles)
+            {
+                try (InputStream in = new FileInputStream(classFile))
+                {
+                    scanner.scan(in, classFile.lastModified());
+                }
+            }
+
+            Map<File, ScannedSourceFile> scannedFiles = new HashMap<>();
+            for (ScannedSourceFile scannedFile : scanner.getSourceFiles())
+            {
+                scannedFiles.put(new File(extractorConfig.getDirectory(), scannedFile.getPath()), scannedFile);
+            }
+
+            List<File> sourceFiles = this.getSourceFiles(extractorConfig.getDirectory());
+            Set<File> unresolvedFiles = this.getAnnotatedSourceFiles(extractorConfig, sourceFiles);
+            int resolvedFileAmount = 0;
+            for (File sourceFile : sourceFiles)
+            {
+                if (unresolvedFiles.contains(sourceFile))
+                {
+                    continue;
+                }
+
+                // a source file without class files wasn't compiled yet and a newer one was changed afterwards
+                ScannedSourceFile scannedFile = scannedFiles.get(sourceFile);
+                if (scannedFile == null || scannedFile.isUnresolved() || sourceFile.lastModified() > scannedFile.getCompilationTime())
+                {
+                    unresolvedFiles.add(sourceFile);
+                    continue;
+                }
+
+                this.addMessages(extractorConfig, sourceFile, scannedFile.getInvocations(), messageStore);
+                resolvedFileAmount++;
+            }
+
+            this.getLogger().info("The messages of " + resolvedFileAmount + " source files were extracted from " + classFiles.size() + " class files. " + unresolvedFiles.size() + " source files have to be parsed.");
+
+            if (!unresolvedFiles.isEmpty())
+            {
+                this.extract(extractorConfig, new ArrayList<>(unresolvedFiles), classpath, typeHierarchy, messageStore, null);
+            }
+        }
+        catch (Exception e)
+        {
+            throw new MessageExtractionException("An error occurred while extracting the messages", e);
+        }
+        finally
+        {
+            thread.setContextClassLoader(previousClassLoader);
+        }
+
+        this.getLogger().info("The " + this.getClass().getSimpleName() + " extracted " + (messageStore.size() - messageAmount) + " new messages from the compiled classes.");
+
+        return messageStore;
+    }
+
+    /**
+     * This method returns the source files which might contain a translatable annotation. Annotations can't be found
+     * reliably within the bytecode, because annotations with the retention policy source aren't compiled into it.
+     *
+     * @param config      the configuration of the extractor
+     * @param sourceFiles the source files of the source directory
+     *
+     * @return sorted set of source files
+     *
+     * @throws IOException if a source file couldn't be read
+     */
+    private Set<File> getAnnotatedSourceFiles(JavaExtractorConfiguration config, List<File> sourceFiles) throws IOException
+    {
+        Set<File> annotatedFiles = new TreeSet<>();
+
+        List<JavaExpression> annotations = new ArrayList<>();
+        for (JavaExpression expression : config.getJavaExpressions())
+        {
+            if (expression instanceof Annotation)
+            {
+                annotations.add(expression);
+            }
+        }
+        if (annotations.isEmpty())
+        {
+            return annotatedFiles;
+        }
+
+        JavaExtractorConfiguration annotationConfig = new JavaExtractorConfiguration();
+        annotationConfig.setCharset(config.getCharset());
+        annotationConfig.setJavaExpressions(annotations.toArray(new JavaExpression[0]));
+
+        SourcePrefilter prefilter = new SourcePrefilter(annotationConfig);
+        for (File sourceFile : sourceFiles)
+        {
+            if (prefilter.filter(sourceFile) != null)
+            {
+                annotatedFiles.add(sourceFile);
+            }
+        }
+        return annotatedFiles;
+    }
+
+    /**
+     * This method adds the messages of the invocations which were found within the class files of a source file
+     * to the message store.
+     *
+     * @param config       the configuration of the extractor
+     * @param sourceFile   the source file
+     * @param invocations  the invocations of translatable expressions
+     * @param messageStore the message store
+     *
+     * @throws IOException if the source file couldn't be read
+     */
+    private void addMessages(JavaExtractorConfiguration config, File sourceFile, List<ScannedInvocation> invocations, MessageStore messageStore) throws IOException
+    {
+        if (invocations.isEmpty())
+        {
+            return;
+        }
+
+        File file = Misc.getRelativizedFile(config.getDirectory(), sourceFile);
+        Charset charset = config.getCharset() == null ? Charset.defaultCharset() : config.getCharset();
+        List<String> lines = Files.readAllLines(sourceFile.toPath(), charset);
+
+        for (ScannedInvocation invocation : invocations)
+        {
+            SourceReference sourceReference = new SourceReference(file, invocation.getLine(), invocation.getExpression());
+            for (String extractedComment : this.extractComments(lines, invocation.getLine()))
+            {
+                sourceReference.addExtractedComment(extractedComment);
+            }
+
+            if (invocation.getSingular().isEmpty())
+            {
+                this.getLogger().info("The singular message can't be an empty string. Occurrence: " + sourceReference);
+                continue;
+            }
+
+            String context = invocation.getContext();
+            if (context == null)
+            {
+                context = invocation.getExpression().getDefaultContext();
+            }
+
+            messageStore.getOrCreateMessage(context, invocation.getSingular(), invocation.getPlural()).addSourceReference(sourceReference);
+        }
+    }
+
+    /**
+     * This method extracts the comments of the specified line, which start with '/// '. A comment can be
+     * behind the invocation or above it. The comment behind has a higher priority.
+     *
+     * @param lines the lines of the source file
+     * @param line  the line of the invocation
+     *
+     * @return extracted comments
+     */
+    private List<String> extractComments(List<String> lines, int line)
+    {
+        List<String> extractedComments = new ArrayList<>(1);
+        if (line < 1 || line > lines.size())
+        {
+            return extractedComments;
+        }
+
+        String code = lines.get(line - 1).trim();
+        int index = code.indexOf("/// ");
+        if (index > 0)
+        {
+            extractedComments.add(code.substring(index + 4));
+            return extractedComments;
+        }
+
+        for (int i = line - 2; i >= 0; i--)
+        {
+            String comment = lines.get(i).trim();
+            if (!comment.startsWith("/// "))
+            {
+                break;
+            }
+            extractedComments.add(0, comment.substring(4));
+        }
+        return extractedComments;
+    }
+}
@@ -23,36 +23,70 @@
 package org.cubeengine.pericopist.extractor.java;
 
 import java.io.File;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.cubeengine.pericopist.exception.MessageExtractionException;
 import org.cubeengine.pericopist.exception.SourceDirectoryNotExistingException;
 import org.cubeengine.pericopist.extractor.ExtractorConfiguration;
 import org.cubeengine.pericopist.extractor.MessageExtractor;
+import org.cubeengine.pericopist.extractor.java.cache.ExtractionCache;
+import org.cubeengine.pericopist.extractor.java.classloader.ClassLoaderPool;
+import org.cubeengine.pericopist.extractor.java.classloader.ClasspathClassLoader;
+import org.cubeengine.pericopist.extractor.java.configuration.ConstantEvaluation;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.converter.ConstantTable;
 import org.cubeengine.pericopist.extractor.java.converter.ConverterManager;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchyCache;
+import org.cubeengine.pericopist.extractor.java.prefilter.SourcePrefilter;
 import org.cubeengine.pericopist.extractor.java.processor.AnnotationProcessor;
 import org.cubeengine.pericopist.extractor.java.processor.CallableExpressionProcessor;
+import org.cubeengine.pericopist.message.ConcurrentMessageStore;
 import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableMessage;
 import spoon.Launcher;
 import spoon.SpoonModelBuilder;
+import spoon.compiler.SpoonFile;
+import spoon.compiler.SpoonResource;
+import spoon.compiler.SpoonResourceHelper;
+import spoon.processing.ProcessingManager;
 import spoon.processing.Processor;
+import spoon.reflect.declaration.CtCompilationUnit;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtTypeParameterReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.QueueProcessingManager;
 
 /**
  * This {@link MessageExtractor} implementation is used for extracting the programming language java.
  */
 public class JavaMessageExtractor implements MessageExtractor
 {
+    private static final ClassLoaderPool CLASS_LOADER_POOL = new ClassLoaderPool(4);
+
     private Logger logger;
     private final ConverterManager converterManager;
 
@@ -73,30 +107,31 @@ public class JavaMessageExtractor implements MessageExtractor
 
         int messageAmount = messageStore.size();
 
-        try
+        Thread thread = Thread.currentThread();
+        ClassLoader previousClassLoader = thread.getContextClassLoader();
+        String[] classpath = this.loadClasspath(extractorConfig.getClasspathEntries());
+        try (ClasspathClassLoader classLoader = this.loadClassLoader(classpath))
         {
-            Launcher launcher = new Launcher();
-            launcher.getEnvironment().setEncoding(config.getCharset());
-
-            SpoonModelBuilder compiler = launcher.createCompiler();
-            compiler.addInputSource(extractorConfig.getDirectory());
-            String[] classpath = this.loadClasspath(extractorConfig.getClasspathEntries());
-            compiler.setSourceClasspath(classpath);
-            this.loadClassLoader(classpath);
-
-            compiler.build();
+            thread.setContextClassLoader(classLoader);
+            TypeHierarchy typeHierarchy = this.loadTypeHierarchy(extractorConfig, classpath);
 
-            Collection<Processor<? extends CtElement>> processors = Arrays.<Processor<? extends CtElement>>asList(
-                new CallableExpressionProcessor((JavaExtractorConfiguration) config, messageStore, this.converterManager, this.logger),
-                new AnnotationProcessor((JavaExtractorConfiguration) config, messageStore, this.converterManager, this.logger)
-            );
-
-            compiler.process(processors);
+            if (extractorConfig.getCacheFile() == null)
+            {
+                this.extract(extractorConfig, Collections.singletonList(extractorConfig.getDirectory()), classpath, typeHierarchy, messageStore, null);
+            }
+            else
+            {
+                this.extractIncrementally(extractorConfig, classpath, typeHierarchy, messageStore);
+            }
         }
         catch (Exception e)
         {
             throw new MessageExtractionException("An error occurred while extracting the messages", e);
         }
+        finally
+        {
+            thread.setContextClassLoader(previousClassLoader);
+        }
 
         this.logger.info("The " + this.getClass().getSimpleName() + " extracted " + (messageStore.size() - messageAmount) + " new messages from the source code.");
 
@@ -109,6 +144,507 @@ public class JavaMessageExtractor implements MessageExtractor
         this.logger = logger;
     }
 
+    /**
+     * This method returns the logger of the extractor
+     *
+     * @return the logger
+     */
+    protected Logger getLogger()
+    {
+        return this.logger;
+    }
+
+    /**
+     * This method extracts the messages from the specified source files. Files which can't contain a translatable
+     * expression are skipped if the prefilter is enabled. The source files are split into shards which are processed
+     * concurrently if the configuration specifies more than one thread.
+     *
+     * @param config       the configuration of the extractor
+     * @param sources      the source files or directories which shall be parsed
+     * @param classpath     the classpath of the sources
+     * @param typeHierarchy the type hierarchy of the classpath
+     * @param messageStore  the message store to which the messages shall be added
+     * @param cache         the extraction cache which records the dependencies of the parsed files or null
+     *
+     * @return the message store
+     */
+    protected MessageStore extract(JavaExtractorConfiguration config, List<File> sources, String[] classpath, TypeHierarchy typeHierarchy, MessageStore messageStore, ExtractionCache cache) throws Exception
+    {
+        List<SpoonResource> resources = new ArrayList<>();
+        if (config.getThreads() < 2 && !config.getPrefilter())
+        {
+            for (File source : sources)
+            {
+                resources.add(SpoonResourceHelper.createResource(source));
+            }
+            return this.extractShard(config, resources, classpath, typeHierarchy, messageStore, this.converterManager, cache);
+        }
+
+        List<File> sourceFiles = new ArrayList<>();
+        for (File source : sources)
+        {
+            if (source.isDirectory())
+            {
+                sourceFiles.addAll(this.getSourceFiles(source));
+            }
+            else
+            {
+                sourceFiles.add(source);
+            }
+        }
+
+        if (config.getPrefilter())
+        {
+            SourcePrefilter prefilter = new SourcePrefilter(config);
+            for (File sourceFile : sourceFiles)
+            {
+                SpoonFile resource = prefilter.filter(sourceFile);
+                if (resource != null)
+                {
+                    resources.add(resource);
+                }
+            }
+
+            this.logger.info("The prefilter skipped " + (sourceFiles.size() - resources.size()) + " of " + sourceFiles.size() + " source files.");
+            if (resources.isEmpty())
+            {
+                return messageStore;
+            }
+        }
+        else
+        {
+            for (File sourceFile : sourceFiles)
+            {
+                resources.add(SpoonResourceHelper.createFile(sourceFile));
+            }
+        }
+
+        if (config.getThreads() < 2)
+        {
+            return this.extractShard(config, resources, classpath, typeHierarchy, messageStore, this.converterManager, cache);
+        }
+
+        List<List<SpoonResource>> shards = this.createShards(resources, config.getThreads());
+        this.logger.info("The " + resources.size() + " source files are split into " + shards.size() + " shards.");
+
+        // every shard adds its messages to the same store, which keeps them sorted independently of the shard order
+        final MessageStore sharedMessageStore = new ConcurrentMessageStore();
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        List<Callable<MessageStore>> tasks = new ArrayList<>(shards.size());
+        for (final List<SpoonResource> shard : shards)
+        {
+            tasks.add(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader previousClassLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try
+                {
+                    return this.extractShard(config, shard, classpath, typeHierarchy, sharedMessageStore, new ConverterManager(true), cache);
+                }
+                finally
+                {
+                    thread.setContextClassLoader(previousClassLoader);
+                }
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(shards.size());
+        try
+        {
+            for (Future<MessageStore> future : pool.invokeAll(tasks))
+            {
+                try
+                {
+                    future.get();
+                }
+                catch (ExecutionException e)
+                {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        this.mergeMessages(sharedMessageStore, messageStore);
+        return messageStore;
+    }
+
+    /**
+     * This method builds a spoon model of the specified source files and extracts the messages from it.
+     *
+     * @param config           the configuration of the extractor
+     * @param sources          the source files or directories which shall be parsed
+     * @param classpath        the classpath of the sources
+     * @param typeHierarchy    the type hierarchy of the classpath
+     * @param messageStore     the message store to which the messages shall be added
+     * @param converterManager the converter manager which is used by the processors
+     * @param cache            the extraction cache which records the dependencies of the parsed files or null
+     *
+     * @return the message store
+     */
+    private MessageStore extractShard(JavaExtractorConfiguration config, List<SpoonResource> sources, String[] classpath, TypeHierarchy typeHierarchy, MessageStore messageStore, ConverterManager converterManager, ExtractionCache cache) throws IOException
+    {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setEncoding(config.getCharset());
+
+        SpoonModelBuilder compiler = launcher.createCompiler();
+        Set<File> sourceFiles = new HashSet<>();
+        for (SpoonResource source : sources)
+        {
+            compiler.addInputSource(source);
+            if (source.isFile())
+            {
+                sourceFiles.add(this.getCanonicalFile(source.toFile()));
+            }
+        }
+
+        // the types of the other source files are resolved from the source directory if just some files are parsed
+        boolean partial = sourceFiles.size() == sources.size();
+        if (partial)
+        {
+            String[] sourceClasspath = new String[classpath.length + 1];
+            sourceClasspath[0] = config.getDirectory().getAbsolutePath();
+            System.arraycopy(classpath, 0, sourceClasspath, 1, classpath.length);
+            compiler.setSourceClasspath(sourceClasspath);
+        }
+        else
+        {
+            compiler.setSourceClasspath(classpath);
+        }
+
+        compiler.build();
+
+        // the constant table evaluates the initializers of the fields, so it belongs to the built model
+        ConstantEvaluation constantEvaluation = config.getConstantEvaluation();
+        if (constantEvaluation == ConstantEvaluation.REFLECTION)
+        {
+            converterManager.setConstantTable(null);
+        }
+        else
+        {
+            converterManager.setConstantTable(new ConstantTable(Thread.currentThread().getContextClassLoader(), constantEvaluation == ConstantEvaluation.MODEL_WITH_REFLECTION));
+        }
+        converterManager.setMaxAlternatives(config.getMaxAlternatives());
+
+        TypeHierarchy modelTypeHierarchy = typeHierarchy.withSourceModel(launcher.getFactory());
+        Collection<Processor<? extends CtElement>> processors = Arrays.<Processor<? extends CtElement>>asList(
+            new CallableExpressionProcessor(config, messageStore, converterManager, modelTypeHierarchy, this.logger),
+            new AnnotationProcessor(config, messageStore, converterManager, modelTypeHierarchy, this.logger)
+        );
+
+        if (partial)
+        {
+            // the model contains the resolved source files as well, but just the specified ones are processed
+            ProcessingManager processingManager = new QueueProcessingManager(launcher.getFactory());
+            for (Processor<? extends CtElement> processor : processors)
+            {
+                processingManager.addProcessor(processor);
+            }
+            List<CtCompilationUnit> compilationUnits = this.getCompilationUnits(launcher.getFactory(), sourceFiles);
+            processingManager.process(this.getProcessedElements(compilationUnits));
+
+            if (cache != null)
+            {
+                for (CtCompilationUnit compilationUnit : compilationUnits)
+                {
+                    this.setDependencies(cache, compilationUnit);
+                }
+            }
+        }
+        else
+        {
+            compiler.process(processors);
+        }
+
+        return messageStore;
+    }
+
+    /**
+     * This method returns the compilation units of the model which belong to the specified source files.
+     *
+     * @param factory     the factory of the model
+     * @param sourceFiles the canonical source files
+     *
+     * @return list of compilation units
+     */
+    private List<CtCompilationUnit> getCompilationUnits(Factory factory, Set<File> sourceFiles)
+    {
+        List<CtCompilationUnit> compilationUnits = new ArrayList<>();
+        for (CtCompilationUnit compilationUnit : factory.CompilationUnit().getMap().values())
+        {
+            File file = compilationUnit.getFile();
+            if (file != null && sourceFiles.contains(this.getCanonicalFile(file)))
+            {
+                compilationUnits.add(compilationUnit);
+            }
+        }
+        return compilationUnits;
+    }
+
+    /**
+     * This method returns the elements of the specified compilation units which are processed. These are the
+     * declared types and the package annotations of the package-info files.
+     *
+     * @param compilationUnits the compilation units
+     *
+     * @return list of elements
+     */
+    private List<CtElement> getProcessedElements(List<CtCompilationUnit> compilationUnits)
+    {
+        List<CtElement> elements = new ArrayList<>();
+        for (CtCompilationUnit compilationUnit : compilationUnits)
+        {
+            if (compilationUnit.getUnitType() == CtCompilationUnit.UNIT_TYPE.PACKAGE_DECLARATION)
+            {
+                elements.addAll(compilationUnit.getDeclaredPackage().getAnnotations());
+            }
+            elements.addAll(compilationUnit.getDeclaredTypes());
+        }
+        return elements;
+    }
+
+    /**
+     * This method records the declared top level types and the referenced types of a compilation unit
+     * within the extraction cache.
+     *
+     * @param cache           the extraction cache
+     * @param compilationUnit the compilation unit
+     *
+     * @throws IOException if a class file couldn't be read
+     */
+    private void setDependencies(ExtractionCache cache, CtCompilationUnit compilationUnit) throws IOException
+    {
+        List<CtElement> elements = new ArrayList<>(compilationUnit.getImports());
+        elements.addAll(this.getProcessedElements(Collections.singletonList(compilationUnit)));
+
+        Set<String> types = new TreeSet<>();
+        for (CtType<?> type : compilationUnit.getDeclaredTypes())
+        {
+            types.add(type.getQualifiedName());
+        }
+
+        Set<String> dependencies = new TreeSet<>();
+        for (CtElement element : elements)
+        {
+            for (CtTypeReference<?> reference : element.getElements(new TypeFilter<CtTypeReference<?>>(CtTypeReference.class)))
+            {
+                if (!reference.isPrimitive() && !(reference instanceof CtArrayTypeReference) && !(reference instanceof CtTypeParameterReference))
+                {
+                    dependencies.add(reference.getQualifiedName());
+                }
+            }
+        }
+
+        cache.setDependencies(compilationUnit.getFile(), types, dependencies);
+    }
+
+    /**
+     * This method returns the canonical file of the specified file or the absolute one if it can't be resolved.
+     *
+     * @param file the file
+     *
+     * @return the canonical file
+     */
+    private File getCanonicalFile(File file)
+    {
+        try
+        {
+            return file.getCanonicalFile();
+        }
+        catch (IOException e)
+        {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    /**
+     * This method creates the type hierarchy of the classpath. The jars of the classpath are indexed with the help
+     * of the type hierarchy cache if the configuration specifies one. Otherwise the types are read lazily from
+     * the class files of the current context class loader.
+     *
+     * @param config    the configuration of the extractor
+     * @param classpath the classpath of the sources
+     *
+     * @return the type hierarchy of the classpath
+     */
+    protected TypeHierarchy loadTypeHierarchy(JavaExtractorConfiguration config, String[] classpath)
+    {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        File cacheFile = config.getTypeHierarchyCacheFile();
+        if (cacheFile == null)
+        {
+            return new TypeHierarchy(Collections.<String, String[]>emptyMap(), classLoader);
+        }
+
+        TypeHierarchyCache cache = new TypeHierarchyCache(classpath);
+        try
+        {
+            if (!cache.load(cacheFile))
+            {
+                this.logger.info("The type hierarchy cache '" + cacheFile.getPath() + "' doesn't exist or is outdated. Every jar of the classpath will be scanned.");
+            }
+        }
+        catch (IOException e)
+        {
+            this.logger.log(Level.WARNING, "The type hierarchy cache '" + cacheFile.getPath() + "' couldn't be read. Every jar of the classpath will be scanned.", e);
+            cache = new TypeHierarchyCache(classpath);
+        }
+
+        try
+        {
+            TypeHierarchy typeHierarchy = cache.createHierarchy(classLoader);
+            cache.save(cacheFile);
+            return typeHierarchy;
+        }
+        catch (IOException e)
+        {
+            this.logger.log(Level.WARNING, "The type hierarchy of the classpath couldn't be indexed. The types will be read lazily.", e);
+            return new TypeHierarchy(Collections.<String, String[]>emptyMap(), classLoader);
+        }
+    }
+
+    /**
+     * This method splits the source files into shards of nearly the same size. The biggest files are
+     * distributed first, every file is added to the smallest shard.
+     *
+     * @param sourceFiles the source files
+     * @param shardAmount the maximum amount of shards
+     *
+     * @return list of shards
+     */
+    private List<List<SpoonResource>> createShards(List<SpoonResource> sourceFiles, int shardAmount)
+    {
+        List<SpoonResource> files = new ArrayList<>(sourceFiles);
+        files.sort(Comparator.comparingLong((SpoonResource file) -> file.toFile().length()).reversed().thenComparing(SpoonResource::getPath));
+
+        shardAmount = Math.max(1, Math.min(shardAmount, files.size()));
+        List<List<SpoonResource>> shards = new ArrayList<>(shardAmount);
+        long[] shardSizes = new long[shardAmount];
+        for (int i = 0; i < shardAmount; i++)
+        {
+            shards.add(new ArrayList<>());
+        }
+
+        for (SpoonResource file : files)
+        {
+            int smallestShard = 0;
+            for (int i = 1; i < shardAmount; i++)
+            {
+                if (shardSizes[i] < shardSizes[smallestShard])
+                {
+                    smallestShard = i;
+                }
+            }
+
+            shards.get(smallestShard).add(file);
+            shardSizes[smallestShard] += file.toFile().length();
+        }
+
+        for (List<SpoonResource> shard : shards)
+        {
+            shard.sort(Comparator.comparing(SpoonResource::getPath));
+        }
+        return shards;
+    }
+
+    /**
+     * This method extracts the messages with the help of the extraction cache. Just the source files which
+     * were changed or added since the last extraction and the ones which depend on them are parsed. The messages
+     * of the other ones are loaded from the cache.
+     *
+     * @param config       the configuration of the extractor
+     * @param classpath     the classpath of the sources
+     * @param typeHierarchy the type hierarchy of the classpath
+     * @param messageStore  the message store to which the messages shall be added
+     */
+    private void extractIncrementally(JavaExtractorConfiguration config, String[] classpath, TypeHierarchy typeHierarchy, MessageStore messageStore) throws Exception
+    {
+        File cacheFile = config.getCacheFile();
+
+        ExtractionCache cache = new ExtractionCache(config, classpath);
+        try
+        {
+            if (!cache.load(cacheFile))
+            {
+                this.logger.info("The extraction cache '" + cacheFile.getPath() + "' doesn't exist or is outdated. Every source file will be parsed.");
+            }
+        }
+        catch (IOException e)
+        {
+            this.logger.log(Level.WARNING, "The extraction cache '" + cacheFile.getPath() + "' couldn't be read. Every source file will be parsed.", e);
+            cache = new ExtractionCache(config, classpath);
+        }
+
+        List<File> changedFiles = cache.restore(this.getSourceFiles(config.getDirectory()), messageStore);
+
+        this.logger.info(changedFiles.size() + " changed source files or source files with changed dependencies have to be parsed.");
+
+        if (!changedFiles.isEmpty())
+        {
+            MessageStore extractedMessages = this.extract(config, changedFiles, classpath, typeHierarchy, new MessageStore(), cache);
+            cache.update(extractedMessages);
+            this.mergeMessages(extractedMessages, messageStore);
+        }
+
+        try
+        {
+            cache.save(cacheFile);
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            this.logger.log(Level.WARNING, "The extraction cache '" + cacheFile.getPath() + "' couldn't be saved. Every source file will be parsed next time.", e);
+        }
+    }
+
+    /**
+     * This method adds the messages and source references of the source message store to the target message store.
+     *
+     * @param source the source message store
+     * @param target the target message store
+     */
+    private void mergeMessages(MessageStore source, MessageStore target)
+    {
+        for (TranslatableMessage message : source)
+        {
+            TranslatableMessage targetMessage = target.getOrCreateMessage(message.getContext(), message.getSingular(), message.getPlural());
+            for (SourceReference reference : message.getSourceReferences())
+            {
+                targetMessage.addSourceReference(reference);
+            }
+        }
+    }
+
+    /**
+     * This method returns every java source file of the specified directory in a sorted order.
+     *
+     * @param directory the source directory
+     *
+     * @return list of source files
+     */
+    protected List<File> getSourceFiles(File directory) throws IOException
+    {
+        return this.getFiles(directory, ".java");
+    }
+
+    /**
+     * This method returns every file of the specified directory with the specified extension in a sorted order.
+     *
+     * @param directory the directory
+     * @param extension the file extension
+     *
+     * @return list of files
+     */
+    protected List<File> getFiles(File directory, String extension) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory.toPath()))
+        {
+            return paths.filter(path -> path.toString().endsWith(extension) && Files.isRegularFile(path)).sorted().map(Path::toFile).collect(Collectors.toList());
+        }
+    }
+
     /**
      * This method creates a classpath from the specified classpath entries. It also removes non existing entries
      * and directories which contains java files.
@@ -117,7 +653,7 @@ public class JavaMessageExtractor implements MessageExtractor
      *
      * @return the classpath
      */
-    private String[] loadClasspath(String[] classpathEntries)
+    protected String[] loadClasspath(String[] classpathEntries)
     {
         List<String> classpath = new ArrayList<>(classpathEntries.length);
         for (String entry : classpathEntries)
@@ -142,32 +678,16 @@ public class JavaMessageExtractor implements MessageExtractor
     }
 
     /**
-     * This method creates a new ClassLoader instance which
-     * contains the specified classpath and the current one.
+     * This method returns a class loader which contains the specified classpath and the current context
+     * class loader. It's taken from a pool which is shared by every extraction, so it has to be closed
+     * after the extraction. The classpath is just opened if a class or resource of it is requested.
      *
      * @param classpath the new classpath entries
+     *
+     * @return the class loader of the classpath
      */
-    private void loadClassLoader(String[] classpath) throws MalformedURLException
+    protected ClasspathClassLoader loadClassLoader(String[] classpath)
     {
-        if (classpath == null)
-        {
-            return;
-        }
-
-        Set<URI> uris = new HashSet<>();
-        for (String element : classpath)
-        {
-            uris.add(new File(element).toURI());
-        }
-
-        URL[] urls = new URL[uris.size()];
-        int i = 0;
-        for (URI uri : uris)
-        {
-            urls[i++] = uri.toURL();
-        }
-
-        ClassLoader contextClassLoader = URLClassLoader.newInstance(urls, Thread.currentThread().getContextClassLoader());
-        Thread.currentThread().setContextClassLoader(contextClassLoader);
+        return CLASS_LOADER_POOL.open(classpath, Thread.currentThread().getContextClassLoader());
     }
 }
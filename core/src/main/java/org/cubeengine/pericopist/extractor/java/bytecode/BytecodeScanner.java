@@ -0,0 +1,904 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.Constructor;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * <p>
+ * The bytecode scanner reads class files and collects the invocations of the translatable methods and constructors.
+ * The operand stack of every method is tracked to recover the string constants which are passed to an invocation.
+ * The compiler already folded constant expressions and static final fields into these constants. The lines of the
+ * invocations are taken from the line number tables.
+ * </p>
+ *
+ * <p>
+ * The invocations are grouped by the source file which was compiled to the class file. A source file is marked as
+ * unresolved if one of its invocations can't be resolved from the bytecode, for example because a message isn't a
+ * constant. Such files have to be parsed by spoon.
+ * </p>
+ */
+public class BytecodeScanner
+{
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final Object UNKNOWN_VALUE = new Object();
+
+    private final Map<String, List<CallableExpression>> expressions;
+    private final TypeHierarchy typeHierarchy;
+    private final Map<String, ScannedSourceFile> sourceFiles;
+
+    /**
+     * The constructor creates a new bytecode scanner
+     *
+     * @param javaExpressions the translatable expressions of the configuration
+     * @param typeHierarchy   the type hierarchy which is used to match the declaring types of methods
+     */
+    public BytecodeScanner(JavaExpression[] javaExpressions, TypeHierarchy typeHierarchy)
+    {
+        this.expressions = new HashMap<>();
+        this.typeHierarchy = typeHierarchy;
+        this.sourceFiles = new TreeMap<>();
+
+        for (JavaExpression expression : javaExpressions)
+        {
+            if (expression instanceof Method)
+            {
+                this.expressions.computeIfAbsent(((Method) expression).getMethodName(), k -> new ArrayList<>()).add((CallableExpression) expression);
+            }
+            else if (expression instanceof Constructor)
+            {
+                this.expressions.computeIfAbsent(CONSTRUCTOR_NAME, k -> new ArrayList<>()).add((CallableExpression) expression);
+            }
+        }
+    }
+
+    /**
+     * This method checks whether the scanner supports every translatable expression. Just methods and constructors
+     * can be found within the bytecode. Annotations have to be found in the source files.
+     *
+     * @param javaExpressions the translatable expressions
+     *
+     * @return whether every expression is a method, a constructor or an annotation
+     */
+    public static boolean supports(JavaExpression[] javaExpressions)
+    {
+        for (JavaExpression expression : javaExpressions)
+        {
+            Class<?> expressionClass = expression.getClass();
+            if (expressionClass != Method.class && expressionClass != Constructor.class && expressionClass != Annotation.class)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method scans the specified class file.
+     *
+     * @param in           the input stream of the class file
+     * @param lastModified the modification time of the class file
+     *
+     * @throws IOException if the class file couldn't be read
+     */
+    public void scan(InputStream in, long lastModified) throws IOException
+    {
+        ClassReader reader;
+        try
+        {
+            reader = new ClassReader(in);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException("The class file is invalid or has an unsupported version.", e);
+        }
+        reader.accept(new ScanningClassVisitor(lastModified), ClassReader.EXPAND_FRAMES);
+    }
+
+    /**
+     * This method returns the scanned source files sorted by their path.
+     *
+     * @return scanned source files
+     */
+    public Collection<ScannedSourceFile> getSourceFiles()
+    {
+        return Collections.unmodifiableCollection(this.sourceFiles.values());
+    }
+
+    /**
+     * This method checks whether the callable expression describes the specified invocation.
+     *
+     * @param expression the callable expression
+     * @param opcode     opcode of the invocation
+     * @param owner      qualified name of the owner of the invoked method
+     * @param name       name of the invoked method
+     * @param arguments  argument types of the invoked method
+     *
+     * @return true or false if it's known; null if the type hierarchy of the owner is unknown
+     */
+    private Boolean matches(CallableExpression expression, int opcode, String owner, String name, Type[] arguments)
+    {
+        if (!matchesSignature(expression.getSignature(), arguments))
+        {
+            return false;
+        }
+
+        if (expression instanceof Constructor)
+        {
+            return CONSTRUCTOR_NAME.equals(name) && expression.getName().equals(owner);
+        }
+
+        Method method = (Method) expression;
+        if (method.isStatic() != (opcode == Opcodes.INVOKESTATIC))
+        {
+            return false;
+        }
+        return this.typeHierarchy.isSubtype(owner, method.getClassName());
+    }
+
+    /**
+     * This method checks whether the argument types match the signature. Type arguments are erased within
+     * the bytecode, so just the erased names of the types are compared.
+     *
+     * @param signature the signature of the callable expression
+     * @param arguments the argument types
+     *
+     * @return whether the types match the signature
+     */
+    private static boolean matchesSignature(CallableSignatureType[] signature, Type[] arguments)
+    {
+        if (signature.length != arguments.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < arguments.length; i++)
+        {
+            String type = signature[i].getType();
+            String argument = arguments[i].getClassName();
+            if (!type.equals(argument) && !type.equals(argument.replace('$', '.')))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This class visitor scans the methods of a class file.
+     */
+    private class ScanningClassVisitor extends ClassVisitor
+    {
+        private final long lastModified;
+        private String className;
+        private boolean framesAvailable;
+        private ScannedSourceFile sourceFile;
+
+        private ScanningClassVisitor(long lastModified)
+        {
+            super(Opcodes.ASM9);
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
+        {
+            this.className = name;
+            // every jump target has a stack map frame since java 7
+            this.framesAvailable = (version & 0xFFFF) >= Opcodes.V1_7;
+        }
+
+        @Override
+        public void visitSource(String source, String debug)
+        {
+            this.sourceFile = this.getSourceFile(source);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions)
+        {
+            if (this.sourceFile == null)
+            {
+                this.sourceFile = this.getSourceFile(null);
+            }
+            if (!this.framesAvailable)
+            {
+                this.sourceFile.unresolved = true;
+                return null;
+            }
+            return new ScanningMethodVisitor(this.sourceFile);
+        }
+
+        @Override
+        public void visitEnd()
+        {
+            if (this.sourceFile == null)
+            {
+                // the class file neither contains the source file nor a method
+                this.sourceFile = this.getSourceFile(null);
+            }
+        }
+
+        /**
+         * This method returns the scanned source file which contains the class.
+         *
+         * @param source the name of the source file or null if the class file doesn't contain it
+         *
+         * @return the source file
+         */
+        private ScannedSourceFile getSourceFile(String source)
+        {
+            int packageEnd = this.className.lastIndexOf('/') + 1;
+            if (source == null)
+            {
+                // the source file is named like the top level class by default
+                String simpleName = this.className.substring(packageEnd);
+                int nestedIndex = simpleName.indexOf('$');
+                source = (nestedIndex > 0 ? simpleName.substring(0, nestedIndex) : simpleName) + ".java";
+            }
+
+            String path = this.className.substring(0, packageEnd) + source;
+            ScannedSourceFile sourceFile = BytecodeScanner.this.sourceFiles.computeIfAbsent(path, ScannedSourceFile::new);
+            sourceFile.compilationTime = Math.min(sourceFile.compilationTime, this.lastModified);
+            return sourceFile;
+        }
+    }
+
+    /**
+     * This method visitor tracks the constants of the operand stack and collects the invocations of translatable
+     * methods and constructors. A long or a double occupies two slots of the tracked stack. The stack is reset
+     * to unknown values at every stack map frame because the values of different paths could be merged there.
+     */
+    private class ScanningMethodVisitor extends MethodVisitor
+    {
+        private final ScannedSourceFile sourceFile;
+        private List<Object> stack;
+        private int line;
+
+        private ScanningMethodVisitor(ScannedSourceFile sourceFile)
+        {
+            super(Opcodes.ASM9);
+            this.sourceFile = sourceFile;
+            this.stack = new ArrayList<>();
+            this.line = -1;
+        }
+
+        @Override
+        public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack)
+        {
+            this.stack = new ArrayList<>();
+            for (int i = 0; i < numStack; i++)
+            {
+                this.push(stack[i] == Opcodes.LONG || stack[i] == Opcodes.DOUBLE ? 2 : 1);
+            }
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start)
+        {
+            this.line = line;
+        }
+
+        @Override
+        public void visitInsn(int opcode)
+        {
+            switch (opcode)
+            {
+                case Opcodes.NOP:
+                    break;
+                case Opcodes.ICONST_M1:
+                case Opcodes.ICONST_0:
+                case Opcodes.ICONST_1:
+                case Opcodes.ICONST_2:
+                case Opcodes.ICONST_3:
+                case Opcodes.ICONST_4:
+                case Opcodes.ICONST_5:
+                    this.pushValue(opcode - Opcodes.ICONST_0);
+                    break;
+                case Opcodes.ACONST_NULL:
+                case Opcodes.FCONST_0:
+                case Opcodes.FCONST_1:
+                case Opcodes.FCONST_2:
+                    this.push(1);
+                    break;
+                case Opcodes.LCONST_0:
+                case Opcodes.LCONST_1:
+                case Opcodes.DCONST_0:
+                case Opcodes.DCONST_1:
+                    this.push(2);
+                    break;
+                case Opcodes.IALOAD:
+                case Opcodes.FALOAD:
+                case Opcodes.AALOAD:
+                case Opcodes.BALOAD:
+                case Opcodes.CALOAD:
+                case Opcodes.SALOAD:
+                case Opcodes.IADD:
+                case Opcodes.ISUB:
+                case Opcodes.IMUL:
+                case Opcodes.IDIV:
+                case Opcodes.IREM:
+                case Opcodes.ISHL:
+                case Opcodes.ISHR:
+                case Opcodes.IUSHR:
+                case Opcodes.IAND:
+                case Opcodes.IOR:
+                case Opcodes.IXOR:
+                case Opcodes.FADD:
+                case Opcodes.FSUB:
+                case Opcodes.FMUL:
+                case Opcodes.FDIV:
+                case Opcodes.FREM:
+                case Opcodes.FCMPL:
+                case Opcodes.FCMPG:
+                    this.pop(2);
+                    this.push(1);
+                    break;
+                case Opcodes.LALOAD:
+                case Opcodes.DALOAD:
+                    this.pop(2);
+                    this.push(2);
+                    break;
+                case Opcodes.IASTORE:
+                case Opcodes.FASTORE:
+                case Opcodes.AASTORE:
+                case Opcodes.BASTORE:
+                case Opcodes.CASTORE:
+                case Opcodes.SASTORE:
+                    this.pop(3);
+                    break;
+                case Opcodes.LASTORE:
+                case Opcodes.DASTORE:
+                    this.pop(4);
+                    break;
+                case Opcodes.POP:
+                case Opcodes.MONITORENTER:
+                case Opcodes.MONITOREXIT:
+                    this.pop(1);
+                    break;
+                case Opcodes.POP2:
+                    this.pop(2);
+                    break;
+                case Opcodes.DUP:
+                    this.dup(1, 0);
+                    break;
+                case Opcodes.DUP_X1:
+                    this.dup(1, 1);
+                    break;
+                case Opcodes.DUP_X2:
+                    this.dup(1, 2);
+                    break;
+                case Opcodes.DUP2:
+                    this.dup(2, 0);
+                    break;
+                case Opcodes.DUP2_X1:
+                    this.dup(2, 1);
+                    break;
+                case Opcodes.DUP2_X2:
+                    this.dup(2, 2);
+                    break;
+                case Opcodes.SWAP:
+                    this.dup(1, 1);
+                    this.pop(1);
+                    break;
+                case Opcodes.LADD:
+                case Opcodes.LSUB:
+                case Opcodes.LMUL:
+                case Opcodes.LDIV:
+                case Opcodes.LREM:
+                case Opcodes.LAND:
+                case Opcodes.LOR:
+                case Opcodes.LXOR:
+                case Opcodes.DADD:
+                case Opcodes.DSUB:
+                case Opcodes.DMUL:
+                case Opcodes.DDIV:
+                case Opcodes.DREM:
+                    this.pop(4);
+                    this.push(2);
+                    break;
+                case Opcodes.LSHL:
+                case Opcodes.LSHR:
+                case Opcodes.LUSHR:
+                    this.pop(3);
+                    this.push(2);
+                    break;
+                case Opcodes.INEG:
+                case Opcodes.FNEG:
+                case Opcodes.I2F:
+                case Opcodes.F2I:
+                case Opcodes.I2B:
+                case Opcodes.I2C:
+                case Opcodes.I2S:
+                case Opcodes.ARRAYLENGTH:
+                    this.pop(1);
+                    this.push(1);
+                    break;
+                case Opcodes.LNEG:
+                case Opcodes.DNEG:
+                case Opcodes.L2D:
+                case Opcodes.D2L:
+                    this.pop(2);
+                    this.push(2);
+                    break;
+                case Opcodes.I2L:
+                case Opcodes.I2D:
+                case Opcodes.F2L:
+                case Opcodes.F2D:
+                    this.pop(1);
+                    this.push(2);
+                    break;
+                case Opcodes.L2I:
+                case Opcodes.L2F:
+                case Opcodes.D2I:
+                case Opcodes.D2F:
+                    this.pop(2);
+                    this.push(1);
+                    break;
+                case Opcodes.LCMP:
+                case Opcodes.DCMPL:
+                case Opcodes.DCMPG:
+                    this.pop(4);
+                    this.push(1);
+                    break;
+                default:
+                    // returns and athrow end the current path
+                    this.stack = null;
+                    break;
+            }
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand)
+        {
+            if (opcode == Opcodes.NEWARRAY)
+            {
+                this.pop(1);
+                this.push(1);
+                return;
+            }
+            this.pushValue(operand);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var)
+        {
+            switch (opcode)
+            {
+                case Opcodes.ILOAD:
+                case Opcodes.FLOAD:
+                case Opcodes.ALOAD:
+                    this.push(1);
+                    break;
+                case Opcodes.LLOAD:
+                case Opcodes.DLOAD:
+                    this.push(2);
+                    break;
+                case Opcodes.ISTORE:
+                case Opcodes.FSTORE:
+                case Opcodes.ASTORE:
+                    this.pop(1);
+                    break;
+                case Opcodes.LSTORE:
+                case Opcodes.DSTORE:
+                    this.pop(2);
+                    break;
+                default:
+                    this.stack = null;
+                    break;
+            }
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type)
+        {
+            switch (opcode)
+            {
+                case Opcodes.NEW:
+                    this.push(1);
+                    break;
+                case Opcodes.CHECKCAST:
+                    // the value stays the same
+                    break;
+                default:
+                    // anewarray and instanceof
+                    this.pop(1);
+                    this.push(1);
+                    break;
+            }
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor)
+        {
+            int size = Type.getType(descriptor).getSize();
+            switch (opcode)
+            {
+                case Opcodes.GETSTATIC:
+                    this.push(size);
+                    break;
+                case Opcodes.PUTSTATIC:
+                    this.pop(size);
+                    break;
+                case Opcodes.GETFIELD:
+                    this.pop(1);
+                    this.push(size);
+                    break;
+                default:
+                    this.pop(size + 1);
+                    break;
+            }
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface)
+        {
+            Type[] arguments = Type.getArgumentTypes(descriptor);
+            List<CallableExpression> candidates = BytecodeScanner.this.expressions.get(name);
+            if (candidates != null && owner.charAt(0) != '[')
+            {
+                String ownerName = owner.replace('/', '.');
+                for (CallableExpression candidate : candidates)
+                {
+                    Boolean matches = BytecodeScanner.this.matches(candidate, opcode, ownerName, name, arguments);
+                    if (matches == null)
+                    {
+                        // the hierarchy of the owner is unknown
+                        this.sourceFile.unresolved = true;
+                    }
+                    else if (matches)
+                    {
+                        this.addInvocation(candidate, arguments);
+                        break;
+                    }
+                }
+            }
+
+            this.pop((Type.getArgumentsAndReturnSizes(descriptor) >> 2) - (opcode == Opcodes.INVOKESTATIC ? 1 : 0));
+            this.push(Type.getReturnType(descriptor).getSize());
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments)
+        {
+            this.pop((Type.getArgumentsAndReturnSizes(descriptor) >> 2) - 1);
+            this.push(Type.getReturnType(descriptor).getSize());
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label)
+        {
+            switch (opcode)
+            {
+                case Opcodes.GOTO:
+                case Opcodes.JSR:
+                    this.stack = null;
+                    break;
+                case Opcodes.IF_ICMPEQ:
+                case Opcodes.IF_ICMPNE:
+                case Opcodes.IF_ICMPLT:
+                case Opcodes.IF_ICMPGE:
+                case Opcodes.IF_ICMPGT:
+                case Opcodes.IF_ICMPLE:
+                case Opcodes.IF_ACMPEQ:
+                case Opcodes.IF_ACMPNE:
+                    this.pop(2);
+                    break;
+                default:
+                    this.pop(1);
+                    break;
+            }
+        }
+
+        @Override
+        public void visitLdcInsn(Object value)
+        {
+            if (value instanceof String || value instanceof Integer)
+            {
+                this.pushValue(value);
+            }
+            else if (value instanceof ConstantDynamic)
+            {
+                this.push(((ConstantDynamic) value).getSize());
+            }
+            else
+            {
+                this.push(value instanceof Long || value instanceof Double ? 2 : 1);
+            }
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels)
+        {
+            this.stack = null;
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels)
+        {
+            this.stack = null;
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions)
+        {
+            this.pop(numDimensions);
+            this.push(1);
+        }
+
+        /**
+         * This method adds an invocation of the callable expression to the source file. The source file is marked
+         * as unresolved if a message of the invocation isn't a known string constant.
+         *
+         * @param expression the callable expression
+         * @param arguments  the argument types of the invocation
+         */
+        private void addInvocation(CallableExpression expression, Type[] arguments)
+        {
+            String context = null;
+            String plural = null;
+
+            String singular = this.getArgument(arguments, expression.getSingularIndex());
+            if (expression.hasContext())
+            {
+                context = this.getArgument(arguments, expression.getContextIndex());
+            }
+            if (expression.hasPlural())
+            {
+                plural = this.getArgument(arguments, expression.getPluralIndex());
+            }
+
+            if (this.line < 0 || singular == null || expression.hasContext() && context == null || expression.hasPlural() && plural == null)
+            {
+                this.sourceFile.unresolved = true;
+                return;
+            }
+
+            this.sourceFile.invocations.add(new ScannedInvocation(expression, this.line, context, singular, plural));
+        }
+
+        /**
+         * This method returns the string constant which is passed as the specified argument.
+         *
+         * @param arguments the argument types of the invocation
+         * @param index     index of the argument
+         *
+         * @return the string constant or null if the argument isn't a known string constant
+         */
+        private String getArgument(Type[] arguments, int index)
+        {
+            if (this.stack == null || index < 0 || index >= arguments.length)
+            {
+                return null;
+            }
+
+            int argumentsSize = 0;
+            int offset = 0;
+            for (int i = 0; i < arguments.length; i++)
+            {
+                if (i == index)
+                {
+                    offset = argumentsSize;
+                }
+                argumentsSize += arguments[i].getSize();
+            }
+
+            int position = this.stack.size() - argumentsSize + offset;
+            if (position < 0)
+            {
+                return null;
+            }
+
+            Object value = this.stack.get(position);
+            return value instanceof String ? (String) value : null;
+        }
+
+        private void push(int size)
+        {
+            if (this.stack != null)
+            {
+                for (int i = 0; i < size; i++)
+                {
+                    this.stack.add(UNKNOWN_VALUE);
+                }
+            }
+        }
+
+        private void pushValue(Object value)
+        {
+            if (this.stack != null)
+            {
+                this.stack.add(value);
+            }
+        }
+
+        private void pop(int size)
+        {
+            if (this.stack == null)
+            {
+                return;
+            }
+            if (this.stack.size() < size)
+            {
+                this.stack = null;
+                return;
+            }
+            for (int i = 0; i < size; i++)
+            {
+                this.stack.remove(this.stack.size() - 1);
+            }
+        }
+
+        /**
+         * This method duplicates the top slots of the stack and inserts them below the following slots.
+         *
+         * @param count amount of duplicated slots
+         * @param depth amount of slots which are skipped before the copies are inserted
+         */
+        private void dup(int count, int depth)
+        {
+            if (this.stack == null)
+            {
+                return;
+            }
+            int size = this.stack.size();
+            if (size < count + depth)
+            {
+                this.stack = null;
+                return;
+            }
+            List<Object> copies = new ArrayList<>(this.stack.subList(size - count, size));
+            this.stack.addAll(size - count - depth, copies);
+        }
+    }
+
+    /**
+     * This class describes a source file whose class files were scanned.
+     */
+    public static class ScannedSourceFile
+    {
+        private final String path;
+        private final List<ScannedInvocation> invocations;
+        private boolean unresolved;
+        private long compilationTime = Long.MAX_VALUE;
+
+        private ScannedSourceFile(String path)
+        {
+            this.path = path;
+            this.invocations = new ArrayList<>();
+        }
+
+        /**
+         * This method returns the path of the source file relative to the source directory.
+         * The names are separated by slashes.
+         *
+         * @return relative path of the source file
+         */
+        public String getPath()
+        {
+            return this.path;
+        }
+
+        /**
+         * This method returns the invocations of translatable expressions which were found in the class files
+         *
+         * @return invocations of translatable expressions
+         */
+        public List<ScannedInvocation> getInvocations()
+        {
+            return this.invocations;
+        }
+
+        /**
+         * This method returns whether an invocation of the source file couldn't be resolved from the bytecode.
+         * The source file has to be parsed by spoon in this case.
+         *
+         * @return whether the source file is unresolved
+         */
+        public boolean isUnresolved()
+        {
+            return this.unresolved;
+        }
+
+        /**
+         * This method returns the modification time of the oldest class file of the source file. The source file
+         * was changed after it was compiled if it's newer.
+         *
+         * @return modification time of the oldest class file
+         */
+        public long getCompilationTime()
+        {
+            return this.compilationTime;
+        }
+    }
+
+    /**
+     * This class describes an invocation of a translatable expression which was found in a class file.
+     */
+    public static class ScannedInvocation
+    {
+        private final CallableExpression expression;
+        private final int line;
+        private final String context;
+        private final String singular;
+        private final String plural;
+
+        private ScannedInvocation(CallableExpression expression, int line, String context, String singular, String plural)
+        {
+            this.expression = expression;
+            this.line = line;
+            this.context = context;
+            this.singular = singular;
+            this.plural = plural;
+        }
+
+        public CallableExpression getExpression()
+        {
+            return this.expression;
+        }
+
+        public int getLine()
+        {
+            return this.line;
+        }
+
+        public String getContext()
+        {
+            return this.context;
+        }
+
+        public String getSingular()
+        {
+            return this.singular;
+        }
+
+        public String getPlural()
+        {
+            return this.plural;
+        }
+    }
+}
@@ -0,0 +1,782 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.cache;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableExpression;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.cubeengine.pericopist.util.CacheFiles;
+import org.cubeengine.pericopist.util.Misc;
+import spoon.reflect.declaration.CtAnnotatedElementType;
+
+/**
+ * <p>
+ * The extraction cache stores the messages which were extracted from every single source file. An entry is
+ * identified by the relative path of the source file and the hash of its content.
+ * </p>
+ *
+ * <p>
+ * Every entry records the top level types which are declared by its source file and the types which are referenced
+ * by it. An entry is outdated as soon as a referenced type is declared by a changed, added or removed source file or
+ * if the class file of a referenced type within a directory of the classpath changed. Outdated entries make the
+ * entries which reference their types outdated too.
+ * </p>
+ *
+ * <p>
+ * The whole cache is bound to a hash of the translatable configuration and a hash of the classpath. It'll be dropped
+ * if one of them differs from the hashes of the current extraction process.
+ * </p>
+ *
+ * <p>
+ * A cache can be written by the compiler too. Its types were resolved with the classpath of the compilation,
+ * so it's used independently of the classpath of the extraction process.
+ * </p>
+ */
+public class ExtractionCache
+{
+    private static final int MAGIC_NUMBER = 0x50455843;
+    private static final int VERSION = 2;
+    private static final String COMPILER_CLASSPATH_HASH = "compiler";
+
+    private final File directory;
+    private final JavaExpression[] expressions;
+    private final String configurationHash;
+    private final String classpathHash;
+    private final List<File> classDirectories;
+
+    private final Map<String, CachedSourceFile> previousFiles;
+    private final Map<String, CachedSourceFile> currentFiles;
+    private final Set<String> sourceTypes;
+    private final Map<String, String> classFileHashes;
+
+    /**
+     * The constructor creates a new and empty extraction cache
+     *
+     * @param configuration the configuration of the extraction process
+     * @param classpath     the classpath of the extraction process
+     */
+    public ExtractionCache(JavaExtractorConfiguration configuration, String[] classpath)
+    {
+        this.directory = configuration.getDirectory();
+        this.expressions = configuration.getJavaExpressions();
+        this.configurationHash = createConfigurationHash(configuration);
+        this.classpathHash = createClasspathHash(classpath);
+        this.classDirectories = new ArrayList<>();
+        for (String entry : classpath)
+        {
+            File file = new File(entry);
+            if (file.isDirectory())
+            {
+                this.classDirectories.add(file);
+            }
+        }
+
+        this.previousFiles = new HashMap<>();
+        this.currentFiles = new TreeMap<>();
+        this.sourceTypes = new HashSet<>();
+        this.classFileHashes = new HashMap<>();
+    }
+
+    /**
+     * The constructor creates a new and empty extraction cache which is written by the compiler. The compiler
+     * doesn't record the class files of the referenced types, so the extractor checks them with its own classpath.
+     *
+     * @param configuration the configuration of the extraction process
+     */
+    public ExtractionCache(JavaExtractorConfiguration configuration)
+    {
+        this.directory = configuration.getDirectory();
+        this.expressions = configuration.getJavaExpressions();
+        this.configurationHash = createConfigurationHash(configuration);
+        this.classpathHash = COMPILER_CLASSPATH_HASH;
+        this.classDirectories = Collections.emptyList();
+
+        this.previousFiles = new HashMap<>();
+        this.currentFiles = new TreeMap<>();
+        this.sourceTypes = new HashSet<>();
+        this.classFileHashes = new HashMap<>();
+    }
+
+    /**
+     * This method loads the cache entries from the specified file. Entries which were created with another
+     * configuration or classpath won't be loaded.
+     *
+     * @param file the cache file
+     *
+     * @return whether the entries of the file were loaded
+     *
+     * @throws IOException if the file couldn't be read
+     */
+    public boolean load(File file) throws IOException
+    {
+        if (!file.exists())
+        {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != VERSION)
+            {
+                return false;
+            }
+            if (!this.configurationHash.equals(readString(in)) || !this.matchesClasspathHash(readString(in)))
+            {
+                return false;
+            }
+
+            int fileAmount = in.readInt();
+            for (int i = 0; i < fileAmount; i++)
+            {
+                String path = readString(in);
+                CachedSourceFile sourceFile = new CachedSourceFile(readString(in));
+
+                int typeAmount = in.readInt();
+                for (int j = 0; j < typeAmount; j++)
+                {
+                    sourceFile.types.add(readString(in));
+                }
+
+                int dependencyAmount = in.readInt();
+                for (int j = 0; j < dependencyAmount; j++)
+                {
+                    sourceFile.dependencies.put(readString(in), readString(in));
+                }
+
+                int entryAmount = in.readInt();
+                for (int j = 0; j < entryAmount; j++)
+                {
+                    sourceFile.entries.add(CachedEntry.read(in));
+                }
+
+                this.previousFiles.put(path, sourceFile);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method saves the cache entries of the current extraction process to the specified file.
+     * Source files which weren't part of the process are dropped.
+     *
+     * @param file the cache file
+     *
+     * @throws IOException if the file couldn't be written
+     */
+    public void save(File file) throws IOException
+    {
+        CacheFiles.write(file, out -> {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(VERSION);
+            writeString(out, this.configurationHash);
+            writeString(out, this.classpathHash);
+
+            out.writeInt(this.currentFiles.size());
+            for (Map.Entry<String, CachedSourceFile> entry : this.currentFiles.entrySet())
+            {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue().hash);
+
+                out.writeInt(entry.getValue().types.size());
+                for (String type : entry.getValue().types)
+                {
+                    writeString(out, type);
+                }
+
+                out.writeInt(entry.getValue().dependencies.size());
+                for (Map.Entry<String, String> dependency : entry.getValue().dependencies.entrySet())
+                {
+                    writeString(out, dependency.getKey());
+                    writeString(out, dependency.getValue());
+                }
+
+                out.writeInt(entry.getValue().entries.size());
+                for (CachedEntry cachedEntry : entry.getValue().entries)
+                {
+                    cachedEntry.write(out);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method adds the cached messages of the specified source files to the message store if their cache
+     * entries are up to date. The other source files have to be parsed again. Their extracted messages and
+     * dependencies have to be passed to {@link #update(MessageStore)} and
+     * {@link #setDependencies(File, Collection, Collection)}.
+     *
+     * @param sourceFiles  every source file of the source directory
+     * @param messageStore the message store
+     *
+     * @return the source files which have to be parsed
+     *
+     * @throws IOException if a file couldn't be read
+     */
+    public List<File> restore(List<File> sourceFiles, MessageStore messageStore) throws IOException
+    {
+        return this.validate(sourceFiles, messageStore);
+    }
+
+    /**
+     * This method keeps the cache entries of the specified source files if they're up to date. The other source
+     * files are dropped from the cache.
+     *
+     * @param sourceFiles every source file of the source directory
+     *
+     * @return the source files which were dropped
+     *
+     * @throws IOException if a file couldn't be read
+     */
+    public List<File> retain(List<File> sourceFiles) throws IOException
+    {
+        return this.validate(sourceFiles, null);
+    }
+
+    /**
+     * This method drops the cached messages of the specified source file. The messages which are extracted
+     * from its current content have to be passed to {@link #update(MessageStore)}.
+     *
+     * @param sourceFile the source file
+     *
+     * @throws IOException if the file couldn't be read
+     */
+    public void reset(File sourceFile) throws IOException
+    {
+        this.currentFiles.put(this.getPath(sourceFile), new CachedSourceFile(CacheFiles.createFileHash(sourceFile)));
+    }
+
+    /**
+     * This method records the dependencies of a source file which was parsed again. It can be called concurrently.
+     *
+     * @param sourceFile   the source file
+     * @param types        the qualified names of the top level types which are declared by the source file
+     * @param dependencies the binary names of the types which are referenced by the source file
+     *
+     * @throws IOException if a class file couldn't be read
+     */
+    public synchronized void setDependencies(File sourceFile, Collection<String> types, Collection<String> dependencies) throws IOException
+    {
+        CachedSourceFile cachedFile = this.currentFiles.get(this.getPath(sourceFile));
+        if (cachedFile == null)
+        {
+            return;
+        }
+
+        cachedFile.types.clear();
+        cachedFile.types.addAll(types);
+        this.sourceTypes.addAll(types);
+
+        cachedFile.dependencies.clear();
+        for (String dependency : dependencies)
+        {
+            String type = getTopLevelType(dependency);
+            if (!types.contains(type))
+            {
+                cachedFile.dependencies.put(dependency, this.sourceTypes.contains(type) ? null : this.getClassFileHash(dependency));
+            }
+        }
+    }
+
+    /**
+     * This method stores the messages which were extracted from the source files which couldn't be restored.
+     *
+     * @param messageStore the message store containing the newly extracted messages
+     *
+     * @see #restore(List, MessageStore)
+     */
+    public void update(MessageStore messageStore)
+    {
+        Map<TranslatableExpression, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < this.expressions.length; i++)
+        {
+            indices.put(this.expressions[i], i);
+        }
+
+        for (TranslatableMessage message : messageStore)
+        {
+            for (SourceReference reference : message.getSourceReferences())
+            {
+                CachedSourceFile cachedFile = this.currentFiles.get(reference.getFile().getPath());
+                if (cachedFile == null)
+                {
+                    continue;
+                }
+
+                Integer index = indices.get(reference.getExpression());
+                cachedFile.entries.add(new CachedEntry(message, reference, index == null ? -1 : index));
+            }
+        }
+    }
+
+    /**
+     * This method checks the cache entries of the specified source files. The entries which are up to date are
+     * kept and their messages are added to the message store.
+     *
+     * @param sourceFiles  every source file of the source directory
+     * @param messageStore the message store or null if the messages shall not be restored
+     *
+     * @return the source files whose entries are outdated
+     *
+     * @throws IOException if a file couldn't be read
+     */
+    private List<File> validate(List<File> sourceFiles, MessageStore messageStore) throws IOException
+    {
+        Map<String, File> files = new LinkedHashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        for (File sourceFile : sourceFiles)
+        {
+            String path = this.getPath(sourceFile);
+            files.put(path, sourceFile);
+            hashes.put(path, CacheFiles.createFileHash(sourceFile));
+            this.sourceTypes.add(getTypeName(path));
+        }
+        for (CachedSourceFile cachedFile : this.previousFiles.values())
+        {
+            this.sourceTypes.addAll(cachedFile.types);
+        }
+
+        Set<String> outdatedPaths = new HashSet<>();
+        Deque<String> outdatedTypes = new ArrayDeque<>();
+        Set<String> addedTypes = new HashSet<>();
+        for (Map.Entry<String, CachedSourceFile> entry : this.previousFiles.entrySet())
+        {
+            if (!files.containsKey(entry.getKey()))
+            {
+                // removed source file
+                outdatedTypes.add(getTypeName(entry.getKey()));
+                outdatedTypes.addAll(entry.getValue().types);
+            }
+        }
+        for (String path : files.keySet())
+        {
+            CachedSourceFile cachedFile = this.previousFiles.get(path);
+            if (cachedFile == null)
+            {
+                // added source files might hide types with the same simple name
+                addedTypes.add(getSimpleName(getTypeName(path)));
+                this.invalidate(path, outdatedPaths, outdatedTypes);
+            }
+            else if (!cachedFile.hash.equals(hashes.get(path)))
+            {
+                this.invalidate(path, outdatedPaths, outdatedTypes);
+            }
+        }
+
+        Map<String, List<String>> dependentPaths = new HashMap<>();
+        for (String path : files.keySet())
+        {
+            if (outdatedPaths.contains(path))
+            {
+                continue;
+            }
+
+            for (Map.Entry<String, String> dependency : this.previousFiles.get(path).dependencies.entrySet())
+            {
+                String type = getTopLevelType(dependency.getKey());
+                dependentPaths.computeIfAbsent(type, key -> new ArrayList<>()).add(path);
+
+                if (addedTypes.contains(getSimpleName(type)) || !this.sourceTypes.contains(type) && !Objects.equals(dependency.getValue(), this.getClassFileHash(dependency.getKey())))
+                {
+                    this.invalidate(path, outdatedPaths, outdatedTypes);
+                    break;
+                }
+            }
+        }
+
+        Set<String> visitedTypes = new HashSet<>();
+        while (!outdatedTypes.isEmpty())
+        {
+            String type = outdatedTypes.poll();
+            if (!visitedTypes.add(type))
+            {
+                continue;
+            }
+
+            for (String path : dependentPaths.getOrDefault(type, Collections.<String>emptyList()))
+            {
+                this.invalidate(path, outdatedPaths, outdatedTypes);
+            }
+        }
+
+        List<File> outdatedFiles = new ArrayList<>();
+        for (Map.Entry<String, File> entry : files.entrySet())
+        {
+            String path = entry.getKey();
+            if (outdatedPaths.contains(path))
+            {
+                outdatedFiles.add(entry.getValue());
+                if (messageStore != null)
+                {
+                    this.currentFiles.put(path, new CachedSourceFile(hashes.get(path)));
+                }
+                continue;
+            }
+
+            CachedSourceFile cachedFile = this.previousFiles.get(path);
+            if (messageStore != null)
+            {
+                for (CachedEntry cachedEntry : cachedFile.entries)
+                {
+                    cachedEntry.restore(path, this.expressions, messageStore);
+                }
+            }
+            this.currentFiles.put(path, cachedFile);
+        }
+        return outdatedFiles;
+    }
+
+    /**
+     * This method marks the specified source file as outdated. The types which it declared are outdated too.
+     *
+     * @param path          the relative path of the source file
+     * @param outdatedPaths the paths of the outdated source files
+     * @param outdatedTypes the queue of the outdated types
+     */
+    private void invalidate(String path, Set<String> outdatedPaths, Deque<String> outdatedTypes)
+    {
+        if (!outdatedPaths.add(path))
+        {
+            return;
+        }
+
+        outdatedTypes.add(getTypeName(path));
+        CachedSourceFile cachedFile = this.previousFiles.get(path);
+        if (cachedFile != null)
+        {
+            outdatedTypes.addAll(cachedFile.types);
+        }
+    }
+
+    /**
+     * This method returns the hash of the class file of the specified type within the directories of the classpath.
+     *
+     * @param type the binary name of the type
+     *
+     * @return the hash of the class file or null if the type isn't stored in a directory of the classpath
+     *
+     * @throws IOException if the class file couldn't be read
+     */
+    private String getClassFileHash(String type) throws IOException
+    {
+        if (this.classFileHashes.containsKey(type))
+        {
+            return this.classFileHashes.get(type);
+        }
+
+        String hash = null;
+        String classFile = type.replace('.', File.separatorChar) + ".class";
+        for (File classDirectory : this.classDirectories)
+        {
+            File file = new File(classDirectory, classFile);
+            if (file.isFile())
+            {
+                hash = CacheFiles.createFileHash(file);
+                break;
+            }
+        }
+
+        this.classFileHashes.put(type, hash);
+        return hash;
+    }
+
+    /**
+     * This method returns the path of the specified source file relative to the source directory
+     *
+     * @param sourceFile the source file
+     *
+     * @return the relative path
+     */
+    private String getPath(File sourceFile)
+    {
+        return Misc.getRelativizedFile(this.directory, sourceFile).getPath();
+    }
+
+    /**
+     * This method returns the name of the top level type which is declared by a source file with the specified path
+     *
+     * @param path the relative path of the source file
+     *
+     * @return qualified name of the type
+     */
+    private static String getTypeName(String path)
+    {
+        String typeName = path.endsWith(".java") ? path.substring(0, path.length() - 5) : path;
+        return typeName.replace(File.separatorChar, '.').replace('/', '.');
+    }
+
+    /**
+     * This method returns the top level type of the specified type
+     *
+     * @param type the binary name of the type
+     *
+     * @return qualified name of the top level type
+     */
+    private static String getTopLevelType(String type)
+    {
+        int index = type.indexOf('$');
+        return index < 0 ? type : type.substring(0, index);
+    }
+
+    private static String getSimpleName(String type)
+    {
+        return type.substring(type.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * This method checks whether the classpath hash of a loaded cache can be used. Caches of the compiler are used
+     * with every classpath and the compiler uses every cache.
+     *
+     * @param classpathHash the classpath hash of the loaded cache
+     *
+     * @return whether the cache can be used
+     */
+    private boolean matchesClasspathHash(String classpathHash)
+    {
+        return this.classpathHash.equals(classpathHash) || COMPILER_CLASSPATH_HASH.equals(classpathHash) || COMPILER_CLASSPATH_HASH.equals(this.classpathHash);
+    }
+
+    /**
+     * This method creates a hash of every setting of the configuration which has an influence on the
+     * extracted messages of a single file.
+     *
+     * @param configuration the configuration
+     *
+     * @return hash of the configuration
+     */
+    private static String createConfigurationHash(JavaExtractorConfiguration configuration)
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(configuration.getDirectory().getAbsolutePath()).append('\n');
+        builder.append(configuration.getCharset()).append('\n');
+        builder.append(configuration.getConstantEvaluation()).append('\n');
+        builder.append(configuration.getMaxAlternatives()).append('\n');
+
+        for (JavaExpression expression : configuration.getJavaExpressions())
+        {
+            builder.append(expression.getClass().getName()).append('|');
+            builder.append(expression.getFQN()).append('|');
+            builder.append(expression.getDescription()).append('|');
+            builder.append(expression.getDefaultContext()).append('|');
+
+            if (expression instanceof CallableExpression)
+            {
+                for (CallableSignatureType signatureType : ((CallableExpression) expression).getSignature())
+                {
+                    builder.append(signatureType.getUsage()).append(',');
+                }
+            }
+            if (expression instanceof Method)
+            {
+                builder.append(((Method) expression).isStatic());
+            }
+            if (expression instanceof Annotation)
+            {
+                Annotation annotation = (Annotation) expression;
+                builder.append(annotation.getContextField()).append('|');
+                if (annotation.getTargets() != null)
+                {
+                    for (CtAnnotatedElementType target : annotation.getTargets())
+                    {
+                        builder.append(target).append(',');
+                    }
+                }
+            }
+            builder.append('\n');
+        }
+
+        return CacheFiles.createHash(builder.toString());
+    }
+
+    /**
+     * This method creates a hash of the classpath. Archives are identified by their path, size and modification
+     * time whereas directories are just identified by their path. Otherwise every compilation of the project would
+     * invalidate the whole cache. The class files of the directories are checked by the dependencies of the entries.
+     *
+     * @param classpath the classpath
+     *
+     * @return hash of the classpath
+     */
+    private static String createClasspathHash(String[] classpath)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (String entry : classpath)
+        {
+            File file = new File(entry);
+            builder.append(file.getAbsolutePath());
+            if (file.isFile())
+            {
+                builder.append('|').append(file.length()).append('|').append(file.lastModified());
+            }
+            builder.append('\n');
+        }
+
+        return CacheFiles.createHash(builder.toString());
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        if (string == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0)
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * helper class which stores the hash, the dependencies and the extracted messages of a single source file
+     */
+    private static class CachedSourceFile
+    {
+        private final String hash;
+        private final List<String> types;
+        private final Map<String, String> dependencies;
+        private final List<CachedEntry> entries;
+
+        private CachedSourceFile(String hash)
+        {
+            this.hash = hash;
+            this.types = new ArrayList<>();
+            this.dependencies = new TreeMap<>();
+            this.entries = new ArrayList<>();
+        }
+    }
+
+    /**
+     * helper class which stores a single occurrence of a message within a source file
+     */
+    private static class CachedEntry
+    {
+        private final String context;
+        private final String singular;
+        private final String plural;
+        private final int line;
+        private final int expressionIndex;
+        private final List<String> extractedComments;
+
+        private CachedEntry(String context, String singular, String plural, int line, int expressionIndex, List<String> extractedComments)
+        {
+            this.context = context;
+            this.singular = singular;
+            this.plural = plural;
+            this.line = line;
+            this.expressionIndex = expressionIndex;
+            this.extractedComments = extractedComments;
+        }
+
+        private CachedEntry(TranslatableMessage message, SourceReference reference, int expressionIndex)
+        {
+            this(message.getContext(), message.getSingular(), message.getPlural(), reference.getLine(), expressionIndex, new ArrayList<>(reference.getExtractedComments()));
+        }
+
+        private void restore(String path, JavaExpression[] expressions, MessageStore messageStore)
+        {
+            TranslatableExpression expression = this.expressionIndex < 0 ? null : expressions[this.expressionIndex];
+            SourceReference reference = new SourceReference(new File(path), this.line, expression);
+            for (String extractedComment : this.extractedComments)
+            {
+                reference.addExtractedComment(extractedComment);
+            }
+
+            messageStore.getOrCreateMessage(this.context, this.singular, this.plural).addSourceReference(reference);
+        }
+
+        private void write(DataOutputStream out) throws IOException
+        {
+            writeString(out, this.context);
+            writeString(out, this.singular);
+            writeString(out, this.plural);
+            out.writeInt(this.line);
+            out.writeInt(this.expressionIndex);
+
+            out.writeInt(this.extractedComments.size());
+            for (String extractedComment : this.extractedComments)
+            {
+                writeString(out, extractedComment);
+            }
+        }
+
+        private static CachedEntry read(DataInputStream in) throws IOException
+        {
+            String context = readString(in);
+            String singular = readString(in);
+            String plural = readString(in);
+            int line = in.readInt();
+            int expressionIndex = in.readInt();
+
+            int commentAmount = in.readInt();
+            List<String> extractedComments = commentAmount == 0 ? Collections.<String>emptyList() : new ArrayList<String>(commentAmount);
+            for (int i = 0; i < commentAmount; i++)
+            {
+                extractedComments.add(readString(in));
+            }
+
+            return new CachedEntry(context, singular, plural, line, expressionIndex, extractedComments);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.classloader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * The class loader pool shares the class loaders of the classpaths between the extractions. The class loaders are
+ * identified by the normalized classpath entries and the parent class loader, so several modules of a project or
+ * several extractions within the same jvm use the same class loader if their classpaths match. The entries keep the
+ * configured order, because it decides which copy of a class or a resource is found if several entries contain it.
+ * Duplicated entries are just kept at their first position.
+ * </p>
+ *
+ * <p>
+ * A class loader is handed out with {@link #open(String[], ClassLoader)} which returns a lazy
+ * {@link ClasspathClassLoader}. The pooled class loader is just created if a class or a resource of the classpath
+ * is requested. It's closed as soon as it isn't used anymore and either more than the maximum amount of class
+ * loaders are idle or one of its jars or loaded class files was changed.
+ * </p>
+ */
+public class ClassLoaderPool implements Closeable
+{
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final int maxIdleClassLoaders;
+    private final LinkedHashMap<Key, PooledClassLoader> classLoaders;
+
+    /**
+     * The constructor creates a new class loader pool
+     *
+     * @param maxIdleClassLoaders maximum amount of class loaders which are kept open while they aren't used
+     */
+    public ClassLoaderPool(int maxIdleClassLoaders)
+    {
+        this.maxIdleClassLoaders = maxIdleClassLoaders;
+        // access order makes the least recently used class loader the first one
+        this.classLoaders = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * This method returns a class loader containing the specified classpath and the parent class loader.
+     * The returned class loader has to be closed after the extraction.
+     *
+     * @param classpath the classpath entries
+     * @param parent    the parent class loader
+     *
+     * @return class loader of the classpath
+     */
+    public ClasspathClassLoader open(String[] classpath, ClassLoader parent)
+    {
+        if (parent == null)
+        {
+            parent = ClassLoader.getPlatformClassLoader();
+        }
+
+        Set<String> entries = new LinkedHashSet<>();
+        for (String entry : classpath)
+        {
+            entries.add(new File(entry).getAbsoluteFile().toPath().normalize().toString());
+        }
+
+        return new ClasspathClassLoader(this, new Key(new ArrayList<>(entries), parent), parent);
+    }
+
+    /**
+     * This method acquires the pooled class loader of the specified key. It's created if the pool doesn't contain
+     * an up to date class loader.
+     *
+     * @param key the key of the class loader
+     *
+     * @return the pooled class loader
+     *
+     * @throws MalformedURLException if a classpath entry can't be converted into an url
+     */
+    synchronized URLClassLoader acquire(Key key) throws MalformedURLException
+    {
+        PooledClassLoader classLoader = this.classLoaders.get(key);
+        if (classLoader != null && classLoader.isStale())
+        {
+            this.classLoaders.remove(key);
+            if (classLoader.users == 0)
+            {
+                classLoader.closeQuietly();
+            }
+            classLoader = null;
+        }
+        if (classLoader == null)
+        {
+            classLoader = new PooledClassLoader(key);
+            this.classLoaders.put(key, classLoader);
+        }
+
+        classLoader.users++;
+        return classLoader;
+    }
+
+    /**
+     * This method releases the pooled class loader of the specified key. Idle class loaders are closed if the pool
+     * contains more of them than allowed.
+     *
+     * @param key         the key of the class loader
+     * @param classLoader the class loader which was acquired
+     */
+    synchronized void release(Key key, URLClassLoader classLoader)
+    {
+        PooledClassLoader pooledClassLoader = (PooledClassLoader) classLoader;
+        pooledClassLoader.users--;
+
+        if (this.classLoaders.get(key) != pooledClassLoader)
+        {
+            // the class loader was replaced because it's stale
+            if (pooledClassLoader.users == 0)
+            {
+                pooledClassLoader.closeQuietly();
+            }
+            return;
+        }
+
+        int idleClassLoaders = 0;
+        for (PooledClassLoader loader : this.classLoaders.values())
+        {
+            if (loader.users == 0)
+            {
+                idleClassLoaders++;
+            }
+        }
+
+        Iterator<PooledClassLoader> iterator = this.classLoaders.values().iterator();
+        while (idleClassLoaders > this.maxIdleClassLoaders && iterator.hasNext())
+        {
+            PooledClassLoader loader = iterator.next();
+            if (loader.users == 0)
+            {
+                iterator.remove();
+                loader.closeQuietly();
+                idleClassLoaders--;
+            }
+        }
+    }
+
+    /**
+     * This method closes every class loader which isn't used at the moment.
+     */
+    @Override
+    public synchronized void close()
+    {
+        Iterator<PooledClassLoader> iterator = this.classLoaders.values().iterator();
+        while (iterator.hasNext())
+        {
+            PooledClassLoader loader = iterator.next();
+            if (loader.users == 0)
+            {
+                iterator.remove();
+                loader.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * The key identifies a class loader by its ordered classpath entries and its parent class loader.
+     */
+    static class Key
+    {
+        private final List<String> entries;
+        private final ClassLoader parent;
+
+        private Key(List<String> entries, ClassLoader parent)
+        {
+            this.entries = entries;
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return this.parent == key.parent && this.entries.equals(key.entries);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * this.entries.hashCode() + System.identityHashCode(this.parent);
+        }
+    }
+
+    /**
+     * This class loader remembers the modification dates of its jars and of the class files it loaded from
+     * directories. It's stale if one of them was changed, because the loaded classes would be outdated.
+     */
+    private static class PooledClassLoader extends URLClassLoader
+    {
+        static
+        {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        private final Map<File, Long> jarStamps;
+        private final Map<File, Long> classFileStamps;
+        private int users;
+
+        private PooledClassLoader(Key key) throws MalformedURLException
+        {
+            super(toURLs(key.entries), key.parent);
+
+            this.jarStamps = new LinkedHashMap<>();
+            for (String entry : key.entries)
+            {
+                File file = new File(entry);
+                if (file.isFile())
+                {
+                    this.jarStamps.put(file, file.lastModified());
+                }
+            }
+            this.classFileStamps = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException
+        {
+            Class<?> clazz = super.findClass(name);
+
+            URL url = this.findResource(name.replace('.', '/') + CLASS_FILE_EXTENSION);
+            if (url != null && "file".equals(url.getProtocol()))
+            {
+                try
+                {
+                    File classFile = new File(url.toURI());
+                    this.classFileStamps.put(classFile, classFile.lastModified());
+                }
+                catch (URISyntaxException | IllegalArgumentException ignored)
+                {
+                    // the class file can't be checked
+                }
+            }
+            return clazz;
+        }
+
+        /**
+         * This method checks whether a jar or a loaded class file was changed since the class loader was created.
+         *
+         * @return whether the class loader is stale
+         */
+        private boolean isStale()
+        {
+            for (Entry<File, Long> entry : this.jarStamps.entrySet())
+            {
+                if (entry.getKey().lastModified() != entry.getValue())
+                {
+                    return true;
+                }
+            }
+            for (Entry<File, Long> entry : this.classFileStamps.entrySet())
+            {
+                if (entry.getKey().lastModified() != entry.getValue())
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void closeQuietly()
+        {
+            try
+            {
+                this.close();
+            }
+            catch (IOException ignored)
+            {
+                // the jars are closed as far as possible
+            }
+        }
+
+        private static URL[] toURLs(List<String> entries) throws MalformedURLException
+        {
+            List<URL> urls = new ArrayList<>(entries.size());
+            for (String entry : entries)
+            {
+                urls.add(new File(entry).toURI().toURL());
+            }
+            return urls.toArray(new URL[0]);
+        }
+    }
+}
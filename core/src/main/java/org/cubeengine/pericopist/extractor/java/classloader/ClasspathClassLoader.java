@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.classloader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * <p>
+ * This class loader provides the classes and resources of a classpath. It asks its parent first and delegates to
+ * the class loader of the {@link ClassLoaderPool} afterwards. The pooled class loader is acquired with the first
+ * class or resource which the parent doesn't know, so the classpath isn't opened if no class of it is needed.
+ * </p>
+ *
+ * <p>
+ * The class loader has to be closed after the extraction, which returns the pooled class loader to the pool.
+ * </p>
+ */
+public class ClasspathClassLoader extends ClassLoader implements Closeable
+{
+    static
+    {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final ClassLoaderPool pool;
+    private final ClassLoaderPool.Key key;
+
+    private volatile URLClassLoader delegate;
+    private boolean closed;
+
+    ClasspathClassLoader(ClassLoaderPool pool, ClassLoaderPool.Key key, ClassLoader parent)
+    {
+        super(parent);
+
+        this.pool = pool;
+        this.key = key;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException
+    {
+        return this.getDelegate().loadClass(name);
+    }
+
+    @Override
+    protected URL findResource(String name)
+    {
+        return this.getDelegate().findResource(name);
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) throws IOException
+    {
+        Enumeration<URL> resources = this.getDelegate().findResources(name);
+        return resources == null ? Collections.<URL>emptyEnumeration() : resources;
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String name)
+    {
+        InputStream in = this.getParent().getResourceAsStream(name);
+        if (in != null)
+        {
+            return in;
+        }
+
+        // the pooled class loader closes the streams of its jars
+        return this.getDelegate().getResourceAsStream(name);
+    }
+
+    /**
+     * This method returns the class loader to the pool. The classes which were loaded stay usable.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        this.closed = true;
+
+        if (this.delegate != null)
+        {
+            this.pool.release(this.key, this.delegate);
+        }
+    }
+
+    /**
+     * This method returns the pooled class loader and acquires it with the first call.
+     *
+     * @return the pooled class loader
+     */
+    private URLClassLoader getDelegate()
+    {
+        URLClassLoader classLoader = this.delegate;
+        if (classLoader != null)
+        {
+            return classLoader;
+        }
+
+        synchronized (this)
+        {
+            if (this.delegate == null)
+            {
+                if (this.closed)
+                {
+                    throw new IllegalStateException("The class loader of the classpath was already closed.");
+                }
+
+                try
+                {
+                    this.delegate = this.pool.acquire(this.key);
+                }
+                catch (MalformedURLException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return this.delegate;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 
 import org.cubeengine.pericopist.exception.ConfigurationException;
 import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType.CallableSignatureTypeUsage;
+import spoon.reflect.reference.CtArrayTypeReference;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtTypeReference;
 
@@ -40,6 +41,9 @@ public abstract class CallableExpression extends JavaExpression
 {
     private CallableSignatureType[] signature;
 
+    private transient volatile int[] usageIndices;
+    private transient volatile String[] signatureTypes;
+
     /**
      * This method returns the signature of the callable expression
      *
@@ -60,6 +64,8 @@ public abstract class CallableExpression extends JavaExpression
     public void setSignature(CallableSignatureType... signature)
     {
         this.signature = signature;
+        this.usageIndices = null;
+        this.signatureTypes = null;
     }
 
     /**
@@ -69,7 +75,7 @@ public abstract class CallableExpression extends JavaExpression
      */
     public int getSingularIndex()
     {
-        return this.getFirstIndexOf(CallableSignatureTypeUsage.SINGULAR);
+        return this.getUsageIndices()[0];
     }
 
     /**
@@ -79,7 +85,7 @@ public abstract class CallableExpression extends JavaExpression
      */
     public int getPluralIndex()
     {
-        return this.getFirstIndexOf(CallableSignatureTypeUsage.PLURAL);
+        return this.getUsageIndices()[1];
     }
 
     /**
@@ -95,7 +101,7 @@ public abstract class CallableExpression extends JavaExpression
 
     public int getContextIndex()
     {
-        return this.getFirstIndexOf(CallableSignatureTypeUsage.CONTEXT);
+        return this.getUsageIndices()[2];
     }
 
     public boolean hasContext()
@@ -137,6 +143,27 @@ public abstract class CallableExpression extends JavaExpression
         }
     }
 
+    /**
+     * This method returns the cached indices of the singular, plural and context parameter.
+     * They're loaded with the first call of the method.
+     *
+     * @return indices of the singular, plural and context parameter
+     */
+    private int[] getUsageIndices()
+    {
+        int[] indices = this.usageIndices;
+        if (indices == null)
+        {
+            indices = new int[] {
+                this.getFirstIndexOf(CallableSignatureTypeUsage.SINGULAR),
+                this.getFirstIndexOf(CallableSignatureTypeUsage.PLURAL),
+                this.getFirstIndexOf(CallableSignatureTypeUsage.CONTEXT)
+            };
+            this.usageIndices = indices;
+        }
+        return indices;
+    }
+
     /**
      * This method returns the first index of the specified CallableSignatureTypeUsage instance.
      *
@@ -158,6 +185,26 @@ public abstract class CallableExpression extends JavaExpression
         return -1;
     }
 
+    /**
+     * This method returns the cached type names of the signature.
+     *
+     * @return type names of the signature
+     */
+    private String[] getSignatureTypes()
+    {
+        String[] types = this.signatureTypes;
+        if (types == null)
+        {
+            types = new String[this.getSignature().length];
+            for (int i = 0; i < types.length; i++)
+            {
+                types[i] = this.getSignature()[i].getType();
+            }
+            this.signatureTypes = types;
+        }
+        return types;
+    }
+
     /**
      * This method checks whether the specified executable matches the signature
      *
@@ -167,16 +214,17 @@ public abstract class CallableExpression extends JavaExpression
      */
     protected boolean matchesSignature(CtExecutableReference<?> executable)
     {
+        String[] types = this.getSignatureTypes();
         List<CtTypeReference<?>> parameters = executable.getParameters();
 
-        if (parameters.size() != this.getSignature().length)
+        if (parameters.size() != types.length)
         {
             return false;
         }
 
-        for (int i = 0; i < parameters.size(); i++)
+        for (int i = 0; i < types.length; i++)
         {
-            if (!parameters.get(i).toString().equals(this.getSignature()[i].getType()))
+            if (!matchesType(parameters.get(i), types[i]))
             {
                 return false;
             }
@@ -184,6 +232,42 @@ public abstract class CallableExpression extends JavaExpression
         return true;
     }
 
+    /**
+     * This method checks whether the type reference describes the specified type. The string representation of
+     * a type reference is just created if the reference isn't a plain one, which is the expensive way.
+     *
+     * @param reference the type reference
+     * @param type      the type name
+     *
+     * @return whether the type reference describes the type
+     */
+    private static boolean matchesType(CtTypeReference<?> reference, String type)
+    {
+        if (isPlainType(reference))
+        {
+            // the string representation of a plain type reference is its qualified name
+            return type.equals(reference.getQualifiedName());
+        }
+        return type.equals(reference.toString());
+    }
+
+    /**
+     * This method checks whether the type reference is a top level type without type arguments and annotations
+     * or an array of such a type.
+     *
+     * @param reference the type reference
+     *
+     * @return whether the type reference is a plain one
+     */
+    private static boolean isPlainType(CtTypeReference<?> reference)
+    {
+        if (reference instanceof CtArrayTypeReference<?>)
+        {
+            return isPlainType(((CtArrayTypeReference<?>) reference).getComponentType());
+        }
+        return reference.getDeclaringType() == null && reference.getActualTypeArguments().isEmpty() && reference.getAnnotations().isEmpty();
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.configuration;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlEnumValue;
+
+/**
+ * The ConstantEvaluation specifies how the converters of the java extractor
+ * evaluate fields, types, method invocations and constructor calls.
+ *
+ * @see org.cubeengine.pericopist.extractor.java.converter.ConstantTable
+ */
+@XmlEnum
+public enum ConstantEvaluation
+{
+    /**
+     * This is the default value. The fields are read with reflection, which initializes their classes.
+     * Method invocations and constructor calls are evaluated as well.
+     */
+    @XmlEnumValue("reflection")
+    REFLECTION,
+
+    /**
+     * This value means that static final fields, enum constants and string concatenations are evaluated
+     * with the spoon model or the constant values of the class files. No class of the project is loaded
+     * or initialized. Every other expression can't be converted.
+     */
+    @XmlEnumValue("model")
+    MODEL,
+
+    /**
+     * This value means that the expressions are evaluated like with {@link #MODEL}. Expressions which can't be
+     * evaluated from the spoon model are evaluated with reflection.
+     */
+    @XmlEnumValue("model-reflection")
+    MODEL_WITH_REFLECTION
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.configuration;
+
+import java.io.File;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.cubeengine.pericopist.extractor.MessageExtractor;
+import org.cubeengine.pericopist.extractor.java.JavaBytecodeMessageExtractor;
+
+/**
+ * <p>
+ * This configuration is used for extracting the translatable messages of java projects from their compiled classes.
+ * It supports the same settings like the {@link JavaExtractorConfiguration} and additionally the directory of the
+ * class files. The source directory is still needed for the source references and the extracted comments.
+ * </p>
+ *
+ * Example:
+ *
+ * <pre>
+ * {@code
+ * <source language="java-bytecode" charset="utf-8">
+ *     <directory>source file path</directory> <!-- default: ./src/main/java -->
+ *     <classes>class file path</classes> <!-- default: ./target/classes -->
+ *     <classpath>
+ *         <entry>entry</entry>
+ *     </classpath>
+ *     <translatables>
+ *         ...
+ *     </translatables>
+ * </source>
+ * }
+ * </pre>
+ *
+ * @see org.cubeengine.pericopist.extractor.java.JavaBytecodeMessageExtractor
+ */
+@SuppressWarnings("unused")
+@XmlRootElement(name = "source")
+public class JavaBytecodeExtractorConfiguration extends JavaExtractorConfiguration
+{
+    private File classesDirectory;
+
+    /**
+     * This method returns the directory which stores the compiled classes of the source files.
+     *
+     * @return directory of the class files
+     */
+    public File getClassesDirectory()
+    {
+        if (this.classesDirectory == null)
+        {
+            // default value
+            return new File("./target/classes");
+        }
+        return this.classesDirectory;
+    }
+
+    /**
+     * This method sets the directory which stores the compiled classes of the source files.
+     *
+     * @param classesDirectory directory of the class files
+     */
+    @XmlElement(name = "classes")
+    public void setClassesDirectory(File classesDirectory)
+    {
+        this.classesDirectory = classesDirectory;
+    }
+
+    @Override
+    public Class<? extends MessageExtractor> getExtractorClass()
+    {
+        return JavaBytecodeMessageExtractor.class;
+    }
+}
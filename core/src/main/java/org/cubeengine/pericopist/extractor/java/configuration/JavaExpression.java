@@ -25,6 +25,7 @@ package org.cubeengine.pericopist.extractor.java.configuration;
 import javax.xml.bind.annotation.XmlElement;
 
 import org.cubeengine.pericopist.exception.ConfigurationException;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import org.cubeengine.pericopist.message.AbstractTranslatableExpression;
 import spoon.reflect.declaration.CtElement;
 
@@ -82,6 +83,22 @@ public abstract class JavaExpression extends AbstractTranslatableExpression
      */
     public abstract boolean matches(CtElement element);
 
+    /**
+     * This method checks whether this translatable expression describes the specified element.
+     * The type hierarchy can be used to answer subtype checks without resolving the types with spoon.
+     *
+     * @param element       element which occured in the MessageProcessor
+     * @param typeHierarchy the type hierarchy of the spoon model or null
+     *
+     * @return if this expression matches the element
+     *
+     * @see #matches(CtElement)
+     */
+    public boolean matches(CtElement element, TypeHierarchy typeHierarchy)
+    {
+        return this.matches(element);
+    }
+
     /**
      * This method checks whether the translatable expression has a plural
      *
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
+import spoon.reflect.code.CtAbstractInvocation;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.reference.CtExecutableReference;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * This index is used by the {@link JavaExtractorConfiguration} to find the candidates of a {@link CtElement}
+ * without checking every {@link JavaExpression}. Methods are indexed by their simple name, constructors by their
+ * type and annotations by their annotation type. Expressions which replace the matching rules of these classes
+ * can't be indexed; they're a candidate of every element. The candidates keep the order of the configuration.
+ */
+final class JavaExpressionIndex
+{
+    private final Map<String, List<JavaExpression>> methods;
+    private final Map<String, List<JavaExpression>> constructors;
+    private final Map<String, List<JavaExpression>> annotations;
+    private final List<JavaExpression> unindexed;
+
+    /**
+     * The constructor creates a new index of the specified expressions
+     *
+     * @param expressions the expressions
+     */
+    JavaExpressionIndex(JavaExpression[] expressions)
+    {
+        this.methods = new HashMap<>();
+        this.constructors = new HashMap<>();
+        this.annotations = new HashMap<>();
+        this.unindexed = new ArrayList<>();
+
+        for (JavaExpression expression : expressions)
+        {
+            if (expression instanceof Method && usesMatchingOf(expression, Method.class))
+            {
+                this.add(this.methods, ((Method) expression).getMethodName(), expression);
+            }
+            else if (expression instanceof Constructor && usesMatchingOf(expression, Constructor.class))
+            {
+                this.add(this.constructors, expression.getName(), expression);
+            }
+            else if (expression instanceof Annotation && usesMatchingOf(expression, Annotation.class))
+            {
+                this.add(this.annotations, expression.getName(), expression);
+            }
+            else
+            {
+                // the expression is added to every list, so every list keeps the order of the configuration
+                this.unindexed.add(expression);
+                for (Map<String, List<JavaExpression>> map : Arrays.asList(this.methods, this.constructors, this.annotations))
+                {
+                    for (List<JavaExpression> list : map.values())
+                    {
+                        list.add(expression);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method returns the expressions which might describe the specified element.
+     *
+     * @param element the element
+     *
+     * @return candidates of the element
+     */
+    List<JavaExpression> getCandidates(CtElement element)
+    {
+        if (element instanceof CtAnnotation<?>)
+        {
+            CtTypeReference<?> annotationType = ((CtAnnotation<?>) element).getAnnotationType();
+            return annotationType == null ? this.unindexed : this.get(this.annotations, annotationType.getQualifiedName());
+        }
+
+        if (!(element instanceof CtAbstractInvocation<?>))
+        {
+            return this.unindexed;
+        }
+
+        CtExecutableReference<?> executable = ((CtAbstractInvocation<?>) element).getExecutable();
+        if (executable == null)
+        {
+            return this.unindexed;
+        }
+
+        if (executable.isConstructor())
+        {
+            CtTypeReference<?> declaringType = executable.getDeclaringType();
+            return declaringType == null ? this.unindexed : this.get(this.constructors, declaringType.getQualifiedName());
+        }
+
+        if (element instanceof CtInvocation<?>)
+        {
+            return this.get(this.methods, executable.getSimpleName());
+        }
+        return this.unindexed;
+    }
+
+    private void add(Map<String, List<JavaExpression>> map, String key, JavaExpression expression)
+    {
+        List<JavaExpression> list = map.get(key);
+        if (list == null)
+        {
+            list = new ArrayList<>(this.unindexed.size() + 1);
+            list.addAll(this.unindexed);
+            map.put(key, list);
+        }
+        list.add(expression);
+    }
+
+    private List<JavaExpression> get(Map<String, List<JavaExpression>> map, String key)
+    {
+        List<JavaExpression> list = map.get(key);
+        return list == null ? this.unindexed : list;
+    }
+
+    /**
+     * This method checks whether the specified expression matches the elements with the rules of the specified
+     * class. Subclasses which override one of the matches methods might describe other elements.
+     *
+     * @param expression the expression
+     * @param type       the indexed class of the expression
+     *
+     * @return whether the expression uses the matching rules of the class
+     */
+    private static boolean usesMatchingOf(JavaExpression expression, Class<? extends JavaExpression> type)
+    {
+        try
+        {
+            Class<?> clazz = expression.getClass();
+            Class<?> matches = clazz.getMethod("matches", CtElement.class).getDeclaringClass();
+            Class<?> matchesWithHierarchy = clazz.getMethod("matches", CtElement.class, TypeHierarchy.class).getDeclaringClass();
+            return matches == type && (matchesWithHierarchy == type || matchesWithHierarchy == JavaExpression.class);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+}
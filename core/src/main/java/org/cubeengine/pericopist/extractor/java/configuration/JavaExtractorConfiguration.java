@@ -39,6 +39,7 @@ import org.cubeengine.pericopist.exception.ConfigurationException;
 import org.cubeengine.pericopist.extractor.AbstractExtractorConfiguration;
 import org.cubeengine.pericopist.extractor.MessageExtractor;
 import org.cubeengine.pericopist.extractor.java.JavaMessageExtractor;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import org.cubeengine.pericopist.util.Misc;
 import spoon.reflect.declaration.CtElement;
 
@@ -61,6 +62,12 @@ import spoon.reflect.declaration.CtElement;
  *         <entry>entry</entry>
  *         <entry>another_entry</entry>
  *     </classpath>
+ *     <cache>cache file path</cache> <!-- default: no cache -->
+ *     <threads>amount of threads</threads> <!-- default: 1 -->
+ *     <prefilter>true</prefilter> <!-- default: false -->
+ *     <typeHierarchyCache>type hierarchy cache file path</typeHierarchyCache> <!-- default: no cache -->
+ *     <constantEvaluation>model</constantEvaluation> <!-- default: reflection -->
+ *     <maxAlternatives>amount of alternatives</maxAlternatives> <!-- default: 1000 -->
  *     <translatables> <!-- register ways how to extract messages -->
  *         <method>
  *             ...
@@ -90,6 +97,14 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
     private JavaExpression[] javaExpressions;
     @MergeableArray
     private String[] classpathEntries;
+    private File cacheFile;
+    private Integer threads;
+    private Boolean prefilter;
+    private File typeHierarchyCacheFile;
+    private ConstantEvaluation constantEvaluation;
+    private Integer maxAlternatives;
+
+    private transient volatile JavaExpressionIndex expressionIndex;
 
     /**
      * This method returns the TranslatableExpression instances describing where the messages shall be extracted.
@@ -119,6 +134,7 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
     public void setJavaExpressions(JavaExpression... javaExpressions)
     {
         this.javaExpressions = javaExpressions;
+        this.expressionIndex = null;
     }
 
     /**
@@ -148,6 +164,166 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
         this.classpathEntries = classpathEntries;
     }
 
+    /**
+     * This method returns the file which caches the messages extracted from every single source file.
+     * Just changed or added source files are parsed again if a cache file is specified.
+     *
+     * @return cache file or null if the extraction shouldn't be cached
+     */
+    public File getCacheFile()
+    {
+        return this.cacheFile;
+    }
+
+    /**
+     * This method sets the file which caches the messages extracted from every single source file.
+     *
+     * @param cacheFile cache file
+     *
+     * @see #getCacheFile()
+     */
+    @XmlElement(name = "cache")
+    public void setCacheFile(File cacheFile)
+    {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * This method returns the amount of threads which build the spoon model and extract the messages.
+     * The source files are split into one shard per thread if it's more than one.
+     *
+     * @return amount of threads
+     */
+    public int getThreads()
+    {
+        if (this.threads == null)
+        {
+            return 1;
+        }
+        return this.threads;
+    }
+
+    /**
+     * This method sets the amount of threads which build the spoon model and extract the messages.
+     *
+     * @param threads amount of threads
+     *
+     * @see #getThreads()
+     */
+    @XmlElement(name = "threads")
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * This method returns whether source files which don't contain the name of a translatable expression
+     * shall be skipped before the spoon model is built.
+     *
+     * @return whether the source files shall be prefiltered
+     */
+    public boolean getPrefilter()
+    {
+        if (this.prefilter == null)
+        {
+            return false;
+        }
+        return this.prefilter;
+    }
+
+    /**
+     * This method sets whether source files which don't contain the name of a translatable expression
+     * shall be skipped before the spoon model is built.
+     *
+     * @param prefilter whether the source files shall be prefiltered
+     */
+    @XmlElement(name = "prefilter")
+    public void setPrefilter(boolean prefilter)
+    {
+        this.prefilter = prefilter;
+    }
+
+    /**
+     * This method returns the file which stores the type hierarchy of the jars of the classpath.
+     * The whole classpath is indexed if a file is specified. Just jars which were changed since the last
+     * extraction are scanned again. Otherwise the types are read lazily.
+     *
+     * @return type hierarchy cache file or null if the type hierarchy shouldn't be cached
+     */
+    public File getTypeHierarchyCacheFile()
+    {
+        return this.typeHierarchyCacheFile;
+    }
+
+    /**
+     * This method sets the file which stores the type hierarchy of the jars of the classpath.
+     *
+     * @param typeHierarchyCacheFile type hierarchy cache file
+     *
+     * @see #getTypeHierarchyCacheFile()
+     */
+    @XmlElement(name = "typeHierarchyCache")
+    public void setTypeHierarchyCacheFile(File typeHierarchyCacheFile)
+    {
+        this.typeHierarchyCacheFile = typeHierarchyCacheFile;
+    }
+
+    /**
+     * This method returns how the converters evaluate fields, types, method invocations and constructor calls.
+     *
+     * @return constant evaluation
+     */
+    public ConstantEvaluation getConstantEvaluation()
+    {
+        if (this.constantEvaluation == null)
+        {
+            return ConstantEvaluation.REFLECTION;
+        }
+        return this.constantEvaluation;
+    }
+
+    /**
+     * This method sets how the converters evaluate fields, types, method invocations and constructor calls.
+     *
+     * @param constantEvaluation constant evaluation
+     *
+     * @see #getConstantEvaluation()
+     */
+    @XmlElement(name = "constantEvaluation")
+    public void setConstantEvaluation(ConstantEvaluation constantEvaluation)
+    {
+        this.constantEvaluation = constantEvaluation;
+    }
+
+    /**
+     * This method returns the maximum amount of alternative values of a single expression. Conditional expressions
+     * and concatenations of them can have several values. The expression is skipped with a warning if it has more
+     * values than allowed.
+     *
+     * @return maximum amount of alternatives
+     */
+    public int getMaxAlternatives()
+    {
+        if (this.maxAlternatives == null)
+        {
+            return 1000;
+        }
+        return this.maxAlternatives;
+    }
+
+    /**
+     * This method sets the maximum amount of alternative values of a single expression.
+     *
+     * @param maxAlternatives maximum amount of alternatives
+     *
+     * @see #getMaxAlternatives()
+     */
+    @XmlElement(name = "maxAlternatives")
+    public void setMaxAlternatives(int maxAlternatives)
+    {
+        this.maxAlternatives = maxAlternatives;
+    }
+
     /**
      * This method returns a TranslatableExpression instance which describes the specified CtElement.
      *
@@ -157,10 +333,25 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
      *
      * @return TranslatableExpression instance describing the specified CtElement or null if no expression matches the element
      */
-    @SuppressWarnings("unchecked")
     public <T> T getTranslatable(Class<T> clazz, CtElement element)
     {
-        for (JavaExpression expression : this.getJavaExpressions())
+        return this.getTranslatable(clazz, element, null);
+    }
+
+    /**
+     * This method returns a TranslatableExpression instance which describes the specified CtElement.
+     *
+     * @param clazz         the class of the TranslatableExpression
+     * @param element       the CtElement instance which shell be described
+     * @param typeHierarchy the type hierarchy of the spoon model or null
+     * @param <T>           The class of the TranslatableExpression
+     *
+     * @return TranslatableExpression instance describing the specified CtElement or null if no expression matches the element
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getTranslatable(Class<T> clazz, CtElement element, TypeHierarchy typeHierarchy)
+    {
+        for (JavaExpression expression : this.getExpressionIndex().getCandidates(element))
         {
             // checks whether expression is a subclass of the specified class
             if (!clazz.isAssignableFrom(expression.getClass()))
@@ -169,7 +360,7 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
             }
 
             // checks whether the expression describes the element
-            if (expression.matches(element))
+            if (expression.matches(element, typeHierarchy))
             {
                 return (T) expression;
             }
@@ -177,6 +368,22 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
         return null;
     }
 
+    /**
+     * This method returns the index of the translatable expressions. It's created with the first call of the method.
+     *
+     * @return index of the translatable expressions
+     */
+    private JavaExpressionIndex getExpressionIndex()
+    {
+        JavaExpressionIndex index = this.expressionIndex;
+        if (index == null)
+        {
+            index = new JavaExpressionIndex(this.getJavaExpressions());
+            this.expressionIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public Class<? extends MessageExtractor> getExtractorClass()
     {
@@ -191,6 +398,16 @@ public class JavaExtractorConfiguration extends AbstractExtractorConfiguration
             throw new ConfigurationException("No translatable expression given!");
         }
 
+        if (this.getThreads() < 1)
+        {
+            throw new ConfigurationException("The amount of threads must be at least 1.");
+        }
+
+        if (this.getMaxAlternatives() < 1)
+        {
+            throw new ConfigurationException("The maximum amount of alternatives must be at least 1.");
+        }
+
         for (JavaExpression expression : this.getJavaExpressions())
         {
             expression.validate();
@@ -29,6 +29,7 @@ import java.util.Set;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import spoon.reflect.code.CtInvocation;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.reference.CtExecutableReference;
@@ -115,6 +116,12 @@ public class Method extends CallableExpression
 
     @Override
     public boolean matches(CtElement element)
+    {
+        return this.matches(element, null);
+    }
+
+    @Override
+    public boolean matches(CtElement element, TypeHierarchy typeHierarchy)
     {
         if (!(element instanceof CtInvocation<?>))
         {
@@ -140,20 +147,33 @@ public class Method extends CallableExpression
             return false;
         }
 
-        return this.isAssignableFrom(executable);
+        return this.isAssignableFrom(executable, typeHierarchy);
     }
 
     /**
      * This method checks whether the class of the occurred method invocation is a subclass of the specified one.
      *
-     * @param executable method executable
+     * The type hierarchy answers the question if it knows every super type of the class. Otherwise
+     * the super types are resolved with spoon.
+     *
+     * @param executable    method executable
+     * @param typeHierarchy the type hierarchy of the spoon model or null
      *
      * @return whether the class of the occurred method is a subclass of the specified one
      */
-    private boolean isAssignableFrom(CtExecutableReference<?> executable)
+    private boolean isAssignableFrom(CtExecutableReference<?> executable, TypeHierarchy typeHierarchy)
     {
         String className = this.getClassName();
 
+        if (typeHierarchy != null && executable.getDeclaringType() != null)
+        {
+            Boolean subtype = typeHierarchy.isSubtype(executable.getDeclaringType().getQualifiedName(), className);
+            if (subtype != null)
+            {
+                return subtype;
+            }
+        }
+
         Queue<CtTypeReference<?>> queue = new ArrayDeque<>();
         queue.offer(executable.getDeclaringType());
 
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
+import spoon.reflect.code.CtExpression;
+
+/**
+ * <p>
+ * This class collects the alternative values of an expression, like the branches of conditional expressions or
+ * the combinations of the operands of binary expressions. Duplicated values are dropped while they're added and
+ * the order of the first occurrences is kept.
+ * </p>
+ *
+ * <p>
+ * The amount of alternatives is limited by {@link ConverterManager#getMaxAlternatives()}, so nested conditional
+ * expressions can't create an exponential amount of values. The conversion fails as soon as the limit is exceeded.
+ * </p>
+ */
+public class Alternatives
+{
+    private final Converter<?> converter;
+    private final CtExpression<?> expression;
+    private final int maxAlternatives;
+    private final Set<Object> values;
+
+    /**
+     * The constructor creates a new empty collection of alternatives
+     *
+     * @param converter  the converter which converts the expression
+     * @param expression the expression
+     * @param manager    the converter manager which specifies the maximum amount of alternatives
+     */
+    public Alternatives(Converter<?> converter, CtExpression<?> expression, ConverterManager manager)
+    {
+        this.converter = converter;
+        this.expression = expression;
+        this.maxAlternatives = manager.getMaxAlternatives();
+        this.values = new LinkedHashSet<>();
+    }
+
+    /**
+     * This method adds an alternative value of the expression
+     *
+     * @param value the value
+     *
+     * @throws ConversionException if the expression has more alternatives than allowed
+     */
+    public void add(Object value) throws ConversionException
+    {
+        if (this.values.add(value) && this.values.size() > this.maxAlternatives)
+        {
+            throw new ConversionException(this.converter, this.expression, "The expression has more than " + this.maxAlternatives + " alternative values.");
+        }
+    }
+
+    /**
+     * This method adds several alternative values of the expression
+     *
+     * @param values the values
+     *
+     * @throws ConversionException if the expression has more alternatives than allowed
+     */
+    public void addAll(ConversionResult values) throws ConversionException
+    {
+        for (int i = 0; i < values.size(); i++)
+        {
+            this.add(values.get(i));
+        }
+    }
+
+    /**
+     * This method returns the alternative values in the order they were added.
+     *
+     * @return the alternative values
+     */
+    public Object[] toArray()
+    {
+        return this.values.toArray(new Object[0]);
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import spoon.reflect.code.CtBinaryOperator;
+import spoon.reflect.code.CtComment;
+import spoon.reflect.code.CtConditional;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtFieldAccess;
+import spoon.reflect.code.CtFieldRead;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.code.CtNewArray;
+import spoon.reflect.code.CtNewClass;
+import spoon.reflect.code.CtTypeAccess;
+import spoon.reflect.code.CtUnaryOperator;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtEnumValue;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtFieldReference;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+/**
+ * <p>
+ * The constant table is the symbol table of the compile-time constants which are accessed by the converted
+ * expressions. It evaluates static final fields without loading or initializing their classes. The fields of the
+ * spoon model are evaluated with their initializers, the fields of the classpath with the constant values of
+ * their class files. Enum constants are evaluated to their names if the enum doesn't override <code>toString</code>.
+ * The conditional expressions of the initializers are evaluated with their conditions like the compiler does it,
+ * instead of collecting both alternatives.
+ * </p>
+ *
+ * <p>
+ * Every field is evaluated once. A table belongs to a single spoon model, because the initializers are part of it.
+ * </p>
+ *
+ * @see org.cubeengine.pericopist.extractor.java.configuration.ConstantEvaluation
+ */
+public class ConstantTable
+{
+    private static final Object UNRESOLVABLE = new Object();
+    private static final String TO_STRING_DESCRIPTOR = "()Ljava/lang/String;";
+
+    private final ClassLoader classLoader;
+    private final boolean reflectionEnabled;
+
+    private final Map<String, Object> constants;
+    private final Map<String, Map<String, Object>> classFileConstants;
+    private ConverterManager initializerManager;
+
+    /**
+     * The constructor creates a new constant table
+     *
+     * @param classLoader       the class loader which provides the class files of the classpath
+     * @param reflectionEnabled whether expressions which aren't constant may be evaluated with reflection
+     */
+    public ConstantTable(ClassLoader classLoader, boolean reflectionEnabled)
+    {
+        this.classLoader = classLoader;
+        this.reflectionEnabled = reflectionEnabled;
+
+        this.constants = new HashMap<>();
+        this.classFileConstants = new HashMap<>();
+    }
+
+    /**
+     * This method returns whether expressions which can't be evaluated with the constant table may be
+     * evaluated with reflection.
+     *
+     * @return whether reflection is enabled
+     */
+    public boolean isReflectionEnabled()
+    {
+        return this.reflectionEnabled;
+    }
+
+    /**
+     * This method returns the value of the specified static final field.
+     *
+     * @param fieldReference the field reference
+     * @param manager        the converter manager which converts the initializer of the field
+     *
+     * @return value of the field or null if the field isn't a constant
+     */
+    public Object getValue(CtFieldReference<?> fieldReference, ConverterManager manager)
+    {
+        CtTypeReference<?> declaringType = fieldReference.getDeclaringType();
+        if (declaringType == null)
+        {
+            return null;
+        }
+
+        String key = declaringType.getQualifiedName() + '#' + fieldReference.getSimpleName();
+        Object value = this.constants.get(key);
+        if (value == null)
+        {
+            // marks the field as unresolvable while its initializer is evaluated to stop cyclic initializers
+            this.constants.put(key, UNRESOLVABLE);
+
+            CtType<?> type = declaringType.getDeclaration();
+            if (type == null)
+            {
+                value = this.getClassFileValue(declaringType.getQualifiedName(), fieldReference.getSimpleName());
+            }
+            else
+            {
+                value = this.getModelValue(type, fieldReference.getSimpleName(), manager);
+            }
+            this.constants.put(key, value);
+        }
+        return value == UNRESOLVABLE ? null : value;
+    }
+
+    /**
+     * This method evaluates a field of the spoon model.
+     *
+     * @param type      the type declaring the field
+     * @param fieldName the name of the field
+     * @param manager   the converter manager which converts the initializer of the field
+     *
+     * @return value of the field or {@link #UNRESOLVABLE}
+     */
+    private Object getModelValue(CtType<?> type, String fieldName, ConverterManager manager)
+    {
+        if (type instanceof CtEnum)
+        {
+            CtEnumValue<?> enumValue = ((CtEnum<?>) type).getEnumValue(fieldName);
+            if (enumValue != null)
+            {
+                if (declaresToString(type) || enumValue.getDefaultExpression() instanceof CtNewClass && declaresToString(((CtNewClass<?>) enumValue.getDefaultExpression()).getAnonymousClass()))
+                {
+                    return UNRESOLVABLE;
+                }
+                return fieldName;
+            }
+        }
+
+        CtField<?> field = type.getField(fieldName);
+        if (field == null || field.getDefaultExpression() == null)
+        {
+            return UNRESOLVABLE;
+        }
+        if (!(type instanceof CtInterface) && !(field.isStatic() && field.isFinal()))
+        {
+            return UNRESOLVABLE;
+        }
+        if (!isConstantExpression(field.getDefaultExpression()))
+        {
+            return UNRESOLVABLE;
+        }
+
+        Object value;
+        try
+        {
+            value = this.getInitializerManager(manager).convert(field.getDefaultExpression());
+        }
+        catch (ConversionException e)
+        {
+            return UNRESOLVABLE;
+        }
+        if (value == null)
+        {
+            return UNRESOLVABLE;
+        }
+        return castToPrimitiveType(value, field.getType());
+    }
+
+    /**
+     * This method returns the converter manager which converts the initializers of the fields. It's a copy of the
+     * specified manager which evaluates conditional expressions with their conditions.
+     *
+     * @param manager the converter manager of the converted expressions
+     *
+     * @return converter manager of the initializers
+     */
+    private ConverterManager getInitializerManager(ConverterManager manager)
+    {
+        if (this.initializerManager == null)
+        {
+            this.initializerManager = new ConverterManager(true);
+            this.initializerManager.registerConverter(CtConditional.class, new ConstantConditionalConverter());
+            this.initializerManager.setConstantTable(this);
+            this.initializerManager.setMaxAlternatives(manager.getMaxAlternatives());
+        }
+        return this.initializerManager;
+    }
+
+    /**
+     * This method evaluates a field with the constant values of the class file declaring it.
+     *
+     * @param className binary name of the class declaring the field
+     * @param fieldName the name of the field
+     *
+     * @return value of the field or {@link #UNRESOLVABLE}
+     */
+    private Object getClassFileValue(String className, String fieldName)
+    {
+        Map<String, Object> classConstants = this.classFileConstants.get(className);
+        if (classConstants == null)
+        {
+            classConstants = this.readClassFile(className);
+            this.classFileConstants.put(className, classConstants);
+        }
+
+        Object value = classConstants.get(fieldName);
+        return value == null ? UNRESOLVABLE : value;
+    }
+
+    /**
+     * This method reads the constant values and the enum constants of a class file.
+     *
+     * @param className binary name of the class
+     *
+     * @return values of the constant fields mapped by their names
+     */
+    private Map<String, Object> readClassFile(String className)
+    {
+        if (this.classLoader == null)
+        {
+            return Collections.emptyMap();
+        }
+
+        try (InputStream in = this.classLoader.getResourceAsStream(className.replace('.', '/') + ".class"))
+        {
+            if (in == null)
+            {
+                return Collections.emptyMap();
+            }
+
+            ConstantVisitor visitor = new ConstantVisitor();
+            new ClassReader(in).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            return visitor.getConstants();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * This method checks whether the specified type declares a <code>toString</code> method.
+     *
+     * @param type the type
+     *
+     * @return whether the type declares a <code>toString</code> method
+     */
+    private static boolean declaresToString(CtType<?> type)
+    {
+        for (CtMethod<?> method : type.getMethods())
+        {
+            if ("toString".equals(method.getSimpleName()) && method.getParameters().isEmpty())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method checks whether the specified initializer is a constant expression. Those expressions just consist
+     * of literals, fields, operators, conditional expressions and array initializers.
+     *
+     * @param expression the initializer of a field
+     *
+     * @return whether the initializer is a constant expression
+     */
+    private static boolean isConstantExpression(CtExpression<?> expression)
+    {
+        for (CtElement element : expression.getElements(new TypeFilter<>(CtElement.class)))
+        {
+            if (element instanceof CtTypeAccess)
+            {
+                if (!(element.getParent() instanceof CtFieldAccess))
+                {
+                    return false;
+                }
+            }
+            else if (!(element instanceof CtReference || element instanceof CtLiteral || element instanceof CtFieldRead || element instanceof CtBinaryOperator
+                    || element instanceof CtUnaryOperator || element instanceof CtConditional || element instanceof CtNewArray || element instanceof CtComment))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method casts a converted number or character to the primitive type of the field like the assignment
+     * to the field does it.
+     *
+     * @param value the converted value
+     * @param type  the type of the field
+     *
+     * @return the casted value
+     */
+    private static Object castToPrimitiveType(Object value, CtTypeReference<?> type)
+    {
+        if (type == null || !type.isPrimitive() || !(value instanceof Number || value instanceof Character))
+        {
+            return value;
+        }
+
+        Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+        switch (type.getSimpleName())
+        {
+            case "byte":
+                return number.byteValue();
+            case "short":
+                return number.shortValue();
+            case "char":
+                return (char) number.intValue();
+            case "int":
+                return number.intValue();
+            case "long":
+                return number.longValue();
+            case "float":
+                return number.floatValue();
+            case "double":
+                return number.doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * helper class which evaluates a conditional expression of an initializer with its constant condition
+     */
+    private static class ConstantConditionalConverter implements Converter<CtConditional<?>>
+    {
+        @Override
+        public Object convert(CtConditional<?> expression, ConverterManager manager) throws ConversionException
+        {
+            ConversionResult condition = manager.convertToResult(expression.getCondition());
+            if (condition.size() != 1 || !(condition.get(0) instanceof Boolean))
+            {
+                throw new ConversionException(this, expression, "The condition isn't a constant boolean value.");
+            }
+            return manager.convert((Boolean) condition.get(0) ? expression.getThenExpression() : expression.getElseExpression());
+        }
+    }
+
+    /**
+     * helper class which collects the constant values and the enum constants of a class file
+     */
+    private static class ConstantVisitor extends ClassVisitor
+    {
+        private final Map<String, Object> constants = new HashMap<>();
+        private final Map<String, Object> enumConstants = new HashMap<>();
+        private boolean finalEnum;
+        private boolean declaresToString;
+
+        private ConstantVisitor()
+        {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
+        {
+            // enum constants with a class body are subclasses which could override toString
+            this.finalEnum = (access & Opcodes.ACC_ENUM) != 0 && (access & Opcodes.ACC_FINAL) != 0;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value)
+        {
+            if ((access & Opcodes.ACC_STATIC) == 0)
+            {
+                return null;
+            }
+
+            if ((access & Opcodes.ACC_ENUM) != 0)
+            {
+                this.enumConstants.put(name, name);
+            }
+            else if (value != null && (access & Opcodes.ACC_FINAL) != 0)
+            {
+                this.constants.put(name, toFieldValue(value, descriptor));
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions)
+        {
+            if ("toString".equals(name) && TO_STRING_DESCRIPTOR.equals(descriptor))
+            {
+                this.declaresToString = true;
+            }
+            return null;
+        }
+
+        private Map<String, Object> getConstants()
+        {
+            if (this.finalEnum && !this.declaresToString)
+            {
+                this.constants.putAll(this.enumConstants);
+            }
+            return this.constants;
+        }
+
+        /**
+         * This method converts a constant value of a class file into the type of the field. The values of
+         * booleans, bytes, characters and shorts are stored as integers.
+         *
+         * @param value      the constant value
+         * @param descriptor the descriptor of the field
+         *
+         * @return value of the field
+         */
+        private static Object toFieldValue(Object value, String descriptor)
+        {
+            if (!(value instanceof Integer))
+            {
+                return value;
+            }
+
+            int intValue = (Integer) value;
+            switch (descriptor)
+            {
+                case "Z":
+                    return intValue != 0;
+                case "B":
+                    return (byte) intValue;
+                case "C":
+                    return (char) intValue;
+                case "S":
+                    return (short) intValue;
+                default:
+                    return value;
+            }
+        }
+    }
+}
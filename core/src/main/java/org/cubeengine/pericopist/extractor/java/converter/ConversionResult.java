@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+/**
+ * <p>
+ * A conversion result contains the values of a converted expression. Most expressions have exactly one value,
+ * which is stored without an additional array. Arrays are wrapped without copying them and the elements of
+ * primitive arrays are boxed as soon as they're requested.
+ * </p>
+ *
+ * @see ConverterManager#convertToResult(spoon.reflect.code.CtExpression)
+ */
+public abstract class ConversionResult
+{
+    /**
+     * A conversion result without any value
+     */
+    public static final ConversionResult EMPTY = new MultiValue(new Object[0]);
+
+    private static final ConversionResult NULL = new SingleValue(null);
+
+    ConversionResult()
+    {
+    }
+
+    /**
+     * This method creates the conversion result of the specified converted object.
+     * An array is treated as several values, every other object as a single value.
+     *
+     * @param object the converted object
+     *
+     * @return the conversion result
+     */
+    public static ConversionResult of(Object object)
+    {
+        if (object == null)
+        {
+            return NULL;
+        }
+        if (object instanceof Object[])
+        {
+            return new MultiValue((Object[]) object);
+        }
+        if (object.getClass().isArray())
+        {
+            return new PrimitiveArray(object);
+        }
+        return new SingleValue(object);
+    }
+
+    /**
+     * This method returns the amount of values
+     *
+     * @return amount of values
+     */
+    public abstract int size();
+
+    /**
+     * This method returns the value at the specified index
+     *
+     * @param index the index
+     *
+     * @return the value
+     */
+    public abstract Object get(int index);
+
+    /**
+     * This method returns whether the result doesn't contain any value
+     *
+     * @return whether the result is empty
+     */
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+
+    /**
+     * This method returns the string representation of the value at the specified index
+     *
+     * @param index the index
+     *
+     * @return the string or null if the value is null
+     */
+    public String getString(int index)
+    {
+        Object value = this.get(index);
+        if (value == null)
+        {
+            return null;
+        }
+        return value.toString();
+    }
+
+    /**
+     * This method copies the values into a new array
+     *
+     * @return the values
+     */
+    public Object[] toArray()
+    {
+        Object[] values = new Object[this.size()];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = this.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * This method copies the string representations of the values into a new array
+     *
+     * @return the strings
+     */
+    public String[] toStringArray()
+    {
+        String[] strings = new String[this.size()];
+        for (int i = 0; i < strings.length; i++)
+        {
+            strings[i] = this.getString(i);
+        }
+        return strings;
+    }
+
+    private static final class SingleValue extends ConversionResult
+    {
+        private final Object value;
+
+        private SingleValue(Object value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public int size()
+        {
+            return 1;
+        }
+
+        @Override
+        public Object get(int index)
+        {
+            if (index != 0)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+            }
+            return this.value;
+        }
+    }
+
+    private static final class MultiValue extends ConversionResult
+    {
+        private final Object[] values;
+
+        private MultiValue(Object[] values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public int size()
+        {
+            return this.values.length;
+        }
+
+        @Override
+        public Object get(int index)
+        {
+            return this.values[index];
+        }
+    }
+
+    private static final class PrimitiveArray extends ConversionResult
+    {
+        private final Object array;
+
+        private PrimitiveArray(Object array)
+        {
+            this.array = array;
+        }
+
+        @Override
+        public int size()
+        {
+            if (this.array instanceof int[])
+            {
+                return ((int[]) this.array).length;
+            }
+            if (this.array instanceof long[])
+            {
+                return ((long[]) this.array).length;
+            }
+            if (this.array instanceof char[])
+            {
+                return ((char[]) this.array).length;
+            }
+            if (this.array instanceof double[])
+            {
+                return ((double[]) this.array).length;
+            }
+            if (this.array instanceof float[])
+            {
+                return ((float[]) this.array).length;
+            }
+            if (this.array instanceof byte[])
+            {
+                return ((byte[]) this.array).length;
+            }
+            if (this.array instanceof short[])
+            {
+                return ((short[]) this.array).length;
+            }
+            return ((boolean[]) this.array).length;
+        }
+
+        @Override
+        public Object get(int index)
+        {
+            if (this.array instanceof int[])
+            {
+                return ((int[]) this.array)[index];
+            }
+            if (this.array instanceof long[])
+            {
+                return ((long[]) this.array)[index];
+            }
+            if (this.array instanceof char[])
+            {
+                return ((char[]) this.array)[index];
+            }
+            if (this.array instanceof double[])
+            {
+                return ((double[]) this.array)[index];
+            }
+            if (this.array instanceof float[])
+            {
+                return ((float[]) this.array)[index];
+            }
+            if (this.array instanceof byte[])
+            {
+                return ((byte[]) this.array)[index];
+            }
+            if (this.array instanceof short[])
+            {
+                return ((short[]) this.array)[index];
+            }
+            return ((boolean[]) this.array)[index];
+        }
+    }
+}
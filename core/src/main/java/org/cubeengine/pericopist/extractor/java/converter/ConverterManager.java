@@ -22,14 +22,13 @@
  */
 package org.cubeengine.pericopist.extractor.java.converter;
 
-import java.lang.reflect.Array;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import org.cubeengine.pericopist.extractor.java.converter.binary.CtBinaryOperatorExpressionConverter;
 import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
 import org.cubeengine.pericopist.extractor.java.converter.exception.ConverterNotFoundException;
-import org.cubeengine.pericopist.util.Misc;
 import spoon.reflect.code.CtBinaryOperator;
 import spoon.reflect.code.CtConditional;
 import spoon.reflect.code.CtConstructorCall;
@@ -43,15 +42,23 @@ import spoon.reflect.code.CtUnaryOperator;
 
 /**
  * This class manages all converters which convert a <code>CtExpression</code> into
- * an <code>Object</code>.
+ * an <code>Object</code>. The converter of an expression class is resolved once and cached
+ * with a <code>ClassValue</code>, so the converters can be matched concurrently.
  */
 public class ConverterManager
 {
-    private final Map<Class<? extends CtExpression>, Converter> converters;
+    private static final Converter<?> NO_CONVERTER = (expression, manager) -> null;
+
+    private volatile Map<Class<? extends CtExpression>, Converter> converters;
+    private volatile ClassValue<Converter<?>> matchedConverters;
+    private ConstantTable constantTable;
+    private int maxAlternatives;
 
     public ConverterManager(boolean registerDefaultConverter)
     {
-        this.converters = new HashMap<>();
+        this.converters = Collections.emptyMap();
+        this.matchedConverters = this.createMatchedConverters();
+        this.maxAlternatives = Integer.MAX_VALUE;
 
         if (registerDefaultConverter)
         {
@@ -65,13 +72,19 @@ public class ConverterManager
      * @param clazz     the class
      * @param converter the converter
      */
-    public void registerConverter(Class<? extends CtExpression> clazz, Converter converter)
+    public synchronized void registerConverter(Class<? extends CtExpression> clazz, Converter converter)
     {
         if (clazz == null || converter == null)
         {
             return;
         }
-        this.converters.put(clazz, converter);
+
+        Map<Class<? extends CtExpression>, Converter> converters = new LinkedHashMap<>(this.converters);
+        converters.put(clazz, converter);
+        this.converters = converters;
+
+        // the cached converters could be less specific than the new one
+        this.matchedConverters = this.createMatchedConverters();
     }
 
     /**
@@ -87,7 +100,8 @@ public class ConverterManager
     }
 
     /**
-     * This method returns the converter which is assignable from the specified class
+     * This method returns the most specific converter which is assignable from the specified class.
+     * Converters of unrelated classes are preferred in the order of their registration.
      *
      * @param clazz the class
      *
@@ -95,16 +109,61 @@ public class ConverterManager
      */
     public Converter findConverter(Class<? extends CtExpression> clazz)
     {
-        for (Entry<Class<? extends CtExpression>, Converter> entry : this.converters.entrySet())
-        {
-            if (entry.getKey().isAssignableFrom(clazz))
-            {
-                Converter converter = entry.getValue();
-                this.registerConverter(clazz, converter);
-                return converter;
-            }
-        }
-        return null;
+        Converter<?> converter = this.matchedConverters.get(clazz);
+        return converter == NO_CONVERTER ? null : converter;
+    }
+
+    /**
+     * This method returns the constant table which evaluates the fields without reflection.
+     *
+     * @return the constant table or null if the fields are read with reflection
+     */
+    public ConstantTable getConstantTable()
+    {
+        return this.constantTable;
+    }
+
+    /**
+     * This method sets the constant table which evaluates the fields without reflection.
+     *
+     * @param constantTable the constant table or null if the fields shall be read with reflection
+     */
+    public void setConstantTable(ConstantTable constantTable)
+    {
+        this.constantTable = constantTable;
+    }
+
+    /**
+     * This method returns the maximum amount of alternative values which an expression may have.
+     *
+     * @return maximum amount of alternatives
+     *
+     * @see Alternatives
+     */
+    public int getMaxAlternatives()
+    {
+        return this.maxAlternatives;
+    }
+
+    /**
+     * This method sets the maximum amount of alternative values which an expression may have.
+     *
+     * @param maxAlternatives maximum amount of alternatives
+     */
+    public void setMaxAlternatives(int maxAlternatives)
+    {
+        this.maxAlternatives = maxAlternatives;
+    }
+
+    /**
+     * This method returns whether the converters may load classes, read fields, invoke methods
+     * and call constructors with reflection.
+     *
+     * @return whether reflection is enabled
+     */
+    public boolean isReflectionEnabled()
+    {
+        return this.constantTable == null || this.constantTable.isReflectionEnabled();
     }
 
     /**
@@ -120,12 +179,8 @@ public class ConverterManager
     @SuppressWarnings("unchecked")
     public <T extends CtExpression> Converter<T> matchConverter(CtExpression expression) throws ConverterNotFoundException
     {
-        Converter converter = this.getConverter(expression.getClass());
-        if (converter == null)
-        {
-            converter = this.findConverter(expression.getClass());
-        }
-        if (converter != null)
+        Converter converter = this.matchedConverters.get(expression.getClass());
+        if (converter != NO_CONVERTER)
         {
             return converter;
         }
@@ -144,26 +199,7 @@ public class ConverterManager
      */
     public <T extends CtExpression<?>> String[] convertToStringArray(T expression) throws ConversionException
     {
-        Object[] objects = this.convertToObjectArray(expression);
-
-        if (objects == null)
-        {
-            return new String[0];
-        }
-
-        String[] strings = new String[objects.length];
-        for (int i = 0; i < objects.length; i++)
-        {
-            if (objects[i] == null)
-            {
-                strings[i] = null;
-            }
-            else
-            {
-                strings[i] = objects[i].toString();
-            }
-        }
-        return strings;
+        return this.convertToResult(expression).toStringArray();
     }
 
     /**
@@ -197,123 +233,64 @@ public class ConverterManager
      */
     public <T extends CtExpression<?>> Object[] convertToObjectArray(T expression) throws ConversionException
     {
-        Object o = this.convert(expression);
-
-        if (o == null)
-        {
-            return (Object[]) Array.newInstance(Object.class, 1);
-        }
-        if (o.getClass().isArray())
-        {
-            return this.toObjectArray(o);
-        }
-
-        Object array = Array.newInstance(o.getClass(), 1);
-        Array.set(array, 0, o);
-        return (Object[]) array;
-    }
-
-    private void registerDefaultConverter()
-    {
-        this.registerConverter(CtBinaryOperator.class, new CtBinaryOperatorExpressionConverter());
-        this.registerConverter(CtConditional.class, new CtConditionalExpressionConverter());
-        this.registerConverter(CtFieldAccess.class, new CtFieldAccessExpressionConverter());
-        this.registerConverter(CtInvocation.class, new CtInvocationExpressionConverter());
-        this.registerConverter(CtLiteral.class, new CtLiteralExpressionConverter());
-        this.registerConverter(CtNewArray.class, new CtNewArrayExpressionConverter());
-        this.registerConverter(CtConstructorCall.class, new CtNewClassExpressionConverter());
-        this.registerConverter(CtUnaryOperator.class, new CtUnaryOperatorExpressionConverter());
-        this.registerConverter(CtTypeAccess.class, new CtTypeAccessExpressionConverter());
+        return this.convertToResult(expression).toArray();
     }
 
     /**
-     * This method converts the specified array into an object array.
-     *
-     * @param array array object
+     * This method converts an expression into a conversion result. In contrast to
+     * {@link #convertToObjectArray(CtExpression)} single values and arrays aren't copied.
      *
-     * @return the object array
-     */
-    private Object[] toObjectArray(Object array)
-    {
-        Class<?> componentType = this.getLastComponentType(array);
-        if (!componentType.isPrimitive())
-        {
-            // Array doesn't have to be converted
-            return (Object[]) array;
-        }
-
-        // primitive arrays must be converted to object arrays
-        componentType = this.toComponentType(componentType, this.getDimensionCount(array));
-        Object convertedArray = Array.newInstance(componentType, Array.getLength(array));
-
-        for (int i = 0; i < Array.getLength(array); i++)
-        {
-            Object element = Array.get(array, i);
-            if (!element.getClass().isArray())
-            {
-                Array.set(convertedArray, i, element);
-            }
-            else
-            {
-                Array.set(convertedArray, i, this.toObjectArray(element));
-            }
-        }
-
-        return (Object[]) convertedArray;
-    }
-
-    /**
-     * This method returns the component type of the array.
+     * @param expression the expression
+     * @param <T> the type of expression to convert from
      *
-     * @param clazz     the component class
-     * @param dimension the dimension of the array
+     * @throws ConversionException if the conversion process fails
      *
-     * @return the component type of the array
+     * @return the conversion result
      */
-    private Class toComponentType(Class clazz, int dimension)
+    public <T extends CtExpression<?>> ConversionResult convertToResult(T expression) throws ConversionException
     {
-        Class objectClass = Misc.getRelatedClass(clazz);
-        for (int i = 1; i < dimension; i++)
-        {
-            Object array = Array.newInstance(objectClass, 0);
-            objectClass = array.getClass();
-        }
-        return objectClass;
+        return ConversionResult.of(this.convert(expression));
     }
 
     /**
-     * This method returns the last component type of the array hierarchy
+     * This method creates the cache of the converters which are matched by the expression classes.
      *
-     * @param array array object
-     *
-     * @return last component type
+     * @return converter cache
      */
-    private Class getLastComponentType(Object array)
+    private ClassValue<Converter<?>> createMatchedConverters()
     {
-        Class clazz = array.getClass();
-        while (clazz.isArray())
+        final Map<Class<? extends CtExpression>, Converter> converters = this.converters;
+        return new ClassValue<Converter<?>>()
         {
-            clazz = clazz.getComponentType();
-        }
-        return clazz;
+            @Override
+            protected Converter<?> computeValue(Class<?> type)
+            {
+                Class<?> matchedClass = null;
+                Converter<?> matchedConverter = NO_CONVERTER;
+                for (Entry<Class<? extends CtExpression>, Converter> entry : converters.entrySet())
+                {
+                    Class<?> clazz = entry.getKey();
+                    if (clazz.isAssignableFrom(type) && (matchedClass == null || matchedClass != clazz && matchedClass.isAssignableFrom(clazz)))
+                    {
+                        matchedClass = clazz;
+                        matchedConverter = entry.getValue();
+                    }
+                }
+                return matchedConverter;
+            }
+        };
     }
 
-    /**
-     * This method returns the dimension of an array
-     *
-     * @param array array object
-     *
-     * @return dimension
-     */
-    private int getDimensionCount(Object array)
+    private void registerDefaultConverter()
     {
-        int dimension = 0;
-        Class<?> clazz = array.getClass();
-        while (clazz.isArray())
-        {
-            dimension++;
-            clazz = clazz.getComponentType();
-        }
-        return dimension;
+        this.registerConverter(CtBinaryOperator.class, new CtBinaryOperatorExpressionConverter());
+        this.registerConverter(CtConditional.class, new CtConditionalExpressionConverter());
+        this.registerConverter(CtFieldAccess.class, new CtFieldAccessExpressionConverter());
+        this.registerConverter(CtInvocation.class, new CtInvocationExpressionConverter());
+        this.registerConverter(CtLiteral.class, new CtLiteralExpressionConverter());
+        this.registerConverter(CtNewArray.class, new CtNewArrayExpressionConverter());
+        this.registerConverter(CtConstructorCall.class, new CtNewClassExpressionConverter());
+        this.registerConverter(CtUnaryOperator.class, new CtUnaryOperatorExpressionConverter());
+        this.registerConverter(CtTypeAccess.class, new CtTypeAccessExpressionConverter());
     }
 }
@@ -22,10 +22,6 @@
  */
 package org.cubeengine.pericopist.extractor.java.converter;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-
 import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
 import spoon.reflect.code.CtConditional;
 
@@ -38,20 +34,11 @@ class CtConditionalExpressionConverter implements Converter<CtConditional<?>>
     @Override
     public Object convert(CtConditional<?> expression, ConverterManager manager) throws ConversionException
     {
-        Set<Object> objects = new HashSet<>();
-
-        Object[] conditionObjects = manager.convertToObjectArray(expression.getThenExpression());
-        if (conditionObjects != null)
-        {
-            Collections.addAll(objects, conditionObjects);
-        }
+        Alternatives alternatives = new Alternatives(this, expression, manager);
 
-        conditionObjects = manager.convertToObjectArray(expression.getElseExpression());
-        if (conditionObjects != null)
-        {
-            Collections.addAll(objects, conditionObjects);
-        }
+        alternatives.addAll(manager.convertToResult(expression.getThenExpression()));
+        alternatives.addAll(manager.convertToResult(expression.getElseExpression()));
 
-        return objects.toArray(new Object[0]);
+        return alternatives.toArray();
     }
 }
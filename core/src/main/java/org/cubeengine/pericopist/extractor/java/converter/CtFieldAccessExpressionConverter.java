@@ -30,13 +30,34 @@ import spoon.reflect.reference.CtFieldReference;
 
 /**
  * This converter is responsible for constant expressions like
- * <code>translate(CLASS.CONSTANT)</code>
+ * <code>translate(CLASS.CONSTANT)</code>. The fields are evaluated with the
+ * {@link ConstantTable} of the converter manager if it has one.
  */
 class CtFieldAccessExpressionConverter implements Converter<CtFieldAccess<?>>
 {
     @Override
     public Object convert(CtFieldAccess<?> expression, ConverterManager manager) throws ConversionException
     {
+        CtFieldReference<?> fieldReference = expression.getVariable();
+        if (!fieldReference.isStatic())
+        {
+            throw new ConversionException(this, expression, "'" + expression.getClass().getName() + "' expressions which aren't static aren't supported.");
+        }
+
+        ConstantTable constantTable = manager.getConstantTable();
+        if (constantTable != null)
+        {
+            Object value = constantTable.getValue(fieldReference, manager);
+            if (value != null)
+            {
+                return value;
+            }
+            if (!constantTable.isReflectionEnabled())
+            {
+                throw new ConversionException(this, expression, "The field '" + fieldReference.getSimpleName() + "' isn't a compile-time constant. It can't be read without reflection.");
+            }
+        }
+
         Field field = this.getField(expression);
         try
         {
@@ -67,11 +88,6 @@ class CtFieldAccessExpressionConverter implements Converter<CtFieldAccess<?>>
     private Field getField(CtFieldAccess<?> expression) throws ConversionException
     {
         CtFieldReference<?> fieldReference = expression.getVariable();
-        if (!fieldReference.isStatic())
-        {
-            throw new ConversionException(this, expression, "'" + expression.getClass().getName() + "' expressions which aren't static aren't supported.");
-        }
-
         Member member = fieldReference.getActualField();
         if (!(member instanceof Field))
         {
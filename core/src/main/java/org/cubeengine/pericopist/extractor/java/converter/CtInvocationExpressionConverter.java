@@ -38,6 +38,11 @@ class CtInvocationExpressionConverter extends CtAbstractInvocationExpressionConv
     @Override
     public Object convert(CtInvocation expression, ConverterManager manager) throws ConversionException
     {
+        if (!manager.isReflectionEnabled())
+        {
+            throw new ConversionException(this, expression, "The method can't be invoked without reflection.");
+        }
+
         CtExecutableReference<?> executable = expression.getExecutable();
 
         // 1. load target if executable isn't static
@@ -43,7 +43,7 @@ class CtNewArrayExpressionConverter implements Converter<CtNewArray<?>>
         List<CtExpression<?>> elements = expression.getElements();
         CtTypeReference<?> type = ((CtArrayTypeReference)expression.getType()).getComponentType();
 
-        Object array = Array.newInstance(type.getActualClass(), elements.size());
+        Object array = Array.newInstance(this.getComponentClass(type, manager), elements.size());
 
         for(int i = 0; i < elements.size(); i++)
         {
@@ -52,4 +52,28 @@ class CtNewArrayExpressionConverter implements Converter<CtNewArray<?>>
 
         return array;
     }
+
+    /**
+     * Returns the class of the array elements
+     *
+     * @param type    component type of the array
+     * @param manager the converter manager
+     *
+     * @return component class
+     */
+    private Class<?> getComponentClass(CtTypeReference<?> type, ConverterManager manager)
+    {
+        if (type.isPrimitive() || manager.getConstantTable() == null)
+        {
+            return type.getActualClass();
+        }
+        if (!manager.isReflectionEnabled())
+        {
+            return Object.class;
+        }
+
+        // the constant table evaluates enum constants to their names
+        Class<?> componentClass = type.getActualClass();
+        return componentClass.isEnum() ? Object.class : componentClass;
+    }
 }
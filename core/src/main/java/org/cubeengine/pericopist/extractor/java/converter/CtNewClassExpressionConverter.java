@@ -38,6 +38,11 @@ class CtNewClassExpressionConverter extends CtAbstractInvocationExpressionConver
     @Override
     public Object convert(CtConstructorCall<?> expression, ConverterManager manager) throws ConversionException
     {
+        if (!manager.isReflectionEnabled())
+        {
+            throw new ConversionException(this, expression, "The constructor can't be called without reflection.");
+        }
+
         CtExecutableReference<?> executable = expression.getExecutable();
 
         // 1. load arguments
@@ -33,6 +33,10 @@ public class CtTypeAccessExpressionConverter implements Converter<CtTypeAccess<?
     @Override
     public Object convert(CtTypeAccess<?> expression, ConverterManager manager) throws ConversionException
     {
+        if (!manager.isReflectionEnabled())
+        {
+            throw new ConversionException(this, expression, "The type '" + expression.getAccessedType().getQualifiedName() + "' can't be loaded without reflection.");
+        }
         return expression.getAccessedType().getActualClass();
     }
 }
@@ -42,127 +42,10 @@ class CtUnaryOperatorExpressionConverter implements Converter<CtUnaryOperator<?>
             throw new ConversionException(this, expression, "The operand of the expression is null.");
         }
 
-        switch (kind)
+        Object result = NumericEvaluator.evaluate(kind, object);
+        if (result != null)
         {
-            case POS:
-            case POSTINC:
-            case POSTDEC:
-                if (object instanceof Number)
-                {
-                    // this unary operator kind doesn't change the object
-                    return object;
-                }
-                break;
-
-            case NEG:
-                if (object instanceof Byte)
-                {
-                    return -(Byte) object;
-                }
-                if (object instanceof Integer)
-                {
-                    return -(Integer) object;
-                }
-                if (object instanceof Float)
-                {
-                    return -(Float) object;
-                }
-                if (object instanceof Double)
-                {
-                    return -(Double) object;
-                }
-                if (object instanceof Short)
-                {
-                    return -(Short) object;
-                }
-                if (object instanceof Long)
-                {
-                    return -(Long) object;
-                }
-                break;
-
-            case NOT:
-                if (object instanceof Boolean)
-                {
-                    return !(Boolean) object;
-                }
-                break;
-
-            case COMPL:
-                if (object instanceof Byte)
-                {
-                    return ~(Byte) object;
-                }
-                if (object instanceof Integer)
-                {
-                    return ~(Integer) object;
-                }
-                if (object instanceof Short)
-                {
-                    return ~(Short) object;
-                }
-                if (object instanceof Long)
-                {
-                    return ~(Long) object;
-                }
-                break;
-
-            case PREINC:
-                if (object instanceof Byte)
-                {
-                    return (Byte) object + 1;
-                }
-                if (object instanceof Integer)
-                {
-                    return (Integer) object + 1;
-                }
-                if (object instanceof Float)
-                {
-                    return (Float) object + 1;
-                }
-                if (object instanceof Double)
-                {
-                    return (Double) object + 1;
-                }
-                if (object instanceof Short)
-                {
-                    return (Short) object + 1;
-                }
-                if (object instanceof Long)
-                {
-                    return (Long) object + 1;
-                }
-                break;
-
-            case PREDEC:
-                if (object instanceof Byte)
-                {
-                    return (Byte) object - 1;
-                }
-                if (object instanceof Integer)
-                {
-                    return (Integer) object - 1;
-                }
-                if (object instanceof Float)
-                {
-                    return (Float) object - 1;
-                }
-                if (object instanceof Double)
-                {
-                    return (Double) object - 1;
-                }
-                if (object instanceof Short)
-                {
-                    return (Short) object - 1;
-                }
-                if (object instanceof Long)
-                {
-                    return (Long) object - 1;
-                }
-                break;
-
-            default:
-                throw new ConversionException(this, expression, "Unsupported unary operator kind " + kind.name());
+            return result;
         }
         throw new ConversionException(this, expression, "A " + object.getClass().getName() + " isn't supported for a " + kind.name() + " unary operator expression.");
     }
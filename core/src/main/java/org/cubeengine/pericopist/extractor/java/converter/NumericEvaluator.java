@@ -0,0 +1,463 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import spoon.reflect.code.BinaryOperatorKind;
+import spoon.reflect.code.UnaryOperatorKind;
+
+/**
+ * <p>
+ * The numeric evaluator performs the arithmetic, bitwise, shift and comparison operators on boxed primitive values.
+ * The operands are promoted once like java does it. The operation is computed on primitives and just its result is
+ * boxed.
+ * </p>
+ *
+ * <p>
+ * The methods return null if the operator doesn't support the types of the operands.
+ * </p>
+ */
+public final class NumericEvaluator
+{
+    private static final int NO_RANK = -1;
+    private static final int INT_RANK = 0;
+    private static final int LONG_RANK = 1;
+    private static final int FLOAT_RANK = 2;
+    private static final int DOUBLE_RANK = 3;
+
+    private NumericEvaluator()
+    {
+    }
+
+    /**
+     * This method performs a binary operator on the specified operands. The result is a boolean for comparisons
+     * and the promoted type of the operands otherwise.
+     *
+     * @param operator         the binary operator
+     * @param leftHandOperand  left hand operand
+     * @param rightHandOperand right hand operand
+     *
+     * @return the result or null if the operator doesn't support the operands
+     *
+     * @throws ArithmeticException if an integral value is divided by zero
+     */
+    public static Object evaluate(BinaryOperatorKind operator, Object leftHandOperand, Object rightHandOperand)
+    {
+        int leftHandRank = rank(leftHandOperand);
+        int rightHandRank = rank(rightHandOperand);
+        if (leftHandRank == NO_RANK || rightHandRank == NO_RANK)
+        {
+            if (leftHandOperand instanceof Boolean && rightHandOperand instanceof Boolean)
+            {
+                return evaluateLogical(operator, (Boolean) leftHandOperand, (Boolean) rightHandOperand);
+            }
+            return null;
+        }
+
+        switch (operator)
+        {
+            case SL:
+            case SR:
+            case USR:
+                // the operands of shifts are promoted separately
+                if (rightHandRank > LONG_RANK)
+                {
+                    return null;
+                }
+                return evaluateShift(operator, leftHandRank, leftHandOperand, longValue(rightHandOperand));
+            default:
+                break;
+        }
+
+        switch (Math.max(leftHandRank, rightHandRank))
+        {
+            case INT_RANK:
+                return evaluateInt(operator, (int) longValue(leftHandOperand), (int) longValue(rightHandOperand));
+            case LONG_RANK:
+                return evaluateLong(operator, longValue(leftHandOperand), longValue(rightHandOperand));
+            case FLOAT_RANK:
+                return evaluateFloat(operator, floatValue(leftHandOperand), floatValue(rightHandOperand));
+            default:
+                return evaluateDouble(operator, doubleValue(leftHandOperand), doubleValue(rightHandOperand));
+        }
+    }
+
+    /**
+     * This method performs a unary operator on the specified operand. The increment and decrement operators keep
+     * the type of the operand, the other ones promote it like java does it.
+     *
+     * @param operator the unary operator
+     * @param operand  the operand
+     *
+     * @return the result or null if the operator doesn't support the operand
+     */
+    public static Object evaluate(UnaryOperatorKind operator, Object operand)
+    {
+        if (operator == UnaryOperatorKind.NOT)
+        {
+            return operand instanceof Boolean ? !(Boolean) operand : null;
+        }
+
+        int rank = rank(operand);
+        if (rank == NO_RANK)
+        {
+            return null;
+        }
+
+        switch (operator)
+        {
+            case POS:
+            case POSTINC:
+            case POSTDEC:
+                // these unary operator kinds don't change the value of the expression
+                return operand;
+            case PREINC:
+                return castToTypeOf(operand, evaluate(BinaryOperatorKind.PLUS, operand, 1));
+            case PREDEC:
+                return castToTypeOf(operand, evaluate(BinaryOperatorKind.MINUS, operand, 1));
+            case NEG:
+                switch (rank)
+                {
+                    case INT_RANK:
+                        return -(int) longValue(operand);
+                    case LONG_RANK:
+                        return -longValue(operand);
+                    case FLOAT_RANK:
+                        return -floatValue(operand);
+                    default:
+                        return -doubleValue(operand);
+                }
+            case COMPL:
+                switch (rank)
+                {
+                    case INT_RANK:
+                        return ~(int) longValue(operand);
+                    case LONG_RANK:
+                        return ~longValue(operand);
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static Object evaluateInt(BinaryOperatorKind operator, int leftHandOperand, int rightHandOperand)
+    {
+        switch (operator)
+        {
+            case PLUS:
+                return leftHandOperand + rightHandOperand;
+            case MINUS:
+                return leftHandOperand - rightHandOperand;
+            case MUL:
+                return leftHandOperand * rightHandOperand;
+            case DIV:
+                return leftHandOperand / rightHandOperand;
+            case MOD:
+                return leftHandOperand % rightHandOperand;
+            case BITAND:
+                return leftHandOperand & rightHandOperand;
+            case BITOR:
+                return leftHandOperand | rightHandOperand;
+            case BITXOR:
+                return leftHandOperand ^ rightHandOperand;
+            case LT:
+                return leftHandOperand < rightHandOperand;
+            case LE:
+                return leftHandOperand <= rightHandOperand;
+            case GT:
+                return leftHandOperand > rightHandOperand;
+            case GE:
+                return leftHandOperand >= rightHandOperand;
+            case EQ:
+                return leftHandOperand == rightHandOperand;
+            case NE:
+                return leftHandOperand != rightHandOperand;
+            default:
+                return null;
+        }
+    }
+
+    private static Object evaluateLong(BinaryOperatorKind operator, long leftHandOperand, long rightHandOperand)
+    {
+        switch (operator)
+        {
+            case PLUS:
+                return leftHandOperand + rightHandOperand;
+            case MINUS:
+                return leftHandOperand - rightHandOperand;
+            case MUL:
+                return leftHandOperand * rightHandOperand;
+            case DIV:
+                return leftHandOperand / rightHandOperand;
+            case MOD:
+                return leftHandOperand % rightHandOperand;
+            case BITAND:
+                return leftHandOperand & rightHandOperand;
+            case BITOR:
+                return leftHandOperand | rightHandOperand;
+            case BITXOR:
+                return leftHandOperand ^ rightHandOperand;
+            case LT:
+                return leftHandOperand < rightHandOperand;
+            case LE:
+                return leftHandOperand <= rightHandOperand;
+            case GT:
+                return leftHandOperand > rightHandOperand;
+            case GE:
+                return leftHandOperand >= rightHandOperand;
+            case EQ:
+                return leftHandOperand == rightHandOperand;
+            case NE:
+                return leftHandOperand != rightHandOperand;
+            default:
+                return null;
+        }
+    }
+
+    private static Object evaluateFloat(BinaryOperatorKind operator, float leftHandOperand, float rightHandOperand)
+    {
+        switch (operator)
+        {
+            case PLUS:
+                return leftHandOperand + rightHandOperand;
+            case MINUS:
+                return leftHandOperand - rightHandOperand;
+            case MUL:
+                return leftHandOperand * rightHandOperand;
+            case DIV:
+                return leftHandOperand / rightHandOperand;
+            case MOD:
+                return leftHandOperand % rightHandOperand;
+            case LT:
+                return leftHandOperand < rightHandOperand;
+            case LE:
+                return leftHandOperand <= rightHandOperand;
+            case GT:
+                return leftHandOperand > rightHandOperand;
+            case GE:
+                return leftHandOperand >= rightHandOperand;
+            case EQ:
+                return leftHandOperand == rightHandOperand;
+            case NE:
+                return leftHandOperand != rightHandOperand;
+            default:
+                return null;
+        }
+    }
+
+    private static Object evaluateDouble(BinaryOperatorKind operator, double leftHandOperand, double rightHandOperand)
+    {
+        switch (operator)
+        {
+            case PLUS:
+                return leftHandOperand + rightHandOperand;
+            case MINUS:
+                return leftHandOperand - rightHandOperand;
+            case MUL:
+                return leftHandOperand * rightHandOperand;
+            case DIV:
+                return leftHandOperand / rightHandOperand;
+            case MOD:
+                return leftHandOperand % rightHandOperand;
+            case LT:
+                return leftHandOperand < rightHandOperand;
+            case LE:
+                return leftHandOperand <= rightHandOperand;
+            case GT:
+                return leftHandOperand > rightHandOperand;
+            case GE:
+                return leftHandOperand >= rightHandOperand;
+            case EQ:
+                return leftHandOperand == rightHandOperand;
+            case NE:
+                return leftHandOperand != rightHandOperand;
+            default:
+                return null;
+        }
+    }
+
+    private static Object evaluateShift(BinaryOperatorKind operator, int leftHandRank, Object leftHandOperand, long distance)
+    {
+        if (leftHandRank == INT_RANK)
+        {
+            int value = (int) longValue(leftHandOperand);
+            switch (operator)
+            {
+                case SL:
+                    return value << distance;
+                case SR:
+                    return value >> distance;
+                default:
+                    return value >>> distance;
+            }
+        }
+        if (leftHandRank == LONG_RANK)
+        {
+            long value = longValue(leftHandOperand);
+            switch (operator)
+            {
+                case SL:
+                    return value << distance;
+                case SR:
+                    return value >> distance;
+                default:
+                    return value >>> distance;
+            }
+        }
+        return null;
+    }
+
+    private static Object evaluateLogical(BinaryOperatorKind operator, boolean leftHandOperand, boolean rightHandOperand)
+    {
+        switch (operator)
+        {
+            case BITAND:
+                return leftHandOperand & rightHandOperand;
+            case BITOR:
+                return leftHandOperand | rightHandOperand;
+            case BITXOR:
+                return leftHandOperand ^ rightHandOperand;
+            case EQ:
+                return leftHandOperand == rightHandOperand;
+            case NE:
+                return leftHandOperand != rightHandOperand;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * This method returns the rank of the promoted type of the specified value. Bytes, shorts and characters
+     * are promoted to integers.
+     *
+     * @param value the value
+     *
+     * @return rank of the promoted type or {@link #NO_RANK} if the value isn't numeric
+     */
+    private static int rank(Object value)
+    {
+        if (value == null)
+        {
+            return NO_RANK;
+        }
+
+        Class<?> clazz = value.getClass();
+        if (clazz == Integer.class || clazz == Short.class || clazz == Byte.class || clazz == Character.class)
+        {
+            return INT_RANK;
+        }
+        if (clazz == Long.class)
+        {
+            return LONG_RANK;
+        }
+        if (clazz == Double.class)
+        {
+            return DOUBLE_RANK;
+        }
+        if (clazz == Float.class)
+        {
+            return FLOAT_RANK;
+        }
+        return NO_RANK;
+    }
+
+    /**
+     * This method unboxes an integral value. The exact classes are checked, because the methods of
+     * <code>Number</code> would be called on too many implementations to be inlined.
+     *
+     * @param value boxed byte, short, character, integer or long
+     *
+     * @return the primitive value
+     */
+    private static long longValue(Object value)
+    {
+        Class<?> clazz = value.getClass();
+        if (clazz == Integer.class)
+        {
+            return (Integer) value;
+        }
+        if (clazz == Long.class)
+        {
+            return (Long) value;
+        }
+        if (clazz == Short.class)
+        {
+            return (Short) value;
+        }
+        if (clazz == Byte.class)
+        {
+            return (Byte) value;
+        }
+        return (Character) value;
+    }
+
+    private static float floatValue(Object value)
+    {
+        if (value.getClass() == Float.class)
+        {
+            return (Float) value;
+        }
+        return longValue(value);
+    }
+
+    private static double doubleValue(Object value)
+    {
+        Class<?> clazz = value.getClass();
+        if (clazz == Double.class)
+        {
+            return (Double) value;
+        }
+        if (clazz == Float.class)
+        {
+            return (Float) value;
+        }
+        return longValue(value);
+    }
+
+    /**
+     * This method casts the result of an increment or a decrement back to the type of its operand.
+     *
+     * @param operand the operand
+     * @param result  the promoted result
+     *
+     * @return the casted result
+     */
+    private static Object castToTypeOf(Object operand, Object result)
+    {
+        Class<?> clazz = operand.getClass();
+        if (clazz == Byte.class)
+        {
+            return ((Number) result).byteValue();
+        }
+        if (clazz == Short.class)
+        {
+            return ((Number) result).shortValue();
+        }
+        if (clazz == Character.class)
+        {
+            return (char) ((Number) result).intValue();
+        }
+        return result;
+    }
+}
@@ -22,8 +22,10 @@
  */
 package org.cubeengine.pericopist.extractor.java.converter.binary;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import org.cubeengine.pericopist.extractor.java.converter.Alternatives;
+import org.cubeengine.pericopist.extractor.java.converter.ConversionResult;
 import org.cubeengine.pericopist.extractor.java.converter.Converter;
 import org.cubeengine.pericopist.extractor.java.converter.ConverterManager;
 import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
@@ -41,28 +43,25 @@ public class CtBinaryOperatorExpressionConverter implements Converter<CtBinaryOp
 
     public CtBinaryOperatorExpressionConverter()
     {
-        this.binaryOperationMap = new HashMap<>();
+        this.binaryOperationMap = new EnumMap<>(BinaryOperatorKind.class);
 
         this.registerBinaryOperation(new AndBinaryOperation(this));
-        this.registerBinaryOperation(new BitwiseAndBinaryOperation(this));
-        this.registerBinaryOperation(new BitwiseOrBinaryOperation(this));
-        this.registerBinaryOperation(new BitwiseXorBinaryOperation(this));
-        this.registerBinaryOperation(new DivisionBinaryOperation(this));
         this.registerBinaryOperation(new EqualsBinaryOperation(this));
-        this.registerBinaryOperation(new GreaterOrEqualThanBinaryOperation(this));
-        this.registerBinaryOperation(new GreaterThanBinaryOperation(this));
         this.registerBinaryOperation(new InstanceOfBinaryOperation(this));
-        this.registerBinaryOperation(new LowerOrEqualThanBinaryOperation(this));
-        this.registerBinaryOperation(new LowerThanBinaryOperation(this));
-        this.registerBinaryOperation(new ModuleBinaryOperation(this));
-        this.registerBinaryOperation(new MultiplicationBinaryOperation(this));
         this.registerBinaryOperation(new NotEqualsBinaryOperation(this));
         this.registerBinaryOperation(new OrBinaryOperation(this));
         this.registerBinaryOperation(new PlusBinaryOperation(this));
-        this.registerBinaryOperation(new ShiftLeftBinaryOperation(this));
-        this.registerBinaryOperation(new ShiftRightBinaryOperation(this));
-        this.registerBinaryOperation(new SubtractionBinaryOperation(this));
-        this.registerBinaryOperation(new UnsignedShiftRightBinaryOperation(this));
+
+        BinaryOperatorKind[] numericOperators = {
+            BinaryOperatorKind.BITAND, BinaryOperatorKind.BITOR, BinaryOperatorKind.BITXOR,
+            BinaryOperatorKind.DIV, BinaryOperatorKind.MOD, BinaryOperatorKind.MUL, BinaryOperatorKind.MINUS,
+            BinaryOperatorKind.GE, BinaryOperatorKind.GT, BinaryOperatorKind.LE, BinaryOperatorKind.LT,
+            BinaryOperatorKind.SL, BinaryOperatorKind.SR, BinaryOperatorKind.USR
+        };
+        for (BinaryOperatorKind operator : numericOperators)
+        {
+            this.registerBinaryOperation(new NumericBinaryOperation(this, operator));
+        }
     }
 
     private void registerBinaryOperation(BinaryOperation binaryOperation)
@@ -73,29 +72,35 @@ public class CtBinaryOperatorExpressionConverter implements Converter<CtBinaryOp
     @Override
     public Object convert(CtBinaryOperator<?> expression, ConverterManager manager) throws ConversionException
     {
-        Object[] leftHandOperandObjects = manager.convertToObjectArray(expression.getLeftHandOperand());
-        if (leftHandOperandObjects == null || leftHandOperandObjects.length == 0)
+        ConversionResult leftHandOperands = manager.convertToResult(expression.getLeftHandOperand());
+        if (leftHandOperands.isEmpty())
         {
             return null;
         }
 
-        Object[] rightHandOperandObjects = manager.convertToObjectArray(expression.getRightHandOperand());
-        if (rightHandOperandObjects == null || rightHandOperandObjects.length == 0)
+        ConversionResult rightHandOperands = manager.convertToResult(expression.getRightHandOperand());
+        if (rightHandOperands.isEmpty())
         {
             return null;
         }
 
-        Object[] objects = new Object[leftHandOperandObjects.length * rightHandOperandObjects.length];
+        if (leftHandOperands.size() == 1 && rightHandOperands.size() == 1)
+        {
+            return this.binaryOperation(expression, leftHandOperands.get(0), rightHandOperands.get(0));
+        }
 
-        for (int i = 0; i < leftHandOperandObjects.length; i++)
+        // the combinations are deduplicated while they're created, so just the distinct ones are kept
+        Alternatives alternatives = new Alternatives(this, expression, manager);
+        for (int i = 0; i < leftHandOperands.size(); i++)
         {
-            for (int j = 0; j < rightHandOperandObjects.length; j++)
+            Object leftHandOperand = leftHandOperands.get(i);
+            for (int j = 0; j < rightHandOperands.size(); j++)
             {
-                objects[i * rightHandOperandObjects.length + j] = this.binaryOperation(expression, leftHandOperandObjects[i], rightHandOperandObjects[j]);
+                alternatives.add(this.binaryOperation(expression, leftHandOperand, rightHandOperands.get(j)));
             }
         }
 
-        return objects;
+        return alternatives.toArray();
     }
 
     private Object binaryOperation(CtBinaryOperator<?> expression, Object leftHandOperand, Object rightHandOperand) throws ConversionException
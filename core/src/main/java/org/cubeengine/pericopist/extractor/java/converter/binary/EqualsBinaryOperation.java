@@ -23,6 +23,7 @@
 package org.cubeengine.pericopist.extractor.java.converter.binary;
 
 import org.cubeengine.pericopist.extractor.java.converter.Converter;
+import org.cubeengine.pericopist.extractor.java.converter.NumericEvaluator;
 import spoon.reflect.code.BinaryOperatorKind;
 
 class EqualsBinaryOperation extends BinaryOperation
@@ -35,6 +36,12 @@ class EqualsBinaryOperation extends BinaryOperation
     @Override
     public Object operate(Object leftHandOperand, Object rightHandOperand)
     {
+        // numbers of different types and booleans are compared by their values
+        Object result = NumericEvaluator.evaluate(this.getOperator(), leftHandOperand, rightHandOperand);
+        if (result != null)
+        {
+            return result;
+        }
         return leftHandOperand.equals(rightHandOperand);
     }
 }
@@ -0,0 +1,290 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.hierarchy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.asm.ClassReader;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * <p>
+ * The type hierarchy knows the direct super types of the types of the classpath and of the source model. It answers
+ * whether a type is a subtype of another one with the help of memoized ancestor sets, so the super types don't have
+ * to be resolved by spoon for every occurrence of a translatable expression.
+ * </p>
+ *
+ * <p>
+ * The classpath hierarchy is created by the {@link TypeHierarchyCache}. Types which weren't indexed, like the ones
+ * of the jdk, are read lazily from the class files of the class loader. A hierarchy of a spoon model is created with
+ * {@link #withSourceModel(Factory)} and prefers the types of the source files to the compiled ones.
+ * </p>
+ */
+public class TypeHierarchy
+{
+    private static final String[] UNKNOWN_TYPE = new String[0];
+    private static final Set<String> INCOMPLETE_ANCESTORS = Collections.unmodifiableSet(new HashSet<String>());
+
+    private final TypeHierarchy parent;
+    private final ClassLoader classLoader;
+    private final Map<String, String[]> supertypes;
+    private final Map<String, Set<String>> ancestors;
+
+    /**
+     * The constructor creates a new type hierarchy
+     *
+     * @param supertypes  the direct super types of the indexed types
+     * @param classLoader the class loader whose class files are read for types which aren't indexed, or null
+     */
+    public TypeHierarchy(Map<String, String[]> supertypes, ClassLoader classLoader)
+    {
+        this(null, new ConcurrentHashMap<>(supertypes), classLoader);
+    }
+
+    private TypeHierarchy(TypeHierarchy parent, Map<String, String[]> supertypes, ClassLoader classLoader)
+    {
+        this.parent = parent;
+        this.classLoader = classLoader;
+        this.supertypes = supertypes;
+        this.ancestors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * This method creates a type hierarchy which contains the types of the specified spoon model in addition
+     * to the types of this hierarchy. The types of the model replace the indexed ones.
+     *
+     * @param factory the factory of the spoon model
+     *
+     * @return type hierarchy of the model
+     */
+    public TypeHierarchy withSourceModel(Factory factory)
+    {
+        Map<String, String[]> sourceTypes = new HashMap<>();
+        for (CtType<?> type : factory.Type().getAll(true))
+        {
+            sourceTypes.put(type.getQualifiedName(), getSupertypes(type));
+        }
+
+        return new TypeHierarchy(this, sourceTypes, null);
+    }
+
+    /**
+     * This method checks whether the specified type is a subtype of the other one. Every type is a subtype of itself.
+     *
+     * @param type      qualified name of the type
+     * @param supertype qualified name of the possible super type
+     *
+     * @return true or false if the question can be answered; null if a type of the hierarchy is unknown
+     */
+    public Boolean isSubtype(String type, String supertype)
+    {
+        Set<String> ancestors = this.getAncestors(type);
+        if (ancestors.contains(supertype))
+        {
+            return Boolean.TRUE;
+        }
+        return ancestors == INCOMPLETE_ANCESTORS ? null : Boolean.FALSE;
+    }
+
+    /**
+     * This method returns the ancestors of the specified type including the type itself.
+     * The ancestors are memoized for later calls.
+     *
+     * @param type qualified name of the type
+     *
+     * @return ancestors of the type or an empty set if one of them is unknown
+     */
+    private Set<String> getAncestors(String type)
+    {
+        Set<String> typeAncestors = this.ancestors.get(type);
+        if (typeAncestors != null)
+        {
+            return typeAncestors;
+        }
+
+        typeAncestors = new HashSet<>();
+        Queue<String> queue = new ArrayDeque<>();
+        queue.offer(type);
+
+        while (!queue.isEmpty())
+        {
+            String current = queue.poll();
+            if (!typeAncestors.add(current))
+            {
+                continue;
+            }
+
+            Set<String> memoized = this.ancestors.get(current);
+            if (memoized != null && memoized != INCOMPLETE_ANCESTORS)
+            {
+                typeAncestors.addAll(memoized);
+                continue;
+            }
+
+            String[] currentSupertypes = this.getSupertypes(current);
+            if (currentSupertypes == UNKNOWN_TYPE)
+            {
+                typeAncestors = INCOMPLETE_ANCESTORS;
+                break;
+            }
+            Collections.addAll(queue, currentSupertypes);
+        }
+
+        if (typeAncestors != INCOMPLETE_ANCESTORS)
+        {
+            typeAncestors = Collections.unmodifiableSet(typeAncestors);
+        }
+        this.ancestors.put(type, typeAncestors);
+        return typeAncestors;
+    }
+
+    /**
+     * This method returns the direct super types of the specified type.
+     *
+     * @param type qualified name of the type
+     *
+     * @return direct super types of the type
+     */
+    private String[] getSupertypes(String type)
+    {
+        String[] typeSupertypes = this.supertypes.get(type);
+        if (typeSupertypes != null)
+        {
+            return typeSupertypes;
+        }
+        if (this.parent != null)
+        {
+            return this.parent.getSupertypes(type);
+        }
+        if (this.classLoader == null)
+        {
+            return UNKNOWN_TYPE;
+        }
+
+        typeSupertypes = UNKNOWN_TYPE;
+        try (InputStream in = this.classLoader.getResourceAsStream(type.replace('.', '/') + ".class"))
+        {
+            if (in != null)
+            {
+                ClassReader reader = new ClassReader(in);
+                if (type.equals(getClassName(reader)))
+                {
+                    typeSupertypes = getSupertypes(reader);
+                }
+            }
+        }
+        catch (IOException | RuntimeException ignored)
+        {
+            // the type stays unknown
+        }
+
+        String[] previous = this.supertypes.putIfAbsent(type, typeSupertypes);
+        return previous == null ? typeSupertypes : previous;
+    }
+
+    /**
+     * This method returns the qualified name of the class which is read by the specified class reader.
+     *
+     * @param reader the class reader
+     *
+     * @return qualified name of the class
+     */
+    static String getClassName(ClassReader reader)
+    {
+        return reader.getClassName().replace('/', '.');
+    }
+
+    /**
+     * This method returns the qualified names of the direct super types of the class which is read by
+     * the specified class reader.
+     *
+     * @param reader the class reader
+     *
+     * @return direct super types of the class
+     */
+    static String[] getSupertypes(ClassReader reader)
+    {
+        String superName = reader.getSuperName();
+        String[] interfaces = reader.getInterfaces();
+
+        int offset = superName == null ? 0 : 1;
+        String[] supertypes = new String[interfaces.length + offset];
+        if (superName != null)
+        {
+            supertypes[0] = superName.replace('/', '.');
+        }
+        for (int i = 0; i < interfaces.length; i++)
+        {
+            supertypes[i + offset] = interfaces[i].replace('/', '.');
+        }
+        return supertypes;
+    }
+
+    /**
+     * This method returns the qualified names of the direct super types of the specified type of the spoon model.
+     * Classes without an explicit super class extend java.lang.Object like within their class files.
+     *
+     * @param type the type of the spoon model
+     *
+     * @return direct super types of the type
+     */
+    private static String[] getSupertypes(CtType<?> type)
+    {
+        Set<CtTypeReference<?>> superInterfaces = type.getSuperInterfaces();
+        CtTypeReference<?> superclass = type.getSuperclass();
+
+        int offset = 0;
+        String[] supertypes = new String[superInterfaces.size() + 1];
+        if (superclass != null)
+        {
+            supertypes[offset++] = superclass.getQualifiedName();
+        }
+        else if (type.isClass() && !Object.class.getName().equals(type.getQualifiedName()))
+        {
+            supertypes[offset++] = Object.class.getName();
+        }
+        for (CtTypeReference<?> superInterface : superInterfaces)
+        {
+            supertypes[offset++] = superInterface.getQualifiedName();
+        }
+
+        if (offset < supertypes.length)
+        {
+            String[] trimmed = new String[offset];
+            System.arraycopy(supertypes, 0, trimmed, 0, offset);
+            return trimmed;
+        }
+        return supertypes;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.hierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.cubeengine.pericopist.util.CacheFiles;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * <p>
+ * The type hierarchy cache creates the {@link TypeHierarchy} of a classpath by reading the headers of its class files.
+ * </p>
+ *
+ * <p>
+ * The types of every jar file are stored together with its size, modification time and checksum. So just jars which
+ * were changed or added since the last run have to be scanned again. The checksum of a jar is just created if its
+ * size or modification time changed. Directories are always scanned because their content changes
+ * with every build of the project.
+ * </p>
+ */
+public class TypeHierarchyCache
+{
+    private static final int MAGIC_NUMBER = 0x50455448;
+    private static final int VERSION = 2;
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final String[] classpath;
+
+    private final Map<String, CachedJar> previousJars;
+    private final Map<String, CachedJar> currentJars;
+
+    /**
+     * The constructor creates a new and empty type hierarchy cache
+     *
+     * @param classpath the classpath of the extraction process
+     */
+    public TypeHierarchyCache(String[] classpath)
+    {
+        this.classpath = classpath;
+
+        this.previousJars = new HashMap<>();
+        this.currentJars = new LinkedHashMap<>();
+    }
+
+    /**
+     * This method loads the indexed jars from the specified file.
+     *
+     * @param file the cache file
+     *
+     * @return whether the entries of the file were loaded
+     *
+     * @throws IOException if the file couldn't be read
+     */
+    public boolean load(File file) throws IOException
+    {
+        if (!file.exists())
+        {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != VERSION)
+            {
+                return false;
+            }
+
+            int jarAmount = in.readInt();
+            for (int i = 0; i < jarAmount; i++)
+            {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                CachedJar jar = new CachedJar(size, lastModified, in.readUTF());
+
+                int typeAmount = in.readInt();
+                for (int j = 0; j < typeAmount; j++)
+                {
+                    String type = in.readUTF();
+                    String[] supertypes = new String[in.readUnsignedShort()];
+                    for (int k = 0; k < supertypes.length; k++)
+                    {
+                        supertypes[k] = in.readUTF();
+                    }
+                    jar.types.put(type, supertypes);
+                }
+                this.previousJars.put(path, jar);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method saves the jars which were indexed by the last call of {@link #createHierarchy(ClassLoader)}.
+     *
+     * @param file the cache file
+     *
+     * @throws IOException if the file couldn't be written
+     */
+    public void save(File file) throws IOException
+    {
+        CacheFiles.write(file, out -> {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(VERSION);
+
+            out.writeInt(this.currentJars.size());
+            for (Map.Entry<String, CachedJar> entry : this.currentJars.entrySet())
+            {
+                CachedJar jar = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(jar.size);
+                out.writeLong(jar.lastModified);
+                out.writeUTF(jar.checksum);
+
+                out.writeInt(jar.types.size());
+                for (Map.Entry<String, String[]> type : jar.types.entrySet())
+                {
+                    out.writeUTF(type.getKey());
+                    out.writeShort(type.getValue().length);
+                    for (String supertype : type.getValue())
+                    {
+                        out.writeUTF(supertype);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * This method creates the type hierarchy of the classpath. Jars which match a loaded entry aren't
+     * scanned again. If a type is contained by several classpath entries, the first one is used like by a class loader.
+     *
+     * @param classLoader the class loader whose class files are read for types which aren't part of the classpath
+     *
+     * @return type hierarchy of the classpath
+     *
+     * @throws IOException if a classpath entry couldn't be read
+     */
+    public TypeHierarchy createHierarchy(ClassLoader classLoader) throws IOException
+    {
+        Map<String, String[]> supertypes = new HashMap<>();
+
+        for (String entry : this.classpath)
+        {
+            File file = new File(entry);
+            Map<String, String[]> types;
+
+            if (file.isDirectory())
+            {
+                types = scanDirectory(file.toPath());
+            }
+            else if (file.isFile())
+            {
+                CachedJar jar = this.loadJar(file);
+                this.currentJars.put(file.getAbsolutePath(), jar);
+                types = jar.types;
+            }
+            else
+            {
+                continue;
+            }
+
+            for (Map.Entry<String, String[]> type : types.entrySet())
+            {
+                supertypes.putIfAbsent(type.getKey(), type.getValue());
+            }
+        }
+
+        return new TypeHierarchy(supertypes, classLoader);
+    }
+
+    /**
+     * This method reads the direct super types of every class file of the specified directory.
+     *
+     * @param directory the directory
+     *
+     * @return map of the qualified class names and their direct super types
+     *
+     * @throws IOException if a file couldn't be read
+     */
+    private static Map<String, String[]> scanDirectory(Path directory) throws IOException
+    {
+        Map<String, String[]> types = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (Path path : paths.filter(path -> isClassFile(path.toString()) && Files.isRegularFile(path)).collect(Collectors.toList()))
+            {
+                try (InputStream in = Files.newInputStream(path))
+                {
+                    readClass(in, types);
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * This method reads the direct super types of every class file of the specified jar.
+     *
+     * @param file the jar file
+     *
+     * @return map of the qualified class names and their direct super types
+     *
+     * @throws IOException if the jar couldn't be read
+     */
+    private static Map<String, String[]> scanJar(File file) throws IOException
+    {
+        Map<String, String[]> types = new HashMap<>();
+        try (JarFile jarFile = new JarFile(file))
+        {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements())
+            {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !isClassFile(entry.getName()) || entry.getName().startsWith("META-INF/"))
+                {
+                    continue;
+                }
+
+                try (InputStream in = jarFile.getInputStream(entry))
+                {
+                    readClass(in, types);
+                }
+            }
+        }
+        return types;
+    }
+
+    private static boolean isClassFile(String name)
+    {
+        return name.endsWith(CLASS_FILE_EXTENSION) && !name.endsWith("module-info" + CLASS_FILE_EXTENSION) && !name.endsWith("package-info" + CLASS_FILE_EXTENSION);
+    }
+
+    private static void readClass(InputStream in, Map<String, String[]> types) throws IOException
+    {
+        ClassReader reader;
+        try
+        {
+            reader = new ClassReader(in);
+        }
+        catch (IllegalArgumentException e)
+        {
+            // the class file is invalid or has an unsupported version
+            return;
+        }
+        types.put(TypeHierarchy.getClassName(reader), TypeHierarchy.getSupertypes(reader));
+    }
+
+    /**
+     * This method returns the types of the specified jar. A loaded entry is used without reading the jar if its
+     * size and modification time didn't change. Otherwise the checksum of the jar is compared, so a jar which was
+     * just touched isn't scanned again.
+     *
+     * @param file the jar file
+     *
+     * @return the cached jar
+     *
+     * @throws IOException if the jar couldn't be read
+     */
+    private CachedJar loadJar(File file) throws IOException
+    {
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        CachedJar previousJar = this.previousJars.get(file.getAbsolutePath());
+        if (previousJar != null && previousJar.size == size && previousJar.lastModified == lastModified)
+        {
+            return previousJar;
+        }
+
+        CachedJar jar = new CachedJar(size, lastModified, CacheFiles.createFileHash(file));
+        jar.types.putAll(previousJar != null && previousJar.checksum.equals(jar.checksum) ? previousJar.types : scanJar(file));
+        return jar;
+    }
+
+    /**
+     * helper class which stores the size, the modification time, the checksum and the types of a single jar
+     */
+    private static class CachedJar
+    {
+        private final long size;
+        private final long lastModified;
+        private final String checksum;
+        private final Map<String, String[]> types;
+
+        private CachedJar(long size, long lastModified, String checksum)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.types = new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.prefilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import spoon.compiler.Environment;
+import spoon.support.compiler.FileSystemFile;
+
+/**
+ * This {@link spoon.compiler.SpoonFile} hands the content which was already read by the {@link SourcePrefilter}
+ * to spoon. So the source file doesn't have to be read a second time for building the model.
+ */
+public class MappedSourceFile extends FileSystemFile
+{
+    private final char[] content;
+    private final Charset charset;
+
+    /**
+     * The constructor creates a new source file with an already loaded content
+     *
+     * @param file    the source file
+     * @param content the decoded content of the source file
+     * @param charset the charset of the source file
+     */
+    public MappedSourceFile(File file, char[] content, Charset charset)
+    {
+        super(file);
+        this.content = content;
+        this.charset = charset;
+    }
+
+    @Override
+    public InputStream getContent()
+    {
+        return new ByteArrayInputStream(new String(this.content).getBytes(this.charset));
+    }
+
+    @Override
+    public char[] getContentChars(Environment environment)
+    {
+        return this.content;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.prefilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.Constructor;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import spoon.compiler.SpoonFile;
+import spoon.support.compiler.FileSystemFile;
+
+/**
+ * <p>
+ * The source prefilter skips source files which can't contain a translatable expression. It scans the memory
+ * mapped content of a file for the simple names of the methods, constructors and annotations which are specified
+ * by the configuration. Just files containing at least one of the names are handed to spoon.
+ * </p>
+ *
+ * <p>
+ * The prefilter is disabled if the charset isn't compatible with ascii or if the configuration contains
+ * expressions whose names can't be derived.
+ * </p>
+ */
+public class SourcePrefilter
+{
+    private static final String ASCII_TEST_STRING = "azAZ09_$";
+
+    private final Charset charset;
+    private final byte[][][] names;
+    private final boolean enabled;
+
+    /**
+     * The constructor creates a new prefilter for the specified configuration
+     *
+     * @param configuration the configuration of the extractor
+     */
+    public SourcePrefilter(JavaExtractorConfiguration configuration)
+    {
+        this.charset = configuration.getCharset() == null ? Charset.defaultCharset() : configuration.getCharset();
+        this.names = new byte[256][][];
+
+        Set<String> simpleNames = getSimpleNames(configuration.getJavaExpressions());
+        this.enabled = simpleNames != null && !simpleNames.isEmpty() && Arrays.equals(ASCII_TEST_STRING.getBytes(this.charset), ASCII_TEST_STRING.getBytes(StandardCharsets.US_ASCII));
+
+        if (this.enabled)
+        {
+            for (String simpleName : simpleNames)
+            {
+                byte[] name = simpleName.getBytes(this.charset);
+                int firstByte = name[0] & 0xFF;
+
+                byte[][] candidates = this.names[firstByte];
+                if (candidates == null)
+                {
+                    candidates = new byte[0][];
+                }
+                candidates = Arrays.copyOf(candidates, candidates.length + 1);
+                candidates[candidates.length - 1] = name;
+                this.names[firstByte] = candidates;
+            }
+        }
+    }
+
+    /**
+     * This method returns whether the prefilter is able to skip files.
+     *
+     * @return whether the prefilter is enabled
+     */
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    /**
+     * This method checks whether the specified file might contain a translatable expression.
+     *
+     * @param file the source file
+     *
+     * @return a {@link SpoonFile} which holds the already loaded content of the file, or null if the file doesn't contain a translatable expression
+     *
+     * @throws IOException if the file couldn't be read
+     */
+    public SpoonFile filter(File file) throws IOException
+    {
+        if (!this.enabled)
+        {
+            return new FileSystemFile(file);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            if (channel.size() == 0)
+            {
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!this.containsName(buffer))
+            {
+                return null;
+            }
+
+            CharBuffer content = this.charset.newDecoder()
+                                             .onMalformedInput(CodingErrorAction.REPLACE)
+                                             .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                                             .decode(buffer);
+
+            char[] chars = content.array();
+            if (content.arrayOffset() != 0 || chars.length != content.remaining())
+            {
+                chars = Arrays.copyOfRange(chars, content.arrayOffset(), content.arrayOffset() + content.remaining());
+            }
+            return new MappedSourceFile(file, chars, this.charset);
+        }
+    }
+
+    /**
+     * This method checks whether the buffer contains one of the names as a whole word.
+     *
+     * @param buffer the buffer
+     *
+     * @return whether the buffer contains one of the names
+     */
+    private boolean containsName(ByteBuffer buffer)
+    {
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++)
+        {
+            byte[][] candidates = this.names[buffer.get(i) & 0xFF];
+            if (candidates == null || i > 0 && isIdentifierPart(buffer.get(i - 1)))
+            {
+                continue;
+            }
+
+            for (byte[] name : candidates)
+            {
+                if (matches(buffer, i, name))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int index, byte[] name)
+    {
+        int end = index + name.length;
+        if (end > buffer.limit())
+        {
+            return false;
+        }
+
+        for (int i = 1; i < name.length; i++)
+        {
+            if (buffer.get(index + i) != name[i])
+            {
+                return false;
+            }
+        }
+        return end == buffer.limit() || !isIdentifierPart(buffer.get(end));
+    }
+
+    /**
+     * This method checks whether the byte is an ascii character which can be part of a java identifier.
+     * Non ascii bytes are never treated as part of an identifier, which might add a file too much but never
+     * skips a file wrongly.
+     *
+     * @param b the byte
+     *
+     * @return whether the byte is part of an identifier
+     */
+    private static boolean isIdentifierPart(byte b)
+    {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9' || b == '_' || b == '$';
+    }
+
+    /**
+     * This method loads the simple names of the specified expressions.
+     *
+     * @param expressions the expressions
+     *
+     * @return the simple names or null if the name of an expression can't be derived
+     */
+    private static Set<String> getSimpleNames(JavaExpression[] expressions)
+    {
+        Set<String> simpleNames = new LinkedHashSet<>();
+        for (JavaExpression expression : expressions)
+        {
+            if (expression instanceof Method)
+            {
+                simpleNames.add(((Method) expression).getMethodName());
+            }
+            else if (expression instanceof Constructor || expression instanceof Annotation)
+            {
+                simpleNames.add(getSimpleName(expression.getName()));
+            }
+            else
+            {
+                return null;
+            }
+        }
+
+        simpleNames.remove("");
+        return simpleNames;
+    }
+
+    private static String getSimpleName(String name)
+    {
+        return name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
+    }
+}
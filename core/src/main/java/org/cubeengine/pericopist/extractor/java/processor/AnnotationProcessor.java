@@ -28,7 +28,9 @@ import java.util.logging.Logger;
 
 import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.converter.ConversionResult;
 import org.cubeengine.pericopist.extractor.java.converter.ConverterManager;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import org.cubeengine.pericopist.message.MessageStore;
 import spoon.reflect.code.CtExpression;
 import spoon.reflect.declaration.CtAnnotation;
@@ -43,10 +45,15 @@ public class AnnotationProcessor extends MessageProcessor<CtAnnotation<?>>
         super(configuration, messageStore, converterManager, logger);
     }
 
+    public AnnotationProcessor(JavaExtractorConfiguration configuration, MessageStore messageStore, ConverterManager converterManager, TypeHierarchy typeHierarchy, Logger logger)
+    {
+        super(configuration, messageStore, converterManager, typeHierarchy, logger);
+    }
+
     @Override
     public void process(CtAnnotation<?> element)
     {
-        Annotation annotation = this.getConfiguration().getTranslatable(Annotation.class, element);
+        Annotation annotation = this.getConfiguration().getTranslatable(Annotation.class, element, this.getTypeHierarchy());
         if (annotation == null)
         {
             return;
@@ -58,14 +65,14 @@ public class AnnotationProcessor extends MessageProcessor<CtAnnotation<?>>
             CtExpression contextValue = element.getValue(annotation.getContextField());
             if (contextValue != null)
             {
-                String[] contexts = this.getMessages(contextValue, annotation);
-                if (contexts.length > 1)
+                ConversionResult contexts = this.getMessages(contextValue, annotation);
+                if (contexts.size() > 1)
                 {
-                    context = Arrays.toString(contexts);
+                    context = Arrays.toString(contexts.toStringArray());
                 }
-                else if (contexts.length == 1 && !contexts[0].isEmpty())
+                else if (contexts.size() == 1 && !contexts.getString(0).isEmpty())
                 {
-                    context = contexts[0];
+                    context = contexts.getString(0);
                 }
             }
         }
@@ -77,8 +84,8 @@ public class AnnotationProcessor extends MessageProcessor<CtAnnotation<?>>
                 continue;
             }
 
-            String[] messages = this.getMessages((CtExpression<?>) fieldEntry.getValue(), annotation);
-            if (messages.length == 0)
+            ConversionResult messages = this.getMessages((CtExpression<?>) fieldEntry.getValue(), annotation);
+            if (messages.isEmpty())
             {
                 continue;
             }
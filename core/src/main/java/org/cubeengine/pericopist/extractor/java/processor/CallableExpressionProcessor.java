@@ -27,7 +27,9 @@ import java.util.logging.Logger;
 
 import org.cubeengine.pericopist.extractor.java.configuration.CallableExpression;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.converter.ConversionResult;
 import org.cubeengine.pericopist.extractor.java.converter.ConverterManager;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import org.cubeengine.pericopist.message.MessageStore;
 import spoon.reflect.code.CtAbstractInvocation;
 import spoon.reflect.code.CtExpression;
@@ -42,33 +44,38 @@ public class CallableExpressionProcessor extends MessageProcessor<CtAbstractInvo
         super(configuration, messageStore, converterManager, logger);
     }
 
+    public CallableExpressionProcessor(JavaExtractorConfiguration configuration, MessageStore messageStore, ConverterManager converterManager, TypeHierarchy typeHierarchy, Logger logger)
+    {
+        super(configuration, messageStore, converterManager, typeHierarchy, logger);
+    }
+
     @Override
     public void process(CtAbstractInvocation<?> element)
     {
-        CallableExpression callableExpression = this.getConfiguration().getTranslatable(CallableExpression.class, element);
+        CallableExpression callableExpression = this.getConfiguration().getTranslatable(CallableExpression.class, element, this.getTypeHierarchy());
         if (callableExpression == null)
         {
             return;
         }
 
         String context = null;
-        String[] singulars = null;
-        String[] plurals = null;
+        ConversionResult singulars = null;
+        ConversionResult plurals = null;
 
         List<CtExpression<?>> arguments = element.getArguments();
         if (callableExpression.hasContext() && arguments.size() > callableExpression.getContextIndex())
         {
-            String[] contexts = this.getMessages(arguments.get(callableExpression.getContextIndex()), callableExpression);
-            if (contexts.length != 1)
+            ConversionResult contexts = this.getMessages(arguments.get(callableExpression.getContextIndex()), callableExpression);
+            if (contexts.size() != 1)
             {
                 return;
             }
-            context = contexts[0];
+            context = contexts.getString(0);
         }
         if (arguments.size() > callableExpression.getSingularIndex())
         {
             singulars = this.getMessages(arguments.get(callableExpression.getSingularIndex()), callableExpression);
-            if (singulars.length == 0)
+            if (singulars.isEmpty())
             {
                 return;
             }
@@ -76,7 +83,7 @@ public class CallableExpressionProcessor extends MessageProcessor<CtAbstractInvo
         if (callableExpression.hasPlural() && arguments.size() > callableExpression.getPluralIndex())
         {
             plurals = this.getMessages(arguments.get(callableExpression.getPluralIndex()), callableExpression);
-            if (plurals.length == 0)
+            if (plurals.isEmpty())
             {
                 return;
             }
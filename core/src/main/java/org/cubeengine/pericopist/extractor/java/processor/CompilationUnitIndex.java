@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cubeengine.pericopist.message.SourceFile;
+import spoon.reflect.declaration.CtCompilationUnit;
+
+/**
+ * <p>
+ * The compilation unit index is built once for a source file and used for every message of it. It contains
+ * the start offsets of the lines, the positions of the comment markers '/// ' and the relativized file of the
+ * source references.
+ * </p>
+ *
+ * <p>
+ * An extracted comment is either behind the element within the same line or it's one of the lines directly above
+ * the element which start with the comment marker. The lines and markers are found with a binary search.
+ * </p>
+ */
+final class CompilationUnitIndex
+{
+    private static final String COMMENT_MARKER = "/// ";
+    private static final String[] NO_COMMENTS = new String[0];
+
+    private final CtCompilationUnit compilationUnit;
+    private final SourceFile sourceFile;
+    private final String sourceCode;
+    private final int[] lineStarts;
+    private final int[] markers;
+
+    /**
+     * The constructor indexes the source code of the compilation unit.
+     *
+     * @param compilationUnit the compilation unit
+     * @param file            the relativized file of the compilation unit
+     */
+    CompilationUnitIndex(CtCompilationUnit compilationUnit, File file)
+    {
+        this.compilationUnit = compilationUnit;
+        this.sourceFile = SourceFile.of(file);
+        this.sourceCode = compilationUnit.getOriginalSourceCode();
+
+        int lineCount = 1;
+        for (int i = 0; i < this.sourceCode.length(); i++)
+        {
+            if (this.sourceCode.charAt(i) == '\n')
+            {
+                lineCount++;
+            }
+        }
+
+        this.lineStarts = new int[lineCount];
+        int line = 1;
+        for (int i = 0; i < this.sourceCode.length(); i++)
+        {
+            if (this.sourceCode.charAt(i) == '\n')
+            {
+                this.lineStarts[line++] = i + 1;
+            }
+        }
+
+        List<Integer> markers = new ArrayList<>();
+        int index = this.sourceCode.indexOf(COMMENT_MARKER);
+        while (index >= 0)
+        {
+            markers.add(index);
+            index = this.sourceCode.indexOf(COMMENT_MARKER, index + 1);
+        }
+        this.markers = new int[markers.size()];
+        for (int i = 0; i < this.markers.length; i++)
+        {
+            this.markers[i] = markers.get(i);
+        }
+    }
+
+    /**
+     * This method returns the indexed compilation unit
+     *
+     * @return compilation unit
+     */
+    CtCompilationUnit getCompilationUnit()
+    {
+        return this.compilationUnit;
+    }
+
+    /**
+     * This method returns the source file of the compilation unit
+     *
+     * @return source file
+     */
+    SourceFile getSourceFile()
+    {
+        return this.sourceFile;
+    }
+
+    /**
+     * This method returns the extracted comments of the element at the specified position.
+     * A comment behind the element has a higher priority than the comments above it.
+     *
+     * @param sourceStart the start offset of the element
+     * @param sourceEnd   the end offset of the element
+     *
+     * @return extracted comments
+     */
+    String[] getExtractedComments(int sourceStart, int sourceEnd)
+    {
+        if (this.markers.length == 0)
+        {
+            return NO_COMMENTS;
+        }
+
+        String comment = this.getCommentBehind(sourceEnd);
+        if (comment != null)
+        {
+            return new String[] {comment};
+        }
+
+        int line = this.getLine(sourceStart) - 1;
+        int firstLine = line;
+        while (line >= 0 && this.getCommentLine(line) != null)
+        {
+            line--;
+        }
+        if (line == firstLine)
+        {
+            return NO_COMMENTS;
+        }
+
+        String[] comments = new String[firstLine - line];
+        for (int i = 0; i < comments.length; i++)
+        {
+            comments[i] = this.getCommentLine(line + 1 + i);
+        }
+        return comments;
+    }
+
+    /**
+     * This method returns the comment which follows the specified offset within the same line.
+     *
+     * @param offset the offset
+     *
+     * @return the comment or null
+     */
+    private String getCommentBehind(int offset)
+    {
+        int marker = this.findMarker(offset);
+        if (marker < 0)
+        {
+            return null;
+        }
+
+        int contentEnd = this.getContentEnd(this.getLine(offset));
+        if (this.markers[marker] + COMMENT_MARKER.length() > contentEnd)
+        {
+            return null;
+        }
+        return this.sourceCode.substring(this.markers[marker] + COMMENT_MARKER.length(), contentEnd);
+    }
+
+    /**
+     * This method returns the comment of a line which starts with the comment marker.
+     *
+     * @param line the line index
+     *
+     * @return the comment or null if the line doesn't start with the comment marker
+     */
+    private String getCommentLine(int line)
+    {
+        int contentStart = this.lineStarts[line];
+        int contentEnd = this.getContentEnd(line);
+        while (contentStart < contentEnd && this.sourceCode.charAt(contentStart) <= ' ')
+        {
+            contentStart++;
+        }
+
+        if (contentEnd - contentStart < COMMENT_MARKER.length() || Arrays.binarySearch(this.markers, contentStart) < 0)
+        {
+            return null;
+        }
+        return this.sourceCode.substring(contentStart + COMMENT_MARKER.length(), contentEnd);
+    }
+
+    /**
+     * This method returns the index of the first marker at or after the offset which is within the same line.
+     *
+     * @param offset the offset
+     *
+     * @return the marker index or -1
+     */
+    private int findMarker(int offset)
+    {
+        int index = Arrays.binarySearch(this.markers, offset);
+        if (index < 0)
+        {
+            index = -index - 1;
+        }
+        if (index >= this.markers.length || this.getLine(this.markers[index]) != this.getLine(offset))
+        {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * This method returns the end of the content of the specified line without trailing whitespaces.
+     *
+     * @param line the line index
+     *
+     * @return the end offset of the content
+     */
+    private int getContentEnd(int line)
+    {
+        int end = line + 1 < this.lineStarts.length ? this.lineStarts[line + 1] : this.sourceCode.length();
+        while (end > this.lineStarts[line] && this.sourceCode.charAt(end - 1) <= ' ')
+        {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * This method returns the index of the line containing the specified offset.
+     *
+     * @param offset the offset
+     *
+     * @return the line index
+     */
+    private int getLine(int offset)
+    {
+        int line = Arrays.binarySearch(this.lineStarts, offset);
+        if (line < 0)
+        {
+            line = -line - 2;
+        }
+        return Math.max(line, 0);
+    }
+}
@@ -23,23 +23,21 @@
 package org.cubeengine.pericopist.extractor.java.processor;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.cubeengine.pericopist.exception.IllegalTranslatableMessageException;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
 import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.converter.ConversionResult;
 import org.cubeengine.pericopist.extractor.java.converter.ConverterManager;
 import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
 import org.cubeengine.pericopist.message.MessageStore;
 import org.cubeengine.pericopist.message.SourceReference;
-import org.cubeengine.pericopist.message.TranslatableMessage;
 import org.cubeengine.pericopist.util.Misc;
 import spoon.processing.AbstractProcessor;
 import spoon.reflect.code.CtExpression;
-import spoon.reflect.cu.CompilationUnit;
 import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtCompilationUnit;
 import spoon.reflect.declaration.CtElement;
@@ -54,8 +52,11 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
     private final JavaExtractorConfiguration configuration;
     private final MessageStore messageStore;
     private final ConverterManager converterManager;
+    private final TypeHierarchy typeHierarchy;
     private final Logger logger;
 
+    private CompilationUnitIndex compilationUnitIndex;
+
     /**
      * The constructor "creates" a new MessageProcessor.
      *
@@ -65,10 +66,25 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
      * @param logger           the {@link java.util.logging.Logger} which logs messages
      */
     public MessageProcessor(JavaExtractorConfiguration configuration, MessageStore messageStore, ConverterManager converterManager, Logger logger)
+    {
+        this(configuration, messageStore, converterManager, null, logger);
+    }
+
+    /**
+     * The constructor "creates" a new MessageProcessor.
+     *
+     * @param configuration    the {@link org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration}
+     * @param messageStore     the {@link org.cubeengine.pericopist.message.MessageStore} to which the messages shall be added
+     * @param converterManager a {@link org.cubeengine.pericopist.extractor.java.converter.ConverterManager} which helps to convert CtElements
+     * @param typeHierarchy    the {@link org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy} of the spoon model or null
+     * @param logger           the {@link java.util.logging.Logger} which logs messages
+     */
+    public MessageProcessor(JavaExtractorConfiguration configuration, MessageStore messageStore, ConverterManager converterManager, TypeHierarchy typeHierarchy, Logger logger)
     {
         this.configuration = configuration;
         this.messageStore = messageStore;
         this.converterManager = converterManager;
+        this.typeHierarchy = typeHierarchy;
         this.logger = logger;
     }
 
@@ -82,6 +98,16 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
         return configuration;
     }
 
+    /**
+     * This method returns the type hierarchy of the spoon model
+     *
+     * @return {@link org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy} or null
+     */
+    public TypeHierarchy getTypeHierarchy()
+    {
+        return typeHierarchy;
+    }
+
     /**
      * This method returns the message store to which the messages shall be added
      *
@@ -98,13 +124,13 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
      * @param expression     the expression which shall be converted
      * @param javaExpression the java expression from which the expression is converted.
      *
-     * @return the converter messages or null if a conversion exception occurred
+     * @return the converted messages or an empty result if a conversion exception occurred
      */
-    protected String[] getMessages(CtExpression<?> expression, JavaExpression javaExpression)
+    protected ConversionResult getMessages(CtExpression<?> expression, JavaExpression javaExpression)
     {
         try
         {
-            return this.converterManager.convertToStringArray(expression);
+            return this.converterManager.convertToResult(expression);
         }
         catch (ConversionException e)
         {
@@ -117,7 +143,7 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
                 + "Translatable-Expression-Name: " + javaExpression.getFQN();
             this.getLogger().log(Level.WARNING, builder, e.getCause());
         }
-        return new String[0];
+        return ConversionResult.EMPTY;
     }
 
     /**
@@ -129,154 +155,77 @@ public abstract class MessageProcessor<E extends CtElement> extends AbstractProc
      * @param singulars      the message singulars
      * @param plurals        the message plurals
      */
-    protected void addMessage(JavaExpression javaExpression, E element, String context, String[] singulars, String[] plurals)
+    protected void addMessage(JavaExpression javaExpression, E element, String context, ConversionResult singulars, ConversionResult plurals)
     {
-        File file = Misc.getRelativizedFile(this.getConfiguration().getDirectory(), element.getPosition().getFile());
-        SourceReference sourceReference = new SourceReference(file, element.getPosition().getLine(), javaExpression);
+        SourcePosition position = element.getPosition();
+        CompilationUnitIndex index = this.getCompilationUnitIndex(position);
+        SourceReference sourceReference = new SourceReference(index.getSourceFile(), position.getLine(), javaExpression);
 
         if (context == null)
         {
             context = javaExpression.getDefaultContext();
         }
 
-        for (String extractedComment : this.extractComments(element))
+        for (String extractedComment : index.getExtractedComments(position.getSourceStart(), position.getSourceEnd()))
         {
             sourceReference.addExtractedComment(extractedComment);
         }
 
         if (javaExpression.hasPlural())
         {
-            if (plurals.length > 1)
+            if (plurals.size() > 1)
             {
                 throw new IllegalTranslatableMessageException("A message can't have more than one plurals.");
             }
 
-            if (singulars.length > 1)
+            if (singulars.size() > 1)
             {
                 throw new IllegalTranslatableMessageException("A message with a plural can't have more than one singular.");
             }
 
-            if (singulars[0].isEmpty())
+            String singular = singulars.getString(0);
+            if (singular.isEmpty())
             {
                 this.getLogger().info("The singular message can't be an empty string. Occurrence: " + sourceReference);
                 return;
             }
 
-            TranslatableMessage pluralMessage = this.getMessageStore().getMessage(context, singulars[0], plurals[0]);
-            if (pluralMessage == null)
-            {
-                pluralMessage = new TranslatableMessage(context, singulars[0], plurals[0]);
-                this.getMessageStore().addMessage(pluralMessage);
-            }
-
-            pluralMessage.addSourceReference(sourceReference);
+            this.getMessageStore().getOrCreateMessage(context, singular, plurals.getString(0)).addSourceReference(sourceReference);
 
             return;
         }
 
-        for (String singular : singulars)
+        for (int i = 0; i < singulars.size(); i++)
         {
+            String singular = singulars.getString(i);
             if (singular.isEmpty())
             {
                 this.getLogger().info("The singular message can't be an empty string. Occurrence: " + sourceReference);
                 continue;
             }
 
-            TranslatableMessage singularMessage = this.getMessageStore().getMessage(context, singular, null);
-            if (singularMessage == null)
-            {
-                singularMessage = new TranslatableMessage(context, singular, null);
-                this.getMessageStore().addMessage(singularMessage);
-            }
-
-            singularMessage.addSourceReference(sourceReference);
-        }
-    }
-
-
-    private static int beginOfLineIndex(CtCompilationUnit cu, int index) {
-        final String code = cu.getOriginalSourceCode();
-        int cur = index;
-        while (cur >= 0) {
-            if (code.charAt(cur) == '\n') {
-                break;
-            }
-            cur--;
-        }
-        return cur + 1;
-    }
-
-    private static int nextLineIndex(CtCompilationUnit cu, int index) {
-        final String code = cu.getOriginalSourceCode();
-        int cur = index;
-        while (cur < code.length() && code.charAt(cur) != '\n')
-        {
-            cur++;
+            this.getMessageStore().getOrCreateMessage(context, singular, null).addSourceReference(sourceReference);
         }
-        return cur + 1;
     }
 
-    /**
-     * This method extracts comments from the element, which start with '/// '.
-     * A comment can be behind or above the element. The comment behind has a higher priority.
-     *
-     * @param element the element from which comments shall be extracted
-     *
-     * @return extracted comments
-     */
-    private String[] extractComments(E element)
-    {
-        SourcePosition position = element.getPosition();
-        CompilationUnit compilationUnit = position.getCompilationUnit();
-        String sourceCode = compilationUnit.getOriginalSourceCode();
-
-        // load comment after element
-        String comment = this.getExtractedComment(sourceCode.substring(position.getSourceEnd(), nextLineIndex(compilationUnit, position.getSourceEnd())), true);
-        if (comment != null)
-        {
-            return new String[] {comment};
-        }
-
-        // load more line comments before element
-        List<String> extractedComments = new ArrayList<>(1);
-
-        int currentLineIndex;
-        int lastLineIndex = beginOfLineIndex(compilationUnit, position.getSourceStart());
-
-        do
-        {
-            currentLineIndex = lastLineIndex;
-            lastLineIndex = beginOfLineIndex(compilationUnit, currentLineIndex - 2);
-
-            comment = this.getExtractedComment(sourceCode.substring(lastLineIndex, currentLineIndex), false);
-
-            if (comment != null)
-            {
-                extractedComments.add(0, comment);
-            }
-        }
-        while (comment != null);
-
-        return extractedComments.toArray(new String[0]);
-    }
 
     /**
-     * This method extracts a comments from the given line which start with '/// '.
+     * This method returns the index of the compilation unit containing the specified position.
+     * The index is reused for every element of the same compilation unit.
      *
-     * @param line the line
+     * @param position the source position of the element
      *
-     * @return the extracted comment or null
+     * @return the compilation unit index
      */
-    private String getExtractedComment(String line, boolean isBehindExpression)
+    private CompilationUnitIndex getCompilationUnitIndex(SourcePosition position)
     {
-        line = line.trim();
-
-        int index = line.indexOf("/// ");
-        if (index < 0 || index != 0 && !isBehindExpression)
+        CtCompilationUnit compilationUnit = position.getCompilationUnit();
+        if (this.compilationUnitIndex == null || this.compilationUnitIndex.getCompilationUnit() != compilationUnit)
         {
-            return null;
+            File file = Misc.getRelativizedFile(this.getConfiguration().getDirectory(), position.getFile());
+            this.compilationUnitIndex = new CompilationUnitIndex(compilationUnit, file);
         }
-        return line.substring(index + 4);
+        return this.compilationUnitIndex;
     }
 
     /**
@@ -24,6 +24,8 @@ package org.cubeengine.pericopist.format;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.logging.Logger;
 
 import org.cubeengine.pericopist.exception.CatalogFormatException;
@@ -51,6 +53,24 @@ public interface CatalogFormat
      */
     boolean write(CatalogConfiguration config, OutputStream outputStream, MessageStore messageStore) throws CatalogFormatException;
 
+    /**
+     * This method writes the catalog file into the specified channel.
+     * The default implementation wraps the channel with an output stream. Formats which are able to write
+     * into the channel directly should override it.
+     *
+     * @param config          config which shall be used to write the catalog
+     * @param channel         the channel which shall be used to create the catalog
+     * @param messageStore    the message store containing the messages for the catalog
+     *
+     * @return true if the catalog file was written
+     *
+     * @throws CatalogFormatException if an error occurs while writing the message catalog
+     */
+    default boolean write(CatalogConfiguration config, WritableByteChannel channel, MessageStore messageStore) throws CatalogFormatException
+    {
+        return this.write(config, Channels.newOutputStream(channel), messageStore);
+    }
+
     /**
      * This method reads the catalog file and returns a message store containing the messages.
      * This method never returns null and implementations have to ensure this.
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.logging.Logger;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.apache.velocity.context.Context;
+import org.cubeengine.pericopist.PericopistFactory;
+import org.cubeengine.pericopist.format.CatalogFormat;
+
+/**
+ * <p>
+ * This configuration is used for creating a compiled gettext catalog (.mo file). It supports the same settings
+ * like the {@link GettextCatalogConfiguration}. Obsolete, fuzzy and untranslated messages aren't written
+ * into the compiled catalog.
+ * </p>
+ *
+ * <p>
+ * The translations are taken from the translated .po catalog which is specified as source. It's read with the
+ * charset of the configuration. Without a source, the translations of the existing .mo file are kept.
+ * </p>
+ *
+ * Example:
+ *
+ * <pre>
+ * {@code
+ * <catalog format="gettext-mo" charset="utf-8">
+ *     <template>TEMPLATE PATH</template> <!-- path of the .mo file -->
+ *     <source>SOURCE PATH</source> <!-- path of the translated .po file. optional -->
+ *     <header>
+ *         ...
+ *     </header>
+ * </catalog>
+ * }
+ * </pre>
+ *
+ * @see PericopistFactory#getPericopist(String, Charset, int, Context, Logger)
+ * @see org.cubeengine.pericopist.format.gettext.BinaryGettextCatalogFormat
+ */
+@XmlRootElement(name = "catalog")
+public class BinaryGettextCatalogConfiguration extends GettextCatalogConfiguration
+{
+    private File sourceFile;
+
+    /**
+     * This method returns the translated .po catalog which the translations are compiled from
+     *
+     * @return source catalog or null if the translations of the existing .mo file are kept
+     */
+    public File getSourceFile()
+    {
+        return this.sourceFile;
+    }
+
+    /**
+     * This method sets the translated .po catalog which the translations are compiled from
+     *
+     * @param sourceFile source catalog
+     */
+    @XmlElement(name = "source")
+    public void setSourceFile(File sourceFile)
+    {
+        this.sourceFile = sourceFile;
+    }
+
+    @Override
+    public Class<? extends CatalogFormat> getCatalogFormatClass()
+    {
+        return BinaryGettextCatalogFormat.class;
+    }
+}
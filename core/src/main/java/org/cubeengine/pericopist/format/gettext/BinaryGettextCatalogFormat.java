@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+import org.fedorahosted.tennera.jgettext.MessageHashKey;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+import org.cubeengine.pericopist.message.MessageStore;
+
+/**
+ * This catalog format creates and reads compiled gettext catalogs (.mo files). It selects the messages like the
+ * {@link PlaintextGettextCatalogFormat} and writes them like msgfmt would compile the plaintext catalog.
+ * <p/>
+ * If a translated .po catalog is configured as source, the translations, the fuzzy flags and the header are taken
+ * from it. Otherwise the translations of the existing .mo file are kept.
+ *
+ * @see org.cubeengine.pericopist.format.gettext.BinaryGettextCatalogConfiguration
+ */
+public class BinaryGettextCatalogFormat extends PlaintextGettextCatalogFormat
+{
+    @Override
+    GettextCatalogWriter createCatalogWriter(GettextCatalogConfiguration configuration, WritableByteChannel channel) throws CatalogFormatException
+    {
+        GettextCatalogWriter writer = new MoCatalogWriter(channel, configuration.getCharset());
+
+        File sourceFile = ((BinaryGettextCatalogConfiguration) configuration).getSourceFile();
+        if (sourceFile == null)
+        {
+            return writer;
+        }
+        return new TranslatingCatalogWriter(writer, this.readTranslations(configuration, sourceFile));
+    }
+
+    @Override
+    boolean hasChanges(GettextCatalogConfiguration configuration, MessageStore messageStore, GettextHeader header)
+    {
+        // the translations of the source catalog could have been changed
+        return ((BinaryGettextCatalogConfiguration) configuration).getSourceFile() != null || super.hasChanges(configuration, messageStore, header);
+    }
+
+    @Override
+    List<Message> readMessages(GettextCatalogConfiguration configuration, InputStream inputStream) throws CatalogFormatException
+    {
+        return new MoCatalogReader(configuration.getCharset()).read(inputStream);
+    }
+
+    /**
+     * This method reads the translated messages of the source catalog. Obsolete messages are skipped.
+     *
+     * @param configuration configuration of the catalog
+     * @param sourceFile    the translated .po catalog
+     *
+     * @return the translated messages by their context and msgid
+     *
+     * @throws CatalogFormatException if the source catalog couldn't be read
+     */
+    private Map<MessageHashKey, Message> readTranslations(GettextCatalogConfiguration configuration, File sourceFile) throws CatalogFormatException
+    {
+        List<Message> messages;
+        try (FileInputStream inputStream = new FileInputStream(sourceFile))
+        {
+            messages = new PoCatalogReader(configuration.getCharset()).read(inputStream);
+        }
+        catch (IOException e)
+        {
+            throw new CatalogFormatException("The source catalog '" + sourceFile + "' could not be read.", e);
+        }
+
+        Map<MessageHashKey, Message> translations = new HashMap<>(messages.size() * 4 / 3 + 1);
+        for (Message message : messages)
+        {
+            if (!message.isObsolete())
+            {
+                translations.put(new MessageHashKey(message), message);
+            }
+        }
+        return translations;
+    }
+
+    /**
+     * This catalog writer replaces the translations of the entries with the ones of the source catalog before they
+     * are compiled. Entries which the source catalog doesn't contain are written unchanged.
+     */
+    private static final class TranslatingCatalogWriter implements GettextCatalogWriter
+    {
+        private final GettextCatalogWriter writer;
+        private final Map<MessageHashKey, Message> translations;
+
+        private TranslatingCatalogWriter(GettextCatalogWriter writer, Map<MessageHashKey, Message> translations)
+        {
+            this.writer = writer;
+            this.translations = translations;
+        }
+
+        @Override
+        public void write(Message message) throws IOException
+        {
+            Message translation = this.translations.get(new MessageHashKey(message));
+            if (translation != null && translation.isPlural() == message.isPlural())
+            {
+                if (message.isPlural())
+                {
+                    message.getMsgstrPlural().clear();
+                    for (int i = 0; i < translation.getMsgstrPlural().size(); i++)
+                    {
+                        message.addMsgstrPlural(translation.getMsgstrPlural().get(i), i);
+                    }
+                }
+                else
+                {
+                    message.setMsgstr(translation.getMsgstr());
+                }
+                message.setFuzzy(translation.isFuzzy());
+            }
+            this.writer.write(message);
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            this.writer.flush();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+
+import java.io.IOException;
+
+/**
+ * A gettext catalog writer receives the entries of a catalog one after another. The header is the first entry.
+ *
+ * @see org.cubeengine.pericopist.format.gettext.PlaintextGettextCatalogFormat
+ */
+interface GettextCatalogWriter
+{
+    /**
+     * This method writes the specified message.
+     *
+     * @param message the message
+     *
+     * @throws IOException if the message couldn't be written
+     */
+    void write(Message message) throws IOException;
+
+    /**
+     * This method writes everything which wasn't written yet. The channel isn't closed.
+     *
+     * @throws IOException if the catalog couldn't be written
+     */
+    void flush() throws IOException;
+}
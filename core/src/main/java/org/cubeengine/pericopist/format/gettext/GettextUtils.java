@@ -23,16 +23,24 @@
 package org.cubeengine.pericopist.format.gettext;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.cubeengine.pericopist.message.SourceReference;
 import org.cubeengine.pericopist.message.TranslatableExpression;
 import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.cubeengine.pericopist.util.StringPool;
 
 public final class GettextUtils
 {
+    private static final Function<TranslatableMessage, List<String>> EXTRACTED_COMMENTS = GettextUtils::buildExtractedComments;
+
     private GettextUtils()
     {
     }
@@ -55,7 +63,20 @@ public final class GettextUtils
      */
     public static List<String> createExtractedComments(TranslatableMessage message)
     {
-        List<SourceReferenceHolder> holders = combineSourceReferences(message.getSourceReferences());
+        return message.getDerivedValue(EXTRACTED_COMMENTS);
+    }
+
+    /**
+     * This method builds the extracted comments of the message. It's called by
+     * {@link #createExtractedComments(TranslatableMessage)} if the message doesn't have cached ones.
+     *
+     * @param message {@link TranslatableMessage}
+     *
+     * @return immutable extracted comments list
+     */
+    private static List<String> buildExtractedComments(TranslatableMessage message)
+    {
+        Collection<SourceReferenceHolder> holders = combineSourceReferences(message.getSourceReferences());
 
         if (holders.isEmpty())
         {
@@ -67,133 +88,163 @@ public final class GettextUtils
 
         for (SourceReferenceHolder holder : holders)
         {
-            StringBuilder builder = new StringBuilder();
-            for (int i = 0; i < holder.numbers.size() - 1; i++)
+            TranslatableExpression expression = holder.sourceReference.getExpression();
+            List<String> comments = holder.sourceReference.getExtractedComments();
+            if (expression == null && comments.isEmpty())
             {
-                builder.append(holder.numbers.get(i)).append(", ");
+                continue;
             }
-            builder.append(holder.numbers.get(holder.numbers.size() - 1)).append(". ");
-            if (holder.sourceReference.getExpression() != null)
-            {
-                TranslatableExpression expression = holder.sourceReference.getExpression();
 
-                builder.append(expression.getClass().getSimpleName());
-                builder.append("\n\tName: ").append(expression.getFQN());
+            int firstLine = extractedComments.size();
+            holder.numbers.append(". ");
+            if (expression != null)
+            {
+                holder.numbers.append(expression.getClass().getSimpleName());
+                addLines(extractedComments, holder.numbers.toString());
+                addLines(extractedComments, "\tName: " + expression.getFQN());
                 if (expression.getDescription() != null)
                 {
-                    builder.append("\n\tDescription: ").append(expression.getDescription());
+                    addLines(extractedComments, "\tDescription: " + expression.getDescription());
                 }
             }
+            else
+            {
+                addLines(extractedComments, holder.numbers.toString());
+            }
 
-            if (!holder.sourceReference.getExtractedComments().isEmpty())
+            if (!comments.isEmpty())
             {
-                builder.append("\n\tComments: ");
-                for (String extractedComment : holder.sourceReference.getExtractedComments())
+                extractedComments.add("\tComments: ");
+                for (String extractedComment : comments)
                 {
-                    builder.append("\n\t- ").append(extractedComment);
+                    addLines(extractedComments, "\t- " + extractedComment);
                 }
             }
 
-            if (builder.indexOf("\n") != -1)
+            // the entry used to be split at its line breaks, which drops trailing empty lines
+            while (extractedComments.size() > firstLine && extractedComments.get(extractedComments.size() - 1).isEmpty())
             {
-                Collections.addAll(extractedComments, builder.toString().split("\n"));
+                extractedComments.remove(extractedComments.size() - 1);
             }
         }
 
-        return extractedComments;
+        return Collections.unmodifiableList(extractedComments);
+    }
+
+    /**
+     * This method adds the lines of the specified text to the list.
+     *
+     * @param lines list of lines
+     * @param text  text which may contain line breaks
+     */
+    private static void addLines(List<String> lines, String text)
+    {
+        int start = 0;
+        int end = text.indexOf('\n');
+        while (end >= 0)
+        {
+            lines.add(StringPool.intern(text.substring(start, end)));
+            start = end + 1;
+            end = text.indexOf('\n', start);
+        }
+        lines.add(StringPool.intern(start == 0 ? text : text.substring(start)));
     }
 
     /**
      * This method combines similar source reference entries to one single entry. It uses a helper class
-     * which contains the source reference and and a list containing every number describing the entry.
+     * which contains the source reference and the numbers of every entry described by it. The entries are
+     * grouped by the expression and the extracted comments of the source references.
      *
      * @param sourceReferences list of source references
      *
-     * @return list of the helper class {@link SourceReferenceHolder}
+     * @return the helper classes {@link SourceReferenceHolder} in the order of their first entries
      */
-    private static List<SourceReferenceHolder> combineSourceReferences(Set<SourceReference> sourceReferences)
+    private static Collection<SourceReferenceHolder> combineSourceReferences(Set<SourceReference> sourceReferences)
     {
         if (sourceReferences == null || sourceReferences.isEmpty())
         {
             return Collections.emptyList();
         }
 
-        List<SourceReferenceHolder> holders = new ArrayList<>(sourceReferences.size());
+        Map<HolderKey, SourceReferenceHolder> holders = new LinkedHashMap<>();
 
         int number = 0;
         for (SourceReference reference : sourceReferences)
         {
             number++;
-            int index = getSourceReferenceHolderIndex(holders, reference);
+            HolderKey key = new HolderKey(reference);
+            SourceReferenceHolder holder = holders.get(key);
 
-            if (index < 0)
+            if (holder == null)
             {
-                SourceReferenceHolder holder = new SourceReferenceHolder();
-                holder.sourceReference = reference;
-                holder.numbers.add(number);
-                holders.add(holder);
+                holder = new SourceReferenceHolder(reference);
+                holder.numbers.append(number);
+                holders.put(key, holder);
             }
             else
             {
-                holders.get(index).numbers.add(number);
+                holder.numbers.append(", ").append(number);
             }
         }
 
-        return holders;
+        return holders.values();
     }
 
     /**
-     * A help message which is used in the {@link #combineSourceReferences(java.util.Set)} method. It loads the index of
-     * the entry in the specified list which has the same source reference as described also.
-     *
-     * @param holders   list of the helper class {@link SourceReferenceHolder}
-     * @param reference reference
-     *
-     * @return index of the specified reference in the list
+     * The key of a {@link SourceReferenceHolder}. Source references with equal keys are combined.
      */
-    private static int getSourceReferenceHolderIndex(List<SourceReferenceHolder> holders, SourceReference reference)
+    private static final class HolderKey
     {
-        for (int i = 0; i < holders.size(); i++)
-        {
-            SourceReference sourceReference = holders.get(i).sourceReference;
+        private final Class<?> referenceClass;
+        private final TranslatableExpression expression;
+        private final List<String> extractedComments;
 
-            if (!sourceReference.getClass().equals(reference.getClass()))
-            {
-                continue;
-            }
+        private HolderKey(SourceReference reference)
+        {
+            this.referenceClass = reference.getClass();
+            this.expression = reference.getExpression();
+            this.extractedComments = reference.getExtractedComments();
+        }
 
-            if (sourceReference.getExpression() != null && !sourceReference.getExpression().equals(reference.getExpression()))
-            {
-                continue;
-            }
-            else if (sourceReference.getExpression() == null && reference.getExpression() != null)
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
             {
-                continue;
+                return true;
             }
-
-            if (!sourceReference.getExtractedComments().equals(reference.getExtractedComments()))
+            if (!(o instanceof HolderKey))
             {
-                continue;
+                return false;
             }
 
-            return i;
+            HolderKey key = (HolderKey) o;
+            return this.referenceClass == key.referenceClass && Objects.equals(this.expression, key.expression) && this.extractedComments.equals(key.extractedComments);
         }
 
-        return -1;
+        @Override
+        public int hashCode()
+        {
+            int result = this.referenceClass.hashCode();
+            result = 31 * result + Objects.hashCode(this.expression);
+            result = 31 * result + this.extractedComments.hashCode();
+            return result;
+        }
     }
 
     /**
-     * helper class which is used internal to store a source reference and a list of numbers which the
+     * helper class which is used internal to store a source reference and the numbers which the
      * single entries have within the original source reference list
      */
     private static class SourceReferenceHolder
     {
-        private SourceReference sourceReference;
-        private final List<Integer> numbers;
+        private final SourceReference sourceReference;
+        private final StringBuilder numbers;
 
-        private SourceReferenceHolder()
+        private SourceReferenceHolder(SourceReference sourceReference)
         {
-            this.numbers = new ArrayList<>(1);
+            this.sourceReference = sourceReference;
+            this.numbers = new StringBuilder();
         }
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+
+/**
+ * The mo catalog reader reads compiled gettext catalogs (.mo files) in either byte order. The messages of such
+ * a catalog just contain the context, the msgids and the msgstr entries. They're returned in the order of the
+ * catalog, which is sorted by the original strings.
+ *
+ * @see org.cubeengine.pericopist.format.gettext.MoCatalogWriter
+ */
+final class MoCatalogReader
+{
+    private final Charset charset;
+
+    /**
+     * The constructor creates a new reader
+     *
+     * @param charset the charset of the strings
+     */
+    MoCatalogReader(Charset charset)
+    {
+        this.charset = charset;
+    }
+
+    /**
+     * This method reads the messages of the catalog from the specified input stream.
+     *
+     * @param inputStream the input stream of the catalog
+     *
+     * @return the messages in the order of the catalog
+     *
+     * @throws CatalogFormatException if the catalog couldn't be read or has a wrong format
+     */
+    List<Message> read(InputStream inputStream) throws CatalogFormatException
+    {
+        ByteBuffer buffer;
+        try
+        {
+            buffer = ByteBuffer.wrap(inputStream.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        catch (IOException e)
+        {
+            throw new CatalogFormatException("The catalog could not be read.", e);
+        }
+
+        try
+        {
+            if (buffer.getInt(0) != MoCatalogWriter.MAGIC)
+            {
+                buffer.order(ByteOrder.BIG_ENDIAN);
+                if (buffer.getInt(0) != MoCatalogWriter.MAGIC)
+                {
+                    throw new CatalogFormatException("The catalog isn't a mo file.");
+                }
+            }
+
+            int count = buffer.getInt(8);
+            int originalTable = buffer.getInt(12);
+            int translationTable = buffer.getInt(16);
+
+            List<Message> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                String original = this.getString(buffer, originalTable + 8 * i);
+                String translation = this.getString(buffer, translationTable + 8 * i);
+                messages.add(createMessage(original, translation));
+            }
+            return messages;
+        }
+        catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e)
+        {
+            throw new CatalogFormatException("The mo file is damaged.", e);
+        }
+    }
+
+    /**
+     * This method reads the string of the specified descriptor, which stores the length and the offset of the string.
+     *
+     * @param buffer     the catalog
+     * @param descriptor the offset of the descriptor
+     *
+     * @return string
+     */
+    private String getString(ByteBuffer buffer, int descriptor)
+    {
+        int length = buffer.getInt(descriptor);
+        int offset = buffer.getInt(descriptor + 4);
+        if (length < 0 || offset < 0 || (long) offset + length > buffer.limit())
+        {
+            throw new IndexOutOfBoundsException("The string at " + offset + " exceeds the catalog.");
+        }
+        return new String(buffer.array(), offset, length, this.charset);
+    }
+
+    /**
+     * This method creates a message from the original and the translated string of an entry.
+     *
+     * @param original    the original string
+     * @param translation the translated string
+     *
+     * @return message
+     */
+    private static Message createMessage(String original, String translation)
+    {
+        Message message = new Message();
+
+        int contextEnd = original.indexOf(MoCatalogWriter.CONTEXT_SEPARATOR);
+        if (contextEnd >= 0)
+        {
+            message.setMsgctxt(original.substring(0, contextEnd));
+            original = original.substring(contextEnd + 1);
+        }
+
+        int pluralStart = original.indexOf('\0');
+        if (pluralStart < 0)
+        {
+            message.setMsgid(original);
+            message.setMsgstr(translation);
+            return message;
+        }
+
+        message.setMsgid(original.substring(0, pluralStart));
+        message.setMsgidPlural(original.substring(pluralStart + 1));
+        String[] msgstrPlural = translation.split("\0", -1);
+        for (int i = 0; i < msgstrPlural.length; i++)
+        {
+            message.addMsgstrPlural(msgstrPlural[i], i);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * The mo catalog writer writes compiled gettext catalogs (.mo files) like msgfmt does. Obsolete, fuzzy and
+ * untranslated entries are skipped. The header is kept even if it's fuzzy.
+ * </p>
+ *
+ * <p>
+ * The entries are collected until {@link #flush()} is called. Afterwards they're sorted by their original
+ * strings and written in little endian byte order together with the hash table which is used by the gettext
+ * runtime for the lookups. The original string of an entry with a context is the context and the msgid
+ * separated by an EOT character. The msgid_plural and the plural msgstr entries are separated by NUL characters.
+ * </p>
+ */
+final class MoCatalogWriter implements GettextCatalogWriter
+{
+    static final int MAGIC = 0x950412de;
+    static final int HEADER_SIZE = 28;
+    static final char CONTEXT_SEPARATOR = '\u0004';
+
+    private final WritableByteChannel channel;
+    private final Charset charset;
+    private final List<Entry> entries;
+
+    /**
+     * The constructor creates a new writer
+     *
+     * @param channel the channel of the catalog
+     * @param charset the charset of the strings
+     */
+    MoCatalogWriter(WritableByteChannel channel, Charset charset)
+    {
+        this.channel = channel;
+        this.charset = charset;
+        this.entries = new ArrayList<>();
+    }
+
+    @Override
+    public void write(Message message)
+    {
+        if (message.isObsolete() || (message.isFuzzy() && !message.isHeader()) || !isTranslated(message))
+        {
+            return;
+        }
+
+        String original = message.getMsgid();
+        if (message.getMsgctxt() != null)
+        {
+            original = message.getMsgctxt() + CONTEXT_SEPARATOR + original;
+        }
+        int hashLength = original.length();
+
+        String translation;
+        if (message.isPlural())
+        {
+            original = original + '\0' + message.getMsgidPlural();
+            translation = String.join("\0", message.getMsgstrPlural());
+        }
+        else
+        {
+            translation = message.getMsgstr();
+        }
+
+        byte[] originalBytes = original.getBytes(this.charset);
+        int hashEnd = original.substring(0, hashLength).getBytes(this.charset).length;
+        this.entries.add(new Entry(originalBytes, hashEnd, translation.getBytes(this.charset)));
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        Entry[] entries = this.entries.toArray(new Entry[0]);
+        this.entries.clear();
+        Arrays.sort(entries, (e1, e2) -> Arrays.compareUnsigned(e1.original, e2.original));
+
+        int hashTableSize = getHashTableSize(entries.length);
+        int originalTable = HEADER_SIZE;
+        int translationTable = originalTable + 8 * entries.length;
+        int hashTable = translationTable + 8 * entries.length;
+        int stringOffset = hashTable + 4 * hashTableSize;
+
+        int size = stringOffset;
+        for (Entry entry : entries)
+        {
+            size += entry.original.length + 1 + entry.translation.length + 1;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(0);
+        buffer.putInt(entries.length);
+        buffer.putInt(originalTable);
+        buffer.putInt(translationTable);
+        buffer.putInt(hashTableSize);
+        buffer.putInt(hashTable);
+
+        int offset = stringOffset;
+        for (Entry entry : entries)
+        {
+            buffer.putInt(entry.original.length);
+            buffer.putInt(offset);
+            offset += entry.original.length + 1;
+        }
+        for (Entry entry : entries)
+        {
+            buffer.putInt(entry.translation.length);
+            buffer.putInt(offset);
+            offset += entry.translation.length + 1;
+        }
+
+        int[] hashes = new int[hashTableSize];
+        for (int i = 0; i < entries.length; i++)
+        {
+            long hash = Integer.toUnsignedLong(hash(entries[i].original, entries[i].hashEnd));
+            int index = (int) (hash % hashTableSize);
+            int increment = (int) (1 + hash % (hashTableSize - 2));
+            while (hashes[index] != 0)
+            {
+                index = index >= hashTableSize - increment ? index - (hashTableSize - increment) : index + increment;
+            }
+            hashes[index] = i + 1;
+        }
+        for (int hash : hashes)
+        {
+            buffer.putInt(hash);
+        }
+
+        for (Entry entry : entries)
+        {
+            buffer.put(entry.original).put((byte) 0);
+        }
+        for (Entry entry : entries)
+        {
+            buffer.put(entry.translation).put((byte) 0);
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            this.channel.write(buffer);
+        }
+    }
+
+    /**
+     * This method checks whether the message is translated. Like msgfmt it just checks the first msgstr.
+     *
+     * @param message the message
+     *
+     * @return whether the message is translated
+     */
+    private static boolean isTranslated(Message message)
+    {
+        if (message.isPlural())
+        {
+            return !message.getMsgstrPlural().isEmpty() && !message.getMsgstrPlural().get(0).isEmpty();
+        }
+        return message.getMsgstr() != null && !message.getMsgstr().isEmpty();
+    }
+
+    /**
+     * This method computes the hash of an original string like the gettext runtime does (hashpjw).
+     *
+     * @param bytes the encoded original string
+     * @param end   the end of the hashed part
+     *
+     * @return hash
+     */
+    static int hash(byte[] bytes, int end)
+    {
+        int hash = 0;
+        for (int i = 0; i < end; i++)
+        {
+            hash = (hash << 4) + (bytes[i] & 0xFF);
+            int g = hash & 0xF0000000;
+            if (g != 0)
+            {
+                hash ^= g >>> 24;
+                hash ^= g;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * This method returns the size of the hash table like msgfmt does, which is the next prime number
+     * after 4/3 of the entry count.
+     *
+     * @param entryCount number of entries
+     *
+     * @return hash table size
+     */
+    private static int getHashTableSize(int entryCount)
+    {
+        int size = (entryCount * 4) / 3 | 1;
+        while (!isPrime(size))
+        {
+            size += 2;
+        }
+        return Math.max(size, 3);
+    }
+
+    private static boolean isPrime(int candidate)
+    {
+        int divisor = 3;
+        long square = divisor * divisor;
+        while (square < candidate && candidate % divisor != 0)
+        {
+            divisor++;
+            square += 4 * divisor;
+            divisor++;
+        }
+        return candidate % divisor != 0;
+    }
+
+    /**
+     * An entry stores the encoded strings of a message.
+     */
+    private static final class Entry
+    {
+        private final byte[] original;
+        private final int hashEnd;
+        private final byte[] translation;
+
+        private Entry(byte[] original, int hashEnd, byte[] translation)
+        {
+            this.original = original;
+            this.hashEnd = hashEnd;
+            this.translation = translation;
+        }
+    }
+}
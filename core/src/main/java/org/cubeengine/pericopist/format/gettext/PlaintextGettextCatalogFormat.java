@@ -22,16 +22,20 @@
  */
 package org.cubeengine.pericopist.format.gettext;
 
-import org.fedorahosted.tennera.jgettext.Catalog;
 import org.fedorahosted.tennera.jgettext.Message;
-import org.fedorahosted.tennera.jgettext.PoParser;
-import org.fedorahosted.tennera.jgettext.PoWriter;
+import org.fedorahosted.tennera.jgettext.MessageHashKey;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import org.cubeengine.pericopist.exception.CatalogFormatException;
@@ -59,20 +63,25 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
 
     @Override
     public boolean write(CatalogConfiguration config, OutputStream outputStream, MessageStore messageStore) throws CatalogFormatException
+    {
+        return this.write(config, Channels.newChannel(outputStream), messageStore);
+    }
+
+    @Override
+    public boolean write(CatalogConfiguration config, WritableByteChannel channel, MessageStore messageStore) throws CatalogFormatException
     {
         GettextCatalogConfiguration catalogConfig = (GettextCatalogConfiguration) config;
 
         GettextHeader header = new GettextHeader(catalogConfig);
 
-        if (!this.hasChanges(messageStore, header))
+        if (!this.hasChanges(catalogConfig, messageStore, header))
         {
             this.logger.info("Did not create a new catalog, because it's the same like the old one.");
             return false;
         }
 
-        Catalog catalog = this.getCatalog(catalogConfig, messageStore);
-        catalog.addMessage(header.toMessage());
-        int messageCount = catalog.size();
+        List<TranslatableMessage> messages = this.getCatalogMessages(catalogConfig, messageStore);
+        int messageCount = messages.size() + 1;
 
         if (messageCount == 1 && !catalogConfig.getCreateEmptyTemplate())
         {
@@ -80,26 +89,35 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
             return false;
         }
 
-        this.writeCatalog(catalog, catalogConfig, outputStream);
+        this.writeCatalog(catalogConfig, channel, header, messages, messageStore);
         this.logger.info("The " + this.getClass().getSimpleName() + " created a new template with " + messageCount + " messages (including the header).");
         return true;
     }
 
     /**
-     * This method writes the catalog file into the specified output stream
+     * This method writes the catalog file into the specified channel. The entries are created and written one
+     * after another.
      *
-     * @param catalog       catalog instance
      * @param configuration configuration of the catalog
-     * @param outputStream  output stream of the catalog
+     * @param channel       channel of the catalog
+     * @param header        header of the catalog
+     * @param messages      messages of the catalog
+     * @param messageStore  the message store containing the messages for the catalog
      *
      * @throws CatalogFormatException if the catalog couldn't be created
      */
-    private void writeCatalog(Catalog catalog, GettextCatalogConfiguration configuration, OutputStream outputStream) throws CatalogFormatException
+    private void writeCatalog(GettextCatalogConfiguration configuration, WritableByteChannel channel, GettextHeader header, List<TranslatableMessage> messages, MessageStore messageStore) throws CatalogFormatException
     {
-        final PoWriter poWriter = new PoWriter(true);
+        Map<String, List<TranslatableGettextMessage>> referenceIndex = this.createReferenceIndex(messageStore);
+        GettextCatalogWriter writer = this.createCatalogWriter(configuration, channel);
         try
         {
-            poWriter.write(catalog, outputStream, configuration.getCharset());
+            writer.write(header.toMessage());
+            for (TranslatableMessage translatableMessage : messages)
+            {
+                writer.write(this.createMessage(configuration, referenceIndex, translatableMessage));
+            }
+            writer.flush();
         }
         catch (IOException e)
         {
@@ -108,63 +126,81 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
     }
 
     /**
-     * This method creates a catalog instance
+     * This method creates the writer which writes the entries of the catalog into the specified channel
+     *
+     * @param configuration configuration of the catalog
+     * @param channel       channel of the catalog
+     *
+     * @return catalog writer
+     *
+     * @throws CatalogFormatException if the writer couldn't be created
+     */
+    GettextCatalogWriter createCatalogWriter(GettextCatalogConfiguration configuration, WritableByteChannel channel) throws CatalogFormatException
+    {
+        return new PoCatalogWriter(channel, configuration.getCharset());
+    }
+
+    /**
+     * This method selects the messages of the catalog. A message replaces a previous one with the same context and
+     * msgid at its position if the previous one isn't used anymore.
      *
      * @param configuration configuration of the catalog
      * @param messageStore  the message store containing the messages for the catalog
      *
-     * @return catalog containing the specified information
+     * @return messages of the catalog without the header
      */
-    private Catalog getCatalog(GettextCatalogConfiguration configuration, MessageStore messageStore) throws CatalogFormatException
+    private List<TranslatableMessage> getCatalogMessages(GettextCatalogConfiguration configuration, MessageStore messageStore) throws CatalogFormatException
     {
-        Catalog catalog = new Catalog(true);
+        List<TranslatableMessage> messages = new ArrayList<>(messageStore.size());
+        Map<MessageHashKey, Integer> indices = new HashMap<>();
 
         for (TranslatableMessage translatableMessage : messageStore)
         {
-            Message message = this.createMessage(configuration, messageStore, translatableMessage);
-            if (message == null)
+            if (translatableMessage instanceof GettextHeader)
+            {
+                continue;
+            }
+            if (translatableMessage instanceof TranslatableGettextMessage && translatableMessage.getSourceReferences().isEmpty() && configuration.getRemoveUnusedMessages())
             {
                 continue;
             }
 
-            Message availableMessage = catalog.locateMessage(message.getMsgctxt(), message.getMsgid());
-            if (availableMessage == null)
+            Integer index = indices.putIfAbsent(new MessageHashKey(translatableMessage.getContext(), translatableMessage.getSingular()), messages.size());
+            if (index == null)
             {
                 // it's a completely new entry
-                catalog.addMessage(message);
+                messages.add(translatableMessage);
                 continue;
             }
 
-            if (availableMessage.getSourceReferences().isEmpty())
+            if (messages.get(index).getSourceReferences().isEmpty())
             {
                 // the old entry isn't used anymore
-                catalog.addMessage(message);
+                messages.set(index, translatableMessage);
                 continue;
             }
 
-            throw new CatalogFormatException(String.format("The message with the context '%s' and the msgid '%s' exists already.", message.getMsgctxt(), message.getMsgid()));
+            throw new CatalogFormatException(String.format("The message with the context '%s' and the msgid '%s' exists already.", translatableMessage.getContext(), translatableMessage.getSingular()));
         }
 
-        return catalog;
-    }
-
-    private Message createMessage(GettextCatalogConfiguration configuration, MessageStore messageStore, TranslatableMessage translatableMessage)
-    {
-        if (translatableMessage instanceof GettextHeader)
+        // the header replaces a message with an empty msgid and without a context
+        Integer headerIndex = indices.get(new MessageHashKey(null, ""));
+        if (headerIndex != null)
         {
-            return null;
+            messages.remove(headerIndex.intValue());
         }
 
+        return messages;
+    }
+
+    private Message createMessage(GettextCatalogConfiguration configuration, Map<String, List<TranslatableGettextMessage>> referenceIndex, TranslatableMessage translatableMessage)
+    {
         if (translatableMessage instanceof TranslatableGettextMessage)
         {
             Message message = ((TranslatableGettextMessage) translatableMessage).toMessage();
 
             if (message.getSourceReferences().isEmpty())
             {
-                if (configuration.getRemoveUnusedMessages())
-                {
-                    return null;
-                }
                 message.setObsolete(true);
                 this.logger.info("message with msgid '" + translatableMessage.getSingular() + "' does not occur!");
             }
@@ -191,7 +227,7 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
             message.addExtractedComment(extractedComment);
         }
 
-        this.loadEntriesFromPreviousMessage(message, messageStore);
+        this.loadEntriesFromPreviousMessage(message, referenceIndex);
 
         // fill msgstr plural entries up
         if (message.isPlural())
@@ -206,44 +242,72 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
     }
 
     /**
-     * This method sets the previous message ids of the specified message
+     * This method creates an index of the messages of the old catalog by their gettext references. A message is
+     * just indexed by the references which it doesn't have anymore. The messages of a reference are ordered like
+     * within the message store.
      *
-     * @param message message
+     * @param messageStore the message store
+     *
+     * @return index from the gettext references to the old messages
      */
-    private void loadEntriesFromPreviousMessage(Message message, MessageStore messageStore)
+    private Map<String, List<TranslatableGettextMessage>> createReferenceIndex(MessageStore messageStore)
     {
-        // adds every message to the list which has the same reference
-        List<TranslatableGettextMessage> messageList = new ArrayList<>(1);
-
-        for (String reference : message.getSourceReferences())
+        Map<String, List<TranslatableGettextMessage>> referenceIndex = new HashMap<>();
+        for (TranslatableMessage message : messageStore)
         {
-            messageLoop: for (TranslatableMessage oldMessage : messageStore)
+            if (!(message instanceof TranslatableGettextMessage))
+            {
+                continue;
+            }
+
+            TranslatableGettextMessage gettextMessage = (TranslatableGettextMessage) message;
+            if (gettextMessage.getGettextReferences().isEmpty())
+            {
+                continue;
+            }
+
+            Set<String> currentReferences = new HashSet<>();
+            for (SourceReference sourceReference : gettextMessage.getSourceReferences())
+            {
+                currentReferences.add(sourceReference.toString());
+            }
+
+            for (String reference : gettextMessage.getGettextReferences())
             {
-                if (!(oldMessage instanceof TranslatableGettextMessage))
+                if (currentReferences.contains(reference))
                 {
-                    // delete every message which wasn't in the old catalog
+                    // the reference still exists in that message
                     continue;
                 }
 
-                TranslatableGettextMessage translatableGettextMessage = (TranslatableGettextMessage) oldMessage;
-                for (SourceReference newReference : translatableGettextMessage.getSourceReferences())
+                List<TranslatableGettextMessage> messages = referenceIndex.computeIfAbsent(reference, r -> new ArrayList<>(1));
+                if (messages.isEmpty() || messages.get(messages.size() - 1) != gettextMessage)
                 {
-                    // continue with the next message if the reference still exists in that message
-                    if (reference.equals(newReference.toString()))
-                    {
-                        continue messageLoop;
-                    }
+                    messages.add(gettextMessage);
                 }
+            }
+        }
+        return referenceIndex;
+    }
 
-                for (String oldReference : translatableGettextMessage.getGettextReferences())
-                {
-                    // if the reference was a message in the old catalog, add it to the message list
-                    if (reference.equals(oldReference))
-                    {
-                        messageList.add((TranslatableGettextMessage) oldMessage);
-                        break;
-                    }
-                }
+    /**
+     * This method sets the previous message ids of the specified message
+     *
+     * @param message        message
+     * @param referenceIndex index from the gettext references to the old messages
+     */
+    private void loadEntriesFromPreviousMessage(Message message, Map<String, List<TranslatableGettextMessage>> referenceIndex)
+    {
+        // adds every message to the list which has the same reference
+        List<TranslatableGettextMessage> messageList = new ArrayList<>(1);
+
+        for (String reference : message.getSourceReferences())
+        {
+            // the reference was a message in the old catalog
+            List<TranslatableGettextMessage> oldMessages = referenceIndex.get(reference);
+            if (oldMessages != null)
+            {
+                messageList.addAll(oldMessages);
             }
         }
 
@@ -383,18 +447,19 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
         GettextCatalogConfiguration catalogConfig = (GettextCatalogConfiguration) config;
         MessageStore messageStore = new MessageStore();
 
-        Catalog catalog = new Catalog(true);
-        PoParser poParser = new PoParser(catalog);
-        catalog = poParser.parseCatalog(inputStream, catalogConfig.getCharset(), true);
+        List<Message> messages = this.readMessages(catalogConfig, inputStream);
 
-        Message header = catalog.locateHeader();
-        if (header != null)
+        for (Message catalogMessage : messages)
         {
-            messageStore.addMessage(new GettextHeader(header));
+            if (catalogMessage.isHeader())
+            {
+                messageStore.addMessage(new GettextHeader(catalogMessage));
+                break;
+            }
         }
 
         int i = 1;
-        for (Message catalogMessage : catalog)
+        for (Message catalogMessage : messages)
         {
             if (catalogMessage.isHeader())
             {
@@ -408,7 +473,31 @@ public class PlaintextGettextCatalogFormat implements CatalogFormat
         return messageStore;
     }
 
-    private boolean hasChanges(MessageStore messageStore, GettextHeader header)
+    /**
+     * This method reads the entries of the catalog in the order of the catalog
+     *
+     * @param configuration configuration of the catalog
+     * @param inputStream   input stream of the catalog
+     *
+     * @return entries of the catalog
+     *
+     * @throws CatalogFormatException if the catalog couldn't be read or has a wrong format
+     */
+    List<Message> readMessages(GettextCatalogConfiguration configuration, InputStream inputStream) throws CatalogFormatException
+    {
+        return new PoCatalogReader(configuration.getCharset()).read(inputStream);
+    }
+
+    /**
+     * This method checks whether the new catalog differs from the old one
+     *
+     * @param configuration configuration of the catalog
+     * @param messageStore  the message store containing the messages for the catalog
+     * @param header        header of the new catalog
+     *
+     * @return whether the catalog has changes
+     */
+    boolean hasChanges(GettextCatalogConfiguration configuration, MessageStore messageStore, GettextHeader header)
     {
         GettextHeader oldHeader = null;
         for (TranslatableMessage message : messageStore)
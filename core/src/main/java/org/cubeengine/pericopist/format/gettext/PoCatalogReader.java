@@ -0,0 +1,916 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+import org.fedorahosted.tennera.jgettext.MessageHashKey;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+
+/**
+ * <p>
+ * The po catalog reader parses gettext catalogs (.po and .pot files) without building a jgettext
+ * {@link org.fedorahosted.tennera.jgettext.Catalog}. Every line is parsed in place and the entries are filled into
+ * plain {@link Message} instances.
+ * </p>
+ *
+ * <p>
+ * The {@link Message} instances are kept as the intermediate of the entries on purpose. An entry is collected line
+ * by line, so it needs a mutable holder, whereas a {@link TranslatableGettextMessage} is immutable. The
+ * {@link MoCatalogReader} and the {@link GettextHeader} use the same type, so the catalog format creates the store
+ * messages of both catalog types alike. The store messages reuse the strings of the entries, so mainly the small
+ * holder objects are created twice.
+ * </p>
+ *
+ * <p>
+ * Big catalogs are split on entry boundaries, which are empty lines followed by a comment or a msgctxt or msgid
+ * line. The chunks are parsed in parallel. If a chunk doesn't end with a complete message, the catalog is parsed
+ * in one piece again, so the splitting never changes the result.
+ * </p>
+ *
+ * <p>
+ * The reader doesn't stream the catalog. The file is read and decoded at once, because the chunks are split on
+ * entry boundaries of the decoded text. The bytes can't be split like that for every charset, for example UTF-16.
+ * </p>
+ *
+ * <p>
+ * The parser follows the rules of the jgettext {@link org.fedorahosted.tennera.jgettext.PoParser}. Entries with
+ * the same context and msgid replace each other and keep the position of the first one.
+ * </p>
+ */
+final class PoCatalogReader
+{
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final int NONE = 0;
+    private static final int MSGCTXT = 1;
+    private static final int MSGID = 2;
+    private static final int MSGID_PLURAL = 3;
+    private static final int MSGSTR = 4;
+    private static final int MSGSTR_PLURAL = 5;
+
+    private final Charset charset;
+
+    /**
+     * The constructor creates a new reader
+     *
+     * @param charset the charset of the catalogs
+     */
+    PoCatalogReader(Charset charset)
+    {
+        this.charset = charset;
+    }
+
+    /**
+     * This method reads the messages of the catalog from the specified input stream.
+     * A {@link FileInputStream} is read from its current position with a single buffer of the size of the file.
+     *
+     * @param inputStream the input stream of the catalog
+     *
+     * @return the messages in the order of the catalog
+     *
+     * @throws CatalogFormatException if the catalog couldn't be read or has a wrong format
+     */
+    List<Message> read(InputStream inputStream) throws CatalogFormatException
+    {
+        CharBuffer text;
+        try
+        {
+            text = this.charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE).decode(load(inputStream));
+        }
+        catch (IOException e)
+        {
+            throw new CatalogFormatException("The catalog could not be read.", e);
+        }
+
+        char[] chars = text.array();
+        int start = text.arrayOffset() + text.position();
+        int end = text.arrayOffset() + text.limit();
+        if (start < end && chars[start] == '\uFEFF')
+        {
+            start++;
+        }
+
+        int[] bounds = split(chars, start, end);
+        if (bounds.length > 2)
+        {
+            List<List<Message>> chunks = this.parseChunks(chars, start, bounds);
+            if (chunks != null)
+            {
+                return merge(chunks);
+            }
+        }
+
+        return merge(Collections.singletonList(new ChunkParser(chars, start, start, end).parse(true)));
+    }
+
+    /**
+     * This method parses the chunks in parallel.
+     *
+     * @param chars  the text of the catalog
+     * @param start  the start of the text
+     * @param bounds the bounds of the chunks
+     *
+     * @return the messages of the chunks or null if the catalog wasn't split on entry boundaries
+     */
+    private List<List<Message>> parseChunks(final char[] chars, final int start, int[] bounds)
+    {
+        List<Callable<ChunkParser>> tasks = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i + 1 < bounds.length; i++)
+        {
+            final ChunkParser parser = new ChunkParser(chars, start, bounds[i], bounds[i + 1]);
+            final boolean last = i + 2 == bounds.length;
+            tasks.add(() -> parser.parse(last) == null ? null : parser);
+        }
+
+        List<List<Message>> chunks = new ArrayList<>(tasks.size());
+        for (Future<ChunkParser> future : ForkJoinPool.commonPool().invokeAll(tasks))
+        {
+            try
+            {
+                ChunkParser parser = future.get();
+                if (parser == null)
+                {
+                    return null;
+                }
+                chunks.add(parser.messages);
+                if (parser.stopped)
+                {
+                    // the rest of the catalog is ignored
+                    break;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            catch (ExecutionException e)
+            {
+                // the error is reported with the right line by the sequential parser
+                return null;
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * This method loads the bytes of the specified input stream. A file is read into a buffer of its size. It isn't
+     * memory mapped, because the mapping would lock the file until it's garbage collected on some systems, so the
+     * catalog couldn't be replaced afterwards.
+     *
+     * @param inputStream the input stream
+     *
+     * @return the bytes
+     *
+     * @throws IOException if the input stream couldn't be read
+     */
+    private static ByteBuffer load(InputStream inputStream) throws IOException
+    {
+        if (inputStream instanceof FileInputStream)
+        {
+            FileChannel channel = ((FileInputStream) inputStream).getChannel();
+            long size = channel.size() - channel.position();
+            if (size >= 0 && size <= Integer.MAX_VALUE)
+            {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+                {
+                    // the channel reads until the buffer is full or the file ends
+                }
+                buffer.flip();
+                return buffer;
+            }
+        }
+        return ByteBuffer.wrap(inputStream.readAllBytes());
+    }
+
+    /**
+     * This method merges the messages of the chunks. A message replaces a previous one with the same key.
+     *
+     * @param chunks the messages of the chunks
+     *
+     * @return the messages of the catalog
+     */
+    private static List<Message> merge(List<List<Message>> chunks)
+    {
+        int size = 0;
+        for (List<Message> chunk : chunks)
+        {
+            size += chunk.size();
+        }
+
+        List<Message> messages = new ArrayList<>(size);
+        Map<MessageHashKey, Integer> indices = new HashMap<>(size * 4 / 3 + 1);
+        for (List<Message> chunk : chunks)
+        {
+            for (Message message : chunk)
+            {
+                Integer index = indices.putIfAbsent(new MessageHashKey(message), messages.size());
+                if (index == null)
+                {
+                    messages.add(message);
+                }
+                else
+                {
+                    messages.set(index, message);
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * This method splits the text into chunks of about {@link #CHUNK_SIZE} characters.
+     *
+     * @param chars the text
+     * @param start the start of the text
+     * @param end   the end of the text
+     *
+     * @return the bounds of the chunks
+     */
+    private static int[] split(char[] chars, int start, int end)
+    {
+        int[] bounds = new int[(end - start) / CHUNK_SIZE + 2];
+        int count = 0;
+
+        bounds[count++] = start;
+        int offset = start + CHUNK_SIZE;
+        while (offset < end)
+        {
+            int boundary = findEntryStart(chars, offset, end);
+            if (boundary == end)
+            {
+                break;
+            }
+            bounds[count++] = boundary;
+            offset = boundary + CHUNK_SIZE;
+        }
+        bounds[count++] = end;
+
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * This method searches the first entry after the specified offset which follows an empty line.
+     *
+     * @param chars  the text
+     * @param offset the offset
+     * @param end    the end of the text
+     *
+     * @return the start of the entry or the end of the text
+     */
+    private static int findEntryStart(char[] chars, int offset, int end)
+    {
+        int line = nextLine(chars, offset, end);
+        boolean blank = false;
+        while (line < end)
+        {
+            int next = nextLine(chars, line, end);
+            int content = skipWhitespaces(chars, line, next);
+            if (blank && startsEntry(chars, content, next))
+            {
+                return line;
+            }
+            blank = content == next || chars[content] == '\n' || chars[content] == '\r';
+            line = next;
+        }
+        return end;
+    }
+
+    private static boolean startsEntry(char[] chars, int offset, int end)
+    {
+        if (offset < end && chars[offset] == '#')
+        {
+            if (offset + 1 < end && chars[offset + 1] == '~')
+            {
+                // an obsolete entry starts with its msgctxt or msgid
+                offset = skipWhitespaces(chars, offset + 2, end);
+            }
+            else
+            {
+                return true;
+            }
+        }
+        return startsWith(chars, offset, end, "msgctxt") || (startsWith(chars, offset, end, "msgid") && !startsWith(chars, offset, end, "msgid_plural"));
+    }
+
+    private static int nextLine(char[] chars, int offset, int end)
+    {
+        while (offset < end)
+        {
+            char c = chars[offset++];
+            if (c == '\n')
+            {
+                break;
+            }
+            if (c == '\r')
+            {
+                if (offset < end && chars[offset] == '\n')
+                {
+                    offset++;
+                }
+                break;
+            }
+        }
+        return offset;
+    }
+
+    private static int skipWhitespaces(char[] chars, int offset, int end)
+    {
+        while (offset < end && (chars[offset] == ' ' || chars[offset] == '\t'))
+        {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static boolean startsWith(char[] chars, int offset, int end, String prefix)
+    {
+        if (end - offset < prefix.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++)
+        {
+            if (chars[offset + i] != prefix.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The chunk parser parses the lines of a chunk. An entry (msgctxt, msgid, msgid_plural, msgstr or msgstr[n])
+     * is collected until the next line which isn't a continuation, and is applied to the current message afterwards.
+     * A message is complete with its msgstr entries.
+     * <p/>
+     * Like jgettext, the parser stops without an error if a complete message is followed by an entry which can't
+     * start a new message. Comments at the end of the catalog are ignored.
+     */
+    private static final class ChunkParser
+    {
+        private final char[] chars;
+        private final int textStart;
+        private final int start;
+        private final int end;
+
+        private final List<Message> messages = new ArrayList<>();
+        private final StringBuilder entryText = new StringBuilder();
+
+        private Message message;
+        private boolean started;
+        private boolean complete;
+        private boolean pluralComplete;
+        private boolean stopped;
+
+        private int entry = NONE;
+        private int entryIndex;
+        private boolean entryPrevious;
+        private boolean entryObsolete;
+
+        private int lineStart;
+
+        private ChunkParser(char[] chars, int textStart, int start, int end)
+        {
+            this.chars = chars;
+            this.textStart = textStart;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * This method parses the chunk.
+         *
+         * @param last whether it's the last chunk of the catalog
+         *
+         * @return the messages of the chunk or null if a chunk which isn't the last one ends within a message
+         *
+         * @throws CatalogFormatException if the chunk has a wrong format
+         */
+        private List<Message> parse(boolean last) throws CatalogFormatException
+        {
+            int offset = this.start;
+            while (offset < this.end && !this.stopped)
+            {
+                this.lineStart = offset;
+
+                int lineEnd = offset;
+                while (lineEnd < this.end && this.chars[lineEnd] != '\n' && this.chars[lineEnd] != '\r')
+                {
+                    lineEnd++;
+                }
+
+                this.processLine(offset, lineEnd);
+                offset = nextLine(this.chars, lineEnd, this.end);
+            }
+
+            this.wrapUpEntry();
+            if (this.message != null)
+            {
+                if (!last && !this.complete)
+                {
+                    return null;
+                }
+                if (this.complete)
+                {
+                    this.messages.add(this.message);
+                }
+                else if (this.started)
+                {
+                    throw this.error("The catalog ends within a message.");
+                }
+            }
+            return this.messages;
+        }
+
+        private void processLine(int offset, int lineEnd) throws CatalogFormatException
+        {
+            offset = skipWhitespaces(this.chars, offset, lineEnd);
+            if (offset == lineEnd)
+            {
+                return;
+            }
+
+            char c = this.chars[offset];
+            if (c == '"')
+            {
+                this.processContinuation(offset, lineEnd);
+            }
+            else if (c == '#')
+            {
+                this.processComment(offset, lineEnd);
+            }
+            else
+            {
+                this.processEntry(offset, lineEnd, false);
+            }
+        }
+
+        private void processComment(int offset, int lineEnd) throws CatalogFormatException
+        {
+            char type = offset + 1 < lineEnd ? this.chars[offset + 1] : ' ';
+            if (type == '|')
+            {
+                // previous and obsolete entries can continue the current entry
+                this.processPreviousEntry(this.stripFirstSpace(offset + 2, lineEnd), lineEnd);
+                return;
+            }
+            if (type == '~')
+            {
+                this.processObsolete(this.stripFirstSpace(offset + 2, lineEnd), lineEnd);
+                return;
+            }
+
+            this.wrapUpEntry();
+            if (this.stopped)
+            {
+                return;
+            }
+            switch (type)
+            {
+                case ',':
+                    this.processFlags(offset + 2, lineEnd);
+                    break;
+                case ':':
+                    this.currentMessage().addSourceReference(this.trimmedString(offset + 2, lineEnd));
+                    break;
+                case '.':
+                    this.currentMessage().addExtractedComment(this.string(this.stripFirstSpace(offset + 2, lineEnd), lineEnd));
+                    break;
+                default:
+                    this.currentMessage().addComment(this.string(this.stripFirstSpace(Math.min(offset + 1, lineEnd), lineEnd), lineEnd));
+                    break;
+            }
+        }
+
+        private void processFlags(int offset, int lineEnd)
+        {
+            Message message = this.currentMessage();
+            while (offset <= lineEnd)
+            {
+                int flagEnd = offset;
+                while (flagEnd < lineEnd && this.chars[flagEnd] != ',')
+                {
+                    flagEnd++;
+                }
+
+                String flag = this.trimmedString(offset, flagEnd);
+                if (!flag.isEmpty())
+                {
+                    message.addFormat(flag);
+                }
+                offset = flagEnd + 1;
+            }
+        }
+
+        private void processPreviousEntry(int offset, int lineEnd) throws CatalogFormatException
+        {
+            this.processLine(offset, lineEnd);
+            if (this.stopped)
+            {
+                return;
+            }
+            if (this.entry == NONE)
+            {
+                throw this.error("A previous entry has to be a msgctxt, msgid or msgid_plural.");
+            }
+            this.entryPrevious = true;
+        }
+
+        private void processObsolete(int offset, int lineEnd) throws CatalogFormatException
+        {
+            offset = this.trimStart(offset, lineEnd);
+            lineEnd = this.trimEnd(offset, lineEnd);
+            if (offset == lineEnd)
+            {
+                return;
+            }
+
+            if (this.chars[offset] == '"')
+            {
+                this.processContinuation(offset, lineEnd);
+            }
+            else if (this.chars[offset] == '|')
+            {
+                this.processPreviousEntry(this.stripFirstSpace(Math.min(offset + 2, lineEnd), lineEnd), lineEnd);
+            }
+            else
+            {
+                this.processEntry(offset, lineEnd, true);
+            }
+        }
+
+        private void processContinuation(int offset, int lineEnd) throws CatalogFormatException
+        {
+            if (this.entry == NONE)
+            {
+                throw this.error("A string has to continue a msgctxt, msgid, msgid_plural or msgstr entry.");
+            }
+            this.appendString(offset, lineEnd);
+        }
+
+        private void processEntry(int offset, int lineEnd, boolean obsolete) throws CatalogFormatException
+        {
+            this.wrapUpEntry();
+            if (this.stopped)
+            {
+                // the line belongs to the ignored rest of the catalog
+                return;
+            }
+
+            int value;
+            if (startsWith(this.chars, offset, lineEnd, "domain"))
+            {
+                this.entryText.setLength(0);
+                this.appendString(offset + "domain".length(), lineEnd);
+                this.currentMessage().setDomain(this.entryText.toString());
+                this.started = true;
+                if (obsolete)
+                {
+                    this.message.markObsolete();
+                }
+                return;
+            }
+            else if (startsWith(this.chars, offset, lineEnd, "msgctxt"))
+            {
+                this.entry = MSGCTXT;
+                value = offset + "msgctxt".length();
+            }
+            else if (startsWith(this.chars, offset, lineEnd, "msgid_plural"))
+            {
+                this.entry = MSGID_PLURAL;
+                value = offset + "msgid_plural".length();
+            }
+            else if (startsWith(this.chars, offset, lineEnd, "msgstr["))
+            {
+                int indexStart = offset + "msgstr[".length();
+                int indexEnd = indexStart;
+                while (indexEnd < lineEnd && this.chars[indexEnd] != ']')
+                {
+                    indexEnd++;
+                }
+                try
+                {
+                    this.entryIndex = Integer.parseInt(new String(this.chars, indexStart, indexEnd - indexStart));
+                }
+                catch (NumberFormatException e)
+                {
+                    throw this.error("The index of the msgstr entry is invalid.");
+                }
+                this.entry = MSGSTR_PLURAL;
+                value = Math.min(indexEnd + 1, lineEnd);
+            }
+            else if (startsWith(this.chars, offset, lineEnd, "msgstr"))
+            {
+                this.entry = MSGSTR;
+                value = offset + "msgstr".length();
+            }
+            else if (startsWith(this.chars, offset, lineEnd, "msgid"))
+            {
+                this.entry = MSGID;
+                value = offset + "msgid".length();
+            }
+            else
+            {
+                throw this.error("Unrecognized entry directive [" + new String(this.chars, offset, lineEnd - offset) + "].");
+            }
+
+            this.entryPrevious = false;
+            this.entryObsolete = obsolete;
+            this.entryText.setLength(0);
+            this.appendString(value, lineEnd);
+        }
+
+        /**
+         * This method applies the collected entry to the current message.
+         *
+         * @throws CatalogFormatException if the entry isn't allowed at this position
+         */
+        private void wrapUpEntry() throws CatalogFormatException
+        {
+            if (this.entry == NONE)
+            {
+                return;
+            }
+
+            int entry = this.entry;
+            this.entry = NONE;
+
+            if (this.complete && !this.entryPrevious && !this.entryObsolete && (entry == MSGID_PLURAL || entry == MSGSTR || (entry == MSGSTR_PLURAL && !this.pluralComplete)))
+            {
+                // the entry can't start a new message
+                this.stopped = true;
+                return;
+            }
+
+            if (this.entryPrevious && (entry == MSGSTR || entry == MSGSTR_PLURAL))
+            {
+                throw this.error("A translation doesn't allow a previous entry.");
+            }
+            if (entry == MSGSTR_PLURAL && this.complete)
+            {
+                // further plural translations of the same message
+                this.addMsgstrPlural(this.entryText.toString());
+                if (this.entryObsolete)
+                {
+                    this.message.markObsolete();
+                }
+                return;
+            }
+
+            String text = this.entryText.toString();
+            Message message = this.currentMessage();
+            this.started = true;
+            if (this.entryPrevious)
+            {
+                switch (entry)
+                {
+                    case MSGCTXT:
+                        message.setPrevMsgctx(text);
+                        break;
+                    case MSGID:
+                        message.setPrevMsgid(text);
+                        break;
+                    default:
+                        message.setPrevMsgidPlural(text);
+                        break;
+                }
+            }
+            else
+            {
+                switch (entry)
+                {
+                    case MSGCTXT:
+                        message.setMsgctxt(text);
+                        break;
+                    case MSGID:
+                        message.setMsgid(text);
+                        break;
+                    case MSGID_PLURAL:
+                        message.setMsgidPlural(text);
+                        break;
+                    case MSGSTR:
+                        this.checkMsgid();
+                        message.setMsgstr(text);
+                        this.complete = true;
+                        this.pluralComplete = false;
+                        break;
+                    default:
+                        this.checkMsgid();
+                        this.addMsgstrPlural(text);
+                        this.complete = true;
+                        this.pluralComplete = true;
+                        break;
+                }
+            }
+
+            if (this.entryObsolete)
+            {
+                message.markObsolete();
+            }
+        }
+
+        private void addMsgstrPlural(String text) throws CatalogFormatException
+        {
+            if (this.entryIndex < 0 || this.entryIndex > this.message.getMsgstrPlural().size())
+            {
+                throw this.error("The msgstr entry has the index " + this.entryIndex + " which doesn't follow the previous ones.");
+            }
+            this.message.addMsgstrPlural(text, this.entryIndex);
+        }
+
+        private void checkMsgid() throws CatalogFormatException
+        {
+            if (this.message.getMsgid() == null)
+            {
+                throw this.error("A msgstr entry has to follow a msgid entry.");
+            }
+        }
+
+        /**
+         * This method returns the message which the next entry belongs to. A new message is started after a
+         * complete one.
+         *
+         * @return the current message
+         */
+        private Message currentMessage()
+        {
+            if (this.complete)
+            {
+                this.messages.add(this.message);
+                this.message = null;
+                this.complete = false;
+            }
+            if (this.message == null)
+            {
+                this.message = new Message();
+                this.started = false;
+            }
+            return this.message;
+        }
+
+        /**
+         * This method appends the quoted string of the specified range to the entry text and removes its escapes.
+         *
+         * @param offset  the start of the string
+         * @param lineEnd the end of the line
+         *
+         * @throws CatalogFormatException if the string isn't quoted or contains an invalid escape sequence
+         */
+        private void appendString(int offset, int lineEnd) throws CatalogFormatException
+        {
+            offset = this.trimStart(offset, lineEnd);
+            lineEnd = this.trimEnd(offset, lineEnd);
+            if (offset == lineEnd || this.chars[offset] != '"')
+            {
+                throw this.error("The string has to start with a quote.");
+            }
+            if (lineEnd - offset < 2 || this.chars[lineEnd - 1] != '"')
+            {
+                throw this.error("The string has to end with a quote.");
+            }
+
+            int i = offset + 1;
+            int stringEnd = lineEnd - 1;
+            if (stringEnd - i == 1 && this.chars[i] == '\\')
+            {
+                throw this.error("The string contains the unexpected token '\\'.");
+            }
+            while (i < stringEnd)
+            {
+                char c = this.chars[i++];
+                if (c != '\\')
+                {
+                    this.entryText.append(c);
+                    continue;
+                }
+                if (i == stringEnd)
+                {
+                    // a backslash at the end of the string is ignored
+                    break;
+                }
+
+                char escaped = this.chars[i++];
+                switch (escaped)
+                {
+                    case '\\':
+                        this.entryText.append('\\');
+                        break;
+                    case 'r':
+                        this.entryText.append('\r');
+                        break;
+                    case 'n':
+                        this.entryText.append('\n');
+                        break;
+                    case 't':
+                        this.entryText.append('\t');
+                        break;
+                    case '"':
+                        this.entryText.append('"');
+                        break;
+                    default:
+                        throw this.error("The string contains the invalid escape sequence \\" + escaped + ".");
+                }
+            }
+        }
+
+        private int stripFirstSpace(int offset, int lineEnd)
+        {
+            if (offset < lineEnd && this.chars[offset] == ' ')
+            {
+                return offset + 1;
+            }
+            return Math.min(offset, lineEnd);
+        }
+
+        private int trimStart(int offset, int lineEnd)
+        {
+            while (offset < lineEnd && this.chars[offset] <= ' ')
+            {
+                offset++;
+            }
+            return offset;
+        }
+
+        private int trimEnd(int offset, int lineEnd)
+        {
+            while (lineEnd > offset && this.chars[lineEnd - 1] <= ' ')
+            {
+                lineEnd--;
+            }
+            return lineEnd;
+        }
+
+        private String string(int offset, int lineEnd)
+        {
+            return new String(this.chars, offset, lineEnd - offset);
+        }
+
+        private String trimmedString(int offset, int lineEnd)
+        {
+            offset = this.trimStart(offset, lineEnd);
+            return this.string(offset, this.trimEnd(offset, lineEnd));
+        }
+
+        /**
+         * This method creates an exception for the current line.
+         *
+         * @param reason the reason of the exception
+         *
+         * @return the exception
+         */
+        private CatalogFormatException error(String reason)
+        {
+            int line = 1;
+            for (int i = this.textStart; i < this.lineStart; i++)
+            {
+                if (this.chars[i] == '\n' || (this.chars[i] == '\r' && (i + 1 == this.lineStart || this.chars[i + 1] != '\n')))
+                {
+                    line++;
+                }
+            }
+            return new CatalogFormatException(reason + " (line " + line + ")");
+        }
+    }
+}
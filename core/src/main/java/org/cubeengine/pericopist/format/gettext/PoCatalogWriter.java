@@ -0,0 +1,371 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import org.fedorahosted.tennera.jgettext.Message;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * The po catalog writer writes gettext catalogs (.po and .pot files) entry by entry without building a jgettext
+ * {@link org.fedorahosted.tennera.jgettext.Catalog}. The characters are collected in a buffer and encoded by one
+ * encoder into a direct byte buffer, which is written to the channel whenever it's full.
+ * </p>
+ *
+ * <p>
+ * The output is exactly the same like the output of the jgettext {@link org.fedorahosted.tennera.jgettext.PoWriter}
+ * with wrapping enabled and encoded tabs. Strings are wrapped at 80 characters behind a space, '-', '.', '/',
+ * ':' or '='.
+ * </p>
+ */
+final class PoCatalogWriter implements GettextCatalogWriter
+{
+    private static final int BUFFER_SIZE = 1 << 13;
+    private static final int WIDTH = 80;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final StringBuilder line;
+    private int entryCount;
+
+    /**
+     * The constructor creates a new writer
+     *
+     * @param channel the channel of the catalog
+     * @param charset the charset of the catalog
+     */
+    PoCatalogWriter(WritableByteChannel channel, Charset charset)
+    {
+        this.channel = channel;
+        this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.line = new StringBuilder(WIDTH);
+    }
+
+    /**
+     * This method writes the specified message. Every entry except the first one is separated from the previous
+     * one by an empty line, so the header has to be written first.
+     *
+     * @param message the message
+     *
+     * @throws IOException if the message couldn't be written
+     */
+    @Override
+    public void write(Message message) throws IOException
+    {
+        if (this.entryCount++ > 0)
+        {
+            this.write('\n');
+        }
+
+        this.writeComments("# ", message.getComments());
+        this.writeComments("#. ", message.getExtractedComments());
+        this.writeComments("#: ", message.getSourceReferences());
+
+        Collection<String> formats = message.getFormats();
+        if (!formats.isEmpty())
+        {
+            this.write("#");
+            for (String format : formats)
+            {
+                this.write(", ");
+                this.write(format);
+            }
+            this.write('\n');
+        }
+
+        if (message.getPrevMsgctx() != null)
+        {
+            this.writeEntry("#| ", "msgctxt ", message.getPrevMsgctx());
+        }
+        if (message.getPrevMsgid() != null)
+        {
+            this.writeEntry("#| ", "msgid ", message.getPrevMsgid());
+        }
+        if (message.getPrevMsgidPlural() != null)
+        {
+            this.writeEntry("#| ", "msgid_plural ", message.getPrevMsgidPlural());
+        }
+
+        String prefix = message.isObsolete() ? "#~ " : "";
+        if (message.getMsgctxt() != null)
+        {
+            this.writeEntry(prefix, "msgctxt ", message.getMsgctxt());
+        }
+
+        if (message.isPlural())
+        {
+            this.writeEntry(prefix, "msgid ", message.getMsgid());
+            this.writeEntry(prefix, "msgid_plural ", message.getMsgidPlural());
+
+            List<String> msgstrPlural = message.getMsgstrPlural();
+            if (msgstrPlural.isEmpty())
+            {
+                this.writeEntry(prefix, "msgstr[0] ", "");
+            }
+            for (int i = 0; i < msgstrPlural.size(); i++)
+            {
+                this.writeEntry(prefix, "msgstr[" + i + "] ", msgstrPlural.get(i));
+            }
+        }
+        else
+        {
+            this.writeEntry(prefix, "msgid ", message.getMsgid());
+            this.writeEntry(prefix, "msgstr ", message.getMsgstr() == null ? "" : message.getMsgstr());
+        }
+    }
+
+    /**
+     * This method encodes the remaining characters and writes every byte to the channel.
+     * The channel isn't closed.
+     *
+     * @throws IOException if the bytes couldn't be written
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        this.encode(true);
+        while (this.encoder.flush(this.bytes).isOverflow())
+        {
+            this.writeBytes();
+        }
+        this.writeBytes();
+        this.encoder.reset();
+    }
+
+    private void writeComments(String prefix, Collection<String> comments) throws IOException
+    {
+        for (String comment : comments)
+        {
+            // like String.split, trailing empty lines are dropped
+            int end = comment.length();
+            while (end > 0 && comment.charAt(end - 1) == '\n')
+            {
+                end--;
+            }
+            if (end == 0 && !comment.isEmpty())
+            {
+                continue;
+            }
+
+            int start = 0;
+            do
+            {
+                int lineEnd = comment.indexOf('\n', start);
+                if (lineEnd < 0 || lineEnd > end)
+                {
+                    lineEnd = end;
+                }
+                this.write(prefix);
+                this.write(comment, start, lineEnd);
+                this.write('\n');
+                start = lineEnd + 1;
+            }
+            while (start <= end);
+        }
+    }
+
+    /**
+     * This method writes a keyword and its quoted string. Long strings and strings with line breaks are continued
+     * within the following lines.
+     *
+     * @param prefix  the prefix of every line
+     * @param keyword the keyword including the trailing space
+     * @param string  the string
+     *
+     * @throws IOException if the entry couldn't be written
+     */
+    private void writeEntry(String prefix, String keyword, String string) throws IOException
+    {
+        this.write(prefix);
+        this.write(keyword);
+        this.write('"');
+
+        boolean firstLine = true;
+        if (string.length() > WIDTH - keyword.length() - 4)
+        {
+            firstLine = false;
+            this.write("\"\n");
+            if (prefix.isEmpty())
+            {
+                this.write('"');
+            }
+        }
+
+        StringBuilder line = this.line;
+        line.setLength(0);
+        int breakIndex = 0;
+        for (int i = 0; i < string.length(); i++)
+        {
+            char c = string.charAt(i);
+            switch (c)
+            {
+                case '\n':
+                    line.append("\\n");
+                    if (i != string.length() - 1)
+                    {
+                        firstLine = this.writeLine(prefix, line.length(), firstLine, false);
+                        breakIndex = 0;
+                    }
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case ' ':
+                case '-':
+                case '.':
+                case '/':
+                case ':':
+                case '=':
+                    breakIndex = line.length();
+                    line.append(c);
+                    break;
+                default:
+                    line.append(c);
+            }
+
+            if (line.length() > WIDTH - 4 && breakIndex != 0)
+            {
+                firstLine = this.writeLine(prefix, breakIndex + 1, firstLine, false);
+                breakIndex = 0;
+            }
+        }
+        this.writeLine(prefix, line.length(), firstLine, true);
+    }
+
+    /**
+     * This method writes the beginning of the current line up to the specified index and removes it.
+     *
+     * @param prefix    the prefix of every line
+     * @param end       the end index
+     * @param firstLine whether it's the line of the keyword
+     * @param lastLine  whether it's the last line of the string
+     *
+     * @return whether the next line is still the line of the keyword
+     *
+     * @throws IOException if the line couldn't be written
+     */
+    private boolean writeLine(String prefix, int end, boolean firstLine, boolean lastLine) throws IOException
+    {
+        if (prefix.isEmpty())
+        {
+            this.write(this.line, end);
+            this.write("\"\n");
+            if (!lastLine)
+            {
+                this.write('"');
+            }
+            return firstLine;
+        }
+
+        if (!firstLine)
+        {
+            this.write(prefix);
+            this.write('"');
+        }
+        this.write(this.line, end);
+        this.write("\"\n");
+        return false;
+    }
+
+    private void write(char c) throws IOException
+    {
+        if (!this.chars.hasRemaining())
+        {
+            this.encode(false);
+        }
+        this.chars.put(c);
+    }
+
+    private void write(String string) throws IOException
+    {
+        this.write(string, 0, string.length());
+    }
+
+    private void write(String string, int start, int end) throws IOException
+    {
+        while (start < end)
+        {
+            if (!this.chars.hasRemaining())
+            {
+                this.encode(false);
+            }
+            int length = Math.min(this.chars.remaining(), end - start);
+            this.chars.put(string, start, start + length);
+            start += length;
+        }
+    }
+
+    private void write(StringBuilder builder, int end) throws IOException
+    {
+        for (int i = 0; i < end; i++)
+        {
+            this.write(builder.charAt(i));
+        }
+        builder.delete(0, end);
+    }
+
+    private void encode(boolean endOfInput) throws IOException
+    {
+        this.chars.flip();
+        CoderResult result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+        while (result.isOverflow())
+        {
+            this.writeBytes();
+            result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+        }
+        this.chars.compact();
+    }
+
+    private void writeBytes() throws IOException
+    {
+        this.bytes.flip();
+        while (this.bytes.hasRemaining())
+        {
+            this.channel.write(this.bytes);
+        }
+        this.bytes.clear();
+    }
+}
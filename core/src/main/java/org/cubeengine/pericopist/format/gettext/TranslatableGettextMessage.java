@@ -24,10 +24,12 @@ package org.cubeengine.pericopist.format.gettext;
 
 import org.fedorahosted.tennera.jgettext.Message;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.util.StringPool;
 
 /**
  * This gettext message is a normal one. It stores extra information like
@@ -69,8 +71,8 @@ class TranslatableGettextMessage extends GettextMessage
         this.prevMsgid = message.getPrevMsgid();
         this.prevMsgidPlural = message.getPrevMsgidPlural();
 
-        this.comments = message.getComments();
-        this.extractedCommentsFromGettext = message.getExtractedComments();
+        this.comments = internAll(message.getComments());
+        this.extractedCommentsFromGettext = internAll(message.getExtractedComments());
         this.gettextReferences = message.getSourceReferences();
         this.formats = message.getFormats();
 
@@ -78,6 +80,24 @@ class TranslatableGettextMessage extends GettextMessage
         this.allowWrap = message.getAllowWrap();
     }
 
+    /**
+     * This method copies the specified strings and replaces them with their pooled instances.
+     * The comments of the catalog repeat within many messages.
+     *
+     * @param strings strings of the catalog message
+     *
+     * @return list of the pooled strings
+     */
+    private static List<String> internAll(Collection<String> strings)
+    {
+        List<String> pooled = new ArrayList<>(strings.size());
+        for (String string : strings)
+        {
+            pooled.add(StringPool.intern(string));
+        }
+        return pooled;
+    }
+
     /**
      * This method returns the domain of this message
      *
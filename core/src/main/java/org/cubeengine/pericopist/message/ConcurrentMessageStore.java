@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.message;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * <p>
+ * This {@link MessageStore} can be shared by multiple threads. A message is created atomically by
+ * {@link #getOrCreateMessage(String, String, String)} or added by {@link #addMessage(TranslatableMessage)} within the
+ * same atomic update of its key, and the source references of the messages can be added concurrently. So multiple
+ * processors can add their messages at the same time.
+ * </p>
+ *
+ * <p>
+ * The messages and their source references are sorted like within the default message store. So the
+ * iteration order doesn't depend on the order in which the threads added the messages.
+ * </p>
+ */
+public class ConcurrentMessageStore extends MessageStore
+{
+    private final ConcurrentSkipListSet<TranslatableMessage> messages;
+    private final ConcurrentHashMap<MessageKey, TranslatableMessage> index;
+
+    /**
+     * The constructor creates a new concurrent message store
+     */
+    public ConcurrentMessageStore()
+    {
+        this(new ConcurrentSkipListSet<TranslatableMessage>(), new ConcurrentHashMap<MessageKey, TranslatableMessage>());
+    }
+
+    private ConcurrentMessageStore(ConcurrentSkipListSet<TranslatableMessage> messages, ConcurrentHashMap<MessageKey, TranslatableMessage> index)
+    {
+        super(messages, index);
+        this.messages = messages;
+        this.index = index;
+    }
+
+    /**
+     * This method adds a {@link org.cubeengine.pericopist.message.TranslatableMessage} to the message store. The
+     * message is added within the atomic update of its key, so it can't interfere with a concurrent
+     * {@link #getOrCreateMessage(String, String, String)} of the same key.
+     *
+     * @param message message which shall be added
+     *
+     * @throws java.lang.IllegalArgumentException if the message exists already.
+     */
+    @Override
+    public void addMessage(TranslatableMessage message)
+    {
+        this.index.compute(message.getKey(), (key, current) -> {
+            this.add(message);
+
+            // keeps the message which comes first within the sorted messages if the key is used twice
+            return current == null || current.compareTo(message) > 0 ? message : current;
+        });
+    }
+
+    @Override
+    public TranslatableMessage getOrCreateMessage(String context, String singular, String plural)
+    {
+        MessageKey key = new MessageKey(context, singular, plural);
+
+        TranslatableMessage message = this.index.get(key);
+        if (message != null)
+        {
+            return message;
+        }
+
+        return this.index.computeIfAbsent(key, k -> {
+            TranslatableMessage createdMessage = new TranslatableMessage(context, singular, plural);
+            this.add(createdMessage);
+            return createdMessage;
+        });
+    }
+
+    private void add(TranslatableMessage message)
+    {
+        if (!this.messages.add(message))
+        {
+            throw new IllegalArgumentException("The specified message exists already and can't be added to the message store.");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.message;
+
+import java.util.Objects;
+
+/**
+ * The message key is the immutable identity of a {@link TranslatableMessage}. It consists of the context,
+ * the singular and the plural of the message and caches its hash code.
+ */
+public final class MessageKey
+{
+    private final String context;
+    private final String singular;
+    private final String plural;
+
+    private final int hash;
+
+    /**
+     * The constructor creates a new message key
+     *
+     * @param context  context of the message, or null if the message doesn't have a special context
+     * @param singular singular of the message
+     * @param plural   plural of the message, or null if the message doesn't have a plural
+     */
+    public MessageKey(String context, String singular, String plural)
+    {
+        this.context = context;
+        this.singular = singular;
+        this.plural = plural;
+
+        int result = singular == null ? 0 : singular.hashCode();
+        result = 31 * result + (context == null ? 0 : context.hashCode());
+        result = 31 * result + (plural == null ? 0 : plural.hashCode());
+        this.hash = result;
+    }
+
+    /**
+     * This method returns the context of the message.
+     *
+     * @return context of the message or null
+     */
+    public String getContext()
+    {
+        return this.context;
+    }
+
+    /**
+     * This method returns the singular of the message.
+     *
+     * @return singular of the message
+     */
+    public String getSingular()
+    {
+        return this.singular;
+    }
+
+    /**
+     * This method returns the plural of the message.
+     *
+     * @return plural of the message or null
+     */
+    public String getPlural()
+    {
+        return this.plural;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass())
+        {
+            return false;
+        }
+
+        MessageKey that = (MessageKey) o;
+
+        return this.hash == that.hash && Objects.equals(this.singular, that.singular) && Objects.equals(this.context, that.context) && Objects.equals(this.plural, that.plural);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MessageKey{context=" + this.context + ", singular=" + this.singular + ", plural=" + this.plural + "}";
+    }
+}
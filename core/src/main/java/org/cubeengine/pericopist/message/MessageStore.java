@@ -22,8 +22,12 @@
  */
 package org.cubeengine.pericopist.message;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 
 /**
@@ -38,13 +42,26 @@ import java.util.TreeSet;
 public class MessageStore implements Iterable<TranslatableMessage>
 {
     private final Set<TranslatableMessage> messages;
+    private final Map<MessageKey, TranslatableMessage> index;
 
     /**
      * The constructor creates a new message store
      */
     public MessageStore()
     {
-        this.messages = new TreeSet<>();
+        this(new TreeSet<TranslatableMessage>(), new HashMap<MessageKey, TranslatableMessage>());
+    }
+
+    /**
+     * The constructor creates a new message store which uses the specified collections.
+     *
+     * @param messages empty sorted set which shall store the messages
+     * @param index    empty map which shall index the messages by their key
+     */
+    protected MessageStore(SortedSet<TranslatableMessage> messages, Map<MessageKey, TranslatableMessage> index)
+    {
+        this.messages = messages;
+        this.index = index;
     }
 
     /**
@@ -56,12 +73,13 @@ public class MessageStore implements Iterable<TranslatableMessage>
      */
     public void addMessage(TranslatableMessage message)
     {
-        if (this.messages.contains(message))
+        if (!this.messages.add(message))
         {
             throw new IllegalArgumentException("The specified message exists already and can't be added to the message store.");
         }
 
-        this.messages.add(message);
+        // keeps the message which comes first within the sorted messages if the key is used twice
+        this.index.merge(message.getKey(), message, (current, added) -> current.compareTo(added) <= 0 ? current : added);
     }
 
     /**
@@ -75,39 +93,28 @@ public class MessageStore implements Iterable<TranslatableMessage>
      */
     public TranslatableMessage getMessage(String context, String singular, String plural)
     {
-        for (TranslatableMessage message : this.messages)
-        {
-            if (message.hasContext() && context == null)
-            {
-                continue;
-            }
-            else if (!message.hasContext() && context != null)
-            {
-                continue;
-            }
-            else if (message.hasContext() && !message.getContext().equals(context))
-            {
-                continue;
-            }
-
-            if (!message.getSingular().equals(singular))
-            {
-                continue;
-            }
+        return this.index.get(new MessageKey(context, singular, plural));
+    }
 
-            if (message.hasPlural())
-            {
-                if (message.getPlural().equals(plural))
-                {
-                    return message;
-                }
-            }
-            else if (plural == null)
-            {
-                return message;
-            }
+    /**
+     * This method returns the {@link org.cubeengine.pericopist.message.TranslatableMessage} with the specified data.
+     * A new message is created and added to the message store if it doesn't exist.
+     *
+     * @param context  context of the message
+     * @param singular singular of the message
+     * @param plural   plural of the message
+     *
+     * @return the {@link org.cubeengine.pericopist.message.TranslatableMessage} which has the specified data
+     */
+    public TranslatableMessage getOrCreateMessage(String context, String singular, String plural)
+    {
+        TranslatableMessage message = this.getMessage(context, singular, plural);
+        if (message == null)
+        {
+            message = new TranslatableMessage(context, singular, plural);
+            this.addMessage(message);
         }
-        return null;
+        return message;
     }
 
     /**
@@ -117,7 +124,7 @@ public class MessageStore implements Iterable<TranslatableMessage>
      */
     public Set<TranslatableMessage> getMessages()
     {
-        return this.messages;
+        return Collections.unmodifiableSet(this.messages);
     }
 
     /**
@@ -127,7 +134,7 @@ public class MessageStore implements Iterable<TranslatableMessage>
      */
     public int size()
     {
-        return this.getMessages().size();
+        return this.messages.size();
     }
 
     @Override
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.message;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>
+ * A SourceFile is the canonical representation of a file which is referenced by
+ * {@link org.cubeengine.pericopist.message.SourceReference} instances. Every path has exactly one instance,
+ * which caches the normalized path and the key the references are sorted by.
+ * </p>
+ *
+ * <p>
+ * The instances are held weakly, so the source files of an extraction are released together with its messages
+ * and a long running jvm doesn't collect the paths of every extraction.
+ * </p>
+ *
+ * @see #of(File)
+ */
+public final class SourceFile implements Comparable<SourceFile>
+{
+    // the key is the path of the file of the value, so both are collected as soon as the source file isn't used
+    private static final Map<String, WeakReference<SourceFile>> SOURCE_FILES = new WeakHashMap<>();
+
+    private final File file;
+    private final String path;
+    private final String sortKey;
+
+    private SourceFile(File file)
+    {
+        this.file = file;
+        this.path = file.getPath().replace('\\', '/');
+        this.sortKey = file.getPath().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * This method returns the canonical source file of the specified file.
+     *
+     * @param file the file
+     *
+     * @return the source file
+     */
+    public static SourceFile of(File file)
+    {
+        synchronized (SOURCE_FILES)
+        {
+            WeakReference<SourceFile> reference = SOURCE_FILES.get(file.getPath());
+            SourceFile sourceFile = reference == null ? null : reference.get();
+            if (sourceFile == null)
+            {
+                sourceFile = new SourceFile(file);
+                // a replaced entry would keep the key of the collected source file
+                SOURCE_FILES.remove(file.getPath());
+                SOURCE_FILES.put(sourceFile.file.getPath(), new WeakReference<>(sourceFile));
+            }
+            return sourceFile;
+        }
+    }
+
+    /**
+     * This method returns the file
+     *
+     * @return the file
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * This method returns the path of the file with slashes as separators.
+     *
+     * @return the path of the file
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    @Override
+    public int compareTo(SourceFile o)
+    {
+        if (this == o)
+        {
+            return 0;
+        }
+        return this.sortKey.compareTo(o.sortKey);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.path;
+    }
+}
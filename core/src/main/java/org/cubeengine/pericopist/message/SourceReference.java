@@ -24,8 +24,10 @@ package org.cubeengine.pericopist.message;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
+
+import org.cubeengine.pericopist.util.StringPool;
 
 /**
  * This SourceReference class is used for instances of {@link org.cubeengine.pericopist.message.TranslatableMessage}.
@@ -35,11 +37,12 @@ import java.util.Locale;
  */
 public class SourceReference implements Comparable<SourceReference>
 {
-    private final File file;
+    private final SourceFile sourceFile;
     private final int line;
     private final TranslatableExpression expression;
 
-    private final List<String> extractedComments;
+    private List<String> extractedComments;
+    private List<String> sharedExtractedComments;
 
     /**
      * The constructor creates a new source reference
@@ -50,11 +53,38 @@ public class SourceReference implements Comparable<SourceReference>
      */
     public SourceReference(File file, int line, TranslatableExpression expression)
     {
-        this.file = file;
+        this(SourceFile.of(file), line, expression);
+    }
+
+    /**
+     * The constructor creates a new source reference
+     *
+     * @param sourceFile the source file where the message was extracted.
+     * @param line       the line of the file
+     * @param expression the {@link TranslatableExpression} instance which extracted the message
+     */
+    public SourceReference(SourceFile sourceFile, int line, TranslatableExpression expression)
+    {
+        this(sourceFile, line, expression, new ArrayList<String>());
+    }
+
+    /**
+     * The constructor creates a source reference of a row of a {@link SourceReferenceSet}.
+     *
+     * @param sourceFile        the source file where the message was extracted.
+     * @param line              the line of the file
+     * @param expression        the {@link TranslatableExpression} instance which extracted the message
+     * @param extractedComments the immutable list of the extracted comments, which is copied as soon as a comment
+     *                          is added
+     */
+    SourceReference(SourceFile sourceFile, int line, TranslatableExpression expression, List<String> extractedComments)
+    {
+        this.sourceFile = sourceFile;
         this.line = line;
         this.expression = expression;
 
-        this.extractedComments = new ArrayList<>();
+        this.extractedComments = extractedComments;
+        this.sharedExtractedComments = extractedComments;
     }
 
     /**
@@ -64,7 +94,17 @@ public class SourceReference implements Comparable<SourceReference>
      */
     public File getFile()
     {
-        return file;
+        return this.sourceFile.getFile();
+    }
+
+    /**
+     * This method returns the canonical source file from which the message was read.
+     *
+     * @return the source file
+     */
+    public SourceFile getSourceFile()
+    {
+        return this.sourceFile;
     }
 
     /**
@@ -74,7 +114,7 @@ public class SourceReference implements Comparable<SourceReference>
      */
     public String getPath()
     {
-        return this.getFile().getPath().replaceAll("\\\\", "/");
+        return this.sourceFile.getPath();
     }
 
     /**
@@ -106,7 +146,13 @@ public class SourceReference implements Comparable<SourceReference>
      */
     public void addExtractedComment(String comment)
     {
-        this.extractedComments.add(comment);
+        if (this.extractedComments == this.sharedExtractedComments)
+        {
+            // the list is shared with a set or a message, so it's copied before it's changed
+            this.extractedComments = new ArrayList<>(this.extractedComments);
+        }
+        this.extractedComments.add(StringPool.intern(comment));
+        this.sharedExtractedComments = null;
     }
 
     /**
@@ -121,17 +167,32 @@ public class SourceReference implements Comparable<SourceReference>
         return this.extractedComments;
     }
 
+    /**
+     * This method returns an immutable copy of the extracted comments. The copy is created once and shared by
+     * every message the source reference is added to.
+     *
+     * @return immutable list of the extracted comments
+     */
+    List<String> getSharedExtractedComments()
+    {
+        if (this.sharedExtractedComments == null)
+        {
+            this.sharedExtractedComments = this.extractedComments.isEmpty() ? Collections.<String>emptyList() : Collections.unmodifiableList(new ArrayList<>(this.extractedComments));
+        }
+        return this.sharedExtractedComments;
+    }
+
     @Override
     public int compareTo(SourceReference o)
     {
-        int cmp = this.getFile().getPath().toLowerCase(Locale.ENGLISH).compareTo(o.getFile().getPath().toLowerCase(Locale.ENGLISH));
+        int cmp = this.sourceFile.compareTo(o.sourceFile);
         if (cmp == 0)
         {
-            cmp = Integer.valueOf(this.line).compareTo(o.line);
+            cmp = Integer.compare(this.line, o.line);
 
             if (cmp == 0)
             {
-                return this.compareExpressions(o.getExpression());
+                return compareExpressions(this.getExpression(), o.getExpression());
             }
         }
         return cmp;
@@ -141,13 +202,13 @@ public class SourceReference implements Comparable<SourceReference>
      * This method is related to the {@link #compareTo(SourceReference)} method and is called from that method.
      * It compares the {@link TranslatableExpression}
      *
+     * @param t {@link TranslatableExpression}
      * @param o {@link TranslatableExpression}
      *
      * @return and integer representing the result of the comparison
      */
-    private int compareExpressions(TranslatableExpression o)
+    static int compareExpressions(TranslatableExpression t, TranslatableExpression o)
     {
-        TranslatableExpression t = this.getExpression();
         if (t != null)
         {
             if (o != null)
@@ -181,7 +242,7 @@ public class SourceReference implements Comparable<SourceReference>
         {
             return false;
         }
-        if (!this.file.equals(that.file))
+        if (this.sourceFile != that.sourceFile && !this.getFile().equals(that.getFile()))
         {
             return false;
         }
@@ -200,7 +261,7 @@ public class SourceReference implements Comparable<SourceReference>
     @Override
     public int hashCode()
     {
-        int result = this.file.hashCode();
+        int result = this.getFile().hashCode();
         result = 31 * result + this.line;
         result = 31 * result + this.extractedComments.hashCode();
         result = 31 * result + (this.getExpression() != null ? this.getExpression().hashCode() : 0);
@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.message;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * This set stores the source references of a {@link TranslatableMessage} in columns. Every reference is a row
+ * of the interned {@link SourceFile}, the line, the {@link TranslatableExpression} and the list of extracted
+ * comments. The rows are kept sorted like the {@link SourceReference#compareTo(SourceReference)} method sorts
+ * them, so a reference which compares equal to a stored one isn't added.
+ * </p>
+ *
+ * <p>
+ * The extracted comments are copied into immutable lists, which are shared with equal neighbours and with every
+ * message the same reference was added to. The iterator creates the {@link SourceReference} instances of the rows,
+ * so their extracted comments can't be changed anymore.
+ * </p>
+ *
+ * <p>
+ * The set can be filled by multiple threads at the same time. Its iterator works on a snapshot of the rows.
+ * </p>
+ */
+final class SourceReferenceSet extends AbstractSet<SourceReference>
+{
+    private static final SourceFile[] NO_FILES = new SourceFile[0];
+    private static final int[] NO_LINES = new int[0];
+    private static final TranslatableExpression[] NO_EXPRESSIONS = new TranslatableExpression[0];
+    @SuppressWarnings("unchecked")
+    private static final List<String>[] NO_COMMENTS = new List[0];
+
+    private SourceFile[] files;
+    private int[] lines;
+    private TranslatableExpression[] expressions;
+    private List<String>[] comments;
+    private int size;
+    private int version;
+
+    /**
+     * The constructor creates a new empty set
+     */
+    SourceReferenceSet()
+    {
+        this.files = NO_FILES;
+        this.lines = NO_LINES;
+        this.expressions = NO_EXPRESSIONS;
+        this.comments = NO_COMMENTS;
+    }
+
+    @Override
+    public synchronized boolean add(SourceReference reference)
+    {
+        int index = this.indexOf(reference.getSourceFile(), reference.getLine(), reference.getExpression());
+        if (index >= 0)
+        {
+            return false;
+        }
+        index = -index - 1;
+
+        if (this.size == this.files.length)
+        {
+            int capacity = this.size < 2 ? 2 : this.size + (this.size >> 1);
+            this.files = Arrays.copyOf(this.files, capacity);
+            this.lines = Arrays.copyOf(this.lines, capacity);
+            this.expressions = Arrays.copyOf(this.expressions, capacity);
+            this.comments = Arrays.copyOf(this.comments, capacity);
+        }
+
+        int moved = this.size - index;
+        if (moved > 0)
+        {
+            System.arraycopy(this.files, index, this.files, index + 1, moved);
+            System.arraycopy(this.lines, index, this.lines, index + 1, moved);
+            System.arraycopy(this.expressions, index, this.expressions, index + 1, moved);
+            System.arraycopy(this.comments, index, this.comments, index + 1, moved);
+        }
+
+        this.files[index] = reference.getSourceFile();
+        this.lines[index] = reference.getLine();
+        this.expressions[index] = reference.getExpression();
+        this.comments[index] = this.shareComments(reference.getSharedExtractedComments(), index);
+        this.size++;
+        this.version++;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean contains(Object o)
+    {
+        if (!(o instanceof SourceReference))
+        {
+            return false;
+        }
+
+        SourceReference reference = (SourceReference) o;
+        return this.indexOf(reference.getSourceFile(), reference.getLine(), reference.getExpression()) >= 0;
+    }
+
+    @Override
+    public synchronized int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        this.files = NO_FILES;
+        this.lines = NO_LINES;
+        this.expressions = NO_EXPRESSIONS;
+        this.comments = NO_COMMENTS;
+        this.size = 0;
+        this.version++;
+    }
+
+    /**
+     * This method returns the version of the set, which changes with every modification.
+     *
+     * @return version
+     */
+    synchronized int getVersion()
+    {
+        return this.version;
+    }
+
+    @Override
+    public Iterator<SourceReference> iterator()
+    {
+        final SourceFile[] files;
+        final int[] lines;
+        final TranslatableExpression[] expressions;
+        final List<String>[] comments;
+
+        synchronized (this)
+        {
+            files = Arrays.copyOf(this.files, this.size);
+            lines = Arrays.copyOf(this.lines, this.size);
+            expressions = Arrays.copyOf(this.expressions, this.size);
+            comments = Arrays.copyOf(this.comments, this.size);
+        }
+
+        return new Iterator<SourceReference>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.index < files.length;
+            }
+
+            @Override
+            public SourceReference next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                int i = this.index++;
+                return new SourceReference(files[i], lines[i], expressions[i], comments[i]);
+            }
+        };
+    }
+
+    /**
+     * This method searches the row of the specified reference.
+     *
+     * @param file       the source file of the reference
+     * @param line       the line of the reference
+     * @param expression the expression of the reference
+     *
+     * @return the index of the row or (-(insertion point) - 1) if the set doesn't contain the reference
+     */
+    private int indexOf(SourceFile file, int line, TranslatableExpression expression)
+    {
+        // references are mostly added in their order, so the last row is checked first
+        int low = 0;
+        int high = this.size - 1;
+        if (high >= 0)
+        {
+            int cmp = this.compare(high, file, line, expression);
+            if (cmp < 0)
+            {
+                return -(high + 1) - 1;
+            }
+            if (cmp == 0)
+            {
+                return high;
+            }
+            high--;
+        }
+
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int cmp = this.compare(mid, file, line, expression);
+            if (cmp < 0)
+            {
+                low = mid + 1;
+            }
+            else if (cmp > 0)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compare(int index, SourceFile file, int line, TranslatableExpression expression)
+    {
+        int cmp = this.files[index].compareTo(file);
+        if (cmp == 0)
+        {
+            cmp = Integer.compare(this.lines[index], line);
+            if (cmp == 0)
+            {
+                return SourceReference.compareExpressions(this.expressions[index], expression);
+            }
+        }
+        return cmp;
+    }
+
+    /**
+     * This method returns the list of a neighbour row if it's equal to the specified comments.
+     *
+     * @param comments the comments of the new row
+     * @param index    the index of the new row
+     *
+     * @return the comments which shall be stored
+     */
+    private List<String> shareComments(List<String> comments, int index)
+    {
+        if (comments.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        if (index > 0 && comments.equals(this.comments[index - 1]))
+        {
+            return this.comments[index - 1];
+        }
+        if (index < this.size && comments.equals(this.comments[index + 1]))
+        {
+            return this.comments[index + 1];
+        }
+        return comments;
+    }
+}
@@ -23,7 +23,9 @@
 package org.cubeengine.pericopist.message;
 
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.cubeengine.pericopist.util.StringPool;
 
 /**
  * <p>
@@ -44,8 +46,10 @@ public class TranslatableMessage implements Comparable<TranslatableMessage>
     private final String context;
     private final String singular;
     private final String plural;
+    private final MessageKey key;
 
     private final Set<SourceReference> sourceReferences;
+    private volatile DerivedValue derivedValue;
 
     /**
      * The constructor creates a new translatable message
@@ -56,11 +60,35 @@ public class TranslatableMessage implements Comparable<TranslatableMessage>
      */
     public TranslatableMessage(String context, String singular, String plural)
     {
-        this.context = context;
-        this.singular = singular;
-        this.plural = plural;
+        this(context, singular, plural, new SourceReferenceSet());
+    }
+
+    /**
+     * The constructor creates a new translatable message which stores its source references in the specified set.
+     *
+     * @param context          context of the message, or null if the message doesn't have a special context
+     * @param singular         singular of the message
+     * @param plural           plural of the message, or null if the message doesn't have a plural
+     * @param sourceReferences empty set which shall store the source references in their natural order
+     */
+    protected TranslatableMessage(String context, String singular, String plural, Set<SourceReference> sourceReferences)
+    {
+        this.context = StringPool.intern(context);
+        this.singular = StringPool.intern(singular);
+        this.plural = StringPool.intern(plural);
+        this.key = new MessageKey(this.context, this.singular, this.plural);
+
+        this.sourceReferences = sourceReferences;
+    }
 
-        this.sourceReferences = new TreeSet<>();
+    /**
+     * This method returns the key of the message, which consists of the context, the singular and the plural.
+     *
+     * @return key of the message
+     */
+    public MessageKey getKey()
+    {
+        return this.key;
     }
 
     /**
@@ -137,6 +165,36 @@ public class TranslatableMessage implements Comparable<TranslatableMessage>
         return this.sourceReferences;
     }
 
+    /**
+     * This method returns a value which is derived from the source references of the message, like the extracted
+     * comments of a catalog entry. The value is computed once and cached until a source reference is added.
+     * Just the value of the most recently used function is cached.
+     *
+     * @param function the function which computes the value
+     * @param <T>      the type of the value
+     *
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getDerivedValue(Function<? super TranslatableMessage, T> function)
+    {
+        if (!(this.sourceReferences instanceof SourceReferenceSet))
+        {
+            return function.apply(this);
+        }
+
+        int version = ((SourceReferenceSet) this.sourceReferences).getVersion();
+        DerivedValue derivedValue = this.derivedValue;
+        if (derivedValue != null && derivedValue.function == function && derivedValue.version == version)
+        {
+            return (T) derivedValue.value;
+        }
+
+        T value = function.apply(this);
+        this.derivedValue = new DerivedValue(function, version, value);
+        return value;
+    }
+
     /**
      * This method is used internal. It has to be overwritten if a subclass
      * overrides the {@link #compareTo(TranslatableMessage)} method.
@@ -255,12 +313,23 @@ public class TranslatableMessage implements Comparable<TranslatableMessage>
     @Override
     public int hashCode()
     {
-        int result = this.getSingular().hashCode();
-        result = 31 * result + (this.hasContext() ? this.getContext().hashCode() : 0);
-        result = 31 * result + (this.hasPlural() ? this.getPlural().hashCode() : 0);
+        return this.key.hashCode();
+    }
 
-        result = 31 * result + this.getSourceReferences().hashCode();
+    /**
+     * A value which was computed from the source references with a specific version.
+     */
+    private static final class DerivedValue
+    {
+        private final Function<?, ?> function;
+        private final int version;
+        private final Object value;
 
-        return result;
+        private DerivedValue(Function<?, ?> function, int version, Object value)
+        {
+            this.function = function;
+            this.version = version;
+            this.value = value;
+        }
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This class contains the helper methods of the cache files of the extractors. The caches identify their entries
+ * by SHA-256 hashes and are replaced atomically, so a cache is never read while it's written.
+ */
+public final class CacheFiles
+{
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private CacheFiles()
+    {
+        // nothing to do here. It's not permitted to create an instance of this class
+    }
+
+    /**
+     * This method creates a hash of the content of the specified file.
+     *
+     * @param file the file
+     *
+     * @return hash of the file content
+     *
+     * @throws IOException if the file couldn't be read
+     */
+    public static String createFileHash(File file) throws IOException
+    {
+        MessageDigest digest = createMessageDigest();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = new FileInputStream(file))
+        {
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * This method creates a hash of the specified string.
+     *
+     * @param string the string
+     *
+     * @return hash of the string
+     */
+    public static String createHash(String string)
+    {
+        return toHexString(createMessageDigest().digest(string.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * This method writes a cache file. The content is written to a temporary file of the same directory first,
+     * which replaces the cache file afterwards.
+     *
+     * @param file   the cache file
+     * @param writer the writer of the content
+     *
+     * @throws IOException if the file couldn't be written
+     */
+    public static void write(File file, CacheWriter writer) throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs())
+        {
+            throw new IOException("The directory '" + parent.getAbsolutePath() + "' couldn't be created.");
+        }
+
+        // the prefix of a temporary file needs at least three characters
+        File tempFile = File.createTempFile("." + file.getName() + "-", ".tmp", parent);
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))
+            {
+                writer.write(out);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static MessageDigest createMessageDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("The hash algorithm " + HASH_ALGORITHM + " isn't supported.", e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes)
+    {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The cache writer writes the content of a cache file.
+     */
+    public interface CacheWriter
+    {
+        /**
+         * This method writes the content of the cache file.
+         *
+         * @param out the output stream of the file
+         *
+         * @throws IOException if the content couldn't be written
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+}
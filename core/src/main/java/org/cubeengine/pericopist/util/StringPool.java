@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.util;
+
+/**
+ * <p>
+ * The string pool deduplicates the msgids, contexts and comments which are created by the extractors and the
+ * catalog formats. Equal strings share one instance, so they're stored once and compared by identity first.
+ * </p>
+ *
+ * <p>
+ * The pool is a fixed size table which is indexed by the hash codes of the strings. A string replaces the previous
+ * entry of its slot, so the pool never holds more than {@link #SIZE} strings and doesn't need to be cleared.
+ * Strings are immutable, which allows the threads to share the table without any locking. Concurrent writers may
+ * lose an entry, which just means that a duplicate isn't removed.
+ * </p>
+ */
+public final class StringPool
+{
+    private static final int SIZE = 1 << 16;
+    private static final String[] STRINGS = new String[SIZE];
+
+    private StringPool()
+    {
+        // nothing to do here. It's not permitted to create an instance of this class
+    }
+
+    /**
+     * This method returns the pooled instance of the specified string.
+     *
+     * @param string the string or null
+     *
+     * @return an equal string from the pool or the specified string
+     */
+    public static String intern(String string)
+    {
+        if (string == null)
+        {
+            return null;
+        }
+
+        int hash = string.hashCode();
+        int index = (hash ^ hash >>> 16) & (SIZE - 1);
+
+        String pooled = STRINGS[index];
+        if (pooled != null && pooled.equals(string))
+        {
+            return pooled;
+        }
+
+        STRINGS[index] = string;
+        return string;
+    }
+}
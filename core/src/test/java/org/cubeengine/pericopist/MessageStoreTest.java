@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cubeengine.pericopist.message.ConcurrentMessageStore;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class MessageStoreTest
+{
+    @Test
+    public void getMessageTest()
+    {
+        MessageStore messageStore = new MessageStore();
+        TranslatableMessage singular = new TranslatableMessage(null, "message", null);
+        TranslatableMessage context = new TranslatableMessage("context", "message", null);
+        TranslatableMessage plural = new TranslatableMessage(null, "message", "messages");
+        messageStore.addMessage(singular);
+        messageStore.addMessage(context);
+        messageStore.addMessage(plural);
+
+        assertSame(singular, messageStore.getMessage(null, "message", null));
+        assertSame(context, messageStore.getMessage("context", "message", null));
+        assertSame(plural, messageStore.getMessage(null, "message", "messages"));
+        assertNull(messageStore.getMessage("context", "message", "messages"));
+        assertNull(messageStore.getMessage(null, "another message", null));
+    }
+
+    @Test
+    public void sortedIterationTest()
+    {
+        MessageStore messageStore = new MessageStore();
+        messageStore.addMessage(new TranslatableMessage(null, "b", null));
+        messageStore.addMessage(new TranslatableMessage("context", "a", null));
+        messageStore.addMessage(new TranslatableMessage(null, "a", "plural"));
+        messageStore.addMessage(new TranslatableMessage(null, "a", null));
+
+        Iterator<TranslatableMessage> iterator = messageStore.iterator();
+        assertEquals(new TranslatableMessage(null, "a", null), iterator.next());
+        assertEquals(new TranslatableMessage(null, "a", "plural"), iterator.next());
+        assertEquals(new TranslatableMessage(null, "b", null), iterator.next());
+        assertEquals(new TranslatableMessage("context", "a", null), iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addExistingMessageTest()
+    {
+        MessageStore messageStore = new MessageStore();
+        messageStore.addMessage(new TranslatableMessage(null, "message", null));
+        messageStore.addMessage(new TranslatableMessage(null, "message", null));
+    }
+
+    @Test
+    public void hashCodeTest()
+    {
+        TranslatableMessage message = new TranslatableMessage(null, "message", null);
+        int hashCode = message.hashCode();
+
+        message.addSourceReference(new SourceReference(new File("Test.java"), 1, null));
+        assertEquals(hashCode, message.hashCode());
+        assertEquals(hashCode, new TranslatableMessage(null, "message", null).hashCode());
+    }
+
+    @Test
+    public void addExtractedCommentTest()
+    {
+        TranslatableMessage message = new TranslatableMessage(null, "message", null);
+        SourceReference reference = new SourceReference(new File("Test.java"), 1, null);
+        reference.addExtractedComment("shared comment");
+        message.addSourceReference(reference);
+        message.addSourceReference(new SourceReference(new File("Test.java"), 2, null));
+
+        // the references of a message are views of its rows, which may be changed like every other reference
+        Iterator<SourceReference> iterator = message.getSourceReferences().iterator();
+        SourceReference first = iterator.next();
+        SourceReference second = iterator.next();
+        first.addExtractedComment("comment");
+        second.addExtractedComment("another comment");
+        second.addExtractedComment("second comment");
+
+        assertEquals(2, first.getExtractedComments().size());
+        assertEquals(2, second.getExtractedComments().size());
+        assertEquals(1, reference.getExtractedComments().size());
+
+        // the rows themselves aren't changed
+        iterator = message.getSourceReferences().iterator();
+        assertEquals(1, iterator.next().getExtractedComments().size());
+        assertTrue(iterator.next().getExtractedComments().isEmpty());
+    }
+
+    @Test
+    public void concurrentMessageStoreTest() throws Exception
+    {
+        final MessageStore messageStore = new ConcurrentMessageStore();
+        final int threadAmount = 8;
+        final int messageAmount = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadAmount);
+        try
+        {
+            List<Callable<Void>> tasks = new ArrayList<>(threadAmount);
+            for (int i = 0; i < threadAmount; i++)
+            {
+                final int line = i;
+                tasks.add(() -> {
+                    for (int j = messageAmount - 1; j >= 0; j--)
+                    {
+                        messageStore.getOrCreateMessage(null, "message " + j, null).addSourceReference(new SourceReference(new File("Test.java"), line, null));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertEquals(messageAmount, messageStore.size());
+
+        TranslatableMessage previous = null;
+        for (TranslatableMessage message : messageStore)
+        {
+            if (previous != null)
+            {
+                assertTrue(previous.compareTo(message) < 0);
+            }
+            assertEquals(threadAmount, message.getSourceReferences().size());
+            assertSame(message, messageStore.getMessage(null, message.getSingular(), null));
+            previous = message;
+        }
+    }
+
+    @Test
+    public void concurrentAddMessageTest() throws Exception
+    {
+        final int threadAmount = 4;
+        final int messageAmount = 100;
+        final CyclicBarrier barrier = new CyclicBarrier(threadAmount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadAmount);
+        try
+        {
+            for (int round = 0; round < 200; round++)
+            {
+                final MessageStore messageStore = new ConcurrentMessageStore();
+
+                List<Callable<Void>> tasks = new ArrayList<>(threadAmount);
+                tasks.add(() -> {
+                    barrier.await();
+                    for (int j = 0; j < messageAmount; j++)
+                    {
+                        try
+                        {
+                            messageStore.addMessage(new TranslatableMessage(null, "message " + j, null));
+                        }
+                        catch (IllegalArgumentException e)
+                        {
+                            // the message was created by another thread
+                        }
+                    }
+                    return null;
+                });
+                for (int i = 1; i < threadAmount; i++)
+                {
+                    final int line = i;
+                    tasks.add(() -> {
+                        barrier.await();
+                        for (int j = 0; j < messageAmount; j++)
+                        {
+                            messageStore.getOrCreateMessage(null, "message " + j, null).addSourceReference(new SourceReference(new File("Test.java"), line, null));
+                        }
+                        return null;
+                    });
+                }
+                for (Future<Void> future : executor.invokeAll(tasks))
+                {
+                    future.get();
+                }
+
+                // every message of the index is part of the store and keeps its references
+                assertEquals(messageAmount, messageStore.size());
+                for (TranslatableMessage message : messageStore)
+                {
+                    assertSame(message, messageStore.getMessage(null, message.getSingular(), null));
+                    assertEquals(message.getSingular(), threadAmount - 1, message.getSourceReferences().size());
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType.CallableSignatureTypeUsage;
+import org.cubeengine.pericopist.extractor.java.configuration.Constructor;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaBytecodeExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.cubeengine.pericopist.test.command.User;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class JavaBytecodeMessageExtractorTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+    private File classesDirectory;
+    private String testClasses;
+    private JavaExpression[] expressions;
+
+    @Before
+    public void setUp() throws IOException, URISyntaxException
+    {
+        this.sourceDirectory = this.folder.newFolder("src");
+        this.classesDirectory = this.folder.newFolder("classes");
+        this.testClasses = new File(User.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+
+        this.write("Commands.java",
+                   "package fixture;\n" +
+                   "\n" +
+                   "import org.cubeengine.pericopist.test.MessageExtractorTest;\n" +
+                   "import org.cubeengine.pericopist.test.command.User;\n" +
+                   "import org.cubeengine.pericopist.test.exception.WrongUsageException;\n" +
+                   "import org.cubeengine.pericopist.test.i18n.DefaultI18n;\n" +
+                   "import org.cubeengine.pericopist.test.i18n.I18n;\n" +
+                   "\n" +
+                   "public class Commands\n" +
+                   "{\n" +
+                   "    private static final String PREFIX = \"prefix: \";\n" +
+                   "\n" +
+                   "    public void run(User user) throws WrongUsageException\n" +
+                   "    {\n" +
+                   "        I18n i18n = new DefaultI18n();\n" +
+                   "\n" +
+                   "        i18n.translate(\"a simple message\");\n" +
+                   "        i18n.translate(PREFIX + \"a folded constant\");\n" +
+                   "        i18n.translateC(\"context\", \"a message with a context\");\n" +
+                   "        i18n.translateN(2, \"one apple\", \"{} apples\", 2);\n" +
+                   "\n" +
+                   "        /// a comment above\n" +
+                   "        /// the invocation\n" +
+                   "        user.sendTranslated(\"a message with comments\");\n" +
+                   "        user.sendTranslatedN(1, \"one user\", \"many users\"); /// a comment behind\n" +
+                   "        user.sendTranslated(\"a simple message\");\n" +
+                   "\n" +
+                   "        new MessageExtractorTest(\"created with a constructor\");\n" +
+                   "        throw new WrongUsageException(\"a thrown message\");\n" +
+                   "    }\n" +
+                   "}\n");
+
+        this.write("Dynamic.java",
+                   "package fixture;\n" +
+                   "\n" +
+                   "import org.cubeengine.pericopist.test.command.User;\n" +
+                   "\n" +
+                   "public class Dynamic\n" +
+                   "{\n" +
+                   "    public void run(User user, boolean flag)\n" +
+                   "    {\n" +
+                   "        user.sendTranslated(flag ? \"first alternative\" : \"second alternative\");\n" +
+                   "    }\n" +
+                   "}\n");
+
+        Method translate = callable(new Method(), "org.cubeengine.pericopist.test.i18n.I18n#translate", "singular:java.lang.String", "java.lang.Object[]");
+        Method translateC = callable(new Method(), "org.cubeengine.pericopist.test.i18n.I18n#translateC", "context:java.lang.String", "singular:java.lang.String", "java.lang.Object[]");
+        translateC.setDefaultContext("This is a default context");
+        Method translateN = callable(new Method(), "org.cubeengine.pericopist.test.i18n.I18n#translateN", "int", "singular:java.lang.String", "plural:java.lang.String", "java.lang.Object[]");
+        Method sendTranslated = callable(new Method(), "org.cubeengine.pericopist.test.command.User#sendTranslated", "singular:java.lang.String", "java.lang.Object[]");
+        Method sendTranslatedN = callable(new Method(), "org.cubeengine.pericopist.test.command.User#sendTranslatedN", "int", "singular:java.lang.String", "plural:java.lang.String", "java.lang.Object[]");
+        Constructor messageExtractorTest = callable(new Constructor(), "org.cubeengine.pericopist.test.MessageExtractorTest", "singular:java.lang.String");
+        Constructor wrongUsageException = callable(new Constructor(), "org.cubeengine.pericopist.test.exception.WrongUsageException", "singular:java.lang.String");
+
+        this.expressions = new JavaExpression[] {translate, translateC, translateN, sendTranslated, sendTranslatedN, messageExtractorTest, wrongUsageException};
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-g", "-classpath", this.testClasses, "-d", this.classesDirectory.getPath()));
+        arguments.add(new File(this.sourceDirectory, "fixture/Commands.java").getPath());
+        arguments.add(new File(this.sourceDirectory, "fixture/Dynamic.java").getPath());
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+    }
+
+    @Test
+    public void testSameMessagesAsSourceExtraction() throws Exception
+    {
+        JavaExtractorConfiguration sourceConfiguration = new JavaExtractorConfiguration();
+        this.configure(sourceConfiguration);
+
+        JavaBytecodeExtractorConfiguration bytecodeConfiguration = new JavaBytecodeExtractorConfiguration();
+        this.configure(bytecodeConfiguration);
+        bytecodeConfiguration.setClassesDirectory(this.classesDirectory);
+
+        MessageStore sourceMessages = this.extract(new JavaMessageExtractor(), sourceConfiguration, new ArrayList<>());
+
+        List<String> logMessages = new ArrayList<>();
+        MessageStore bytecodeMessages = this.extract(new JavaBytecodeMessageExtractor(), bytecodeConfiguration, logMessages);
+
+        // Commands.java is resolved from the bytecode, Dynamic.java has to be parsed
+        assertTrue(logMessages.toString(), logMessages.contains("The messages of 1 source files were extracted from 2 class files. 1 source files have to be parsed."));
+
+        assertEquals(10, sourceMessages.size());
+        JavaMessageExtractorTest.assertSameMessages(sourceMessages, bytecodeMessages);
+
+        TranslatableMessage message = bytecodeMessages.getMessage(null, "a message with comments", null);
+        assertNotNull(message);
+        SourceReference reference = message.getSourceReferences().iterator().next();
+        assertEquals(24, reference.getLine());
+        assertEquals(Arrays.asList("a comment above", "the invocation"), reference.getExtractedComments());
+
+        message = bytecodeMessages.getMessage(null, "one user", "many users");
+        assertNotNull(message);
+        assertEquals(Arrays.asList("a comment behind"), message.getSourceReferences().iterator().next().getExtractedComments());
+
+        assertNotNull(bytecodeMessages.getMessage(null, "prefix: a folded constant", null));
+        assertNotNull(bytecodeMessages.getMessage("context", "a message with a context", null));
+        assertNotNull(bytecodeMessages.getMessage(null, "second alternative", null));
+    }
+
+    @Test
+    public void testUncompiledAndChangedSourceFiles() throws Exception
+    {
+        this.write("Uncompiled.java",
+                   "package fixture;\n" +
+                   "\n" +
+                   "import org.cubeengine.pericopist.test.i18n.I18n;\n" +
+                   "\n" +
+                   "public class Uncompiled\n" +
+                   "{\n" +
+                   "    public void run(I18n i18n)\n" +
+                   "    {\n" +
+                   "        i18n.translate(\"an uncompiled message\");\n" +
+                   "    }\n" +
+                   "}\n");
+
+        // the source file was changed after it was compiled
+        File commands = new File(this.sourceDirectory, "fixture/Commands.java");
+        String source = new String(Files.readAllBytes(commands.toPath()), StandardCharsets.UTF_8);
+        this.write("Commands.java", source.replace("i18n.translate(\"a simple message\");", "i18n.translate(\"a changed message\");"));
+        assertTrue(commands.setLastModified(new File(this.classesDirectory, "fixture/Commands.class").lastModified() + 10000));
+
+        JavaExtractorConfiguration sourceConfiguration = new JavaExtractorConfiguration();
+        this.configure(sourceConfiguration);
+
+        JavaBytecodeExtractorConfiguration bytecodeConfiguration = new JavaBytecodeExtractorConfiguration();
+        this.configure(bytecodeConfiguration);
+        bytecodeConfiguration.setClassesDirectory(this.classesDirectory);
+
+        MessageStore sourceMessages = this.extract(new JavaMessageExtractor(), sourceConfiguration, new ArrayList<>());
+
+        List<String> logMessages = new ArrayList<>();
+        MessageStore bytecodeMessages = this.extract(new JavaBytecodeMessageExtractor(), bytecodeConfiguration, logMessages);
+
+        assertTrue(logMessages.toString(), logMessages.contains("The messages of 0 source files were extracted from 2 class files. 3 source files have to be parsed."));
+
+        JavaMessageExtractorTest.assertSameMessages(sourceMessages, bytecodeMessages);
+        assertNotNull(bytecodeMessages.getMessage(null, "an uncompiled message", null));
+        assertNotNull(bytecodeMessages.getMessage(null, "a changed message", null));
+        assertEquals(1, bytecodeMessages.getMessage(null, "a simple message", null).getSourceReferences().size());
+    }
+
+    @Test
+    public void testMissingClassesDirectory() throws Exception
+    {
+        JavaExtractorConfiguration sourceConfiguration = new JavaExtractorConfiguration();
+        this.configure(sourceConfiguration);
+
+        JavaBytecodeExtractorConfiguration bytecodeConfiguration = new JavaBytecodeExtractorConfiguration();
+        this.configure(bytecodeConfiguration);
+        bytecodeConfiguration.setClassesDirectory(new File(this.folder.getRoot(), "missing"));
+
+        MessageStore sourceMessages = this.extract(new JavaMessageExtractor(), sourceConfiguration, new ArrayList<>());
+        MessageStore bytecodeMessages = this.extract(new JavaBytecodeMessageExtractor(), bytecodeConfiguration, new ArrayList<>());
+
+        JavaMessageExtractorTest.assertSameMessages(sourceMessages, bytecodeMessages);
+    }
+
+    /**
+     * This method configures the source directory, the classpath and the translatable expressions. The expressions
+     * are shared, because the source references compare them by identity.
+     *
+     * @param configuration the configuration
+     */
+    private void configure(JavaExtractorConfiguration configuration)
+    {
+        configuration.setDirectory(this.sourceDirectory);
+        configuration.setCharset(StandardCharsets.UTF_8);
+        configuration.setClasspathEntries(this.classesDirectory.getPath(), this.testClasses);
+
+        configuration.setJavaExpressions(this.expressions);
+    }
+
+    private MessageStore extract(JavaMessageExtractor extractor, JavaExtractorConfiguration configuration, final List<String> logMessages) throws Exception
+    {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                logMessages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+
+        extractor.setLogger(logger);
+        return extractor.extract(configuration, new MessageStore());
+    }
+
+    private void write(String fileName, String source) throws IOException
+    {
+        File file = new File(this.sourceDirectory, "fixture/" + fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method sets the name and the signature of a callable expression. A signature type is prefixed with its
+     * usage, e.g. 'singular:java.lang.String'.
+     */
+    private static <T extends CallableExpression> T callable(T expression, String name, String... types)
+    {
+        CallableSignatureType[] signature = new CallableSignatureType[types.length];
+        for (int i = 0; i < types.length; i++)
+        {
+            signature[i] = new CallableSignatureType();
+
+            int index = types[i].indexOf(':');
+            if (index > -1)
+            {
+                signature[i].setUsage(CallableSignatureTypeUsage.valueOf(types[i].substring(0, index).toUpperCase()));
+            }
+            signature[i].setType(types[i].substring(index + 1));
+        }
+
+        expression.setName(name);
+        expression.setSignature(signature);
+        return expression;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Logger;
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.ToolManager;
+import org.cubeengine.pericopist.Pericopist;
+import org.cubeengine.pericopist.PericopistFactory;
+import org.cubeengine.pericopist.exception.PericopistException;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class JavaMessageExtractorTest
+{
+    private JavaExtractorConfiguration configuration;
+
+    @Before
+    public void setUp() throws PericopistException
+    {
+        ToolContext toolContext = new ToolManager(true).createContext();
+
+        PericopistFactory factory = new PericopistFactory();
+        Pericopist pericopist = factory.getPericopist("./src/test/resources/configuration.xml", StandardCharsets.UTF_8, 5000, toolContext, null);
+
+        this.configuration = (JavaExtractorConfiguration) pericopist.getExtractorConfiguration();
+
+        // the types of the test sources have to be resolved from the source directory
+        this.configuration.setClasspathEntries();
+    }
+
+    @Test
+    public void testShardsResolveEachOther() throws Exception
+    {
+        this.configuration.setThreads(1);
+        MessageStore sequentialMessages = this.extract(new JavaMessageExtractor());
+
+        this.configuration.setThreads(4);
+        MessageStore shardedMessages = this.extract(new JavaMessageExtractor());
+
+        assertTrue(sequentialMessages.size() > 0);
+        assertSameMessages(sequentialMessages, shardedMessages);
+    }
+
+    @Test
+    public void testPrefilteredShardsResolveEachOther() throws Exception
+    {
+        MessageStore sequentialMessages = this.extract(new JavaMessageExtractor());
+
+        this.configuration.setThreads(4);
+        this.configuration.setPrefilter(true);
+        MessageStore shardedMessages = this.extract(new JavaMessageExtractor());
+
+        assertSameMessages(sequentialMessages, shardedMessages);
+    }
+
+    private MessageStore extract(JavaMessageExtractor extractor) throws Exception
+    {
+        extractor.setLogger(Logger.getLogger(this.getClass().getName()));
+        return extractor.extract(this.configuration, new MessageStore());
+    }
+
+    /**
+     * This method asserts that both message stores contain the same messages with the same source references.
+     *
+     * @param expected the expected message store
+     * @param actual   the actual message store
+     */
+    static void assertSameMessages(MessageStore expected, MessageStore actual)
+    {
+        assertEquals(expected.size(), actual.size());
+
+        Iterator<TranslatableMessage> expectedMessages = expected.iterator();
+        Iterator<TranslatableMessage> actualMessages = actual.iterator();
+        while (expectedMessages.hasNext())
+        {
+            TranslatableMessage expectedMessage = expectedMessages.next();
+            TranslatableMessage actualMessage = actualMessages.next();
+
+            assertEquals(expectedMessage, actualMessage);
+            assertEquals(toList(expectedMessage.getSourceReferences()), toList(actualMessage.getSourceReferences()));
+        }
+    }
+
+    private static List<SourceReference> toList(Iterable<SourceReference> references)
+    {
+        List<SourceReference> list = new ArrayList<>();
+        for (SourceReference reference : references)
+        {
+            list.add(reference);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Logger;
+import org.cubeengine.pericopist.extractor.java.JavaMessageExtractor;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType.CallableSignatureTypeUsage;
+import org.cubeengine.pericopist.extractor.java.configuration.ConstantEvaluation;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ExtractionCacheTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private JavaExtractorConfiguration configuration;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.directory = this.folder.newFolder("src");
+
+        CallableSignatureType message = new CallableSignatureType();
+        message.setType("java.lang.String");
+        message.setUsage(CallableSignatureTypeUsage.SINGULAR);
+
+        Method method = new Method();
+        method.setName("test.I18n#translate");
+        method.setSignature(message);
+        method.setStatic(true);
+
+        this.configuration = new JavaExtractorConfiguration();
+        this.configuration.setDirectory(this.directory);
+        this.configuration.setCharset(StandardCharsets.UTF_8);
+        this.configuration.setClasspathEntries();
+        this.configuration.setConstantEvaluation(ConstantEvaluation.MODEL);
+        this.configuration.setCacheFile(new File(this.folder.getRoot(), "extraction.cache"));
+        this.configuration.setJavaExpressions(method);
+
+        this.write("I18n.java", "package test; public class I18n { public static void translate(String message) {} }");
+        this.write("Messages.java", "package test; public class Messages { public static final String GREETING = Texts.HELLO; public static final String FAREWELL = \"Bye\"; }");
+        this.write("Texts.java", "package test; public class Texts { public static final String HELLO = \"Hello\"; }");
+        this.write("Greeter.java", "package test; public class Greeter { void greet() { I18n.translate(Messages.GREETING); I18n.translate(Messages.FAREWELL); } }");
+        this.write("Other.java", "package test; public class Other { void other() { I18n.translate(\"Other\"); } }");
+    }
+
+    @Test
+    public void testUnchangedSourceFiles() throws Exception
+    {
+        MessageStore messageStore = this.extract();
+        assertMessages(messageStore, "Bye", "Hello", "Other");
+
+        assertEquals(messageStore.size(), this.extract().size());
+        assertMessages(this.extract(), "Bye", "Hello", "Other");
+    }
+
+    @Test
+    public void testChangedConstant() throws Exception
+    {
+        assertMessages(this.extract(), "Bye", "Hello", "Other");
+
+        // Greeter.java didn't change, but the constant which it references
+        this.write("Messages.java", "package test; public class Messages { public static final String GREETING = Texts.HELLO; public static final String FAREWELL = \"Goodbye\"; }");
+        assertMessages(this.extract(), "Goodbye", "Hello", "Other");
+    }
+
+    @Test
+    public void testTransitivelyChangedConstant() throws Exception
+    {
+        assertMessages(this.extract(), "Bye", "Hello", "Other");
+
+        // Greeter.java just references Texts through the constant of Messages
+        this.write("Texts.java", "package test; public class Texts { public static final String HELLO = \"Hi\"; }");
+        assertMessages(this.extract(), "Bye", "Hi", "Other");
+    }
+
+    @Test
+    public void testRemovedSourceFile() throws Exception
+    {
+        assertMessages(this.extract(), "Bye", "Hello", "Other");
+
+        assertTrue(new File(this.directory, "test/Other.java").delete());
+        assertMessages(this.extract(), "Bye", "Hello");
+    }
+
+    @Test
+    public void testShortCacheFileName() throws Exception
+    {
+        for (String fileName : new String[]{"c", "c1"})
+        {
+            File cacheFile = new File(this.folder.getRoot(), fileName);
+            this.configuration.setCacheFile(cacheFile);
+
+            assertMessages(this.extract(), "Bye", "Hello", "Other");
+            assertTrue(cacheFile.isFile());
+            assertMessages(this.extract(), "Bye", "Hello", "Other");
+        }
+    }
+
+    @Test
+    public void testCacheFileCouldntBeSaved() throws Exception
+    {
+        // the directory of the cache file can't be created, because it's a file
+        File cacheFile = new File(this.folder.newFile("file"), "extraction.cache");
+        this.configuration.setCacheFile(cacheFile);
+
+        assertMessages(this.extract(), "Bye", "Hello", "Other");
+        assertFalse(cacheFile.exists());
+    }
+
+    private MessageStore extract() throws Exception
+    {
+        JavaMessageExtractor extractor = new JavaMessageExtractor();
+        extractor.setLogger(Logger.getLogger(this.getClass().getName()));
+        return extractor.extract(this.configuration, new MessageStore());
+    }
+
+    private void write(String fileName, String source) throws IOException
+    {
+        File file = new File(this.directory, "test/" + fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMessages(MessageStore messageStore, String... singulars)
+    {
+        assertEquals(singulars.length, messageStore.size());
+
+        int index = 0;
+        for (TranslatableMessage message : messageStore)
+        {
+            assertEquals(singulars[index++], message.getSingular());
+        }
+    }
+}
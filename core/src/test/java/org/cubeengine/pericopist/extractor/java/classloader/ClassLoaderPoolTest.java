@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.classloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javax.tools.ToolProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ClassLoaderPoolTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClassLoaderPool pool;
+    private File first;
+    private File second;
+    private File jar;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.pool = new ClassLoaderPool(1);
+
+        this.first = this.compile("first", "First", "Other");
+        this.second = this.compile("second", "Second");
+
+        this.jar = this.folder.newFile("third.jar");
+        File third = this.compile("third", "Third");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(this.jar.toPath())))
+        {
+            out.putNextEntry(new JarEntry("test/Third.class"));
+            out.write(Files.readAllBytes(new File(third, "test/Third.class").toPath()));
+            out.closeEntry();
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.pool.close();
+    }
+
+    @Test
+    public void testSharedClassLoader() throws Exception
+    {
+        Class<?> clazz = this.loadClass(this.first, "test.First");
+
+        // the entries are normalized, so another spelling of the same classpath shares the class loader
+        String otherSpelling = new File(this.first, "../" + this.first.getName()).getPath();
+        try (ClasspathClassLoader classLoader = this.pool.open(new String[]{otherSpelling}, null))
+        {
+            assertSame(clazz, classLoader.loadClass("test.First"));
+        }
+
+        // another parent is another class loader
+        try (ClasspathClassLoader classLoader = this.pool.open(new String[]{this.first.getPath()}, this.getClass().getClassLoader()))
+        {
+            assertNotSame(clazz, classLoader.loadClass("test.First"));
+        }
+    }
+
+    @Test
+    public void testClasspathOrder() throws Exception
+    {
+        File copy = this.compile("copy", "First");
+
+        // the first entry which contains the class wins like on the configured classpath
+        assertEquals(copy.toURI().toURL(), this.loadClass(new String[]{copy.getPath(), this.first.getPath()}, "test.First").getProtectionDomain().getCodeSource().getLocation());
+        Class<?> clazz = this.loadClass(new String[]{this.first.getPath(), copy.getPath()}, "test.First");
+        assertEquals(this.first.toURI().toURL(), clazz.getProtectionDomain().getCodeSource().getLocation());
+
+        // duplicated entries are kept at their first position
+        assertSame(clazz, this.loadClass(new String[]{this.first.getPath(), copy.getPath(), this.first.getPath()}, "test.First"));
+        try (ClasspathClassLoader classLoader = this.pool.open(new String[]{copy.getPath(), this.first.getPath(), copy.getPath()}, null))
+        {
+            assertEquals(copy.toURI().toURL(), classLoader.getResource("test/First.class").toURI().resolve("../").toURL());
+        }
+    }
+
+    @Test
+    public void testLazyClassLoader() throws Exception
+    {
+        ClasspathClassLoader classLoader = this.pool.open(new String[]{this.first.getPath()}, null);
+
+        // the parent knows the class, so the classpath isn't opened
+        assertSame(String.class, classLoader.loadClass("java.lang.String"));
+        classLoader.close();
+
+        try
+        {
+            classLoader.loadClass("test.First");
+            fail("The class loader was closed before the classpath was opened.");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStaleClassFile() throws Exception
+    {
+        Class<?> clazz = this.loadClass(this.first, "test.First");
+        assertSame(clazz, this.loadClass(this.first, "test.First"));
+
+        // class files which weren't loaded don't make the class loader stale
+        this.touch(new File(this.first, "test/Other.class"));
+        assertSame(clazz, this.loadClass(this.first, "test.First"));
+
+        this.touch(new File(this.first, "test/First.class"));
+        Class<?> reloaded = this.loadClass(this.first, "test.First");
+        assertNotSame(clazz, reloaded);
+        assertSame(reloaded, this.loadClass(this.first, "test.First"));
+    }
+
+    @Test
+    public void testStaleJar() throws Exception
+    {
+        Class<?> clazz = this.loadClass(this.jar, "test.Third");
+        assertSame(clazz, this.loadClass(this.jar, "test.Third"));
+
+        this.touch(this.jar);
+        assertNotSame(clazz, this.loadClass(this.jar, "test.Third"));
+    }
+
+    @Test
+    public void testStaleClassLoaderInUse() throws Exception
+    {
+        try (ClasspathClassLoader classLoader = this.pool.open(new String[]{this.first.getPath()}, null))
+        {
+            Class<?> clazz = classLoader.loadClass("test.First");
+
+            this.touch(new File(this.first, "test/First.class"));
+            assertNotSame(clazz, this.loadClass(this.first, "test.First"));
+
+            // the replaced class loader is closed after its last user released it
+            assertSame(clazz, classLoader.loadClass("test.First"));
+            assertNotNull(classLoader.loadClass("test.Other"));
+        }
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception
+    {
+        ClasspathClassLoader firstClassLoader = this.pool.open(new String[]{this.first.getPath()}, null);
+        ClasspathClassLoader secondClassLoader = this.pool.open(new String[]{this.second.getPath()}, null);
+
+        Class<?> firstClass = firstClassLoader.loadClass("test.First");
+        Class<?> secondClass = secondClassLoader.loadClass("test.Second");
+
+        // a single class loader may stay idle, the least recently used one is closed
+        firstClassLoader.close();
+        secondClassLoader.close();
+
+        try
+        {
+            firstClassLoader.loadClass("test.Other");
+            fail("The least recently used class loader wasn't closed.");
+        }
+        catch (ClassNotFoundException e)
+        {
+            // expected
+        }
+
+        assertNotSame(firstClass, this.loadClass(this.first, "test.First"));
+
+        // reopening the first classpath made the second class loader the least recently used one
+        assertNotSame(secondClass, this.loadClass(this.second, "test.Second"));
+    }
+
+    @Test
+    public void testClassLoadersInUseArentEvicted() throws Exception
+    {
+        try (ClasspathClassLoader firstClassLoader = this.pool.open(new String[]{this.first.getPath()}, null);
+             ClasspathClassLoader secondClassLoader = this.pool.open(new String[]{this.second.getPath()}, null);
+             ClasspathClassLoader jarClassLoader = this.pool.open(new String[]{this.jar.getPath()}, null))
+        {
+            Class<?> firstClass = firstClassLoader.loadClass("test.First");
+            secondClassLoader.loadClass("test.Second");
+            jarClassLoader.loadClass("test.Third");
+
+            jarClassLoader.close();
+            secondClassLoader.close();
+
+            assertNotNull(firstClassLoader.loadClass("test.Other"));
+            assertSame(firstClass, this.loadClass(this.first, "test.First"));
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception
+    {
+        Class<?> clazz = this.loadClass(this.first, "test.First");
+        this.pool.close();
+
+        assertNotSame(clazz, this.loadClass(this.first, "test.First"));
+    }
+
+    private Class<?> loadClass(File classpathEntry, String name) throws ClassNotFoundException
+    {
+        return this.loadClass(new String[]{classpathEntry.getPath()}, name);
+    }
+
+    private Class<?> loadClass(String[] classpath, String name) throws ClassNotFoundException
+    {
+        try (ClasspathClassLoader classLoader = this.pool.open(classpath, null))
+        {
+            return classLoader.loadClass(name);
+        }
+    }
+
+    private void touch(File file)
+    {
+        assertTrue(file.setLastModified(file.lastModified() + 10000));
+    }
+
+    private File compile(String directoryName, String... classNames) throws IOException
+    {
+        File sourceDirectory = this.folder.newFolder(directoryName + "-src");
+        File classesDirectory = this.folder.newFolder(directoryName);
+
+        String[] arguments = new String[classNames.length + 2];
+        arguments[0] = "-d";
+        arguments[1] = classesDirectory.getPath();
+        for (int i = 0; i < classNames.length; i++)
+        {
+            File file = new File(sourceDirectory, classNames[i] + ".java");
+            try (OutputStream out = Files.newOutputStream(file.toPath()))
+            {
+                out.write(("package test; public class " + classNames[i] + " {}").getBytes(StandardCharsets.UTF_8));
+            }
+            arguments[i + 2] = file.getPath();
+        }
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments));
+
+        return classesDirectory;
+    }
+}
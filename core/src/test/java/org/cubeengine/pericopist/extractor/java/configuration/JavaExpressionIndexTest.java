@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType.CallableSignatureTypeUsage;
+import org.cubeengine.pericopist.extractor.java.hierarchy.TypeHierarchy;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.code.CtConstructorCall;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.compiler.VirtualFile;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class JavaExpressionIndexTest
+{
+    private static final String TEXT_SOURCE = "package test;\n"
+        + "public class Text {\n"
+        + "    public Text(String message) {}\n"
+        + "    public static Text Text(String message) { return null; }\n"
+        + "    public static Text other(String message) { return null; }\n"
+        + "    @test.annotation.Text(\"annotation\")\n"
+        + "    void run() {\n"
+        + "        new Text(\"constructor\");\n"
+        + "        Text(\"method\");\n"
+        + "        other(\"other\");\n"
+        + "    }\n"
+        + "}\n";
+    private static final String ANNOTATION_SOURCE = "package test.annotation;\n"
+        + "public @interface Text { String value(); }\n";
+
+    private CtInvocation<?> methodCall;
+    private CtInvocation<?> otherMethodCall;
+    private CtConstructorCall<?> constructorCall;
+    private CtAnnotation<?> annotation;
+
+    private Method method;
+    private Constructor constructor;
+    private Annotation annotationExpression;
+
+    @Before
+    public void setUp()
+    {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(new VirtualFile(TEXT_SOURCE, "test/Text.java"));
+        launcher.addInputResource(new VirtualFile(ANNOTATION_SOURCE, "test/annotation/Text.java"));
+        CtModel model = launcher.buildModel();
+
+        for (CtInvocation<?> invocation : model.getElements(new TypeFilter<CtInvocation<?>>(CtInvocation.class)))
+        {
+            if (invocation.getExecutable().getSimpleName().equals("Text"))
+            {
+                this.methodCall = invocation;
+            }
+            else if (invocation.getExecutable().getSimpleName().equals("other"))
+            {
+                this.otherMethodCall = invocation;
+            }
+        }
+        this.constructorCall = model.getElements(new TypeFilter<CtConstructorCall<?>>(CtConstructorCall.class)).get(0);
+        this.annotation = model.getElements(new TypeFilter<CtAnnotation<?>>(CtAnnotation.class)).get(0);
+
+        this.method = new Method();
+        this.method.setName("test.Text#Text");
+        this.method.setStatic(true);
+        this.method.setSignature(singular());
+
+        this.constructor = new Constructor();
+        this.constructor.setName("test.Text");
+        this.constructor.setSignature(singular());
+
+        this.annotationExpression = new Annotation();
+        this.annotationExpression.setName("test.annotation.Text");
+    }
+
+    @Test
+    public void testSharedSimpleName()
+    {
+        JavaExpressionIndex index = new JavaExpressionIndex(new JavaExpression[] {this.annotationExpression, this.constructor, this.method});
+
+        assertEquals(Arrays.<JavaExpression>asList(this.method), index.getCandidates(this.methodCall));
+        assertEquals(Arrays.<JavaExpression>asList(this.constructor), index.getCandidates(this.constructorCall));
+        assertEquals(Arrays.<JavaExpression>asList(this.annotationExpression), index.getCandidates(this.annotation));
+        assertTrue(index.getCandidates(this.otherMethodCall).isEmpty());
+        assertTrue(index.getCandidates(this.methodCall.getArguments().get(0)).isEmpty());
+
+        assertTrue(this.method.matches(this.methodCall));
+        assertTrue(this.constructor.matches(this.constructorCall));
+        assertTrue(this.annotationExpression.matches(this.annotation));
+    }
+
+    @Test
+    public void testConfigurationOrder()
+    {
+        Method secondMethod = new Method();
+        secondMethod.setName("test.Other#Text");
+        secondMethod.setSignature(singular());
+
+        JavaExpressionIndex index = new JavaExpressionIndex(new JavaExpression[] {secondMethod, this.constructor, this.method});
+        assertEquals(Arrays.<JavaExpression>asList(secondMethod, this.method), index.getCandidates(this.methodCall));
+    }
+
+    @Test
+    public void testOverriddenMatches()
+    {
+        Method literalMethod = new LiteralMethod();
+        literalMethod.setName("test.Text#literal");
+        literalMethod.setSignature(singular());
+
+        JavaExpressionIndex index = new JavaExpressionIndex(new JavaExpression[] {this.method, literalMethod, this.constructor});
+
+        // the overriding expression is a candidate of every element and keeps its position
+        assertEquals(Arrays.<JavaExpression>asList(this.method, literalMethod), index.getCandidates(this.methodCall));
+        assertEquals(Arrays.<JavaExpression>asList(literalMethod, this.constructor), index.getCandidates(this.constructorCall));
+        assertEquals(Arrays.<JavaExpression>asList(literalMethod), index.getCandidates(this.otherMethodCall));
+        assertEquals(Arrays.<JavaExpression>asList(literalMethod), index.getCandidates(this.annotation));
+
+        CtElement literal = this.otherMethodCall.getArguments().get(0);
+        assertEquals(Arrays.<JavaExpression>asList(literalMethod), index.getCandidates(literal));
+
+        JavaExtractorConfiguration configuration = new JavaExtractorConfiguration();
+        configuration.setJavaExpressions(this.method, literalMethod, this.constructor);
+        assertSame(literalMethod, configuration.getTranslatable(Method.class, literal));
+        assertSame(this.method, configuration.getTranslatable(Method.class, this.methodCall));
+        assertNull(configuration.getTranslatable(Method.class, this.otherMethodCall));
+    }
+
+    @Test
+    public void testSubclassWithoutOverriddenMatches()
+    {
+        Method method = new Method()
+        {
+        };
+        method.setName("test.Text#Text");
+        method.setSignature(singular());
+
+        List<JavaExpression> candidates = new JavaExpressionIndex(new JavaExpression[] {method}).getCandidates(this.otherMethodCall);
+        assertTrue(candidates.isEmpty());
+    }
+
+    private static CallableSignatureType[] singular()
+    {
+        CallableSignatureType type = new CallableSignatureType();
+        type.setType("java.lang.String");
+        type.setUsage(CallableSignatureTypeUsage.SINGULAR);
+        return new CallableSignatureType[] {type};
+    }
+
+    /**
+     * A method expression which describes string literals instead of method invocations
+     */
+    private static class LiteralMethod extends Method
+    {
+        @Override
+        public boolean matches(CtElement element)
+        {
+            return element instanceof CtLiteral<?>;
+        }
+
+        @Override
+        public boolean matches(CtElement element, TypeHierarchy typeHierarchy)
+        {
+            return this.matches(element);
+        }
+    }
+}
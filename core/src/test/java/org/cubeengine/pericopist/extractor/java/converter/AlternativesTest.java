@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.Launcher;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtType;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AlternativesTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, CtExpression<?>> expressions;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        File file = this.folder.newFile("Test.java");
+        Files.write(file.toPath(), (
+            "class Test\n" +
+            "{\n" +
+            "    boolean a, b, c;\n" +
+            "    Object twoBranches = a ? \"yes\" : \"no\";\n" +
+            "    Object sameBranches = a ? \"same\" : \"same\";\n" +
+            "    Object nested = a ? (b ? \"x\" : \"y\") : (c ? \"y\" : \"z\");\n" +
+            "    Object combinations = (a ? \"a\" : \"b\") + (b ? \"1\" : \"2\");\n" +
+            "    Object sameCombinations = (a ? 1 : 2) + (b ? 2 : 1);\n" +
+            "    Object product = (a ? \"a\" : \"b\") + (b ? \"c\" : \"d\") + (c ? \"e\" : \"f\");\n" +
+            "}\n").getBytes(StandardCharsets.UTF_8));
+
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(file.getPath());
+        launcher.buildModel();
+
+        CtType<?> type = launcher.getFactory().Type().get("Test");
+        this.expressions = new LinkedHashMap<>();
+        for (CtField<?> field : type.getFields())
+        {
+            if (field.getDefaultExpression() != null)
+            {
+                this.expressions.put(field.getSimpleName(), field.getDefaultExpression());
+            }
+        }
+    }
+
+    @Test
+    public void testDeduplication() throws ConversionException
+    {
+        Alternatives alternatives = new Alternatives(null, null, this.createManager(4));
+        alternatives.add("b");
+        alternatives.add("a");
+        alternatives.add("b");
+        alternatives.add(null);
+        alternatives.addAll(ConversionResult.of(new Object[]{"a", null, "c", "c"}));
+
+        // the order of the first occurrences is kept
+        assertArrayEquals(new Object[]{"b", "a", null, "c"}, alternatives.toArray());
+    }
+
+    @Test
+    public void testCap() throws ConversionException
+    {
+        Alternatives alternatives = new Alternatives(null, null, this.createManager(2));
+        alternatives.add("a");
+        alternatives.add("b");
+
+        // duplicates don't count towards the limit
+        alternatives.addAll(ConversionResult.of(new Object[]{"b", "a"}));
+        assertArrayEquals(new Object[]{"a", "b"}, alternatives.toArray());
+
+        try
+        {
+            alternatives.add("c");
+            fail("The limit of the alternatives was exceeded.");
+        }
+        catch (ConversionException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("more than 2 alternative values"));
+        }
+    }
+
+    @Test
+    public void testConditionalExpressions() throws ConversionException
+    {
+        ConverterManager manager = this.createManager(3);
+
+        assertArrayEquals(new Object[]{"yes", "no"}, this.convert(manager, "twoBranches"));
+        assertArrayEquals(new Object[]{"same"}, this.convert(manager, "sameBranches"));
+
+        // the nested conditional expressions have four branches but three distinct values
+        assertArrayEquals(new Object[]{"x", "y", "z"}, this.convert(manager, "nested"));
+        this.assertExceedsLimit(this.createManager(2), "nested");
+    }
+
+    @Test
+    public void testBinaryExpressions() throws ConversionException
+    {
+        assertArrayEquals(new Object[]{"a1", "a2", "b1", "b2"}, this.convert(this.createManager(4), "combinations"));
+        this.assertExceedsLimit(this.createManager(3), "combinations");
+
+        // the four combinations have just two distinct sums
+        assertArrayEquals(new Object[]{3, 2, 4}, this.convert(this.createManager(3), "sameCombinations"));
+
+        // the limit applies to every binary expression, so the product can't grow exponentially
+        assertEquals(8, this.convert(this.createManager(8), "product").length);
+        this.assertExceedsLimit(this.createManager(4), "product");
+    }
+
+    private Object[] convert(ConverterManager manager, String name) throws ConversionException
+    {
+        return manager.convertToObjectArray(this.expressions.get(name));
+    }
+
+    private void assertExceedsLimit(ConverterManager manager, String name)
+    {
+        try
+        {
+            this.convert(manager, name);
+            fail(name + " exceeded the limit of " + manager.getMaxAlternatives() + " alternatives.");
+        }
+        catch (ConversionException e)
+        {
+            // expected
+        }
+    }
+
+    private ConverterManager createManager(int maxAlternatives)
+    {
+        ConverterManager manager = new ConverterManager(true);
+        manager.setMaxAlternatives(maxAlternatives);
+        return manager;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.tools.ToolProvider;
+import org.cubeengine.pericopist.extractor.java.converter.exception.ConversionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.Launcher;
+import spoon.reflect.code.CtFieldRead;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ConstantTableTest
+{
+    private static final String INITIALIZED_PROPERTY = "pericopist.test.initialized";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private URLClassLoader classLoader;
+    private ClassLoader previousClassLoader;
+    private Map<String, CtFieldRead<?>> fieldReads;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        System.clearProperty(INITIALIZED_PROPERTY);
+
+        File sourceDirectory = this.folder.newFolder("src");
+        File classesDirectory = this.folder.newFolder("classes");
+
+        this.write(sourceDirectory, "Constants.java",
+                   "package test;\n" +
+                   "public class Constants\n" +
+                   "{\n" +
+                   "    static { System.setProperty(\"" + INITIALIZED_PROPERTY + "\", \"test.Constants\"); }\n" +
+                   "    public static final String TEXT = \"text\";\n" +
+                   "    public static final String CONCATENATION = TEXT + \" and \" + Other.TEXT + 1 + 'c' + 2.5 + true;\n" +
+                   "    public static final int SHIFT = 1 << 10;\n" +
+                   "    public static final long LONG = SHIFT * 3L - Integer.MAX_VALUE;\n" +
+                   "    public static final char CHAR = 'x';\n" +
+                   "    public static final int CHAR_SUM = CHAR + 1;\n" +
+                   "    public static final byte BYTE = 12;\n" +
+                   "    public static final short SHORT = -3;\n" +
+                   "    public static final float FLOAT = 1.5f / 2;\n" +
+                   "    public static final double DOUBLE = 7 / 2 + 0.25;\n" +
+                   "    public static final boolean BOOLEAN = !(SHIFT > 5) || CHAR == 'x';\n" +
+                   "    public static final String CONDITIONAL = BOOLEAN ? \"yes\" : \"no\";\n" +
+                   "    public static final String FORWARD = Constants.LATER + \"a\";\n" +
+                   "    public static final String LATER = \"b\";\n" +
+                   "}\n");
+        this.write(sourceDirectory, "Other.java",
+                   "package test;\n" +
+                   "public interface Other\n" +
+                   "{\n" +
+                   "    String TEXT = \"interface text\";\n" +
+                   "}\n");
+        this.write(sourceDirectory, "Plain.java", "package test; public enum Plain { FIRST, SECOND }");
+        this.write(sourceDirectory, "Named.java", "package test; public enum Named { FIRST; @Override public String toString() { return \"named\"; } }");
+        this.write(sourceDirectory, "Variables.java",
+                   "package test;\n" +
+                   "public class Variables\n" +
+                   "{\n" +
+                   "    static { System.setProperty(\"" + INITIALIZED_PROPERTY + "\", \"test.Variables\"); }\n" +
+                   "    public static String mutable = \"mutable\";\n" +
+                   "    public static final String COMPUTED = String.valueOf(42);\n" +
+                   "}\n");
+        this.write(sourceDirectory, "Usage.java",
+                   "package test;\n" +
+                   "public class Usage\n" +
+                   "{\n" +
+                   "    Object[] values = {\n" +
+                   "        Constants.TEXT, Constants.CONCATENATION, Constants.SHIFT, Constants.LONG, Constants.CHAR, Constants.CHAR_SUM,\n" +
+                   "        Constants.BYTE, Constants.SHORT, Constants.FLOAT, Constants.DOUBLE, Constants.BOOLEAN, Constants.CONDITIONAL,\n" +
+                   "        Constants.FORWARD, Other.TEXT, Plain.SECOND,\n" +
+                   "        Integer.MIN_VALUE, Long.MAX_VALUE, Character.MAX_VALUE, Byte.MIN_VALUE, Short.MAX_VALUE, Double.MAX_VALUE,\n" +
+                   "        Float.MIN_VALUE, java.lang.annotation.RetentionPolicy.RUNTIME,\n" +
+                   "        Named.FIRST, Variables.mutable, Variables.COMPUTED, java.io.File.separator\n" +
+                   "    };\n" +
+                   "}\n");
+
+        File[] sourceFiles = new File(sourceDirectory, "test").listFiles();
+        String[] arguments = new String[sourceFiles.length + 2];
+        arguments[0] = "-d";
+        arguments[1] = classesDirectory.getPath();
+        for (int i = 0; i < sourceFiles.length; i++)
+        {
+            arguments[i + 2] = sourceFiles[i].getPath();
+        }
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments));
+
+        this.classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, this.getClass().getClassLoader());
+        this.previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(this.classLoader);
+
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.getEnvironment().setInputClassLoader(this.classLoader);
+        launcher.addInputResource(sourceDirectory.getPath());
+        launcher.buildModel();
+
+        CtType<?> usage = launcher.getFactory().Type().get("test.Usage");
+        this.fieldReads = new LinkedHashMap<>();
+        for (CtFieldRead<?> fieldRead : usage.getElements(new TypeFilter<>(CtFieldRead.class)))
+        {
+            this.fieldReads.put(fieldRead.toString(), fieldRead);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        Thread.currentThread().setContextClassLoader(this.previousClassLoader);
+        this.classLoader.close();
+    }
+
+    @Test
+    public void testSameValuesAsReflection() throws ConversionException
+    {
+        ConverterManager reflectionManager = new ConverterManager(true);
+        ConverterManager modelManager = this.createManager(false);
+
+        String[] constants = {
+            "test.Constants.TEXT", "test.Constants.CONCATENATION", "test.Constants.SHIFT", "test.Constants.LONG",
+            "test.Constants.CHAR", "test.Constants.CHAR_SUM", "test.Constants.BYTE", "test.Constants.SHORT",
+            "test.Constants.FLOAT", "test.Constants.DOUBLE", "test.Constants.BOOLEAN", "test.Constants.CONDITIONAL",
+            "test.Constants.FORWARD", "test.Other.TEXT", "java.lang.Integer.MIN_VALUE", "java.lang.Long.MAX_VALUE",
+            "java.lang.Character.MAX_VALUE", "java.lang.Byte.MIN_VALUE", "java.lang.Short.MAX_VALUE",
+            "java.lang.Double.MAX_VALUE", "java.lang.Float.MIN_VALUE"
+        };
+        for (String constant : constants)
+        {
+            Object expected = reflectionManager.convert(this.getFieldRead(constant));
+            Object actual = modelManager.convert(this.getFieldRead(constant));
+
+            assertEquals(constant, expected, actual);
+            assertEquals(constant, expected.getClass(), actual.getClass());
+        }
+
+        // enum constants are evaluated to their names, reflection returns the constant itself
+        for (String constant : new String[]{"test.Plain.SECOND", "java.lang.annotation.RetentionPolicy.RUNTIME"})
+        {
+            assertEquals(constant, String.valueOf(reflectionManager.convert(this.getFieldRead(constant))), modelManager.convert(this.getFieldRead(constant)));
+        }
+    }
+
+    @Test
+    public void testFieldsWhichArentConstant() throws ConversionException
+    {
+        ConverterManager modelManager = this.createManager(false);
+        for (String field : new String[]{"test.Named.FIRST", "test.Variables.mutable", "test.Variables.COMPUTED", "java.io.File.separator"})
+        {
+            try
+            {
+                modelManager.convert(this.getFieldRead(field));
+                fail(field + " isn't a constant");
+            }
+            catch (ConversionException e)
+            {
+                // expected
+            }
+        }
+
+        // the table falls back to reflection if it's enabled
+        ConverterManager reflectionManager = this.createManager(true);
+        assertEquals("named", String.valueOf(reflectionManager.convert(this.getFieldRead("test.Named.FIRST"))));
+        assertEquals("mutable", reflectionManager.convert(this.getFieldRead("test.Variables.mutable")));
+        assertEquals("42", reflectionManager.convert(this.getFieldRead("test.Variables.COMPUTED")));
+        assertEquals(File.separator, reflectionManager.convert(this.getFieldRead("java.io.File.separator")));
+    }
+
+    @Test
+    public void testClassesArentInitialized() throws ConversionException
+    {
+        ConverterManager modelManager = this.createManager(false);
+        for (CtFieldRead<?> fieldRead : this.fieldReads.values())
+        {
+            try
+            {
+                modelManager.convert(fieldRead);
+            }
+            catch (ConversionException e)
+            {
+                // fields which aren't constant
+            }
+        }
+
+        assertNull(System.getProperty(INITIALIZED_PROPERTY));
+
+        // reflection initializes the classes
+        new ConverterManager(true).convert(this.getFieldRead("test.Variables.mutable"));
+        assertEquals("test.Variables", System.getProperty(INITIALIZED_PROPERTY));
+    }
+
+    private ConverterManager createManager(boolean reflectionEnabled)
+    {
+        ConverterManager manager = new ConverterManager(true);
+        manager.setConstantTable(new ConstantTable(this.classLoader, reflectionEnabled));
+        return manager;
+    }
+
+    private CtFieldRead<?> getFieldRead(String field)
+    {
+        CtFieldRead<?> fieldRead = this.fieldReads.get(field);
+        assertNotNull(field, fieldRead);
+        return fieldRead;
+    }
+
+    private void write(File directory, String fileName, String source) throws IOException
+    {
+        File file = new File(directory, "test/" + fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+}
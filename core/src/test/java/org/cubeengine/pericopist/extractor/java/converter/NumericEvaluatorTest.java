@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.converter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.reflect.code.BinaryOperatorKind;
+import spoon.reflect.code.UnaryOperatorKind;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class NumericEvaluatorTest
+{
+    @Test
+    public void testBinaryNumericPromotion()
+    {
+        // int row: byte, short, char and int are promoted to int
+        assertResult(3, BinaryOperatorKind.PLUS, (byte) 1, (short) 2);
+        assertResult(98, BinaryOperatorKind.PLUS, 'a', (byte) 1);
+        assertResult(-256, BinaryOperatorKind.MUL, (byte) -128, (short) 2);
+        assertResult(Integer.MIN_VALUE, BinaryOperatorKind.PLUS, Integer.MAX_VALUE, 1);
+        assertResult(7, BinaryOperatorKind.BITOR, 5, (short) 3);
+
+        // long row
+        assertResult(Integer.MAX_VALUE + 1L, BinaryOperatorKind.PLUS, Integer.MAX_VALUE, 1L);
+        assertResult(96L, BinaryOperatorKind.MINUS, 'a', 1L);
+        assertResult(1L, BinaryOperatorKind.BITAND, 3L, (byte) 1);
+
+        // float row
+        assertResult(2.5f, BinaryOperatorKind.PLUS, 2L, 0.5f);
+        assertResult(0.5f, BinaryOperatorKind.DIV, 1, 2f);
+        assertResult(1.5f, BinaryOperatorKind.MOD, 7.5f, (short) 2);
+
+        // double row
+        assertResult(2.5, BinaryOperatorKind.PLUS, 2f, 0.5);
+        assertResult(0.5, BinaryOperatorKind.DIV, 1L, 2.0);
+        assertResult((double) 0.1f, BinaryOperatorKind.MUL, 0.1f, 1.0);
+
+        // the promotion happens before the operation, not after it
+        assertResult(1, BinaryOperatorKind.DIV, 3, 2);
+        assertResult(1.5, BinaryOperatorKind.DIV, 3, 2.0);
+    }
+
+    @Test
+    public void testBitwiseOperatorsOfFloatingPointValues()
+    {
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.BITAND, 1f, 1));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.BITOR, 1L, 1.0));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.BITXOR, 1.0, 1.0));
+    }
+
+    @Test
+    public void testCharOperands()
+    {
+        assertResult(1, BinaryOperatorKind.MINUS, 'b', 'a');
+        assertResult(true, BinaryOperatorKind.LT, 'a', 'b');
+        assertResult(true, BinaryOperatorKind.EQ, 'a', 97);
+        assertResult(false, BinaryOperatorKind.NE, 'a', 97L);
+        assertResult(true, BinaryOperatorKind.EQ, 'a', 97.0);
+        assertResult(194, BinaryOperatorKind.SL, 'a', 1);
+        assertResult(65535, BinaryOperatorKind.PLUS, Character.MAX_VALUE, 0);
+    }
+
+    @Test
+    public void testComparisons()
+    {
+        assertResult(true, BinaryOperatorKind.LE, 1, 1L);
+        assertResult(false, BinaryOperatorKind.GT, 1f, 1.5);
+        assertResult(true, BinaryOperatorKind.GE, (byte) 2, (short) 2);
+        assertResult(false, BinaryOperatorKind.EQ, Double.NaN, Double.NaN);
+        assertResult(true, BinaryOperatorKind.NE, Float.NaN, Float.NaN);
+
+        // the operands are compared as long values and not as double values
+        assertResult(false, BinaryOperatorKind.EQ, Long.MAX_VALUE, Long.MAX_VALUE - 1);
+        assertResult(true, BinaryOperatorKind.EQ, (double) Long.MAX_VALUE, Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    public void testShiftDistanceMasking()
+    {
+        // the distance of int shifts is masked with 0x1f
+        assertResult(2, BinaryOperatorKind.SL, 1, 33);
+        assertResult(1 << 31, BinaryOperatorKind.SL, 1, -1);
+        assertResult(-1, BinaryOperatorKind.SR, -1, 40);
+        assertResult(-1 >>> 8, BinaryOperatorKind.USR, -1, 40);
+
+        // the distance of long shifts is masked with 0x3f
+        assertResult(1L << 33, BinaryOperatorKind.SL, 1L, 33);
+        assertResult(2L, BinaryOperatorKind.SL, 1L, 65);
+        assertResult(-1L >>> 8, BinaryOperatorKind.USR, -1L, 72);
+
+        // the operands are promoted separately, a long distance doesn't make the result a long
+        assertResult(2, BinaryOperatorKind.SL, 1, 33L);
+        assertResult(-2, BinaryOperatorKind.SL, (byte) -1, (byte) 1);
+        assertResult(4L, BinaryOperatorKind.SR, 8L, (char) 65);
+
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.SL, 1, 1.0));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.SR, 1f, 1));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.USR, 1.0, 1L));
+    }
+
+    @Test
+    public void testDivisionByZero()
+    {
+        assertArithmeticException(BinaryOperatorKind.DIV, 1, 0);
+        assertArithmeticException(BinaryOperatorKind.MOD, 1, 0);
+        assertArithmeticException(BinaryOperatorKind.DIV, 'a', (byte) 0);
+        assertArithmeticException(BinaryOperatorKind.DIV, 1L, 0);
+        assertArithmeticException(BinaryOperatorKind.MOD, 1, 0L);
+
+        // floating point values don't throw an exception
+        assertResult(Float.POSITIVE_INFINITY, BinaryOperatorKind.DIV, 1f, 0);
+        assertResult(Float.NaN, BinaryOperatorKind.MOD, 1f, 0);
+        assertResult(Double.NEGATIVE_INFINITY, BinaryOperatorKind.DIV, -1, 0.0);
+        assertResult(Double.NaN, BinaryOperatorKind.MOD, 1L, 0.0);
+
+        // overflows don't throw an exception either
+        assertResult(Integer.MIN_VALUE, BinaryOperatorKind.DIV, Integer.MIN_VALUE, -1);
+        assertResult(0L, BinaryOperatorKind.MOD, Long.MIN_VALUE, -1L);
+    }
+
+    @Test
+    public void testBooleanOperands()
+    {
+        assertResult(false, BinaryOperatorKind.BITAND, true, false);
+        assertResult(true, BinaryOperatorKind.BITAND, true, true);
+        assertResult(true, BinaryOperatorKind.BITOR, false, true);
+        assertResult(false, BinaryOperatorKind.BITOR, false, false);
+        assertResult(true, BinaryOperatorKind.BITXOR, true, false);
+        assertResult(false, BinaryOperatorKind.BITXOR, true, true);
+        assertResult(true, BinaryOperatorKind.EQ, false, false);
+        assertResult(true, BinaryOperatorKind.NE, true, false);
+
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.PLUS, true, false));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.LT, true, false));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.BITAND, true, 1));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.EQ, 1, true));
+    }
+
+    @Test
+    public void testOperandsWhichArentNumeric()
+    {
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.PLUS, "a", 1));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.MINUS, 1, null));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.EQ, null, null));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.PLUS, new java.math.BigDecimal(1), 1));
+        assertNull(NumericEvaluator.evaluate(BinaryOperatorKind.AND, 1, 1));
+    }
+
+    @Test
+    public void testUnaryOperators()
+    {
+        // the negation and the complement promote the operand
+        assertUnaryResult(-1, UnaryOperatorKind.NEG, (byte) 1);
+        assertUnaryResult(-97, UnaryOperatorKind.NEG, 'a');
+        assertUnaryResult(-1L, UnaryOperatorKind.NEG, 1L);
+        assertUnaryResult(-1.5f, UnaryOperatorKind.NEG, 1.5f);
+        assertUnaryResult(-1.5, UnaryOperatorKind.NEG, 1.5);
+        assertUnaryResult(~'a', UnaryOperatorKind.COMPL, 'a');
+        assertUnaryResult(~1L, UnaryOperatorKind.COMPL, 1L);
+        assertNull(NumericEvaluator.evaluate(UnaryOperatorKind.COMPL, 1f));
+        assertNull(NumericEvaluator.evaluate(UnaryOperatorKind.COMPL, 1.0));
+
+        // the increment and the decrement keep the type of the operand
+        assertUnaryResult((byte) -128, UnaryOperatorKind.PREINC, (byte) 127);
+        assertUnaryResult((short) 32767, UnaryOperatorKind.PREDEC, (short) -32768);
+        assertUnaryResult('b', UnaryOperatorKind.PREINC, 'a');
+        assertUnaryResult(Character.MAX_VALUE, UnaryOperatorKind.PREDEC, (char) 0);
+        assertUnaryResult(2L, UnaryOperatorKind.PREINC, 1L);
+        assertUnaryResult(0.5f, UnaryOperatorKind.PREDEC, 1.5f);
+        assertUnaryResult((byte) 1, UnaryOperatorKind.POSTINC, (byte) 1);
+        assertUnaryResult('a', UnaryOperatorKind.POS, 'a');
+
+        assertUnaryResult(false, UnaryOperatorKind.NOT, true);
+        assertNull(NumericEvaluator.evaluate(UnaryOperatorKind.NOT, 1));
+        assertNull(NumericEvaluator.evaluate(UnaryOperatorKind.NEG, true));
+        assertNull(NumericEvaluator.evaluate(UnaryOperatorKind.NEG, "1"));
+    }
+
+    private static void assertResult(Object expected, BinaryOperatorKind operator, Object leftHandOperand, Object rightHandOperand)
+    {
+        Object result = NumericEvaluator.evaluate(operator, leftHandOperand, rightHandOperand);
+        String message = leftHandOperand + " " + operator + " " + rightHandOperand;
+
+        assertEquals(message, expected, result);
+        assertEquals(message, expected.getClass(), result.getClass());
+    }
+
+    private static void assertUnaryResult(Object expected, UnaryOperatorKind operator, Object operand)
+    {
+        Object result = NumericEvaluator.evaluate(operator, operand);
+        String message = operator + " " + operand;
+
+        assertEquals(message, expected, result);
+        assertEquals(message, expected.getClass(), result.getClass());
+    }
+
+    private static void assertArithmeticException(BinaryOperatorKind operator, Object leftHandOperand, Object rightHandOperand)
+    {
+        try
+        {
+            NumericEvaluator.evaluate(operator, leftHandOperand, rightHandOperand);
+            fail(leftHandOperand + " " + operator + " " + rightHandOperand + " didn't throw an exception");
+        }
+        catch (ArithmeticException e)
+        {
+            // expected
+        }
+    }
+}
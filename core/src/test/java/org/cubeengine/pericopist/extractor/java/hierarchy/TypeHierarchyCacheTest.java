@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.hierarchy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TypeHierarchyCacheTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testJar() throws IOException
+    {
+        File jar = this.createJar(Derived.class, Base.class);
+        TypeHierarchy hierarchy = new TypeHierarchyCache(new String[] {jar.getPath()}).createHierarchy(ClassLoader.getPlatformClassLoader());
+
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype(Derived.class.getName(), Base.class.getName()));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype(Derived.class.getName(), Runnable.class.getName()));
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype(Derived.class.getName(), Comparable.class.getName()));
+    }
+
+    @Test
+    public void testUnchangedJar() throws IOException
+    {
+        File jar = this.createJar(Derived.class, Base.class);
+        File cacheFile = new File(this.folder.getRoot(), "hierarchy.cache");
+
+        TypeHierarchyCache cache = new TypeHierarchyCache(new String[] {jar.getPath()});
+        assertFalse(cache.load(cacheFile));
+        cache.createHierarchy(ClassLoader.getPlatformClassLoader());
+        cache.save(cacheFile);
+
+        // the jar is damaged, but its size and modification time stay the same, so it isn't read again
+        long lastModified = jar.lastModified();
+        try (RandomAccessFile file = new RandomAccessFile(jar, "rw"))
+        {
+            file.write(new byte[16]);
+        }
+        assertTrue(jar.setLastModified(lastModified));
+
+        cache = new TypeHierarchyCache(new String[] {jar.getPath()});
+        assertTrue(cache.load(cacheFile));
+        TypeHierarchy hierarchy = cache.createHierarchy(ClassLoader.getPlatformClassLoader());
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype(Derived.class.getName(), Base.class.getName()));
+    }
+
+    @Test
+    public void testChangedJar() throws IOException
+    {
+        File jar = this.createJar(Derived.class, Base.class);
+        File cacheFile = new File(this.folder.getRoot(), "hierarchy.cache");
+
+        TypeHierarchyCache cache = new TypeHierarchyCache(new String[] {jar.getPath()});
+        cache.createHierarchy(ClassLoader.getPlatformClassLoader());
+        cache.save(cacheFile);
+
+        overwrite(jar, this.createJar(Base.class));
+        assertTrue(jar.setLastModified(jar.lastModified() + 10000));
+
+        cache = new TypeHierarchyCache(new String[] {jar.getPath()});
+        assertTrue(cache.load(cacheFile));
+        TypeHierarchy hierarchy = cache.createHierarchy(ClassLoader.getPlatformClassLoader());
+        assertNull(hierarchy.isSubtype(Derived.class.getName(), Base.class.getName()));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype(Base.class.getName(), Runnable.class.getName()));
+    }
+
+    private File createJar(Class<?>... classes) throws IOException
+    {
+        File jar = this.folder.newFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar)))
+        {
+            for (Class<?> clazz : classes)
+            {
+                String name = clazz.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new JarEntry(name));
+                try (InputStream in = clazz.getClassLoader().getResourceAsStream(name))
+                {
+                    out.write(in.readAllBytes());
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static void overwrite(File file, File content) throws IOException
+    {
+        byte[] bytes = Files.readAllBytes(content.toPath());
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw"))
+        {
+            out.setLength(0);
+            out.write(bytes);
+        }
+    }
+
+    private abstract static class Base implements Runnable
+    {
+    }
+
+    private abstract static class Derived extends Base
+    {
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.hierarchy;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.Launcher;
+import spoon.support.compiler.VirtualFile;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TypeHierarchyTest
+{
+    @Test
+    public void testIndexedTypes()
+    {
+        TypeHierarchy hierarchy = new TypeHierarchy(this.createSupertypes(), null);
+
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.C"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.B"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.A"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.I"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "java.lang.Object"));
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype("test.A", "test.C"));
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype("test.B", "test.I"));
+    }
+
+    @Test
+    public void testMemoizedAncestors() throws Exception
+    {
+        TypeHierarchy hierarchy = new TypeHierarchy(this.createSupertypes(), null);
+        Map<String, Set<String>> ancestors = getAncestors(hierarchy);
+
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.B", "test.A"));
+        Set<String> ancestorsOfB = ancestors.get("test.B");
+        assertNotNull(ancestorsOfB);
+        assertEquals(3, ancestorsOfB.size());
+
+        // the ancestors of C reuse the memoized ancestors of B and are memoized themselves
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.A"));
+        Set<String> ancestorsOfC = ancestors.get("test.C");
+        assertTrue(ancestorsOfC.containsAll(ancestorsOfB));
+        assertTrue(ancestorsOfC.contains("test.I"));
+
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype("test.C", "test.D"));
+        assertSame(ancestorsOfB, ancestors.get("test.B"));
+        assertSame(ancestorsOfC, ancestors.get("test.C"));
+    }
+
+    @Test
+    public void testIncompleteAncestors() throws Exception
+    {
+        Map<String, String[]> supertypes = this.createSupertypes();
+        supertypes.put("test.D", new String[] {"test.Unknown"});
+        supertypes.put("test.E", new String[] {"test.D"});
+        TypeHierarchy hierarchy = new TypeHierarchy(supertypes, null);
+
+        // a known ancestor answers the question, every other one is unknown
+        assertNull(hierarchy.isSubtype("test.D", "test.A"));
+        assertNull(hierarchy.isSubtype("test.E", "test.D"));
+        assertNull(hierarchy.isSubtype("test.Unknown", "java.lang.Object"));
+
+        // the incomplete ancestors of D aren't used for the complete ones of other types
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "test.A"));
+        assertTrue(getAncestors(hierarchy).get("test.D").isEmpty());
+    }
+
+    @Test
+    public void testClassLoader()
+    {
+        TypeHierarchy hierarchy = new TypeHierarchy(new HashMap<String, String[]>(), this.getClass().getClassLoader());
+
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("java.util.ArrayList", "java.util.List"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("java.util.ArrayList", "java.lang.Iterable"));
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype("java.util.ArrayList", "java.util.Map"));
+        assertNull(hierarchy.isSubtype("test.NotExisting", "java.lang.Object"));
+    }
+
+    @Test
+    public void testSourceModel()
+    {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(new VirtualFile("package test; public class B extends java.util.ArrayList<String> implements Runnable { public void run() {} }", "test/B.java"));
+        launcher.buildModel();
+
+        TypeHierarchy hierarchy = new TypeHierarchy(this.createSupertypes(), this.getClass().getClassLoader()).withSourceModel(launcher.getFactory());
+
+        // the source type replaces the indexed one
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.C", "java.util.List"));
+        assertEquals(Boolean.TRUE, hierarchy.isSubtype("test.B", "java.lang.Runnable"));
+        assertEquals(Boolean.FALSE, hierarchy.isSubtype("test.B", "test.A"));
+    }
+
+    private Map<String, String[]> createSupertypes()
+    {
+        Map<String, String[]> supertypes = new HashMap<>();
+        supertypes.put("java.lang.Object", new String[0]);
+        supertypes.put("test.I", new String[0]);
+        supertypes.put("test.A", new String[] {"java.lang.Object"});
+        supertypes.put("test.B", new String[] {"test.A"});
+        supertypes.put("test.C", new String[] {"test.B", "test.I"});
+        return supertypes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Set<String>> getAncestors(TypeHierarchy hierarchy) throws Exception
+    {
+        Field field = TypeHierarchy.class.getDeclaredField("ancestors");
+        field.setAccessible(true);
+        return (Map<String, Set<String>>) field.get(hierarchy);
+    }
+}
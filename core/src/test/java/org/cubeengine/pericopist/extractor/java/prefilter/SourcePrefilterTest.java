@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.extractor.java.prefilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.Constructor;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import spoon.compiler.SpoonFile;
+import spoon.support.compiler.FileSystemFile;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SourcePrefilterTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIdentifierBoundaries() throws IOException
+    {
+        SourcePrefilter prefilter = new SourcePrefilter(this.createConfiguration(StandardCharsets.UTF_8));
+        assertTrue(prefilter.isEnabled());
+
+        assertTrue(this.matches(prefilter, "i18n.translate(\"message\");"));
+        assertTrue(this.matches(prefilter, "translate(\"message\");"));
+        assertTrue(this.matches(prefilter, "return translate"));
+        assertTrue(this.matches(prefilter, "new Message(\"message\");"));
+        assertTrue(this.matches(prefilter, "@Label(\"message\") class A {}"));
+        assertTrue(this.matches(prefilter, "translateN(1); translate(2);"));
+
+        assertFalse(this.matches(prefilter, "i18n.translateN(\"message\");"));
+        assertFalse(this.matches(prefilter, "retranslate(\"message\");"));
+        assertFalse(this.matches(prefilter, "new MessageFormat(\"message\");"));
+        assertFalse(this.matches(prefilter, "_translate $translate translate_ translate$ translate1"));
+        assertFalse(this.matches(prefilter, "@Labels class A {}"));
+        assertFalse(this.matches(prefilter, "translat"));
+        assertFalse(this.matches(prefilter, ""));
+    }
+
+    @Test
+    public void testNonAsciiNeighbours() throws IOException
+    {
+        SourcePrefilter prefilter = new SourcePrefilter(this.createConfiguration(StandardCharsets.UTF_8));
+
+        // non ascii characters are never treated as part of an identifier, so the file is kept
+        assertTrue(this.matches(prefilter, "ätranslate(\"message\");"));
+        assertTrue(this.matches(prefilter, "translateä(\"message\");"));
+    }
+
+    @Test
+    public void testContent() throws IOException
+    {
+        SourcePrefilter prefilter = new SourcePrefilter(this.createConfiguration(StandardCharsets.UTF_8));
+        String content = "class A { void a() { translate(\"Grüße €\"); } }\n";
+
+        SpoonFile file = prefilter.filter(this.createFile(content, StandardCharsets.UTF_8));
+        assertTrue(file instanceof MappedSourceFile);
+        assertEquals(content, new String(file.getContentChars(null)));
+
+        try (InputStream in = file.getContent())
+        {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testNonAsciiCharset() throws IOException
+    {
+        SourcePrefilter prefilter = new SourcePrefilter(this.createConfiguration(StandardCharsets.UTF_16));
+        assertFalse(prefilter.isEnabled());
+
+        SpoonFile file = prefilter.filter(this.createFile("class A {}", StandardCharsets.UTF_16));
+        assertNotNull(file);
+        assertEquals(FileSystemFile.class, file.getClass());
+
+        assertTrue(new SourcePrefilter(this.createConfiguration(StandardCharsets.ISO_8859_1)).isEnabled());
+    }
+
+    @Test
+    public void testUnknownExpression() throws IOException
+    {
+        JavaExtractorConfiguration configuration = this.createConfiguration(StandardCharsets.UTF_8);
+        JavaExpression[] expressions = configuration.getJavaExpressions();
+        JavaExpression[] extendedExpressions = new JavaExpression[expressions.length + 1];
+        System.arraycopy(expressions, 0, extendedExpressions, 0, expressions.length);
+        extendedExpressions[expressions.length] = new JavaExpression()
+        {
+            @Override
+            public boolean matches(spoon.reflect.declaration.CtElement element)
+            {
+                return false;
+            }
+
+            @Override
+            public boolean hasPlural()
+            {
+                return false;
+            }
+        };
+        configuration.setJavaExpressions(extendedExpressions);
+
+        SourcePrefilter prefilter = new SourcePrefilter(configuration);
+        assertFalse(prefilter.isEnabled());
+        assertNotNull(prefilter.filter(this.createFile("class A {}", StandardCharsets.UTF_8)));
+    }
+
+    private boolean matches(SourcePrefilter prefilter, String content) throws IOException
+    {
+        return prefilter.filter(this.createFile(content, StandardCharsets.UTF_8)) != null;
+    }
+
+    private File createFile(String content, Charset charset) throws IOException
+    {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), content.getBytes(charset));
+        return file;
+    }
+
+    private JavaExtractorConfiguration createConfiguration(Charset charset)
+    {
+        Method method = new Method();
+        method.setName("org.cubeengine.I18n#translate");
+
+        Constructor constructor = new Constructor();
+        constructor.setName("org.cubeengine.Message");
+
+        Annotation annotation = new Annotation();
+        annotation.setName("org.cubeengine.Label");
+
+        JavaExtractorConfiguration configuration = new JavaExtractorConfiguration();
+        configuration.setCharset(charset);
+        configuration.setJavaExpressions(method, constructor, annotation);
+        return configuration;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.fedorahosted.tennera.jgettext.Message;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BinaryGettextCatalogFormatTest
+{
+    private static final String TRANSLATED_CATALOG =
+        "# German translations\n" +
+        "msgid \"\"\n" +
+        "msgstr \"\"\n" +
+        "\"Content-Type: text/plain; charset=UTF-8\\n\"\n" +
+        "\"Language: de\\n\"\n" +
+        "\"Plural-Forms: nplurals=2; plural=(n != 1);\\n\"\n" +
+        "\n" +
+        "#: Test.java:1\n" +
+        "msgid \"hello\"\n" +
+        "msgstr \"hallo\"\n" +
+        "\n" +
+        "#: Test.java:2\n" +
+        "msgctxt \"menu\"\n" +
+        "msgid \"File\"\n" +
+        "msgstr \"Datei\"\n" +
+        "\n" +
+        "#: Test.java:3\n" +
+        "msgid \"{0} file\"\n" +
+        "msgid_plural \"{0} files\"\n" +
+        "msgstr[0] \"{0} Datei\"\n" +
+        "msgstr[1] \"{0} Dateien\"\n" +
+        "\n" +
+        "#: Test.java:4\n" +
+        "#, fuzzy\n" +
+        "msgid \"fuzzy\"\n" +
+        "msgstr \"unscharf\"\n" +
+        "\n" +
+        "#: Test.java:5\n" +
+        "msgid \"untranslated\"\n" +
+        "msgstr \"\"\n" +
+        "\n" +
+        "#~ msgid \"obsolete\"\n" +
+        "#~ msgstr \"veraltet\"\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BinaryGettextCatalogFormat format;
+    private BinaryGettextCatalogConfiguration configuration;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.format = new BinaryGettextCatalogFormat();
+        this.format.setLogger(Logger.getLogger(this.getClass().getName()));
+
+        this.configuration = new BinaryGettextCatalogConfiguration();
+        this.configuration.setCharset(StandardCharsets.UTF_8);
+        this.configuration.setTemplateFile(new File(this.folder.getRoot(), "de.mo"));
+    }
+
+    @Test
+    public void testCompileTranslatedCatalog() throws IOException, CatalogFormatException
+    {
+        File sourceFile = this.folder.newFile("de.po");
+        Files.write(sourceFile.toPath(), TRANSLATED_CATALOG.getBytes(StandardCharsets.UTF_8));
+        this.configuration.setSourceFile(sourceFile);
+
+        Map<String, Message> messages = this.compile(createMessageStore());
+
+        // the header of the source catalog is compiled
+        assertTrue(messages.get("").getMsgstr().contains("Plural-Forms: nplurals=2; plural=(n != 1);\n"));
+        assertEquals("hallo", messages.get("hello").getMsgstr());
+        assertEquals("Datei", messages.get("menu\u0004File").getMsgstr());
+        assertEquals(Arrays.asList("{0} Datei", "{0} Dateien"), messages.get("{0} file").getMsgstrPlural());
+
+        // fuzzy, untranslated and obsolete messages aren't compiled like with msgfmt
+        assertEquals(4, messages.size());
+
+        // the source catalog is compiled again even if the extracted messages didn't change
+        MessageStore messageStore = this.read();
+        createMessageStore().forEach(messageStore::addMessage);
+        assertEquals(4, this.compile(messageStore).size());
+    }
+
+    @Test
+    public void testCompileWithoutSource() throws IOException, CatalogFormatException
+    {
+        // the extracted messages don't have translations and the header isn't configured
+        assertTrue(this.compile(createMessageStore()).isEmpty());
+    }
+
+    @Test(expected = CatalogFormatException.class)
+    public void testMissingSource() throws CatalogFormatException
+    {
+        this.configuration.setSourceFile(new File(this.folder.getRoot(), "missing.po"));
+        this.format.write(this.configuration, new ByteArrayOutputStream(), createMessageStore());
+    }
+
+    private Map<String, Message> compile(MessageStore messageStore) throws IOException, CatalogFormatException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(this.format.write(this.configuration, out, messageStore));
+        Files.write(this.configuration.getTemplateFile().toPath(), out.toByteArray());
+
+        List<Message> messages = new MoCatalogReader(StandardCharsets.UTF_8).read(new ByteArrayInputStream(out.toByteArray()));
+        Map<String, Message> messagesByKey = new HashMap<>();
+        for (Message message : messages)
+        {
+            messagesByKey.put(message.getMsgctxt() == null ? message.getMsgid() : message.getMsgctxt() + "\u0004" + message.getMsgid(), message);
+        }
+        return messagesByKey;
+    }
+
+    private MessageStore read() throws IOException, CatalogFormatException
+    {
+        return this.format.read(this.configuration, new ByteArrayInputStream(Files.readAllBytes(this.configuration.getTemplateFile().toPath())));
+    }
+
+    private static MessageStore createMessageStore()
+    {
+        MessageStore messageStore = new MessageStore();
+        String[][] messages = {{null, "hello", null}, {"menu", "File", null}, {null, "{0} file", "{0} files"}, {null, "fuzzy", null}, {null, "untranslated", null}, {null, "obsolete", null}};
+        for (int i = 0; i < messages.length; i++)
+        {
+            messageStore.getOrCreateMessage(messages[i][0], messages[i][1], messages[i][2]).addSourceReference(new SourceReference(new File("Test.java"), i + 1, null));
+        }
+        return messageStore;
+    }
+}
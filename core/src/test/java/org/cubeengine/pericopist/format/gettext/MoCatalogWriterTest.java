@@ -0,0 +1,279 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.fedorahosted.tennera.jgettext.Message;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class MoCatalogWriterTest
+{
+    /**
+     * The catalog which msgfmt creates for the messages of {@link #createMessages()}. It's sorted by the original
+     * strings and the hash table has 7 slots, two of the original strings collide with previous ones.
+     */
+    private static final String EXPECTED_CATALOG =
+        "de12049500000000050000001c00000044000000070000006c00000000000000" +
+        "880000000a000000890000000500000094000000090000009a00000006000000" +
+        "a400000028000000ab0000000d000000d400000005000000e200000005000000" +
+        "e800000006000000ee0000000100000004000000050000000000000003000000" +
+        "00000000020000000066696c650066696c65730068656c6c6f006d656e750446" +
+        "696c6500c3a47066656c00436f6e74656e742d547970653a20746578742f706c" +
+        "61696e3b20636861727365743d5554462d380a00446174656900446174656965" +
+        "6e0068616c6c6f00446174656900c3a47066656c00";
+
+    @Test
+    public void testMsgfmtCompatibleBytes() throws IOException
+    {
+        byte[] catalog = write(createMessages(), StandardCharsets.UTF_8);
+        assertEquals(EXPECTED_CATALOG, toHex(catalog));
+
+        ByteBuffer buffer = ByteBuffer.wrap(catalog).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(5, buffer.getInt(8));
+        assertEquals(7, buffer.getInt(20));
+
+        // the slots contain the index + 1 of the entries, "menu\u0004File" and "äpfel" were moved by the double hashing
+        int[] slots = new int[7];
+        for (int i = 0; i < slots.length; i++)
+        {
+            slots[i] = buffer.getInt(buffer.getInt(24) + 4 * i);
+        }
+        assertArrayEquals(new int[]{1, 4, 5, 0, 3, 0, 2}, slots);
+    }
+
+    @Test
+    public void testHashTableSize() throws IOException
+    {
+        // msgfmt uses the next prime after 4/3 of the entry count, but at least 3
+        int[][] sizes = {{0, 3}, {1, 3}, {2, 5}, {3, 5}, {6, 11}, {10, 13}, {100, 137}};
+        for (int[] size : sizes)
+        {
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < size[0]; i++)
+            {
+                messages.add(createMessage(null, "message " + i, "translation " + i));
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(write(messages, StandardCharsets.UTF_8)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(size[0], buffer.getInt(8));
+            assertEquals("hash table size of " + size[0] + " entries", size[1], buffer.getInt(20));
+
+            // every entry can be found by its hash
+            int hashTable = buffer.getInt(24);
+            for (int i = 0; i < size[0]; i++)
+            {
+                byte[] original = ("message " + i).getBytes(StandardCharsets.UTF_8);
+                long hash = Integer.toUnsignedLong(MoCatalogWriter.hash(original, original.length));
+                int index = (int) (hash % size[1]);
+                int increment = (int) (1 + hash % (size[1] - 2));
+                int entry;
+                while ((entry = buffer.getInt(hashTable + 4 * index)) != 0)
+                {
+                    int descriptor = buffer.getInt(12) + 8 * (entry - 1);
+                    if (Arrays.equals(original, Arrays.copyOfRange(buffer.array(), buffer.getInt(descriptor + 4), buffer.getInt(descriptor + 4) + buffer.getInt(descriptor))))
+                    {
+                        break;
+                    }
+                    index = (index + increment) % size[1];
+                }
+                assertNotEquals("message " + i, 0, entry);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1})
+        {
+            List<Message> messages = new MoCatalogReader(charset).read(new ByteArrayInputStream(write(createMessages(), charset)));
+
+            // the fuzzy, obsolete and untranslated messages are skipped, the others are sorted
+            assertEquals(5, messages.size());
+            assertTrue(messages.get(0).isHeader());
+            assertEquals("Content-Type: text/plain; charset=UTF-8\n", messages.get(0).getMsgstr());
+
+            Message plural = messages.get(1);
+            assertNull(plural.getMsgctxt());
+            assertEquals("file", plural.getMsgid());
+            assertEquals("files", plural.getMsgidPlural());
+            assertEquals(Arrays.asList("Datei", "Dateien"), plural.getMsgstrPlural());
+
+            assertEquals("hello", messages.get(2).getMsgid());
+            assertEquals("hallo", messages.get(2).getMsgstr());
+
+            Message context = messages.get(3);
+            assertEquals("menu", context.getMsgctxt());
+            assertEquals("File", context.getMsgid());
+            assertEquals("Datei", context.getMsgstr());
+            assertFalse(context.isPlural());
+
+            assertEquals("äpfel", messages.get(4).getMsgid());
+        }
+
+        // the catalog format reads the messages of the writer
+        BinaryGettextCatalogConfiguration configuration = new BinaryGettextCatalogConfiguration();
+        configuration.setCharset(StandardCharsets.UTF_8);
+        BinaryGettextCatalogFormat format = new BinaryGettextCatalogFormat();
+        format.setLogger(Logger.getLogger(this.getClass().getName()));
+        MessageStore messageStore = format.read(configuration, new ByteArrayInputStream(write(createMessages(), StandardCharsets.UTF_8)));
+        assertEquals(5, messageStore.size());
+
+        TranslatableMessage plural = messageStore.getMessage(null, "file", "files");
+        assertNotNull(plural);
+        assertNotNull(messageStore.getMessage("menu", "File", null));
+        assertNotNull(messageStore.getMessage(null, "hello", null));
+    }
+
+    @Test
+    public void testBigEndianCatalog() throws Exception
+    {
+        ByteBuffer littleEndian = ByteBuffer.wrap(write(createMessages(), StandardCharsets.UTF_8)).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer bigEndian = ByteBuffer.allocate(littleEndian.capacity());
+        int tables = 28 + 16 * littleEndian.getInt(8) + 4 * littleEndian.getInt(20);
+        for (int i = 0; i < tables; i += 4)
+        {
+            bigEndian.putInt(i, littleEndian.getInt(i));
+        }
+        System.arraycopy(littleEndian.array(), tables, bigEndian.array(), tables, littleEndian.capacity() - tables);
+
+        List<Message> messages = new MoCatalogReader(StandardCharsets.UTF_8).read(new ByteArrayInputStream(bigEndian.array()));
+        assertEquals(5, messages.size());
+        assertEquals("hallo", messages.get(2).getMsgstr());
+    }
+
+    @Test
+    public void testDamagedCatalogs() throws IOException
+    {
+        byte[] catalog = write(createMessages(), StandardCharsets.UTF_8);
+
+        byte[] wrongMagic = catalog.clone();
+        wrongMagic[0] = 0;
+        byte[] wrongOffset = catalog.clone();
+        ByteBuffer.wrap(wrongOffset).order(ByteOrder.LITTLE_ENDIAN).putInt(28, catalog.length);
+
+        byte[][] damagedCatalogs = {new byte[0], new byte[]{(byte) 0xde, 0x12}, Arrays.copyOf(catalog, 20), Arrays.copyOf(catalog, 100), Arrays.copyOf(catalog, catalog.length - 10), wrongMagic, wrongOffset};
+        for (byte[] damagedCatalog : damagedCatalogs)
+        {
+            try
+            {
+                new MoCatalogReader(StandardCharsets.UTF_8).read(new ByteArrayInputStream(damagedCatalog));
+                fail("The catalog is damaged: " + toHex(damagedCatalog));
+            }
+            catch (CatalogFormatException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    private static List<Message> createMessages()
+    {
+        List<Message> messages = new ArrayList<>();
+
+        // the header is kept even if it's fuzzy
+        Message header = createMessage(null, "", "Content-Type: text/plain; charset=UTF-8\n");
+        header.markFuzzy();
+        messages.add(header);
+
+        messages.add(createMessage(null, "hello", "hallo"));
+        messages.add(createMessage("menu", "File", "Datei"));
+        messages.add(createMessage(null, "äpfel", "äpfel"));
+
+        Message plural = new Message();
+        plural.setMsgid("file");
+        plural.setMsgidPlural("files");
+        plural.addMsgstrPlural("Datei", 0);
+        plural.addMsgstrPlural("Dateien", 1);
+        messages.add(plural);
+
+        Message fuzzy = createMessage(null, "fuzzy", "unscharf");
+        fuzzy.markFuzzy();
+        messages.add(fuzzy);
+
+        Message obsolete = createMessage(null, "obsolete", "veraltet");
+        obsolete.markObsolete();
+        messages.add(obsolete);
+
+        messages.add(createMessage(null, "untranslated", ""));
+
+        Message untranslatedPlural = new Message();
+        untranslatedPlural.setMsgid("singular");
+        untranslatedPlural.setMsgidPlural("plural");
+        untranslatedPlural.addMsgstrPlural("", 0);
+        untranslatedPlural.addMsgstrPlural("Mehrzahl", 1);
+        messages.add(untranslatedPlural);
+
+        return messages;
+    }
+
+    private static Message createMessage(String context, String msgid, String msgstr)
+    {
+        Message message = new Message();
+        message.setMsgctxt(context);
+        message.setMsgid(msgid);
+        message.setMsgstr(msgstr);
+        return message;
+    }
+
+    private static byte[] write(List<Message> messages, Charset charset) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoCatalogWriter writer = new MoCatalogWriter(Channels.newChannel(out), charset);
+        for (Message message : messages)
+        {
+            writer.write(message);
+        }
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
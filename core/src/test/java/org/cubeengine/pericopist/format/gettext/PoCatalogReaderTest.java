@@ -0,0 +1,313 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.cubeengine.pericopist.exception.CatalogFormatException;
+import org.fedorahosted.tennera.jgettext.Catalog;
+import org.fedorahosted.tennera.jgettext.Message;
+import org.fedorahosted.tennera.jgettext.PoParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PoCatalogReaderTest
+{
+    private static final String HEADER = "# translator comment\n" +
+                                         "#, fuzzy\n" +
+                                         "msgid \"\"\n" +
+                                         "msgstr \"\"\n" +
+                                         "\"Project-Id-Version: test\\n\"\n" +
+                                         "\"Content-Type: text/plain; charset=UTF-8\\n\"\n" +
+                                         "\"Plural-Forms: nplurals=3; plural=n%10==1 && n%100!=11 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2;\\n\"\n" +
+                                         "\n";
+
+    private static final String PLURAL = "#. extracted comment\n" +
+                                         "#: Test.java:1\n" +
+                                         "#: Test.java:2 Other.java:3\n" +
+                                         "#, java-format\n" +
+                                         "msgid \"{0} file\"\n" +
+                                         "msgid_plural \"{0} files\"\n" +
+                                         "msgstr[0] \"{0} plik\"\n" +
+                                         "msgstr[1] \"{0} pliki\"\n" +
+                                         "msgstr[2] \"{0} plik\u00f3w\"\n" +
+                                         "\n" +
+                                         "msgctxt \"menu\"\n" +
+                                         "msgid \"File\"\n" +
+                                         "msgid_plural \"Files\"\n" +
+                                         "msgstr[0] \"\"\n" +
+                                         "\n";
+
+    private static final String OBSOLETE = "msgid \"current\"\n" +
+                                           "msgstr \"aktuell\"\n" +
+                                           "\n" +
+                                           "# obsolete comment\n" +
+                                           "#~ msgctxt \"old context\"\n" +
+                                           "#~ msgid \"obsolete\"\n" +
+                                           "#~ msgstr \"\"\n" +
+                                           "#~ \"veraltet\"\n" +
+                                           "\n" +
+                                           "#~ msgid \"obsolete plural\"\n" +
+                                           "#~ msgid_plural \"obsolete plurals\"\n" +
+                                           "#~ msgstr[0] \"a\"\n" +
+                                           "#~ msgstr[1] \"b\"\n" +
+                                           "\n";
+
+    private static final String PREVIOUS = "#, fuzzy\n" +
+                                           "#| msgctxt \"previous context\"\n" +
+                                           "#| msgid \"previous \"\n" +
+                                           "#| \"message\"\n" +
+                                           "msgctxt \"context\"\n" +
+                                           "msgid \"message\"\n" +
+                                           "msgstr \"Nachricht\"\n" +
+                                           "\n" +
+                                           "#, fuzzy\n" +
+                                           "#| msgid \"previous singular\"\n" +
+                                           "#| msgid_plural \"previous plural\"\n" +
+                                           "msgid \"singular\"\n" +
+                                           "msgid_plural \"plural\"\n" +
+                                           "msgstr[0] \"Einzahl\"\n" +
+                                           "msgstr[1] \"Mehrzahl\"\n" +
+                                           "\n" +
+                                           "#~| msgid \"previous obsolete\"\n" +
+                                           "#~ msgid \"obsolete with previous\"\n" +
+                                           "#~ msgstr \"\"\n" +
+                                           "\n";
+
+    private static final String ESCAPES = "msgid \"\\\"quoted\\\" \\\\ \\t tab\"\n" +
+                                          "msgstr \"line\\n\"\n" +
+                                          "\"next line\"\n" +
+                                          "\n" +
+                                          "msgid \"same\"\n" +
+                                          "msgstr \"first\"\n" +
+                                          "\n" +
+                                          "msgid \"same\"\n" +
+                                          "msgstr \"second\"\n" +
+                                          "\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTargetCatalog() throws Exception
+    {
+        File file = new File(this.getClass().getResource("/target_catalog.pot").toURI());
+        this.assertSameCatalog(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPlurals() throws Exception
+    {
+        this.assertSameCatalog(HEADER + PLURAL, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testObsoleteEntries() throws Exception
+    {
+        this.assertSameCatalog(HEADER + OBSOLETE, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPreviousEntries() throws Exception
+    {
+        this.assertSameCatalog(HEADER + PREVIOUS, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEscapesAndDuplicates() throws Exception
+    {
+        this.assertSameCatalog(HEADER + ESCAPES, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testLineSeparators() throws Exception
+    {
+        String catalog = HEADER + PLURAL + OBSOLETE + PREVIOUS + ESCAPES;
+        this.assertSameCatalog(catalog.replace("\n", "\r\n"), StandardCharsets.UTF_8);
+        this.assertSameCatalog(catalog.replace("\n", "\r"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCharsets() throws Exception
+    {
+        String catalog = HEADER + "msgid \"\u00e4\u00f6\u00fc\"\nmsgstr \"\u00df\"\n";
+        this.assertSameCatalog(catalog, StandardCharsets.ISO_8859_1);
+        this.assertSameCatalog(catalog, StandardCharsets.UTF_16);
+    }
+
+    @Test
+    public void testRestAfterCompleteMessage() throws Exception
+    {
+        // the second msgstr can't start a new message, so the rest of the catalog is ignored
+        String catalog = "msgid \"first\"\n" +
+                         "msgstr \"a\"\n" +
+                         "msgstr \"b\"\n" +
+                         "\n" +
+                         "msgid \"second\"\n" +
+                         "msgstr \"c\"\n" +
+                         "\n" +
+                         "#: Test.java:1\n" +
+                         "msgid \"third\"\n" +
+                         "msgstr \"d\"\n";
+        this.assertSameCatalog(catalog, StandardCharsets.UTF_8);
+        this.assertSameCatalog(catalog.replace("msgstr \"b\"", "msgid_plural \"b\""), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testChunkedCatalog() throws Exception
+    {
+        // the catalog is several times bigger than a chunk, so it's parsed in parallel
+        StringBuilder catalog = new StringBuilder(HEADER);
+        int i = 0;
+        while (catalog.length() < 5 << 20)
+        {
+            catalog.append("#: Test.java:").append(i).append('\n');
+            catalog.append(PLURAL.replace("file", "file " + i).replace("\"menu\"", "\"menu " + i + "\""));
+            catalog.append(OBSOLETE.replace("obsolete", "obsolete " + i).replace("current", "current " + i));
+            catalog.append(PREVIOUS.replace("message", "message " + i).replace("singular", "singular " + i));
+            i++;
+        }
+        String text = catalog.toString();
+
+        this.assertSameCatalog(text, StandardCharsets.UTF_8);
+        this.assertSameCatalog(text.replace("\n", "\r\n"), StandardCharsets.UTF_8);
+
+        // a later chunk which stops the parser
+        this.assertSameCatalog(text + "msgid \"last\"\nmsgstr \"\"\nmsgstr \"\"\n\nmsgid \"ignored\"\nmsgstr \"\"\n", StandardCharsets.UTF_8);
+        this.assertSameCatalog(HEADER + "msgid \"first\"\nmsgstr \"\"\nmsgstr \"\"\n\n" + text.substring(HEADER.length()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        String[] catalogs = {
+            "msgid \"message\"\n",
+            "msgid \"message\"\nmsgstr \"a\n",
+            "msgid \"message\"\nmsgstr \"\\x\"\n",
+            "msgstr \"a\"\n",
+            "\"a\"\nmsgid \"message\"\nmsgstr \"\"\n",
+            "unknown \"a\"\n",
+            "msgid \"message\"\nmsgid_plural \"messages\"\nmsgstr[1] \"\"\n",
+            "#| msgstr \"a\"\nmsgid \"message\"\nmsgstr \"\"\n"
+        };
+        for (String catalog : catalogs)
+        {
+            try
+            {
+                this.read(this.write(catalog, StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+                fail("The catalog has a wrong format: " + catalog);
+            }
+            catch (CatalogFormatException e)
+            {
+                assertTrue(e.getMessage(), e.getMessage().contains("(line "));
+            }
+        }
+    }
+
+    @Test
+    public void testFileIsReleased() throws Exception
+    {
+        File file = this.write(HEADER + PLURAL, StandardCharsets.UTF_8);
+        File target = new File(file.getParentFile(), "moved.po");
+        try (InputStream in = new FileInputStream(file))
+        {
+            assertEquals(3, new PoCatalogReader(StandardCharsets.UTF_8).read(in).size());
+            assertEquals(-1, in.read());
+        }
+
+        // the catalog can be replaced after it was read
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        assertTrue(target.delete());
+    }
+
+    private void assertSameCatalog(String catalog, Charset charset) throws Exception
+    {
+        this.assertSameCatalog(catalog.getBytes(charset), charset);
+    }
+
+    private void assertSameCatalog(byte[] catalog, Charset charset) throws Exception
+    {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), catalog);
+
+        Catalog expected;
+        try (InputStream in = new FileInputStream(file))
+        {
+            expected = new PoParser().parseCatalog(in, charset, false);
+        }
+
+        Catalog actual = new Catalog(false);
+        for (Message message : this.read(file, charset))
+        {
+            actual.addMessage(message);
+        }
+
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    private List<Message> read(File file, Charset charset) throws IOException, CatalogFormatException
+    {
+        try (InputStream in = new FileInputStream(file))
+        {
+            return new PoCatalogReader(charset).read(in);
+        }
+    }
+
+    private File write(String catalog, Charset charset) throws IOException
+    {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), catalog.getBytes(charset));
+        return file;
+    }
+
+    private static List<String> describe(Catalog catalog)
+    {
+        List<String> messages = new ArrayList<>(catalog.size());
+        for (Message message : catalog)
+        {
+            messages.add("domain=" + message.getDomain() +
+                         " msgctxt=" + message.getMsgctxt() + " prevMsgctxt=" + message.getPrevMsgctx() +
+                         " msgid=" + message.getMsgid() + " prevMsgid=" + message.getPrevMsgid() +
+                         " msgidPlural=" + message.getMsgidPlural() + " prevMsgidPlural=" + message.getPrevMsgidPlural() +
+                         " msgstr=" + message.getMsgstr() + " msgstrPlural=" + message.getMsgstrPlural() +
+                         " fuzzy=" + message.isFuzzy() + " obsolete=" + message.isObsolete() +
+                         " comments=" + message.getComments() + " extractedComments=" + message.getExtractedComments() +
+                         " sourceReferences=" + message.getSourceReferences() + " formats=" + message.getFormats());
+        }
+        return messages;
+    }
+}
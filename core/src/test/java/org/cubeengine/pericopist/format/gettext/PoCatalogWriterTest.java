@@ -0,0 +1,255 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.format.gettext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.fedorahosted.tennera.jgettext.Catalog;
+import org.fedorahosted.tennera.jgettext.Message;
+import org.fedorahosted.tennera.jgettext.PoWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PoCatalogWriterTest
+{
+    private static final Charset[] CHARSETS = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16};
+
+    @Test
+    public void testHeaderOnly() throws IOException
+    {
+        this.assertSameBytes(createHeader());
+    }
+
+    @Test
+    public void testEntries() throws IOException
+    {
+        this.assertSameBytes(createMessages(""));
+    }
+
+    @Test
+    public void testWrapping() throws IOException
+    {
+        List<Message> messages = new ArrayList<>();
+        messages.add(createHeader());
+
+        String[] strings = {
+            "",
+            "short",
+            "exactly seventy-six characters long, which is the first width with wrapping.",
+            "a string which is long enough to be wrapped behind a space, so it's continued in the next line",
+            "a-string-which-is-long-enough-to-be-wrapped-behind-a-hyphen-so-its-continued-in-the-next-line",
+            "http://example.org/a/path/which/is/long/enough/to/be/wrapped/behind/a/slash/or/a/colon?key=value",
+            "a.string.which.is.long.enough.to.be.wrapped.behind.a.dot.or.an.equals=sign.and.continued.afterwards",
+            "averylongstringwithoutanycharacterwhichallowsabreaksothatitstaysinasinglelineevenifitistoolong",
+            "quotes \" and backslashes \\ and tabs \t and carriage returns \r are escaped before they're wrapped \"\"\"\"",
+            "line breaks\nstart new lines\n\nwithin the string\n",
+            "\n",
+            "a line which is long enough to be wrapped before its line break is reached at the end\nnext"
+        };
+        for (int i = 0; i < strings.length; i++)
+        {
+            Message message = new Message();
+            message.setMsgid("msgid " + i + " " + strings[i]);
+            message.setMsgstr(strings[i]);
+            messages.add(message);
+
+            Message plural = new Message();
+            plural.setMsgctxt(strings[i]);
+            plural.setMsgid("plural " + i);
+            plural.setMsgidPlural(strings[i]);
+            plural.addMsgstrPlural(strings[i], 0);
+            plural.addMsgstrPlural(strings[strings.length - 1 - i], 1);
+            messages.add(plural);
+
+            Message obsolete = new Message();
+            obsolete.setMsgctxt("obsolete");
+            obsolete.setMsgid("obsolete " + i + " " + strings[i]);
+            obsolete.setMsgstr(strings[i]);
+            obsolete.markObsolete();
+            messages.add(obsolete);
+        }
+
+        this.assertSameBytes(messages);
+    }
+
+    @Test
+    public void testCharacters() throws IOException
+    {
+        List<Message> messages = new ArrayList<>();
+        messages.add(createHeader());
+
+        // characters which the charsets can't encode are replaced
+        String[] strings = {"äöüß", "€ ł 中文", "😀 surrogate pair", "\ud800 unpaired surrogate"};
+        for (String string : strings)
+        {
+            Message message = new Message();
+            message.addComment(string);
+            message.setMsgid(string);
+            message.setMsgstr(string + " " + string + " " + string + " " + string + " " + string + " " + string);
+            messages.add(message);
+        }
+
+        this.assertSameBytes(messages);
+    }
+
+    @Test
+    public void testBigCatalog() throws IOException
+    {
+        // the catalog is bigger than the buffers, so the characters are encoded in several steps
+        List<Message> messages = new ArrayList<>();
+        messages.add(createHeader());
+        for (int i = 0; i < 300; i++)
+        {
+            List<Message> entries = createMessages(" " + i + " ä€😀");
+            messages.addAll(entries.subList(1, entries.size()));
+        }
+
+        this.assertSameBytes(messages);
+    }
+
+    private void assertSameBytes(Message... messages) throws IOException
+    {
+        List<Message> list = new ArrayList<>();
+        for (Message message : messages)
+        {
+            list.add(message);
+        }
+        this.assertSameBytes(list);
+    }
+
+    private void assertSameBytes(List<Message> messages) throws IOException
+    {
+        Catalog catalog = new Catalog(false);
+        for (Message message : messages)
+        {
+            catalog.addMessage(message);
+        }
+        assertEquals(messages.size(), catalog.size());
+
+        for (Charset charset : CHARSETS)
+        {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            new PoWriter(true).write(catalog, expected, charset);
+
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            PoCatalogWriter writer = new PoCatalogWriter(Channels.newChannel(actual), charset);
+            for (Message message : messages)
+            {
+                writer.write(message);
+            }
+            writer.flush();
+
+            assertEquals(charset.name(), new String(expected.toByteArray(), charset), new String(actual.toByteArray(), charset));
+            assertArrayEquals(charset.name(), expected.toByteArray(), actual.toByteArray());
+        }
+    }
+
+    private static Message createHeader()
+    {
+        Message header = new Message();
+        header.addComment("SOME DESCRIPTIVE TITLE.");
+        header.addComment("multi line\ncomment\n\n");
+        header.addComment("");
+        header.markFuzzy();
+        header.setMsgid("");
+        header.setMsgstr("Project-Id-Version: PACKAGE VERSION\n" +
+                         "POT-Creation-Date: 2015-02-13 16:46:08+0100\n" +
+                         "Last-Translator: FULL NAME <EMAIL@ADDRESS>\n" +
+                         "Content-Type: text/plain; charset=UTF-8\n" +
+                         "Plural-Forms: nplurals=3; plural=(n%10==1 && n%100!=11 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2);\n");
+        return header;
+    }
+
+    private static List<Message> createMessages(String suffix)
+    {
+        List<Message> messages = new ArrayList<>();
+        messages.add(createHeader());
+
+        Message message = new Message();
+        message.addComment("translator comment" + suffix);
+        message.addExtractedComment("Extracted by:\n1. Method\n\tName: org.cubeengine.Test#translate(java.lang.String)" + suffix);
+        message.addExtractedComment("\n");
+        message.addSourceReference("org/cubeengine/Test.java", 12);
+        message.addSourceReference("org/cubeengine/Other.java:3" + suffix);
+        message.addFormat("java-format");
+        message.addFormat("fuzzy");
+        message.setMsgid("message" + suffix);
+        message.setMsgstr("Nachricht" + suffix);
+        messages.add(message);
+
+        Message context = new Message();
+        context.setMsgctxt("context" + suffix);
+        context.setMsgid("message" + suffix);
+        messages.add(context);
+
+        Message plural = new Message();
+        plural.setMsgid("{0} file" + suffix);
+        plural.setMsgidPlural("{0} files" + suffix);
+        plural.addMsgstrPlural("{0} plik" + suffix, 0);
+        plural.addMsgstrPlural("{0} pliki" + suffix, 1);
+        plural.addMsgstrPlural("{0} plików" + suffix, 2);
+        messages.add(plural);
+
+        Message untranslatedPlural = new Message();
+        untranslatedPlural.setMsgid("singular" + suffix);
+        untranslatedPlural.setMsgidPlural("plural" + suffix);
+        messages.add(untranslatedPlural);
+
+        Message previous = new Message();
+        previous.markFuzzy();
+        previous.setPrevMsgctx("previous context" + suffix);
+        previous.setPrevMsgid("previous message which is long enough to be wrapped into several lines" + suffix);
+        previous.setPrevMsgidPlural("previous\nplural" + suffix);
+        previous.setMsgid("current" + suffix);
+        previous.setMsgidPlural("currents" + suffix);
+        previous.addMsgstrPlural("aktuell" + suffix, 0);
+        messages.add(previous);
+
+        Message obsolete = new Message();
+        obsolete.addComment("obsolete comment" + suffix);
+        obsolete.setMsgctxt("obsolete context" + suffix);
+        obsolete.setMsgid("obsolete message which is long enough to be wrapped into several lines" + suffix);
+        obsolete.setMsgstr("veraltet\nzweite Zeile" + suffix);
+        obsolete.markObsolete();
+        messages.add(obsolete);
+
+        Message obsoletePlural = new Message();
+        obsoletePlural.setMsgid("obsolete singular" + suffix);
+        obsoletePlural.setMsgidPlural("obsolete plural" + suffix);
+        obsoletePlural.addMsgstrPlural("", 0);
+        obsoletePlural.addMsgstrPlural("b" + suffix, 1);
+        obsoletePlural.markObsolete();
+        messages.add(obsoletePlural);
+
+        return messages;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+/**
+ * The dependency scanner collects the types which are referenced within the attributed trees of a compilation unit.
+ * Every referenced type, field or method adds the type which declares it. The extraction cache uses these
+ * dependencies to find the cache entries which are outdated after a change of another type.
+ */
+class DependencyScanner extends TreePathScanner<Void, Void>
+{
+    private final Trees trees;
+    private final Elements elements;
+    private final Set<String> dependencies;
+
+    /**
+     * The constructor creates a new dependency scanner
+     *
+     * @param trees        the trees of the compilation task
+     * @param elements     the element utilities of the compilation task
+     * @param dependencies the set to which the binary names of the referenced types are added
+     */
+    DependencyScanner(Trees trees, Elements elements, Set<String> dependencies)
+    {
+        this.trees = trees;
+        this.elements = elements;
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public Void visitIdentifier(IdentifierTree node, Void p)
+    {
+        this.addDependency(this.trees.getElement(this.getCurrentPath()));
+        return super.visitIdentifier(node, p);
+    }
+
+    @Override
+    public Void visitMemberSelect(MemberSelectTree node, Void p)
+    {
+        this.addDependency(this.trees.getElement(this.getCurrentPath()));
+        return super.visitMemberSelect(node, p);
+    }
+
+    /**
+     * This method adds the type which declares the specified element to the dependencies.
+     *
+     * @param element the referenced element
+     */
+    private void addDependency(Element element)
+    {
+        while (element != null && !(element instanceof TypeElement))
+        {
+            if (element instanceof PackageElement)
+            {
+                return;
+            }
+            element = element.getEnclosingElement();
+        }
+
+        if (element != null)
+        {
+            this.dependencies.add(this.elements.getBinaryName((TypeElement) element).toString());
+        }
+    }
+}
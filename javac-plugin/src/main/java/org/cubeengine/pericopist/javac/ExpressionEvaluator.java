@@ -0,0 +1,220 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ConditionalExpressionTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.NewArrayTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+/**
+ * <p>
+ * The expression evaluator converts the attributed expressions of javac into the messages like the
+ * {@link org.cubeengine.pericopist.extractor.java.converter.ConverterManager} converts the expressions of spoon.
+ * </p>
+ *
+ * <p>
+ * Just literals, static constant fields, string concatenations, conditional expressions and array initializers are
+ * evaluated. Every other expression throws an {@link UnresolvableExpressionException}, because the converters
+ * of spoon invoke methods or load classes to evaluate them. Source files containing such an expression have to be
+ * parsed by the extractor.
+ * </p>
+ */
+class ExpressionEvaluator
+{
+    private final Trees trees;
+
+    /**
+     * The constructor creates a new expression evaluator
+     *
+     * @param trees the trees of the compilation task
+     */
+    ExpressionEvaluator(Trees trees)
+    {
+        this.trees = trees;
+    }
+
+    /**
+     * This method evaluates the expression of the specified path and converts the values to strings.
+     *
+     * @param path path of the expression
+     *
+     * @return messages of the expression
+     *
+     * @throws UnresolvableExpressionException if the expression can't be evaluated during the compilation
+     */
+    String[] evaluateToStringArray(TreePath path) throws UnresolvableExpressionException
+    {
+        Object[] objects = this.evaluate(path);
+
+        String[] strings = new String[objects.length];
+        for (int i = 0; i < objects.length; i++)
+        {
+            strings[i] = objects[i].toString();
+        }
+        return strings;
+    }
+
+    /**
+     * This method evaluates the expression of the specified path. Conditional expressions and array initializers
+     * result in several values.
+     *
+     * @param path path of the expression
+     *
+     * @return values of the expression
+     *
+     * @throws UnresolvableExpressionException if the expression can't be evaluated during the compilation
+     */
+    private Object[] evaluate(TreePath path) throws UnresolvableExpressionException
+    {
+        ExpressionTree expression = (ExpressionTree) path.getLeaf();
+
+        switch (expression.getKind())
+        {
+            case STRING_LITERAL:
+            case CHAR_LITERAL:
+            case INT_LITERAL:
+            case LONG_LITERAL:
+            case FLOAT_LITERAL:
+            case DOUBLE_LITERAL:
+            case BOOLEAN_LITERAL:
+                return new Object[] {((LiteralTree) expression).getValue()};
+
+            case PARENTHESIZED:
+                return this.evaluate(new TreePath(path, ((ParenthesizedTree) expression).getExpression()));
+
+            case IDENTIFIER:
+            case MEMBER_SELECT:
+                return new Object[] {this.getConstantValue(path)};
+
+            case CONDITIONAL_EXPRESSION:
+                ConditionalExpressionTree conditional = (ConditionalExpressionTree) expression;
+
+                Set<Object> objects = new HashSet<>();
+                Collections.addAll(objects, this.evaluate(new TreePath(path, conditional.getTrueExpression())));
+                Collections.addAll(objects, this.evaluate(new TreePath(path, conditional.getFalseExpression())));
+                return objects.toArray(new Object[0]);
+
+            case NEW_ARRAY:
+                List<? extends ExpressionTree> initializers = ((NewArrayTree) expression).getInitializers();
+                if (initializers == null)
+                {
+                    throw new UnresolvableExpressionException(expression);
+                }
+
+                Object[] array = new Object[initializers.size()];
+                for (int i = 0; i < array.length; i++)
+                {
+                    Object[] values = this.evaluate(new TreePath(path, initializers.get(i)));
+                    if (values.length != 1)
+                    {
+                        throw new UnresolvableExpressionException(expression);
+                    }
+                    array[i] = values[0];
+                }
+                return array;
+
+            case PLUS:
+                BinaryTree binary = (BinaryTree) expression;
+
+                Object[] leftHandOperands = this.evaluate(new TreePath(path, binary.getLeftOperand()));
+                Object[] rightHandOperands = this.evaluate(new TreePath(path, binary.getRightOperand()));
+
+                Object[] concatenations = new Object[leftHandOperands.length * rightHandOperands.length];
+                for (int i = 0; i < leftHandOperands.length; i++)
+                {
+                    for (int j = 0; j < rightHandOperands.length; j++)
+                    {
+                        if (!(leftHandOperands[i] instanceof String) && !(rightHandOperands[j] instanceof String))
+                        {
+                            // numeric additions are left to the converters of the extractor
+                            throw new UnresolvableExpressionException(expression);
+                        }
+                        concatenations[i * rightHandOperands.length + j] = leftHandOperands[i].toString() + rightHandOperands[j].toString();
+                    }
+                }
+                return concatenations;
+
+            default:
+                throw new UnresolvableExpressionException(expression);
+        }
+    }
+
+    /**
+     * This method returns the value of the static constant field which is accessed by the expression of the
+     * specified path.
+     *
+     * @param path path of an identifier or a member select
+     *
+     * @return value of the field
+     *
+     * @throws UnresolvableExpressionException if the expression doesn't access a static constant field
+     */
+    private Object getConstantValue(TreePath path) throws UnresolvableExpressionException
+    {
+        Element element = this.trees.getElement(path);
+        if (element == null || element.getKind() != ElementKind.FIELD || !element.getModifiers().contains(Modifier.STATIC))
+        {
+            throw new UnresolvableExpressionException((ExpressionTree) path.getLeaf());
+        }
+
+        Object value = ((VariableElement) element).getConstantValue();
+        if (value == null)
+        {
+            throw new UnresolvableExpressionException((ExpressionTree) path.getLeaf());
+        }
+        return value;
+    }
+
+    /**
+     * This exception is thrown if an expression can't be evaluated during the compilation.
+     */
+    static class UnresolvableExpressionException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        UnresolvableExpressionException(ExpressionTree expression)
+        {
+            super("The expression '" + expression + "' can't be evaluated during the compilation.");
+        }
+
+        UnresolvableExpressionException(String message, Throwable cause)
+        {
+            super(message, cause);
+        }
+    }
+}
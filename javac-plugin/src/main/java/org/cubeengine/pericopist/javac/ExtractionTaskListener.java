@@ -0,0 +1,303 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import org.cubeengine.pericopist.extractor.java.cache.ExtractionCache;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.util.Misc;
+
+/**
+ * <p>
+ * This task listener scans every class after javac analyzed it and writes the messages into the extraction cache
+ * of the configuration when the compilation is finished.
+ * </p>
+ *
+ * <p>
+ * Source files which weren't compiled keep their cache entry if neither they nor their dependencies changed.
+ * The dependencies of the compiled source files are collected by a {@link DependencyScanner}. Source files containing a
+ * translatable expression which couldn't be evaluated don't get a cache entry, so they're parsed by the extractor.
+ * </p>
+ */
+class ExtractionTaskListener implements TaskListener
+{
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final JavaExtractorConfiguration configuration;
+    private final JavacTask task;
+    private final Trees trees;
+    private final Logger logger;
+
+    private final Path directory;
+    private final Map<Path, CompiledSourceFile> compiledFiles;
+
+    /**
+     * The constructor creates a new task listener
+     *
+     * @param configuration the configuration of the extractor
+     * @param task          the compilation task
+     * @param logger        the logger
+     */
+    ExtractionTaskListener(JavaExtractorConfiguration configuration, JavacTask task, Logger logger)
+    {
+        this.configuration = configuration;
+        this.task = task;
+        this.trees = Trees.instance(task);
+        this.logger = logger;
+
+        this.directory = configuration.getDirectory().toPath().toAbsolutePath().normalize();
+        this.compiledFiles = new HashMap<>();
+    }
+
+    @Override
+    public void started(TaskEvent e)
+    {
+        // nothing to do
+    }
+
+    @Override
+    public void finished(TaskEvent e)
+    {
+        if (e.getKind() == TaskEvent.Kind.ANALYZE)
+        {
+            this.scan(e.getCompilationUnit(), e.getTypeElement());
+        }
+        else if (e.getKind() == TaskEvent.Kind.COMPILATION)
+        {
+            this.writeCache();
+        }
+    }
+
+    /**
+     * This method scans an analyzed class of a compilation unit.
+     *
+     * @param compilationUnit the compilation unit
+     * @param typeElement     the analyzed top level class or null if the whole compilation unit was analyzed
+     */
+    private void scan(CompilationUnitTree compilationUnit, TypeElement typeElement)
+    {
+        Path path;
+        try
+        {
+            path = new File(compilationUnit.getSourceFile().toUri()).toPath().toAbsolutePath().normalize();
+        }
+        catch (IllegalArgumentException e)
+        {
+            // the source file isn't stored in the file system
+            return;
+        }
+
+        if (!path.startsWith(this.directory))
+        {
+            // the source file isn't part of the source directory
+            return;
+        }
+
+        CompiledSourceFile compiledFile = this.compiledFiles.get(path);
+        if (compiledFile == null)
+        {
+            compiledFile = new CompiledSourceFile(Misc.getRelativizedFile(this.configuration.getDirectory(), this.getSourceFile(path)));
+            this.compiledFiles.put(path, compiledFile);
+            this.scanDeclarations(compilationUnit, compiledFile);
+        }
+        if (compiledFile.unresolved)
+        {
+            return;
+        }
+
+        TreePath treePath = typeElement == null ? null : this.trees.getPath(typeElement);
+        if (treePath == null || treePath.getCompilationUnit() != compilationUnit)
+        {
+            treePath = new TreePath(compilationUnit);
+        }
+
+        new DependencyScanner(this.trees, this.task.getElements(), compiledFile.dependencies).scan(treePath, null);
+
+        TranslatableScanner scanner = new TranslatableScanner(this.configuration, this.trees, this.task.getTypes(), this.task.getElements(), compilationUnit, compiledFile.file, compiledFile.messageStore, this.logger);
+        scanner.scan(treePath, null);
+        compiledFile.unresolved = scanner.isUnresolved();
+    }
+
+    /**
+     * This method adds the declared top level types and the imported types of a compilation unit to the compiled
+     * source file.
+     *
+     * @param compilationUnit the compilation unit
+     * @param compiledFile    the compiled source file
+     */
+    private void scanDeclarations(CompilationUnitTree compilationUnit, CompiledSourceFile compiledFile)
+    {
+        TreePath compilationUnitPath = new TreePath(compilationUnit);
+        for (Tree typeDeclaration : compilationUnit.getTypeDecls())
+        {
+            Element element = this.trees.getElement(new TreePath(compilationUnitPath, typeDeclaration));
+            if (element instanceof TypeElement)
+            {
+                compiledFile.types.add(((TypeElement) element).getQualifiedName().toString());
+            }
+        }
+
+        DependencyScanner scanner = new DependencyScanner(this.trees, this.task.getElements(), compiledFile.dependencies);
+        for (ImportTree importTree : compilationUnit.getImports())
+        {
+            scanner.scan(new TreePath(compilationUnitPath, importTree), null);
+        }
+    }
+
+    /**
+     * This method writes the messages of the compiled source files into the extraction cache. The cache entries
+     * of the other source files are kept if neither the source files nor their dependencies changed.
+     */
+    private void writeCache()
+    {
+        File cacheFile = this.configuration.getCacheFile();
+
+        ExtractionCache cache = new ExtractionCache(this.configuration);
+        try
+        {
+            if (!cache.load(cacheFile))
+            {
+                this.logger.fine("The extraction cache '" + cacheFile.getPath() + "' doesn't exist or is outdated.");
+            }
+        }
+        catch (IOException e)
+        {
+            this.logger.log(Level.WARNING, "The extraction cache '" + cacheFile.getPath() + "' couldn't be read. It'll be replaced.", e);
+            cache = new ExtractionCache(this.configuration);
+        }
+
+        try
+        {
+            List<Path> sourceFiles = this.getSourceFiles();
+            List<File> files = new ArrayList<>(sourceFiles.size());
+            for (Path sourceFile : sourceFiles)
+            {
+                files.add(this.getSourceFile(sourceFile));
+            }
+            int droppedFileAmount = cache.retain(files).size();
+
+            int unresolvedFileAmount = 0;
+            for (Path sourceFile : sourceFiles)
+            {
+                CompiledSourceFile compiledFile = this.compiledFiles.get(sourceFile);
+                if (compiledFile == null)
+                {
+                    continue;
+                }
+
+                droppedFileAmount--;
+                if (compiledFile.unresolved)
+                {
+                    unresolvedFileAmount++;
+                    continue;
+                }
+
+                File file = this.getSourceFile(sourceFile);
+                cache.reset(file);
+                cache.setDependencies(file, compiledFile.types, compiledFile.dependencies);
+                cache.update(compiledFile.messageStore);
+            }
+            cache.save(cacheFile);
+
+            this.logger.info("The messages of " + (this.compiledFiles.size() - unresolvedFileAmount) + " compiled source files were written into the extraction cache '" + cacheFile.getPath() + "'. " + (unresolvedFileAmount + Math.max(0, droppedFileAmount)) + " source files have to be parsed by the extractor.");
+        }
+        catch (IOException e)
+        {
+            this.logger.log(Level.WARNING, "The extraction cache '" + cacheFile.getPath() + "' couldn't be written.", e);
+        }
+    }
+
+    /**
+     * This method returns every java source file of the source directory.
+     *
+     * @return normalized absolute paths of the source files
+     *
+     * @throws IOException if the source directory couldn't be read
+     */
+    private List<Path> getSourceFiles() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(this.directory))
+        {
+            return paths.filter(path -> path.toString().endsWith(JAVA_FILE_EXTENSION) && Files.isRegularFile(path)).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * This method returns the specified source file relative to the configured source directory like the
+     * extractor lists it. The paths of the cache entries are created from it.
+     *
+     * @param path normalized absolute path of the source file
+     *
+     * @return source file
+     */
+    private File getSourceFile(Path path)
+    {
+        return new File(this.configuration.getDirectory(), this.directory.relativize(path).toString());
+    }
+
+    /**
+     * helper class which stores the messages of a single compiled source file
+     */
+    private static class CompiledSourceFile
+    {
+        private final File file;
+        private final MessageStore messageStore;
+        private final Set<String> types;
+        private final Set<String> dependencies;
+        private boolean unresolved;
+
+        private CompiledSourceFile(File file)
+        {
+            this.file = file;
+            this.messageStore = new MessageStore();
+            this.types = new TreeSet<>();
+            this.dependencies = new TreeSet<>();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.tools.ToolManager;
+import org.cubeengine.pericopist.PericopistFactory;
+import org.cubeengine.pericopist.exception.PericopistException;
+import org.cubeengine.pericopist.extractor.ExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+
+/**
+ * <p>
+ * The pericopist plugin extracts the messages of the java source files while javac compiles them. The messages
+ * are written into the extraction cache of the java extractor configuration, so the extractor doesn't have to
+ * parse the compiled source files again.
+ * </p>
+ *
+ * <p>
+ * The plugin is enabled with the javac option <code>-Xplugin:Pericopist configuration=&lt;path&gt;</code>. Every
+ * argument of the plugin is a <code>key=value</code> pair which is added to the velocity context of the
+ * configuration. The <code>basedir</code> argument is added as file like the maven plugin does it.
+ * </p>
+ *
+ * Arguments:
+ *
+ * <ul>
+ * <li><b>configuration:</b> the pericopist configuration (required)</li>
+ * <li><b>sourceEncoding:</b> the default charset of the configuration (default: UTF-8)</li>
+ * <li><b>readTimeout:</b> read timeout of the configuration in milliseconds (default: 5000)</li>
+ * </ul>
+ */
+public class PericopistPlugin implements Plugin
+{
+    private static final String CONFIGURATION_ARGUMENT = "configuration";
+    private static final String BASEDIR_ARGUMENT = "basedir";
+    private static final String SOURCE_ENCODING_ARGUMENT = "sourceEncoding";
+    private static final String READ_TIMEOUT_ARGUMENT = "readTimeout";
+
+    private final Logger logger = Logger.getLogger("pericopist");
+
+    @Override
+    public String getName()
+    {
+        return "Pericopist";
+    }
+
+    @Override
+    public void init(JavacTask task, String... args)
+    {
+        ToolManager toolManager = new ToolManager();
+        Context velocityContext = toolManager.createContext();
+
+        for (String arg : args)
+        {
+            int index = arg.indexOf('=');
+            if (index < 0)
+            {
+                this.logger.warning("The argument '" + arg + "' of the pericopist plugin isn't a key=value pair.");
+                continue;
+            }
+
+            String key = arg.substring(0, index);
+            String value = arg.substring(index + 1);
+            velocityContext.put(key, BASEDIR_ARGUMENT.equals(key) ? new File(value) : value);
+        }
+
+        String configuration = (String) velocityContext.get(CONFIGURATION_ARGUMENT);
+        if (configuration == null)
+        {
+            this.logger.warning("The pericopist plugin needs the argument '" + CONFIGURATION_ARGUMENT + "'. The messages won't be extracted while compiling.");
+            return;
+        }
+
+        String charsetName = (String) velocityContext.get(SOURCE_ENCODING_ARGUMENT);
+        Charset charset = charsetName == null ? StandardCharsets.UTF_8 : Charset.forName(charsetName);
+
+        String readTimeout = (String) velocityContext.get(READ_TIMEOUT_ARGUMENT);
+
+        // javac loads the plugin with the processor path, which isn't visible to the context class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(this.getClass().getClassLoader());
+
+        ExtractorConfiguration extractorConfiguration;
+        try
+        {
+            extractorConfiguration = new PericopistFactory().getPericopist(configuration, charset, readTimeout == null ? 5000 : Integer.parseInt(readTimeout), velocityContext, this.logger).getExtractorConfiguration();
+        }
+        catch (PericopistException e)
+        {
+            this.logger.log(Level.WARNING, "The pericopist configuration '" + configuration + "' couldn't be loaded. The messages won't be extracted while compiling.", e);
+            return;
+        }
+        finally
+        {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+
+        if (!(extractorConfiguration instanceof JavaExtractorConfiguration))
+        {
+            this.logger.warning("The pericopist configuration '" + configuration + "' doesn't describe a java extractor. The messages won't be extracted while compiling.");
+            return;
+        }
+        if (((JavaExtractorConfiguration) extractorConfiguration).getCacheFile() == null)
+        {
+            this.logger.warning("The pericopist configuration '" + configuration + "' doesn't specify an extraction cache. The messages won't be extracted while compiling.");
+            return;
+        }
+
+        task.addTaskListener(new ExtractionTaskListener((JavaExtractorConfiguration) extractorConfiguration, task, this.logger));
+    }
+}
@@ -0,0 +1,805 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.NewArrayTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.PackageTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.Constructor;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExpression;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.javac.ExpressionEvaluator.UnresolvableExpressionException;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import spoon.reflect.declaration.CtAnnotatedElementType;
+
+/**
+ * <p>
+ * The translatable scanner finds the translatable method invocations, constructor invocations and annotations
+ * within the attributed trees of a compilation unit. It uses the same matching rules like the
+ * {@link org.cubeengine.pericopist.extractor.java.processor.MessageProcessor} implementations do with the spoon model
+ * and adds the messages to the message store of the source file.
+ * </p>
+ *
+ * <p>
+ * The source file is marked as unresolved if the scanner finds a translatable expression whose messages can't be
+ * evaluated during the compilation. Such a source file has to be parsed by the extractor.
+ * </p>
+ */
+class TranslatableScanner extends TreePathScanner<Void, Void>
+{
+    private final JavaExtractorConfiguration configuration;
+    private final Trees trees;
+    private final Types types;
+    private final Elements elements;
+    private final ExpressionEvaluator evaluator;
+    private final Logger logger;
+
+    private final CompilationUnitTree compilationUnit;
+    private final File file;
+    private final MessageStore messageStore;
+
+    private String sourceCode;
+    private boolean unresolved;
+
+    /**
+     * The constructor creates a new scanner for a single compilation unit
+     *
+     * @param configuration   the configuration of the extractor
+     * @param trees           the trees of the compilation task
+     * @param types           the type utilities of the compilation task
+     * @param elements        the element utilities of the compilation task
+     * @param compilationUnit the compilation unit
+     * @param file            the source file of the compilation unit relative to the source directory
+     * @param messageStore    the message store of the source file
+     * @param logger          the logger
+     */
+    TranslatableScanner(JavaExtractorConfiguration configuration, Trees trees, Types types, Elements elements, CompilationUnitTree compilationUnit, File file, MessageStore messageStore, Logger logger)
+    {
+        this.configuration = configuration;
+        this.trees = trees;
+        this.types = types;
+        this.elements = elements;
+        this.evaluator = new ExpressionEvaluator(trees);
+        this.logger = logger;
+
+        this.compilationUnit = compilationUnit;
+        this.file = file;
+        this.messageStore = messageStore;
+    }
+
+    /**
+     * This method returns whether the scanner found a translatable expression which couldn't be evaluated.
+     *
+     * @return whether the source file has to be parsed by the extractor
+     */
+    boolean isUnresolved()
+    {
+        return this.unresolved;
+    }
+
+    @Override
+    public Void scan(TreePath path, Void p)
+    {
+        if (this.unresolved)
+        {
+            // the source file is parsed by the extractor anyway
+            return null;
+        }
+        return super.scan(path, p);
+    }
+
+    @Override
+    public Void scan(Tree tree, Void p)
+    {
+        if (this.unresolved)
+        {
+            return null;
+        }
+        return super.scan(tree, p);
+    }
+
+    @Override
+    public Void visitMethodInvocation(MethodInvocationTree node, Void p)
+    {
+        Element element = this.trees.getElement(this.getCurrentPath());
+        if (element instanceof ExecutableElement)
+        {
+            ExecutableElement executable = (ExecutableElement) element;
+            if (executable.getKind() == ElementKind.CONSTRUCTOR)
+            {
+                // this(...) and super(...) invocations
+                this.processCallable(this.getConstructor(executable), node, node.getArguments());
+            }
+            else
+            {
+                this.processCallable(this.getMethod(executable), node, node.getArguments());
+            }
+        }
+        return super.visitMethodInvocation(node, p);
+    }
+
+    @Override
+    public Void visitNewClass(NewClassTree node, Void p)
+    {
+        if (node.getClassBody() != null)
+        {
+            // the constructor of an anonymous class isn't the one which is described by spoon
+            Element type = this.trees.getElement(new TreePath(this.getCurrentPath(), node.getIdentifier()));
+            if (type instanceof TypeElement && this.isConstructorName(this.getBinaryName((TypeElement) type)))
+            {
+                this.unresolved = true;
+                return null;
+            }
+        }
+        else
+        {
+            Element element = this.trees.getElement(this.getCurrentPath());
+            if (element instanceof ExecutableElement)
+            {
+                this.processCallable(this.getConstructor((ExecutableElement) element), node, node.getArguments());
+            }
+        }
+        return super.visitNewClass(node, p);
+    }
+
+    @Override
+    public Void visitAnnotation(AnnotationTree node, Void p)
+    {
+        Element type = this.trees.getElement(new TreePath(this.getCurrentPath(), node.getAnnotationType()));
+        if (type instanceof TypeElement)
+        {
+            try
+            {
+                this.processAnnotation(this.getAnnotation((TypeElement) type), node);
+            }
+            catch (UnresolvableExpressionException e)
+            {
+                this.unresolved = true;
+            }
+        }
+        return super.visitAnnotation(node, p);
+    }
+
+    /**
+     * This method extracts the messages of a translatable method or constructor invocation like the
+     * {@link org.cubeengine.pericopist.extractor.java.processor.CallableExpressionProcessor}.
+     *
+     * @param callableExpression the translatable expression or null
+     * @param node               the invocation
+     * @param arguments          the arguments of the invocation
+     */
+    private void processCallable(CallableExpression callableExpression, ExpressionTree node, List<? extends ExpressionTree> arguments)
+    {
+        if (callableExpression == null)
+        {
+            return;
+        }
+
+        try
+        {
+            String context = null;
+            String[] singulars = null;
+            String[] plurals = null;
+
+            if (callableExpression.hasContext() && arguments.size() > callableExpression.getContextIndex())
+            {
+                String[] contexts = this.evaluate(arguments.get(callableExpression.getContextIndex()));
+                if (contexts.length != 1)
+                {
+                    return;
+                }
+                context = contexts[0];
+            }
+            if (arguments.size() > callableExpression.getSingularIndex())
+            {
+                singulars = this.evaluate(arguments.get(callableExpression.getSingularIndex()));
+                if (singulars.length == 0)
+                {
+                    return;
+                }
+            }
+            if (callableExpression.hasPlural() && arguments.size() > callableExpression.getPluralIndex())
+            {
+                plurals = this.evaluate(arguments.get(callableExpression.getPluralIndex()));
+                if (plurals.length == 0)
+                {
+                    return;
+                }
+            }
+
+            this.addMessage(callableExpression, node, context, singulars, plurals);
+        }
+        catch (UnresolvableExpressionException e)
+        {
+            this.unresolved = true;
+        }
+    }
+
+    /**
+     * This method extracts the messages of a translatable annotation like the
+     * {@link org.cubeengine.pericopist.extractor.java.processor.AnnotationProcessor}.
+     *
+     * @param annotation the translatable annotation or null
+     * @param node       the annotation
+     *
+     * @throws UnresolvableExpressionException if a message of the annotation can't be evaluated
+     */
+    private void processAnnotation(Annotation annotation, AnnotationTree node) throws UnresolvableExpressionException
+    {
+        if (annotation == null)
+        {
+            return;
+        }
+
+        String context = null;
+        if (annotation.getContextField() != null)
+        {
+            String[] contexts = this.getContexts(annotation, node);
+            if (contexts.length > 1)
+            {
+                context = Arrays.toString(contexts);
+            }
+            else if (contexts.length == 1 && !contexts[0].isEmpty())
+            {
+                context = contexts[0];
+            }
+        }
+
+        for (ExpressionTree argument : node.getArguments())
+        {
+            String field = "value";
+            ExpressionTree value = argument;
+            if (argument instanceof AssignmentTree)
+            {
+                field = ((IdentifierTree) ((AssignmentTree) argument).getVariable()).getName().toString();
+                value = ((AssignmentTree) argument).getExpression();
+            }
+
+            if (!annotation.hasField(field))
+            {
+                continue;
+            }
+
+            String[] messages = this.evaluate(value);
+            if (messages.length == 0)
+            {
+                continue;
+            }
+
+            this.addMessage(annotation, node, context, messages, null);
+        }
+    }
+
+    /**
+     * This method returns the contexts of the context field of the annotation. Spoon uses the default value
+     * of the field if it isn't specified.
+     *
+     * @param annotation the translatable annotation
+     * @param node       the annotation
+     *
+     * @return contexts of the annotation
+     *
+     * @throws UnresolvableExpressionException if the context couldn't be evaluated
+     */
+    private String[] getContexts(Annotation annotation, AnnotationTree node) throws UnresolvableExpressionException
+    {
+        for (ExpressionTree argument : node.getArguments())
+        {
+            if (argument instanceof AssignmentTree)
+            {
+                AssignmentTree assignment = (AssignmentTree) argument;
+                if (((IdentifierTree) assignment.getVariable()).getName().contentEquals(annotation.getContextField()))
+                {
+                    return this.evaluate(assignment.getExpression());
+                }
+            }
+            else if ("value".equals(annotation.getContextField()))
+            {
+                return this.evaluate(argument);
+            }
+        }
+
+        Element type = this.trees.getElement(new TreePath(this.getCurrentPath(), node.getAnnotationType()));
+        for (Element member : type.getEnclosedElements())
+        {
+            if (member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals(annotation.getContextField()))
+            {
+                AnnotationValue defaultValue = ((ExecutableElement) member).getDefaultValue();
+                if (defaultValue == null)
+                {
+                    return new String[0];
+                }
+                if (!(defaultValue.getValue() instanceof String))
+                {
+                    throw new UnresolvableExpressionException(node);
+                }
+                return new String[] {(String) defaultValue.getValue()};
+            }
+        }
+        return new String[0];
+    }
+
+    /**
+     * This method evaluates the specified child expression of the current path.
+     *
+     * @param expression the expression
+     *
+     * @return messages of the expression
+     *
+     * @throws UnresolvableExpressionException if the expression can't be evaluated during the compilation
+     */
+    private String[] evaluate(ExpressionTree expression) throws UnresolvableExpressionException
+    {
+        return this.evaluator.evaluateToStringArray(new TreePath(this.getCurrentPath(), expression));
+    }
+
+    /**
+     * This method adds the messages to the message store like the
+     * {@link org.cubeengine.pericopist.extractor.java.processor.MessageProcessor}.
+     *
+     * @param javaExpression the java expression from which the message was extracted
+     * @param node           the tree which occurs within the code
+     * @param context        the message context
+     * @param singulars      the message singulars
+     * @param plurals        the message plurals
+     *
+     * @throws UnresolvableExpressionException if the messages are invalid. The extractor reports it.
+     */
+    private void addMessage(JavaExpression javaExpression, ExpressionTree node, String context, String[] singulars, String[] plurals) throws UnresolvableExpressionException
+    {
+        if (singulars == null || javaExpression.hasPlural() && (plurals == null || plurals.length > 1 || singulars.length > 1))
+        {
+            throw new UnresolvableExpressionException(node);
+        }
+
+        SourcePositions positions = this.trees.getSourcePositions();
+        int start = (int) positions.getStartPosition(this.compilationUnit, node);
+        int end = (int) positions.getEndPosition(this.compilationUnit, node);
+
+        SourceReference sourceReference = new SourceReference(this.file, (int) this.compilationUnit.getLineMap().getLineNumber(start), javaExpression);
+
+        if (context == null)
+        {
+            context = javaExpression.getDefaultContext();
+        }
+
+        for (String extractedComment : this.extractComments(start, end - 1))
+        {
+            sourceReference.addExtractedComment(extractedComment);
+        }
+
+        if (javaExpression.hasPlural())
+        {
+            if (singulars[0].isEmpty())
+            {
+                this.logger.info("The singular message can't be an empty string. Occurrence: " + sourceReference);
+                return;
+            }
+
+            this.messageStore.getOrCreateMessage(context, singulars[0], plurals[0]).addSourceReference(sourceReference);
+            return;
+        }
+
+        for (String singular : singulars)
+        {
+            if (singular.isEmpty())
+            {
+                this.logger.info("The singular message can't be an empty string. Occurrence: " + sourceReference);
+                continue;
+            }
+
+            this.messageStore.getOrCreateMessage(context, singular, null).addSourceReference(sourceReference);
+        }
+    }
+
+    /**
+     * This method extracts comments which start with '/// ' like the
+     * {@link org.cubeengine.pericopist.extractor.java.processor.MessageProcessor}. A comment can be behind or
+     * above the element. The comment behind has a higher priority.
+     *
+     * @param sourceStart index of the first character of the element
+     * @param sourceEnd   index of the last character of the element
+     *
+     * @return extracted comments
+     *
+     * @throws UnresolvableExpressionException if the source code couldn't be read
+     */
+    private List<String> extractComments(int sourceStart, int sourceEnd) throws UnresolvableExpressionException
+    {
+        String code = this.getSourceCode();
+        List<String> extractedComments = new ArrayList<>(1);
+
+        // load comment after element
+        String comment = getExtractedComment(code.substring(sourceEnd, Math.min(code.length(), nextLineIndex(code, sourceEnd))), true);
+        if (comment != null)
+        {
+            extractedComments.add(comment);
+            return extractedComments;
+        }
+
+        // load more line comments before element
+        int currentLineIndex;
+        int lastLineIndex = beginOfLineIndex(code, sourceStart);
+
+        // the element might be part of the first line
+        while (lastLineIndex > 0)
+        {
+            currentLineIndex = lastLineIndex;
+            lastLineIndex = beginOfLineIndex(code, currentLineIndex - 2);
+
+            comment = getExtractedComment(code.substring(lastLineIndex, currentLineIndex), false);
+            if (comment == null)
+            {
+                break;
+            }
+            extractedComments.add(0, comment);
+        }
+
+        return extractedComments;
+    }
+
+    private String getSourceCode() throws UnresolvableExpressionException
+    {
+        if (this.sourceCode == null)
+        {
+            try
+            {
+                this.sourceCode = this.compilationUnit.getSourceFile().getCharContent(true).toString();
+            }
+            catch (IOException e)
+            {
+                throw new UnresolvableExpressionException("The source code of '" + this.file.getPath() + "' couldn't be read.", e);
+            }
+        }
+        return this.sourceCode;
+    }
+
+    private static int beginOfLineIndex(String code, int index)
+    {
+        int cur = index;
+        while (cur >= 0)
+        {
+            if (code.charAt(cur) == '\n')
+            {
+                break;
+            }
+            cur--;
+        }
+        return cur + 1;
+    }
+
+    private static int nextLineIndex(String code, int index)
+    {
+        int cur = index;
+        while (cur < code.length() && code.charAt(cur) != '\n')
+        {
+            cur++;
+        }
+        return cur + 1;
+    }
+
+    private static String getExtractedComment(String line, boolean isBehindExpression)
+    {
+        line = line.trim();
+
+        int index = line.indexOf("/// ");
+        if (index < 0 || index != 0 && !isBehindExpression)
+        {
+            return null;
+        }
+        return line.substring(index + 4);
+    }
+
+    /**
+     * This method returns the type of the element which is annotated by the annotation of the current path like
+     * {@link spoon.reflect.declaration.CtAnnotation#getAnnotatedElementType()} does it.
+     *
+     * @param type the annotation type
+     *
+     * @return annotated element type or null if spoon doesn't know it either
+     *
+     * @throws UnresolvableExpressionException if spoon might attach the annotation to another element
+     */
+    private CtAnnotatedElementType getAnnotatedElementType(TypeElement type) throws UnresolvableExpressionException
+    {
+        AnnotationTree node = (AnnotationTree) this.getCurrentPath().getLeaf();
+        Target target = type.getAnnotation(Target.class);
+        if (target != null && Arrays.asList(target.value()).contains(ElementType.TYPE_USE))
+        {
+            // spoon attaches type annotations to the type references of declarations
+            throw new UnresolvableExpressionException(node);
+        }
+
+        TreePath parentPath = this.getCurrentPath().getParentPath();
+        Tree parent = parentPath.getLeaf();
+        if (parent instanceof AssignmentTree)
+        {
+            parent = parentPath.getParentPath().getLeaf();
+        }
+
+        if (parent instanceof AnnotationTree)
+        {
+            return CtAnnotatedElementType.ANNOTATION_TYPE;
+        }
+        if (parent instanceof NewArrayTree)
+        {
+            return null;
+        }
+        if (parent instanceof PackageTree)
+        {
+            return CtAnnotatedElementType.PACKAGE;
+        }
+        if (parent.getKind() != Tree.Kind.MODIFIERS)
+        {
+            throw new UnresolvableExpressionException(node);
+        }
+
+        TreePath declaration = parentPath.getParentPath();
+        if (declaration.getLeaf() instanceof ClassTree)
+        {
+            return declaration.getLeaf().getKind() == Tree.Kind.ANNOTATION_TYPE ? CtAnnotatedElementType.ANNOTATION_TYPE : CtAnnotatedElementType.TYPE;
+        }
+
+        Element element = this.trees.getElement(declaration);
+        if (element == null)
+        {
+            throw new UnresolvableExpressionException(node);
+        }
+        switch (element.getKind())
+        {
+            case METHOD:
+                return CtAnnotatedElementType.METHOD;
+            case CONSTRUCTOR:
+                return CtAnnotatedElementType.CONSTRUCTOR;
+            case FIELD:
+            case ENUM_CONSTANT:
+                return CtAnnotatedElementType.FIELD;
+            case PARAMETER:
+                return CtAnnotatedElementType.PARAMETER;
+            case LOCAL_VARIABLE:
+            case RESOURCE_VARIABLE:
+                return CtAnnotatedElementType.LOCAL_VARIABLE;
+            case EXCEPTION_PARAMETER:
+                return null;
+            default:
+                throw new UnresolvableExpressionException(node);
+        }
+    }
+
+    /**
+     * This method returns the translatable method which describes the specified method.
+     *
+     * @param executable the invoked method
+     *
+     * @return the translatable method or null
+     */
+    private Method getMethod(ExecutableElement executable)
+    {
+        for (JavaExpression expression : this.configuration.getJavaExpressions())
+        {
+            if (!(expression instanceof Method))
+            {
+                continue;
+            }
+
+            Method method = (Method) expression;
+            if (!executable.getSimpleName().contentEquals(method.getMethodName()))
+            {
+                continue;
+            }
+            if (method.isStatic() != executable.getModifiers().contains(Modifier.STATIC))
+            {
+                continue;
+            }
+            if (this.matchesSignature(method, executable) && this.isSubtype(executable.getEnclosingElement().asType(), method.getClassName()))
+            {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method returns the translatable constructor which describes the specified constructor.
+     *
+     * @param executable the invoked constructor
+     *
+     * @return the translatable constructor or null
+     */
+    private Constructor getConstructor(ExecutableElement executable)
+    {
+        String name = this.getBinaryName((TypeElement) executable.getEnclosingElement());
+        for (JavaExpression expression : this.configuration.getJavaExpressions())
+        {
+            if (expression instanceof Constructor && expression.getName().equals(name) && this.matchesSignature((Constructor) expression, executable))
+            {
+                return (Constructor) expression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method returns the translatable annotation which describes the annotation of the current path.
+     *
+     * @param type the annotation type
+     *
+     * @return the translatable annotation or null
+     *
+     * @throws UnresolvableExpressionException if the annotated element type can't be determined
+     */
+    private Annotation getAnnotation(TypeElement type) throws UnresolvableExpressionException
+    {
+        String name = this.getBinaryName(type);
+
+        boolean targetLoaded = false;
+        CtAnnotatedElementType target = null;
+        for (JavaExpression expression : this.configuration.getJavaExpressions())
+        {
+            if (!(expression instanceof Annotation) || !expression.getName().equals(name))
+            {
+                continue;
+            }
+
+            Annotation annotation = (Annotation) expression;
+            if (annotation.getTargets() == null)
+            {
+                return annotation;
+            }
+
+            if (!targetLoaded)
+            {
+                target = this.getAnnotatedElementType(type);
+                targetLoaded = true;
+            }
+            if (target != null && Arrays.asList(annotation.getTargets()).contains(target))
+            {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private boolean isConstructorName(String name)
+    {
+        for (JavaExpression expression : this.configuration.getJavaExpressions())
+        {
+            if (expression instanceof Constructor && expression.getName().equals(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method checks whether the erased parameter types of the executable match the signature of the
+     * callable expression.
+     *
+     * @param callableExpression the callable expression
+     * @param executable         the executable
+     *
+     * @return whether the executable matches the signature
+     */
+    private boolean matchesSignature(CallableExpression callableExpression, ExecutableElement executable)
+    {
+        CallableSignatureType[] signature = callableExpression.getSignature();
+        List<? extends VariableElement> parameters = executable.getParameters();
+
+        if (parameters.size() != signature.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < signature.length; i++)
+        {
+            if (!signature[i].getType().equals(this.types.erasure(parameters.get(i).asType()).toString()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method checks whether the specified type is the class with the specified name or one of its subtypes.
+     *
+     * @param type      the type
+     * @param className the binary name of the class
+     *
+     * @return whether the type is a subtype of the class
+     */
+    private boolean isSubtype(TypeMirror type, String className)
+    {
+        Set<String> visited = new HashSet<>();
+        Queue<TypeMirror> queue = new ArrayDeque<>();
+        queue.offer(type);
+
+        while (!queue.isEmpty())
+        {
+            TypeMirror typeMirror = queue.poll();
+            if (typeMirror.getKind() != TypeKind.DECLARED)
+            {
+                continue;
+            }
+
+            String name = this.getBinaryName((TypeElement) this.types.asElement(typeMirror));
+            if (className.equals(name))
+            {
+                return true;
+            }
+            if (visited.add(name))
+            {
+                queue.addAll(this.types.directSupertypes(typeMirror));
+            }
+        }
+        return false;
+    }
+
+    private String getBinaryName(TypeElement type)
+    {
+        return this.elements.getBinaryName(type).toString();
+    }
+}
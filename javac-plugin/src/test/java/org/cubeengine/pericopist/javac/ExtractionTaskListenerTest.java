@@ -0,0 +1,296 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.javac;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Logger;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import com.sun.source.util.JavacTask;
+import org.cubeengine.pericopist.extractor.java.JavaMessageExtractor;
+import org.cubeengine.pericopist.extractor.java.cache.ExtractionCache;
+import org.cubeengine.pericopist.extractor.java.configuration.Annotation;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType;
+import org.cubeengine.pericopist.extractor.java.configuration.CallableSignatureType.CallableSignatureTypeUsage;
+import org.cubeengine.pericopist.extractor.java.configuration.ConstantEvaluation;
+import org.cubeengine.pericopist.extractor.java.configuration.JavaExtractorConfiguration;
+import org.cubeengine.pericopist.extractor.java.configuration.Method;
+import org.cubeengine.pericopist.message.MessageStore;
+import org.cubeengine.pericopist.message.SourceReference;
+import org.cubeengine.pericopist.message.TranslatableMessage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ExtractionTaskListenerTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private JavaExtractorConfiguration configuration;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.directory = this.folder.newFolder("src");
+
+        Method translate = new Method();
+        translate.setName("test.I18n#translate");
+        translate.setSignature(signatureType(CallableSignatureTypeUsage.SINGULAR, "java.lang.String"));
+        translate.setStatic(true);
+
+        Method translateN = new Method();
+        translateN.setName("test.I18n#translateN");
+        translateN.setSignature(signatureType(CallableSignatureTypeUsage.NONE, "int"), signatureType(CallableSignatureTypeUsage.SINGULAR, "java.lang.String"), signatureType(CallableSignatureTypeUsage.PLURAL, "java.lang.String"));
+        translateN.setStatic(true);
+        translateN.setDefaultContext("plural");
+
+        Annotation label = new Annotation();
+        label.setName("test.Label");
+
+        this.configuration = new JavaExtractorConfiguration();
+        this.configuration.setDirectory(this.directory);
+        this.configuration.setCharset(StandardCharsets.UTF_8);
+        this.configuration.setClasspathEntries();
+        this.configuration.setConstantEvaluation(ConstantEvaluation.MODEL);
+        this.configuration.setJavaExpressions(translate, translateN, label);
+
+        this.write("I18n.java", "package test; public class I18n { public static void translate(String message) {} public static void translateN(int n, String singular, String plural) {} }");
+        this.write("Label.java", "package test; import java.lang.annotation.*; @Retention(RetentionPolicy.SOURCE) public @interface Label { String value(); }");
+        this.write("Messages.java", "package test; public class Messages { public static final String GREETING = \"Hello\"; public static final String NAME = \"World\"; }");
+        this.write("Greeter.java",
+                   "package test;\n" +
+                   "\n" +
+                   "@Label(\"A greeter\")\n" +
+                   "public class Greeter\n" +
+                   "{\n" +
+                   "    void greet(boolean formal)\n" +
+                   "    {\n" +
+                   "        /// greets the world\n" +
+                   "        I18n.translate(Messages.GREETING + \", \" + Messages.NAME);\n" +
+                   "        I18n.translate(formal ? \"Good day\" : \"Hi\"); /// depends on the formality\n" +
+                   "        I18n.translateN(2, \"one greeting\", \"{} greetings\");\n" +
+                   "        I18n.translate(\"Hello\");\n" +
+                   "    }\n" +
+                   "}\n");
+        this.write("Dynamic.java",
+                   "package test;\n" +
+                   "\n" +
+                   "public class Dynamic\n" +
+                   "{\n" +
+                   "    void run()\n" +
+                   "    {\n" +
+                   "        I18n.translate(\"Static\");\n" +
+                   "        I18n.translate(this.name());\n" +
+                   "    }\n" +
+                   "\n" +
+                   "    String name()\n" +
+                   "    {\n" +
+                   "        return \"Dynamic\";\n" +
+                   "    }\n" +
+                   "}\n");
+    }
+
+    @Test
+    public void testSameCacheEntriesAsExtractor() throws Exception
+    {
+        File compilerCache = new File(this.folder.getRoot(), "compiler.cache");
+        this.compile(compilerCache);
+
+        File extractorCache = new File(this.folder.getRoot(), "extractor.cache");
+        this.configuration.setCacheFile(extractorCache);
+        this.extract();
+
+        MessageStore compilerMessages = new MessageStore();
+        List<File> parsedFiles = this.restore(compilerCache, compilerMessages);
+
+        // the compiler couldn't evaluate every message of Dynamic.java, so it doesn't get a cache entry
+        assertEquals(Collections.singletonList(new File(this.directory, "test/Dynamic.java")), parsedFiles);
+
+        MessageStore extractorMessages = new MessageStore();
+        assertTrue(this.restore(extractorCache, extractorMessages).isEmpty());
+        assertNotNull(extractorMessages.getMessage(null, "Static", null));
+
+        assertSameMessages(withoutFile(extractorMessages, "test/Dynamic.java"), compilerMessages);
+        assertEquals(6, compilerMessages.size());
+    }
+
+    @Test
+    public void testExtractionWithCompilerCache() throws Exception
+    {
+        MessageStore expectedMessages = this.extract();
+
+        File compilerCache = new File(this.folder.getRoot(), "compiler.cache");
+        this.compile(compilerCache);
+
+        this.configuration.setCacheFile(compilerCache);
+        assertSameMessages(expectedMessages, this.extract());
+        assertNotNull(this.extract().getMessage(null, "Static", null));
+    }
+
+    @Test
+    public void testUnchangedSourceFilesKeepTheirEntries() throws Exception
+    {
+        File compilerCache = new File(this.folder.getRoot(), "compiler.cache");
+        this.compile(compilerCache);
+
+        // just Dynamic.java is compiled again, the entry of Greeter.java is kept
+        this.write("Dynamic.java", "package test; public class Dynamic { void run() { I18n.translate(\"Changed\"); } }");
+        this.configuration.setCacheFile(compilerCache);
+        this.compile(compilerCache, "Dynamic.java", "I18n.java");
+
+        MessageStore messages = new MessageStore();
+        assertTrue(this.restore(compilerCache, messages).isEmpty());
+        assertNotNull(messages.getMessage(null, "Changed", null));
+        assertNotNull(messages.getMessage(null, "Hello, World", null));
+        assertNull(messages.getMessage(null, "Static", null));
+    }
+
+    private void compile(File cacheFile, String... fileNames) throws IOException
+    {
+        this.configuration.setCacheFile(cacheFile);
+
+        List<File> sourceFiles = new ArrayList<>();
+        if (fileNames.length == 0)
+        {
+            sourceFiles.addAll(this.getSourceFiles());
+        }
+        for (String fileName : fileNames)
+        {
+            sourceFiles.add(new File(this.directory, "test/" + fileName));
+        }
+
+        File classes = new File(this.folder.getRoot(), "classes");
+        classes.mkdirs();
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+        {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
+            List<String> options = Arrays.asList("-proc:none", "-d", classes.getPath(), "-classpath", classes.getPath());
+
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+            task.addTaskListener(new ExtractionTaskListener(this.configuration, task, Logger.getLogger(this.getClass().getName())));
+            assertTrue(task.call());
+        }
+        assertTrue(cacheFile.isFile());
+    }
+
+    private List<File> restore(File cacheFile, MessageStore messageStore) throws IOException
+    {
+        ExtractionCache cache = new ExtractionCache(this.configuration, new String[0]);
+        assertTrue(cache.load(cacheFile));
+        return cache.restore(this.getSourceFiles(), messageStore);
+    }
+
+    private MessageStore extract() throws Exception
+    {
+        JavaMessageExtractor extractor = new JavaMessageExtractor();
+        extractor.setLogger(Logger.getLogger(this.getClass().getName()));
+        return extractor.extract(this.configuration, new MessageStore());
+    }
+
+    private List<File> getSourceFiles() throws IOException
+    {
+        List<File> sourceFiles = new ArrayList<>();
+        for (String fileName : new String[]{"Dynamic.java", "Greeter.java", "I18n.java", "Label.java", "Messages.java"})
+        {
+            sourceFiles.add(new File(this.directory, "test/" + fileName));
+        }
+        return sourceFiles;
+    }
+
+    private void write(String fileName, String source) throws IOException
+    {
+        File file = new File(this.directory, "test/" + fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method copies the messages of the message store without the source references of the specified file.
+     */
+    private static MessageStore withoutFile(MessageStore messageStore, String path)
+    {
+        MessageStore filteredStore = new MessageStore();
+        for (TranslatableMessage message : messageStore)
+        {
+            for (SourceReference reference : message.getSourceReferences())
+            {
+                if (!reference.getPath().equals(path))
+                {
+                    filteredStore.getOrCreateMessage(message.getContext(), message.getSingular(), message.getPlural()).addSourceReference(reference);
+                }
+            }
+        }
+        return filteredStore;
+    }
+
+    private static void assertSameMessages(MessageStore expected, MessageStore actual)
+    {
+        assertEquals(expected.size(), actual.size());
+
+        Iterator<TranslatableMessage> actualMessages = actual.iterator();
+        for (TranslatableMessage expectedMessage : expected)
+        {
+            TranslatableMessage actualMessage = actualMessages.next();
+            assertEquals(expectedMessage, actualMessage);
+
+            Iterator<SourceReference> actualReferences = actualMessage.getSourceReferences().iterator();
+            for (SourceReference expectedReference : expectedMessage.getSourceReferences())
+            {
+                assertTrue(actualReferences.hasNext());
+                SourceReference actualReference = actualReferences.next();
+                assertEquals(expectedReference, actualReference);
+                assertEquals(expectedReference.getLine(), actualReference.getLine());
+                assertEquals(expectedReference.getExtractedComments(), actualReference.getExtractedComments());
+            }
+            assertFalse(actualReferences.hasNext());
+        }
+    }
+
+    private static CallableSignatureType signatureType(CallableSignatureTypeUsage usage, String type)
+    {
+        CallableSignatureType signatureType = new CallableSignatureType();
+        signatureType.setType(type);
+        signatureType.setUsage(usage);
+        return signatureType;
+    }
+}
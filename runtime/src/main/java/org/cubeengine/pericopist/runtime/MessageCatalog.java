@@ -0,0 +1,532 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A message catalog answers the lookups of translations within a compiled gettext catalog (.mo file), like the ones
+ * written by the 'gettext-mo' catalog format. The file is memory mapped and isn't parsed. The entries are found
+ * with the open addressing hash table of the catalog or with a binary search if the catalog doesn't have one.
+ * </p>
+ *
+ * <p>
+ * The messages are identified like the TranslatableMessage instances of the extractors by their context,
+ * singular and plural. A message without a context is a different message than one with an empty
+ * context, and the plural has to match as well. A lookup encodes the key into a buffer of the current thread
+ * and compares it with the bytes of the catalog, so it doesn't allocate anything. The translation of an entry is
+ * decoded once when it's requested the first time.
+ * </p>
+ *
+ * <p>
+ * The strings of the catalog have to be encoded with UTF-8, US-ASCII or ISO-8859-1. The plural forms are
+ * selected with the plural expression of the 'Plural-Forms' header entry. The instances are thread safe.
+ * </p>
+ *
+ * @see ReloadingMessageCatalog
+ */
+public final class MessageCatalog
+{
+    private static final int MAGIC = 0x950412de;
+    private static final int HEADER_SIZE = 28;
+    private static final byte CONTEXT_SEPARATOR = 4;
+    private static final String PLURAL_FORMS = "Plural-Forms:";
+
+    private static final ThreadLocal<KeyBuffer> KEY_BUFFER = ThreadLocal.withInitial(KeyBuffer::new);
+
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    private final int maxChar;
+    private final int count;
+    private final int originalTable;
+    private final int translationTable;
+    private final int hashTableSize;
+    private final int hashTable;
+    private final Translation[] translations;
+    private final PluralExpression pluralExpression;
+
+    private MessageCatalog(ByteBuffer buffer, Charset charset) throws IOException
+    {
+        this.charset = charset;
+        if (charset.equals(StandardCharsets.UTF_8))
+        {
+            this.maxChar = Character.MAX_VALUE;
+        }
+        else if (charset.equals(StandardCharsets.ISO_8859_1))
+        {
+            this.maxChar = 0xFF;
+        }
+        else if (charset.equals(StandardCharsets.US_ASCII))
+        {
+            this.maxChar = 0x7F;
+        }
+        else
+        {
+            throw new IllegalArgumentException("The charset " + charset + " isn't supported.");
+        }
+
+        if (buffer.limit() < HEADER_SIZE)
+        {
+            throw new IOException("The catalog isn't a mo file.");
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC)
+        {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException("The catalog isn't a mo file.");
+            }
+        }
+        this.buffer = buffer;
+
+        this.count = buffer.getInt(8);
+        this.originalTable = buffer.getInt(12);
+        this.translationTable = buffer.getInt(16);
+        this.hashTableSize = buffer.getInt(20);
+        this.hashTable = buffer.getInt(24);
+        if (this.count < 0 || !this.isInside(this.originalTable, 8L * this.count) || !this.isInside(this.translationTable, 8L * this.count)
+            || (this.hashTableSize > 2 && !this.isInside(this.hashTable, 4L * this.hashTableSize)))
+        {
+            throw new IOException("The mo file is damaged.");
+        }
+        for (int i = 0; i < this.count; i++)
+        {
+            if (!this.isInside(this.getOffset(this.originalTable, i), this.getLength(this.originalTable, i))
+                || !this.isInside(this.getOffset(this.translationTable, i), this.getLength(this.translationTable, i)))
+            {
+                throw new IOException("The string of the entry " + i + " exceeds the mo file.");
+            }
+        }
+
+        this.translations = new Translation[this.count];
+        this.pluralExpression = this.loadPluralExpression();
+    }
+
+    /**
+     * This method memory maps the specified catalog file. The file has to be replaced atomically, for example
+     * by moving a new file to its location, but it mustn't be changed while it's mapped.
+     *
+     * @param file    the compiled catalog
+     * @param charset the charset of the catalog
+     *
+     * @return the catalog
+     *
+     * @throws IOException if the file couldn't be mapped or isn't a valid mo file
+     */
+    public static MessageCatalog open(Path file, Charset charset) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            return new MessageCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), charset);
+        }
+    }
+
+    /**
+     * This method creates a catalog from the bytes of a compiled catalog. The buffer mustn't be changed afterwards.
+     *
+     * @param buffer  the compiled catalog
+     * @param charset the charset of the catalog
+     *
+     * @return the catalog
+     *
+     * @throws IOException if the bytes aren't a valid mo file
+     */
+    public static MessageCatalog wrap(ByteBuffer buffer, Charset charset) throws IOException
+    {
+        return new MessageCatalog(buffer.slice(), charset);
+    }
+
+    /**
+     * This method returns the number of entries including the header
+     *
+     * @return number of entries
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * This method checks whether the catalog contains a translation of the specified message.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     * @param plural   the plural of the message or null
+     *
+     * @return whether the catalog contains the message
+     */
+    public boolean contains(String context, String singular, String plural)
+    {
+        return this.find(context, singular, plural) >= 0;
+    }
+
+    /**
+     * This method returns the translation of the specified message. The singular is returned if the catalog
+     * doesn't contain the message.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     *
+     * @return the translation
+     */
+    public String translate(String context, String singular)
+    {
+        int entry = this.find(context, singular, null);
+        if (entry < 0)
+        {
+            return singular;
+        }
+        return this.getTranslation(entry).get(0, singular);
+    }
+
+    /**
+     * This method returns the plural form of the translation of the specified message, which is selected by the
+     * plural expression of the catalog. The singular or the plural is returned like within the source language
+     * if the catalog doesn't contain the message.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     * @param plural   the plural of the message
+     * @param n        the number which selects the plural form
+     *
+     * @return the translation
+     */
+    public String translate(String context, String singular, String plural, long n)
+    {
+        String fallback = n == 1 ? singular : plural;
+        int entry = this.find(context, singular, plural);
+        if (entry < 0)
+        {
+            return fallback;
+        }
+
+        long form = this.pluralExpression.evaluate(n);
+        Translation translation = this.getTranslation(entry);
+        return translation.get(form < 0 || form >= translation.forms.length ? 0 : (int) form, fallback);
+    }
+
+    /**
+     * This method searches the entry of the specified message.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     * @param plural   the plural of the message or null
+     *
+     * @return the index of the entry or -1
+     */
+    private int find(String context, String singular, String plural)
+    {
+        KeyBuffer key = KEY_BUFFER.get();
+        key.length = 0;
+        if (context != null)
+        {
+            this.encode(context, key);
+            key.append(CONTEXT_SEPARATOR);
+        }
+        this.encode(singular, key);
+        int hashEnd = key.length;
+        if (plural != null)
+        {
+            key.append((byte) 0);
+            this.encode(plural, key);
+        }
+
+        if (this.hashTableSize <= 2)
+        {
+            return this.binarySearch(key);
+        }
+
+        long hash = Integer.toUnsignedLong(hash(key.bytes, hashEnd));
+        int index = (int) (hash % this.hashTableSize);
+        int increment = (int) (1 + hash % (this.hashTableSize - 2));
+        for (int i = 0; i < this.hashTableSize; i++)
+        {
+            int entry = this.buffer.getInt(this.hashTable + 4 * index) - 1;
+            if (entry < 0)
+            {
+                return -1;
+            }
+            if (entry < this.count && this.compare(entry, key) == 0)
+            {
+                return entry;
+            }
+            index = index >= this.hashTableSize - increment ? index - (this.hashTableSize - increment) : index + increment;
+        }
+        return -1;
+    }
+
+    private int binarySearch(KeyBuffer key)
+    {
+        int low = 0;
+        int high = this.count - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int cmp = this.compare(mid, key);
+            if (cmp < 0)
+            {
+                low = mid + 1;
+            }
+            else if (cmp > 0)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method compares the original string of the entry with the encoded key like the catalog is sorted.
+     *
+     * @param entry the index of the entry
+     * @param key   the encoded key
+     *
+     * @return the comparison result
+     */
+    private int compare(int entry, KeyBuffer key)
+    {
+        int length = this.getLength(this.originalTable, entry);
+        int offset = this.getOffset(this.originalTable, entry);
+        int end = Math.min(length, key.length);
+        for (int i = 0; i < end; i++)
+        {
+            int cmp = Integer.compare(this.buffer.get(offset + i) & 0xFF, key.bytes[i] & 0xFF);
+            if (cmp != 0)
+            {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /**
+     * This method encodes the string into the key buffer. Characters which can't be encoded are replaced with '?'
+     * like {@link String#getBytes(Charset)} does.
+     *
+     * @param string the string
+     * @param key    the key buffer
+     */
+    private void encode(String string, KeyBuffer key)
+    {
+        for (int i = 0; i < string.length(); i++)
+        {
+            char c = string.charAt(i);
+            if (c < 0x80 || (c <= this.maxChar && this.maxChar < 0x100))
+            {
+                key.append((byte) c);
+            }
+            else if (this.maxChar < 0x100)
+            {
+                // a surrogate pair is a single character, which is replaced once
+                if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1)))
+                {
+                    i++;
+                }
+                key.append((byte) '?');
+            }
+            else if (c < 0x800)
+            {
+                key.append((byte) (0xC0 | c >> 6));
+                key.append((byte) (0x80 | c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1)))
+            {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                key.append((byte) (0xF0 | codePoint >> 18));
+                key.append((byte) (0x80 | codePoint >> 12 & 0x3F));
+                key.append((byte) (0x80 | codePoint >> 6 & 0x3F));
+                key.append((byte) (0x80 | codePoint & 0x3F));
+            }
+            else if (Character.isSurrogate(c))
+            {
+                key.append((byte) '?');
+            }
+            else
+            {
+                key.append((byte) (0xE0 | c >> 12));
+                key.append((byte) (0x80 | c >> 6 & 0x3F));
+                key.append((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * This method returns the decoded translation of the entry. The translations are decoded once. Concurrent
+     * lookups may decode a translation twice, which doesn't matter because it's immutable.
+     *
+     * @param entry the index of the entry
+     *
+     * @return the translation
+     */
+    private Translation getTranslation(int entry)
+    {
+        Translation translation = this.translations[entry];
+        if (translation == null)
+        {
+            translation = new Translation(this.getString(this.translationTable, entry).split("\0", -1));
+            this.translations[entry] = translation;
+        }
+        return translation;
+    }
+
+    /**
+     * This method parses the plural expression of the header entry.
+     *
+     * @return plural expression
+     *
+     * @throws IOException if the plural expression has a wrong format
+     */
+    private PluralExpression loadPluralExpression() throws IOException
+    {
+        int header = this.find(null, "", null);
+        if (header < 0)
+        {
+            return PluralExpression.GERMANIC;
+        }
+
+        for (String line : this.getString(this.translationTable, header).split("\n"))
+        {
+            if (!line.regionMatches(true, 0, PLURAL_FORMS, 0, PLURAL_FORMS.length()))
+            {
+                continue;
+            }
+            for (String part : line.substring(PLURAL_FORMS.length()).split(";"))
+            {
+                part = part.trim();
+                if (part.startsWith("plural="))
+                {
+                    try
+                    {
+                        return PluralExpression.parse(part.substring("plural=".length()));
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        throw new IOException("The catalog has an invalid plural expression.", e);
+                    }
+                }
+            }
+        }
+        return PluralExpression.GERMANIC;
+    }
+
+    private String getString(int table, int entry)
+    {
+        byte[] bytes = new byte[this.getLength(table, entry)];
+        int offset = this.getOffset(table, entry);
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = this.buffer.get(offset + i);
+        }
+        return new String(bytes, this.charset);
+    }
+
+    private int getLength(int table, int entry)
+    {
+        return this.buffer.getInt(table + 8 * entry);
+    }
+
+    private int getOffset(int table, int entry)
+    {
+        return this.buffer.getInt(table + 8 * entry + 4);
+    }
+
+    private boolean isInside(long offset, long length)
+    {
+        return offset >= 0 && length >= 0 && offset + length <= this.buffer.limit();
+    }
+
+    /**
+     * This method computes the hash of an original string like the gettext runtime does (hashpjw).
+     *
+     * @param bytes the encoded original string
+     * @param end   the end of the hashed part
+     *
+     * @return hash
+     */
+    private static int hash(byte[] bytes, int end)
+    {
+        int hash = 0;
+        for (int i = 0; i < end; i++)
+        {
+            hash = (hash << 4) + (bytes[i] & 0xFF);
+            int g = hash & 0xF0000000;
+            if (g != 0)
+            {
+                hash ^= g >>> 24;
+                hash ^= g;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The translation stores the decoded plural forms of an entry.
+     */
+    private static final class Translation
+    {
+        private final String[] forms;
+
+        private Translation(String[] forms)
+        {
+            this.forms = forms;
+        }
+
+        private String get(int form, String fallback)
+        {
+            String translation = this.forms[form];
+            return translation.isEmpty() ? fallback : translation;
+        }
+    }
+
+    /**
+     * The key buffer is the reused buffer of a thread, which stores the encoded key of a lookup.
+     */
+    private static final class KeyBuffer
+    {
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        private void append(byte b)
+        {
+            if (this.length == this.bytes.length)
+            {
+                this.bytes = Arrays.copyOf(this.bytes, this.length * 2);
+            }
+            this.bytes[this.length++] = b;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+/**
+ * <p>
+ * The plural expression selects the plural form of a number. It's parsed from the plural expression of the
+ * 'Plural-Forms' header entry of a gettext catalog, for example "n != 1" or
+ * "n%10==1 && n%100!=11 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2".
+ * </p>
+ *
+ * <p>
+ * The expression supports the C operators of the gettext plural expressions with their precedences. It's parsed
+ * once into a tree, which is evaluated without any allocation.
+ * </p>
+ */
+abstract class PluralExpression
+{
+    /**
+     * The germanic plural expression "n != 1", which is used if the catalog doesn't specify one.
+     */
+    static final PluralExpression GERMANIC = new Binary("!=", new Variable(), new Constant(1));
+
+    /**
+     * This method evaluates the expression for the specified number.
+     *
+     * @param n the number
+     *
+     * @return the value of the expression
+     */
+    abstract long evaluate(long n);
+
+    /**
+     * This method parses the specified plural expression.
+     *
+     * @param expression the expression
+     *
+     * @return the parsed expression
+     *
+     * @throws IllegalArgumentException if the expression has a wrong format
+     */
+    static PluralExpression parse(String expression)
+    {
+        Parser parser = new Parser(expression);
+        PluralExpression result = parser.parseConditional();
+        parser.skipWhitespaces();
+        if (parser.index != expression.length())
+        {
+            throw new IllegalArgumentException("Unexpected character at " + parser.index + " in the plural expression '" + expression + "'.");
+        }
+        return result;
+    }
+
+    /**
+     * A recursive descent parser of the expression. Every method parses the operators of one precedence level.
+     */
+    private static final class Parser
+    {
+        private static final String[][] BINARY_OPERATORS = {
+            {"||"},
+            {"&&"},
+            {"==", "!="},
+            {"<=", ">=", "<", ">"},
+            {"+", "-"},
+            {"*", "/", "%"}
+        };
+
+        private final String expression;
+        private int index;
+
+        private Parser(String expression)
+        {
+            this.expression = expression;
+        }
+
+        private PluralExpression parseConditional()
+        {
+            PluralExpression condition = this.parseBinary(0);
+            if (!this.accept("?"))
+            {
+                return condition;
+            }
+
+            PluralExpression then = this.parseConditional();
+            this.expect(":");
+            return new Conditional(condition, then, this.parseConditional());
+        }
+
+        private PluralExpression parseBinary(int level)
+        {
+            if (level == BINARY_OPERATORS.length)
+            {
+                return this.parseUnary();
+            }
+
+            PluralExpression left = this.parseBinary(level + 1);
+            String operator = this.acceptOperator(BINARY_OPERATORS[level]);
+            while (operator != null)
+            {
+                left = new Binary(operator, left, this.parseBinary(level + 1));
+                operator = this.acceptOperator(BINARY_OPERATORS[level]);
+            }
+            return left;
+        }
+
+        private PluralExpression parseUnary()
+        {
+            if (this.accept("!"))
+            {
+                return new Not(this.parseUnary());
+            }
+            if (this.accept("("))
+            {
+                PluralExpression expression = this.parseConditional();
+                this.expect(")");
+                return expression;
+            }
+            if (this.accept("n"))
+            {
+                return new Variable();
+            }
+
+            this.skipWhitespaces();
+            int start = this.index;
+            while (this.index < this.expression.length() && Character.isDigit(this.expression.charAt(this.index)))
+            {
+                this.index++;
+            }
+            if (start == this.index)
+            {
+                throw new IllegalArgumentException("Expected a number at " + start + " in the plural expression '" + this.expression + "'.");
+            }
+            return new Constant(Long.parseLong(this.expression.substring(start, this.index)));
+        }
+
+        private String acceptOperator(String[] operators)
+        {
+            this.skipWhitespaces();
+            for (String operator : operators)
+            {
+                if (this.expression.startsWith(operator, this.index))
+                {
+                    this.index += operator.length();
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private boolean accept(String token)
+        {
+            this.skipWhitespaces();
+            if (this.expression.startsWith(token, this.index) && !(token.equals("!") && this.expression.startsWith("!=", this.index)))
+            {
+                this.index += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token)
+        {
+            if (!this.accept(token))
+            {
+                throw new IllegalArgumentException("Expected '" + token + "' at " + this.index + " in the plural expression '" + this.expression + "'.");
+            }
+        }
+
+        private void skipWhitespaces()
+        {
+            while (this.index < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.index)))
+            {
+                this.index++;
+            }
+        }
+    }
+
+    private static final class Constant extends PluralExpression
+    {
+        private final long value;
+
+        private Constant(long value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        long evaluate(long n)
+        {
+            return this.value;
+        }
+    }
+
+    private static final class Variable extends PluralExpression
+    {
+        @Override
+        long evaluate(long n)
+        {
+            return n;
+        }
+    }
+
+    private static final class Not extends PluralExpression
+    {
+        private final PluralExpression operand;
+
+        private Not(PluralExpression operand)
+        {
+            this.operand = operand;
+        }
+
+        @Override
+        long evaluate(long n)
+        {
+            return this.operand.evaluate(n) == 0 ? 1 : 0;
+        }
+    }
+
+    private static final class Conditional extends PluralExpression
+    {
+        private final PluralExpression condition;
+        private final PluralExpression then;
+        private final PluralExpression otherwise;
+
+        private Conditional(PluralExpression condition, PluralExpression then, PluralExpression otherwise)
+        {
+            this.condition = condition;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        long evaluate(long n)
+        {
+            return this.condition.evaluate(n) != 0 ? this.then.evaluate(n) : this.otherwise.evaluate(n);
+        }
+    }
+
+    private static final class Binary extends PluralExpression
+    {
+        private final String operator;
+        private final PluralExpression left;
+        private final PluralExpression right;
+
+        private Binary(String operator, PluralExpression left, PluralExpression right)
+        {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long evaluate(long n)
+        {
+            long left = this.left.evaluate(n);
+            switch (this.operator)
+            {
+                case "||":
+                    return left != 0 || this.right.evaluate(n) != 0 ? 1 : 0;
+                case "&&":
+                    return left != 0 && this.right.evaluate(n) != 0 ? 1 : 0;
+                default:
+                    break;
+            }
+
+            long right = this.right.evaluate(n);
+            switch (this.operator)
+            {
+                case "==":
+                    return left == right ? 1 : 0;
+                case "!=":
+                    return left != right ? 1 : 0;
+                case "<":
+                    return Long.compareUnsigned(left, right) < 0 ? 1 : 0;
+                case ">":
+                    return Long.compareUnsigned(left, right) > 0 ? 1 : 0;
+                case "<=":
+                    return Long.compareUnsigned(left, right) <= 0 ? 1 : 0;
+                case ">=":
+                    return Long.compareUnsigned(left, right) >= 0 ? 1 : 0;
+                case "+":
+                    return left + right;
+                case "-":
+                    return left - right;
+                case "*":
+                    return left * right;
+                case "/":
+                    return right == 0 ? 0 : Long.divideUnsigned(left, right);
+                default:
+                    return right == 0 ? 0 : Long.remainderUnsigned(left, right);
+            }
+        }
+    }
+}
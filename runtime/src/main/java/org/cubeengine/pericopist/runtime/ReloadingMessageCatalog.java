@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * This class holds the {@link MessageCatalog} of a catalog file and replaces it as soon as a new file appears.
+ * The new catalog is mapped completely before it's swapped in atomically, so a lookup either uses the old or the
+ * new catalog. The old catalog stays valid for the lookups which still use it and is unmapped by the garbage
+ * collector.
+ * </p>
+ *
+ * <p>
+ * The catalog is reloaded by {@link #reload()} or by the watcher thread which is started with {@link #watch()}.
+ * The catalog file has to be replaced atomically like the Pericopist does, by moving the new file to its location.
+ * If the new file can't be loaded, the old catalog is kept.
+ * </p>
+ */
+public final class ReloadingMessageCatalog implements Closeable
+{
+    private static final Logger LOGGER = Logger.getLogger(ReloadingMessageCatalog.class.getName());
+
+    private final Path file;
+    private final Charset charset;
+    private volatile MessageCatalog catalog;
+    private String loadedVersion;
+    private WatchService watchService;
+
+    /**
+     * The constructor loads the catalog
+     *
+     * @param file    the compiled catalog
+     * @param charset the charset of the catalog
+     *
+     * @throws IOException if the catalog couldn't be loaded
+     */
+    public ReloadingMessageCatalog(Path file, Charset charset) throws IOException
+    {
+        this.file = file.toAbsolutePath();
+        this.charset = charset;
+        this.reload();
+    }
+
+    /**
+     * This method returns the current catalog
+     *
+     * @return the catalog
+     */
+    public MessageCatalog getCatalog()
+    {
+        return this.catalog;
+    }
+
+    /**
+     * This method returns the translation of the specified message from the current catalog.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     *
+     * @return the translation
+     *
+     * @see MessageCatalog#translate(String, String)
+     */
+    public String translate(String context, String singular)
+    {
+        return this.catalog.translate(context, singular);
+    }
+
+    /**
+     * This method returns the plural form of the translation of the specified message from the current catalog.
+     *
+     * @param context  the context of the message or null
+     * @param singular the singular of the message
+     * @param plural   the plural of the message
+     * @param n        the number which selects the plural form
+     *
+     * @return the translation
+     *
+     * @see MessageCatalog#translate(String, String, String, long)
+     */
+    public String translate(String context, String singular, String plural, long n)
+    {
+        return this.catalog.translate(context, singular, plural, n);
+    }
+
+    /**
+     * This method loads the catalog file again if it was replaced or modified since it was loaded.
+     *
+     * @return whether a new catalog was loaded
+     *
+     * @throws IOException if the new catalog couldn't be loaded. The old catalog is kept.
+     */
+    public synchronized boolean reload() throws IOException
+    {
+        BasicFileAttributes attributes = Files.readAttributes(this.file, BasicFileAttributes.class);
+        String version = attributes.fileKey() + ":" + attributes.lastModifiedTime() + ":" + attributes.size();
+        if (this.catalog != null && Objects.equals(version, this.loadedVersion))
+        {
+            return false;
+        }
+
+        this.catalog = MessageCatalog.open(this.file, this.charset);
+        this.loadedVersion = version;
+        return true;
+    }
+
+    /**
+     * This method starts a daemon thread which watches the directory of the catalog file and reloads the catalog
+     * when the file is created or modified.
+     *
+     * @throws IOException if the directory couldn't be watched
+     */
+    public synchronized void watch() throws IOException
+    {
+        if (this.watchService != null)
+        {
+            return;
+        }
+
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watchService = watchService;
+
+        Thread thread = new Thread(() -> this.watch(watchService), "Pericopist catalog watcher " + this.file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(WatchService watchService)
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents())
+                {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || this.file.getFileName().equals(event.context());
+                }
+                key.reset();
+
+                if (changed)
+                {
+                    try
+                    {
+                        this.reload();
+                    }
+                    catch (IOException e)
+                    {
+                        LOGGER.log(Level.WARNING, "The catalog '" + this.file + "' couldn't be reloaded. The old catalog is kept.", e);
+                    }
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException e)
+        {
+            // the catalog was closed
+        }
+    }
+
+    /**
+     * This method stops the watcher thread. The current catalog can still be used.
+     *
+     * @throws IOException if the watch service couldn't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (this.watchService != null)
+        {
+            this.watchService.close();
+            this.watchService = null;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class MessageCatalogTest
+{
+    private static final String POLISH_HEADER = "Content-Type: text/plain; charset=UTF-8\n" +
+                                                "Plural-Forms: nplurals=3; plural=(n==1 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2);\n";
+
+    @Test
+    public void testContexts() throws IOException
+    {
+        for (int hashTableSize : new int[]{-1, 0})
+        {
+            MessageCatalog catalog = wrap(createBuilder(StandardCharsets.UTF_8).hashTableSize(hashTableSize), StandardCharsets.UTF_8);
+
+            assertEquals("hallo", catalog.translate(null, "hello"));
+            assertEquals("leerer Kontext", catalog.translate("", "hello"));
+            assertEquals("Menü", catalog.translate("menu", "hello"));
+            assertEquals("hello", catalog.translate("other", "hello"));
+            assertEquals("hello world", catalog.translate(null, "hello world"));
+            assertEquals("hell", catalog.translate(null, "hell"));
+
+            assertTrue(catalog.contains(null, "hello", null));
+            assertTrue(catalog.contains("", "hello", null));
+            assertTrue(catalog.contains("menu", "hello", null));
+            assertFalse(catalog.contains("menu", "hello", "hellos"));
+            assertFalse(catalog.contains("men", "hello", null));
+            assertFalse(catalog.contains(null, "menu", null));
+        }
+    }
+
+    @Test
+    public void testPluralForms() throws IOException
+    {
+        MessageCatalog catalog = wrap(createBuilder(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        long[] numbers = {0, 1, 2, 4, 5, 11, 12, 14, 21, 22, 25, 101, 102, 112, 1000000002};
+        String[] expected = {"plików", "plik", "pliki", "pliki", "plików", "plików", "plików", "plików", "plików", "pliki", "plików", "plików", "pliki", "plików", "pliki"};
+        for (int i = 0; i < numbers.length; i++)
+        {
+            assertEquals("n = " + numbers[i], expected[i], catalog.translate(null, "{0} file", "{0} files", numbers[i]));
+        }
+
+        // the plural has to match as well
+        assertTrue(catalog.contains(null, "{0} file", "{0} files"));
+        assertFalse(catalog.contains(null, "{0} file", null));
+        assertFalse(catalog.contains(null, "{0} file", "{0} other files"));
+        assertEquals("{0} other files", catalog.translate(null, "{0} file", "{0} other files", 2));
+        assertEquals("{0} file", catalog.translate(null, "{0} file", "{0} other files", 1));
+        assertEquals("{0} file", catalog.translate(null, "{0} file"));
+
+        // an empty plural form falls back to the source language, a missing one to the first form
+        assertEquals("Datei", catalog.translate("menu", "file", "files", 1));
+        assertEquals("files", catalog.translate("menu", "file", "files", 2));
+        assertEquals("Datei", catalog.translate("menu", "file", "files", 5));
+    }
+
+    @Test
+    public void testOtherPluralExpressions() throws IOException
+    {
+        String arabic = "Plural-Forms: nplurals=6; plural=n==0 ? 0 : n==1 ? 1 : n==2 ? 2 : n%100>=3 && n%100<=10 ? 3 : n%100>=11 ? 4 : 5;\n";
+        MessageCatalog catalog = wrap(new MoFileBuilder(StandardCharsets.UTF_8).header(arabic).add(null, "day", "days", "0", "1", "2", "few", "many", "other"), StandardCharsets.UTF_8);
+        long[] numbers = {0, 1, 2, 3, 10, 11, 99, 100, 102, 103, 111};
+        String[] expected = {"0", "1", "2", "few", "few", "many", "many", "other", "other", "few", "many"};
+        for (int i = 0; i < numbers.length; i++)
+        {
+            assertEquals("n = " + numbers[i], expected[i], catalog.translate(null, "day", "days", numbers[i]));
+        }
+
+        // a single plural form
+        catalog = wrap(new MoFileBuilder(StandardCharsets.UTF_8).header("plural-forms: nplurals=1; plural=0;\n").add(null, "day", "days", "日"), StandardCharsets.UTF_8);
+        assertEquals("日", catalog.translate(null, "day", "days", 1));
+        assertEquals("日", catalog.translate(null, "day", "days", 7));
+
+        // the germanic plural is used without a header
+        catalog = wrap(new MoFileBuilder(StandardCharsets.UTF_8).add(null, "day", "days", "Tag", "Tage"), StandardCharsets.UTF_8);
+        assertEquals("Tage", catalog.translate(null, "day", "days", 0));
+        assertEquals("Tag", catalog.translate(null, "day", "days", 1));
+        assertEquals("Tage", catalog.translate(null, "day", "days", -1));
+    }
+
+    @Test
+    public void testBinarySearch() throws IOException
+    {
+        // catalogs with a hash table of at most two slots don't have a usable one
+        for (int hashTableSize = 0; hashTableSize <= 2; hashTableSize++)
+        {
+            MessageCatalog catalog = wrap(createBuilder(StandardCharsets.UTF_8).hashTableSize(hashTableSize), StandardCharsets.UTF_8);
+
+            assertEquals("hallo", catalog.translate(null, "hello"));
+            assertEquals("leerer Kontext", catalog.translate("", "hello"));
+            assertEquals("Menü", catalog.translate("menu", "hello"));
+            assertEquals("pliki", catalog.translate(null, "{0} file", "{0} files", 3));
+            assertEquals("a", catalog.translate(null, "a"));
+            assertEquals("zzz", catalog.translate(null, "zzz"));
+            assertEquals("ÿ", catalog.translate(null, "ÿ"));
+        }
+    }
+
+    @Test
+    public void testManyEntries() throws IOException
+    {
+        for (int hashTableSize : new int[]{-1, 0})
+        {
+            MoFileBuilder builder = new MoFileBuilder(StandardCharsets.UTF_8).hashTableSize(hashTableSize);
+            for (int i = 0; i < 2000; i += 2)
+            {
+                builder.add(i % 3 == 0 ? null : "context " + i % 3, "message " + i, "translation " + i);
+            }
+            MessageCatalog catalog = wrap(builder, StandardCharsets.UTF_8);
+            assertEquals(1000, catalog.size());
+
+            for (int i = 0; i < 2000; i++)
+            {
+                String context = i % 3 == 0 ? null : "context " + i % 3;
+                assertEquals(i % 2 == 0 ? "translation " + i : "message " + i, catalog.translate(context, "message " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testUtf8Keys() throws IOException
+    {
+        MoFileBuilder builder = new MoFileBuilder(StandardCharsets.UTF_8)
+            .add(null, "äöü", "two bytes")
+            .add(null, "€ 中文", "three bytes")
+            .add(null, "😀 smile", "surrogate pair")
+            .add("😀", "\ud800 unpaired \udc00", "unpaired surrogates");
+        MessageCatalog catalog = wrap(builder, StandardCharsets.UTF_8);
+
+        assertEquals("two bytes", catalog.translate(null, "äöü"));
+        assertEquals("three bytes", catalog.translate(null, "€ 中文"));
+        assertEquals("surrogate pair", catalog.translate(null, "😀 smile"));
+        assertEquals("unpaired surrogates", catalog.translate("😀", "\ud800 unpaired \udc00"));
+
+        // unpaired surrogates are encoded like String.getBytes does it
+        assertEquals("unpaired surrogates", catalog.translate("😀", "\udbff unpaired \udfff"));
+        assertEquals("\ud83d smile", catalog.translate(null, "\ud83d smile"));
+        assertEquals("😀 smile!", catalog.translate(null, "😀 smile!"));
+
+        // the key buffer grows with long keys
+        char[] chars = new char[1000];
+        Arrays.fill(chars, '中');
+        String longKey = new String(chars);
+        assertEquals("long", wrap(new MoFileBuilder(StandardCharsets.UTF_8).add(null, longKey, "long"), StandardCharsets.UTF_8).translate(null, longKey));
+    }
+
+    @Test
+    public void testUnencodableKeys() throws IOException
+    {
+        String[] keys = {"äpfel", "€uro", "😀 smile", "\ud800 unpaired", "中文", "plain"};
+        for (Charset charset : new Charset[]{StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII})
+        {
+            MoFileBuilder builder = new MoFileBuilder(charset);
+            for (String key : keys)
+            {
+                builder.add(null, key, key + " " + charset.name());
+            }
+            MessageCatalog catalog = wrap(builder, charset);
+
+            // characters which can't be encoded are replaced like String.getBytes does it
+            for (String key : keys)
+            {
+                assertEquals(key + " " + charset.name(), new String((key + " " + charset.name()).getBytes(charset), charset), catalog.translate(null, key));
+            }
+            assertEquals("?uro " + charset.name(), catalog.translate(null, "€uro"));
+        }
+
+        // the replaced characters can't be distinguished
+        MessageCatalog catalog = wrap(new MoFileBuilder(StandardCharsets.ISO_8859_1).add(null, "€", "euro"), StandardCharsets.ISO_8859_1);
+        assertEquals("euro", catalog.translate(null, "?"));
+        assertEquals("euro", catalog.translate(null, "😀"));
+        assertEquals("??", catalog.translate(null, "??"));
+    }
+
+    @Test
+    public void testByteOrder() throws IOException
+    {
+        MessageCatalog catalog = wrap(createBuilder(StandardCharsets.UTF_8).byteOrder(ByteOrder.BIG_ENDIAN), StandardCharsets.UTF_8);
+        assertEquals("Menü", catalog.translate("menu", "hello"));
+        assertEquals("pliki", catalog.translate(null, "{0} file", "{0} files", 22));
+    }
+
+    @Test
+    public void testWrappedBuffer() throws IOException
+    {
+        byte[] bytes = createBuilder(StandardCharsets.UTF_8).build();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 10);
+        buffer.position(10);
+        buffer.put(bytes);
+        buffer.position(10);
+
+        MessageCatalog catalog = MessageCatalog.wrap(buffer, StandardCharsets.UTF_8);
+        assertEquals("hallo", catalog.translate(null, "hello"));
+        assertEquals(10, buffer.position());
+    }
+
+    @Test
+    public void testDamagedCatalogs() throws IOException
+    {
+        byte[] catalog = createBuilder(StandardCharsets.UTF_8).build();
+
+        byte[][] damagedCatalogs = {
+            new byte[0],
+            Arrays.copyOf(catalog, 27),
+            Arrays.copyOf(catalog, 28),
+            Arrays.copyOf(catalog, 60),
+            Arrays.copyOf(catalog, catalog.length - 3),
+            set(catalog, 0, 0x12345678),
+            set(catalog, 8, -1),
+            set(catalog, 8, 1 << 28),
+            set(catalog, 12, catalog.length),
+            set(catalog, 16, -8),
+            set(catalog, 20, 1 << 20),
+            set(catalog, 24, catalog.length - 4),
+            set(catalog, 28, catalog.length),
+            set(catalog, 32, catalog.length + 1),
+            set(catalog, 32, -1)
+        };
+        for (byte[] damagedCatalog : damagedCatalogs)
+        {
+            try
+            {
+                MessageCatalog.wrap(ByteBuffer.wrap(damagedCatalog), StandardCharsets.UTF_8);
+                fail("The catalog is damaged: " + Arrays.toString(Arrays.copyOf(damagedCatalog, Math.min(damagedCatalog.length, 40))));
+            }
+            catch (IOException e)
+            {
+                // expected
+            }
+        }
+
+        try
+        {
+            wrap(new MoFileBuilder(StandardCharsets.UTF_8).header("Plural-Forms: nplurals=2; plural=n >;\n"), StandardCharsets.UTF_8);
+            fail("The plural expression is invalid.");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        try
+        {
+            MessageCatalog.wrap(ByteBuffer.wrap(catalog), StandardCharsets.UTF_16);
+            fail("UTF-16 isn't supported.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private static MoFileBuilder createBuilder(Charset charset)
+    {
+        return new MoFileBuilder(charset)
+            .header(POLISH_HEADER)
+            .add(null, "hello", "hallo")
+            .add("", "hello", "leerer Kontext")
+            .add("menu", "hello", "Menü")
+            .add(null, "hello world!", "Hallo Welt!")
+            .add(null, "{0} file", "{0} files", "plik", "pliki", "plików")
+            .add("menu", "file", "files", "Datei", "");
+    }
+
+    private static MessageCatalog wrap(MoFileBuilder builder, Charset charset) throws IOException
+    {
+        return MessageCatalog.wrap(ByteBuffer.wrap(builder.build()), charset);
+    }
+
+    private static byte[] set(byte[] catalog, int offset, int value)
+    {
+        byte[] copy = catalog.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+}
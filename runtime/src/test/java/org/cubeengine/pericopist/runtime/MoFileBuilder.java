@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class builds compiled gettext catalogs like msgfmt does. The size of the hash table and the byte order
+ * can be changed, so the catalogs of other tools can be simulated.
+ */
+final class MoFileBuilder
+{
+    private final Charset charset;
+    private final List<byte[][]> entries;
+    private int hashTableSize = -1;
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+    MoFileBuilder(Charset charset)
+    {
+        this.charset = charset;
+        this.entries = new ArrayList<>();
+    }
+
+    MoFileBuilder header(String header)
+    {
+        return this.add(null, "", null, header);
+    }
+
+    MoFileBuilder add(String context, String singular, String translation)
+    {
+        return this.add(context, singular, null, translation);
+    }
+
+    MoFileBuilder add(String context, String singular, String plural, String... translations)
+    {
+        String original = context == null ? singular : context + '\u0004' + singular;
+        byte[] hashed = original.getBytes(this.charset);
+        if (plural != null)
+        {
+            original += '\0' + plural;
+        }
+        this.entries.add(new byte[][]{original.getBytes(this.charset), String.join("\0", translations).getBytes(this.charset), hashed});
+        return this;
+    }
+
+    MoFileBuilder hashTableSize(int hashTableSize)
+    {
+        this.hashTableSize = hashTableSize;
+        return this;
+    }
+
+    MoFileBuilder byteOrder(ByteOrder byteOrder)
+    {
+        this.byteOrder = byteOrder;
+        return this;
+    }
+
+    byte[] build()
+    {
+        byte[][][] entries = this.entries.toArray(new byte[0][][]);
+        Arrays.sort(entries, (e1, e2) -> Arrays.compareUnsigned(e1[0], e2[0]));
+
+        int hashTableSize = this.hashTableSize >= 0 ? this.hashTableSize : getHashTableSize(entries.length);
+        int stringOffset = 28 + 16 * entries.length + 4 * hashTableSize;
+        int size = stringOffset;
+        for (byte[][] entry : entries)
+        {
+            size += entry[0].length + entry[1].length + 2;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(this.byteOrder);
+        buffer.putInt(0x950412de).putInt(0).putInt(entries.length);
+        buffer.putInt(28).putInt(28 + 8 * entries.length);
+        buffer.putInt(hashTableSize).putInt(hashTableSize == 0 ? 0 : 28 + 16 * entries.length);
+
+        int offset = stringOffset;
+        for (int column = 0; column < 2; column++)
+        {
+            for (byte[][] entry : entries)
+            {
+                buffer.putInt(entry[column].length).putInt(offset);
+                offset += entry[column].length + 1;
+            }
+        }
+
+        if (hashTableSize > 2)
+        {
+            int[] slots = new int[hashTableSize];
+            for (int i = 0; i < entries.length; i++)
+            {
+                long hash = Integer.toUnsignedLong(hash(entries[i][2]));
+                int index = (int) (hash % hashTableSize);
+                int increment = (int) (1 + hash % (hashTableSize - 2));
+                while (slots[index] != 0)
+                {
+                    index = (index + increment) % hashTableSize;
+                }
+                slots[index] = i + 1;
+            }
+            for (int slot : slots)
+            {
+                buffer.putInt(slot);
+            }
+        }
+        else
+        {
+            // the hash table of a catalog without one may contain anything
+            for (int i = 0; i < hashTableSize; i++)
+            {
+                buffer.putInt(-1);
+            }
+        }
+
+        for (int column = 0; column < 2; column++)
+        {
+            for (byte[][] entry : entries)
+            {
+                buffer.put(entry[column]).put((byte) 0);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static int getHashTableSize(int entryCount)
+    {
+        int size = (entryCount * 4) / 3 | 1;
+        while (!isPrime(size))
+        {
+            size += 2;
+        }
+        return Math.max(size, 3);
+    }
+
+    private static boolean isPrime(int candidate)
+    {
+        int divisor = 3;
+        long square = divisor * divisor;
+        while (square < candidate && candidate % divisor != 0)
+        {
+            divisor++;
+            square += 4 * divisor;
+            divisor++;
+        }
+        return candidate % divisor != 0;
+    }
+
+    private static int hash(byte[] bytes)
+    {
+        int hash = 0;
+        for (byte b : bytes)
+        {
+            hash = (hash << 4) + (b & 0xFF);
+            int g = hash & 0xF0000000;
+            if (g != 0)
+            {
+                hash ^= g >>> 24;
+                hash ^= g;
+            }
+        }
+        return hash;
+    }
+}
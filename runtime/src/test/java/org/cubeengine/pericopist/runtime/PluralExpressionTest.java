@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.util.function.LongUnaryOperator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PluralExpressionTest
+{
+    @Test
+    public void testPluralForms()
+    {
+        // the plural expressions of the gettext manual
+        this.assertExpression("0", n -> 0);
+        this.assertExpression("n != 1", n -> n != 1 ? 1 : 0);
+        this.assertExpression("n>1", n -> n > 1 ? 1 : 0);
+        this.assertExpression("n%10==1 && n%100!=11 ? 0 : n != 0 ? 1 : 2",
+                              n -> n % 10 == 1 && n % 100 != 11 ? 0 : n != 0 ? 1 : 2);
+        this.assertExpression("n==1 ? 0 : n==2 ? 1 : 2", n -> n == 1 ? 0 : n == 2 ? 1 : 2);
+        this.assertExpression("n==1 ? 0 : (n==0 || (n%100 > 0 && n%100 < 20)) ? 1 : 2",
+                              n -> n == 1 ? 0 : n == 0 || n % 100 > 0 && n % 100 < 20 ? 1 : 2);
+        this.assertExpression("n%10==1 && n%100!=11 ? 0 : n%10>=2 && (n%100<10 || n%100>=20) ? 1 : 2",
+                              n -> n % 10 == 1 && n % 100 != 11 ? 0 : n % 10 >= 2 && (n % 100 < 10 || n % 100 >= 20) ? 1 : 2);
+        this.assertExpression("n%10==1 && n%100!=11 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2",
+                              n -> n % 10 == 1 && n % 100 != 11 ? 0 : n % 10 >= 2 && n % 10 <= 4 && (n % 100 < 10 || n % 100 >= 20) ? 1 : 2);
+        this.assertExpression("(n==1) ? 0 : (n>=2 && n<=4) ? 1 : 2", n -> n == 1 ? 0 : n >= 2 && n <= 4 ? 1 : 2);
+        this.assertExpression("n==1 ? 0 : n%10>=2 && n%10<=4 && (n%100<10 || n%100>=20) ? 1 : 2",
+                              n -> n == 1 ? 0 : n % 10 >= 2 && n % 10 <= 4 && (n % 100 < 10 || n % 100 >= 20) ? 1 : 2);
+        this.assertExpression("n%100==1 ? 0 : n%100==2 ? 1 : n%100==3 || n%100==4 ? 2 : 3",
+                              n -> n % 100 == 1 ? 0 : n % 100 == 2 ? 1 : n % 100 == 3 || n % 100 == 4 ? 2 : 3);
+        this.assertExpression("n==0 ? 0 : n==1 ? 1 : n==2 ? 2 : n%100>=3 && n%100<=10 ? 3 : n%100>=11 ? 4 : 5",
+                              n -> n == 0 ? 0 : n == 1 ? 1 : n == 2 ? 2 : n % 100 >= 3 && n % 100 <= 10 ? 3 : n % 100 >= 11 ? 4 : 5);
+    }
+
+    @Test
+    public void testOperators()
+    {
+        this.assertExpression("1 + 2 * 3 - n / 2 % 3", n -> 1 + 2 * 3 - n / 2 % 3);
+        this.assertExpression("(1 + 2) * (3 - n)", n -> (1 + 2) * (3 - n));
+        this.assertExpression("10 - 4 - n", n -> 10 - 4 - n);
+        this.assertExpression("!n", n -> n == 0 ? 1 : 0);
+        this.assertExpression("!!n", n -> n != 0 ? 1 : 0);
+        this.assertExpression("!(n != 1)", n -> n == 1 ? 1 : 0);
+        this.assertExpression("n == 1 != 0", n -> n == 1 ? 1 : 0);
+        this.assertExpression("n < 5 == 1", n -> n < 5 ? 1 : 0);
+        this.assertExpression("n || 0 && 0", n -> n != 0 ? 1 : 0);
+        this.assertExpression("n > 3 ? n > 5 ? 2 : 1 : 0", n -> n > 3 ? n > 5 ? 2 : 1 : 0);
+        this.assertExpression("n + 0 ? 1 : 0", n -> n != 0 ? 1 : 0);
+        this.assertExpression("\tn\n!=\r1 ", n -> n != 1 ? 1 : 0);
+
+        // the operands are unsigned like in gettext
+        assertEquals(0, PluralExpression.parse("n < 1").evaluate(-1));
+        assertEquals(1, PluralExpression.parse("n > 1").evaluate(-1));
+        assertEquals(Long.divideUnsigned(-1, 10), PluralExpression.parse("n / 10").evaluate(-1));
+        assertEquals(Long.remainderUnsigned(-1, 10), PluralExpression.parse("n % 10").evaluate(-1));
+
+        // gettext evaluates a division by zero to zero
+        assertEquals(0, PluralExpression.parse("n / 0").evaluate(5));
+        assertEquals(0, PluralExpression.parse("n % (n - n)").evaluate(5));
+        assertEquals(1, PluralExpression.parse("0 || n / 0 == 0").evaluate(5));
+    }
+
+    @Test
+    public void testGermanic()
+    {
+        this.assertExpression(PluralExpression.GERMANIC, n -> n != 1 ? 1 : 0);
+    }
+
+    @Test
+    public void testInvalidExpressions()
+    {
+        String[] expressions = {"", " ", "n !=", "n != 1;", "(n", "n)", "n ? 1", "n ? 1 :", "x", "n = 1", "n & 1", "n | 1", "-1", "n ! 1", "99999999999999999999"};
+        for (String expression : expressions)
+        {
+            try
+            {
+                PluralExpression.parse(expression);
+                fail("The expression '" + expression + "' is invalid.");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    private void assertExpression(String expression, LongUnaryOperator expected)
+    {
+        this.assertExpression(PluralExpression.parse(expression), expected);
+    }
+
+    private void assertExpression(PluralExpression expression, LongUnaryOperator expected)
+    {
+        for (long n = 0; n <= 1000; n++)
+        {
+            assertEquals("n = " + n, expected.applyAsLong(n), expression.evaluate(n));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ * Copyright © 2013 Cube Island
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cubeengine.pericopist.runtime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ReloadingMessageCatalogTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.directory = this.folder.newFolder("locale").toPath();
+        this.file = this.directory.resolve("messages.mo");
+        this.replace(createCatalog("first"));
+    }
+
+    @Test
+    public void testOpen() throws IOException
+    {
+        MessageCatalog catalog = MessageCatalog.open(this.file, StandardCharsets.UTF_8);
+        assertEquals("first", catalog.translate(null, "hello"));
+        assertEquals("Tage", catalog.translate(null, "day", "days", 2));
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    public void testReloadAfterAtomicMove() throws IOException
+    {
+        try (ReloadingMessageCatalog catalog = new ReloadingMessageCatalog(this.file, StandardCharsets.UTF_8))
+        {
+            assertEquals("first", catalog.translate(null, "hello"));
+            assertFalse(catalog.reload());
+
+            MessageCatalog first = catalog.getCatalog();
+            this.replace(createCatalog("second"));
+            assertTrue(catalog.reload());
+            assertEquals("second", catalog.translate(null, "hello"));
+            assertEquals("Tag", catalog.translate(null, "day", "days", 1));
+            assertFalse(catalog.reload());
+
+            // the old catalog is still usable after its file was replaced
+            assertEquals("first", first.translate(null, "hello"));
+        }
+    }
+
+    @Test
+    public void testFailedReload() throws IOException
+    {
+        try (ReloadingMessageCatalog catalog = new ReloadingMessageCatalog(this.file, StandardCharsets.UTF_8))
+        {
+            this.replace(new byte[]{1, 2, 3});
+            try
+            {
+                catalog.reload();
+                fail("The catalog is damaged.");
+            }
+            catch (IOException e)
+            {
+                // expected
+            }
+            assertEquals("first", catalog.translate(null, "hello"));
+
+            this.replace(createCatalog("third"));
+            assertTrue(catalog.reload());
+            assertEquals("third", catalog.translate(null, "hello"));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testWatch() throws IOException, InterruptedException
+    {
+        ReloadingMessageCatalog catalog = new ReloadingMessageCatalog(this.file, StandardCharsets.UTF_8);
+        try
+        {
+            catalog.watch();
+            catalog.watch();
+
+            // other files of the directory don't matter
+            Files.write(this.directory.resolve("other.mo"), new byte[]{1, 2, 3});
+
+            this.replace(createCatalog("watched"));
+            while (!"watched".equals(catalog.translate(null, "hello")))
+            {
+                Thread.sleep(10);
+            }
+        }
+        finally
+        {
+            catalog.close();
+        }
+
+        // the catalog can be used after it was closed
+        assertEquals("watched", catalog.translate(null, "hello"));
+        catalog.close();
+    }
+
+    private void replace(byte[] bytes) throws IOException
+    {
+        Path temporaryFile = Files.createTempFile(this.directory, "messages", ".tmp");
+        Files.write(temporaryFile, bytes);
+        Files.move(temporaryFile, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static byte[] createCatalog(String translation)
+    {
+        return new MoFileBuilder(StandardCharsets.UTF_8)
+            .add(null, "hello", translation)
+            .add(null, "day", "days", "Tag", "Tage")
+            .build();
+    }
+}